@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.CountingOutputStream;
+import io.airlift.slice.Slice;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.spi.Page;
+import io.trino.spi.TrinoException;
+import io.trino.spi.block.Block;
+import io.trino.spi.connector.ConnectorPageSink;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.type.CharType;
+import io.trino.spi.type.DateType;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.Decimals;
+import io.trino.spi.type.DoubleType;
+import io.trino.spi.type.LongTimestamp;
+import io.trino.spi.type.RealType;
+import io.trino.spi.type.TimestampType;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.VarcharType;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.plugin.db2.DB2BulkLoader.DATA_FILE_SUFFIX;
+import static io.trino.plugin.db2.DB2BulkLoader.LOB_FILE_SUFFIX;
+import static io.trino.plugin.db2.DB2ColumnMappings.formatDate;
+import static io.trino.plugin.db2.DB2ColumnMappings.formatTimestamp;
+import static io.trino.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Stages the rows in a delimited (DEL) file, loaded by {@link DB2BulkLoader} when the write finishes.
+ * CLOB values are staged in a separate file and referenced by a LOB location specifier.
+ */
+public class DB2BulkLoadPageSink
+        implements ConnectorPageSink
+{
+    private final List<Type> columnTypes;
+    private final boolean[] lobColumns;
+    private final Path dataFile;
+    private final Path lobFile;
+    private final Writer dataWriter;
+    private final CountingOutputStream lobOutput;
+    private long rowCount;
+
+    public DB2BulkLoadPageSink(ConnectorSession session, JdbcOutputTableHandle handle, DB2BulkLoader bulkLoader)
+    {
+        this.columnTypes = handle.getColumnTypes();
+        this.lobColumns = new boolean[columnTypes.size()];
+        for (int channel = 0; channel < columnTypes.size(); channel++) {
+            lobColumns[channel] = bulkLoader.isLobColumn(handle, channel);
+        }
+
+        Path directory = bulkLoader.getStagingDirectory(session);
+        String fileName = UUID.randomUUID().toString();
+        this.dataFile = directory.resolve(fileName + DATA_FILE_SUFFIX);
+        this.lobFile = directory.resolve(fileName + LOB_FILE_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            this.dataWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(dataFile), UTF_8));
+            this.lobOutput = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(lobFile)));
+        }
+        catch (IOException e) {
+            throw new TrinoException(JDBC_ERROR, "Failed to create bulk load staging file in " + directory, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> appendPage(Page page)
+    {
+        try {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                    if (channel > 0) {
+                        dataWriter.write(',');
+                    }
+                    Block block = page.getBlock(channel);
+                    // an empty field is NULL
+                    if (!block.isNull(position)) {
+                        appendValue(columnTypes.get(channel), block, position, lobColumns[channel]);
+                    }
+                }
+                dataWriter.write('\n');
+            }
+            rowCount += page.getPositionCount();
+        }
+        catch (IOException e) {
+            throw new TrinoException(JDBC_ERROR, "Failed to write bulk load staging file " + dataFile, e);
+        }
+        return NOT_BLOCKED;
+    }
+
+    private void appendValue(Type type, Block block, int position, boolean lob)
+            throws IOException
+    {
+        if (type instanceof VarcharType || type instanceof CharType) {
+            Slice value = type.getSlice(block, position);
+            if (lob) {
+                long offset = lobOutput.getCount();
+                value.getBytes(0, lobOutput, value.length());
+                // LOB location specifier: file name, offset and length in bytes
+                dataWriter.write(lobFile.getFileName() + "." + offset + "." + value.length() + "/");
+                return;
+            }
+            dataWriter.write(quoted(value.toStringUtf8()));
+        }
+        else if (type instanceof DecimalType) {
+            dataWriter.write(Decimals.readBigDecimal((DecimalType) type, block, position).toPlainString());
+        }
+        else if (type instanceof RealType) {
+            dataWriter.write(Float.toString(intBitsToFloat(toIntExact(type.getLong(block, position)))));
+        }
+        else if (type instanceof DoubleType) {
+            dataWriter.write(Double.toString(type.getDouble(block, position)));
+        }
+        else if (type instanceof DateType) {
+            dataWriter.write(formatDate(type.getLong(block, position)));
+        }
+        else if (type instanceof TimestampType) {
+            TimestampType timestampType = (TimestampType) type;
+            if (timestampType.isShort()) {
+                dataWriter.write(formatTimestamp(type.getLong(block, position), 0, timestampType.getPrecision()));
+            }
+            else {
+                LongTimestamp timestamp = (LongTimestamp) type.getObject(block, position);
+                dataWriter.write(formatTimestamp(timestamp.getEpochMicros(), timestamp.getPicosOfMicro(), timestampType.getPrecision()));
+            }
+        }
+        else {
+            // integer types
+            dataWriter.write(Long.toString(type.getLong(block, position)));
+        }
+    }
+
+    static String quoted(String value)
+    {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public CompletableFuture<Collection<Slice>> finish()
+    {
+        try (Writer dataWriter = this.dataWriter;
+                OutputStream lobOutput = this.lobOutput) {
+            dataWriter.flush();
+            lobOutput.flush();
+        }
+        catch (IOException e) {
+            throw new TrinoException(JDBC_ERROR, "Failed to write bulk load staging file " + dataFile, e);
+        }
+        // the coordinator checks that it sees the staged file before loading it
+        return completedFuture(ImmutableList.of(DB2BulkLoader.stagedFileFragment(dataFile.getFileName().toString(), rowCount)));
+    }
+
+    @Override
+    public void abort()
+    {
+        try {
+            dataWriter.close();
+            lobOutput.close();
+        }
+        catch (IOException e) {
+            // the files are deleted anyway
+        }
+        try {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(lobFile);
+        }
+        catch (IOException e) {
+            throw new TrinoException(JDBC_ERROR, "Failed to delete bulk load staging file " + dataFile, e);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.io.MoreFiles;
+import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.plugin.jdbc.JdbcTypeHandle;
+import io.trino.spi.TrinoException;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.type.BigintType;
+import io.trino.spi.type.CharType;
+import io.trino.spi.type.DateType;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.DoubleType;
+import io.trino.spi.type.IntegerType;
+import io.trino.spi.type.RealType;
+import io.trino.spi.type.SmallintType;
+import io.trino.spi.type.TimestampType;
+import io.trino.spi.type.TinyintType;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.VarcharType;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.plugin.db2.DB2SessionProperties.isBulkLoadEnabled;
+import static io.trino.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static io.trino.spi.StandardErrorCode.CONFIGURATION_INVALID;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Loads the delimited files staged by {@link DB2BulkLoadPageSink}s with the Db2 LOAD utility,
+ * run through SYSPROC.ADMIN_CMD once all page sinks of the query finished. Every page sink reports its data file
+ * and the number of rows staged in it as a fragment, so the files written by the workers that the coordinator cannot
+ * see, and the rows that LOAD did not read, fail the write instead of being lost.
+ */
+public class DB2BulkLoader
+{
+    private static final Logger log = Logger.get(DB2BulkLoader.class);
+
+    static final String DATA_FILE_SUFFIX = ".del";
+    static final String LOB_FILE_SUFFIX = ".lob";
+
+    private final Optional<String> stagingDirectory;
+    private final Optional<String> serverStagingDirectory;
+    private final int varcharMaxLength;
+    private final boolean nonrecoverable;
+
+    @Inject
+    public DB2BulkLoader(DB2Config config)
+    {
+        this.stagingDirectory = Optional.ofNullable(config.getBulkLoadStagingDirectory());
+        this.serverStagingDirectory = Optional.ofNullable(config.getBulkLoadServerStagingDirectory()).or(() -> stagingDirectory);
+        this.varcharMaxLength = config.getVarcharMaxLength();
+        this.nonrecoverable = config.isBulkLoadNonrecoverable();
+    }
+
+    public boolean isEnabled(ConnectorSession session)
+    {
+        return isBulkLoadEnabled(session);
+    }
+
+    /**
+     * Whether the delimited format can represent the values of all the types, the other writes use INSERT statements.
+     */
+    public static boolean isSupported(List<Type> columnTypes)
+    {
+        return columnTypes.stream().allMatch(type ->
+                type instanceof TinyintType ||
+                        type instanceof SmallintType ||
+                        type instanceof IntegerType ||
+                        type instanceof BigintType ||
+                        type instanceof RealType ||
+                        type instanceof DoubleType ||
+                        type instanceof DecimalType ||
+                        type instanceof CharType ||
+                        type instanceof VarcharType ||
+                        type instanceof DateType ||
+                        type instanceof TimestampType);
+    }
+
+    /**
+     * Whether the column is a CLOB, whose values are staged in a separate file and referenced from the delimited file.
+     */
+    public boolean isLobColumn(JdbcOutputTableHandle handle, int channel)
+    {
+        if (handle.getJdbcColumnTypes().isPresent()) {
+            JdbcTypeHandle typeHandle = handle.getJdbcColumnTypes().get().get(channel);
+            return typeHandle.getJdbcType() == Types.CLOB || typeHandle.getJdbcType() == Types.NCLOB;
+        }
+        // see DB2Client.toWriteMapping
+        Type type = handle.getColumnTypes().get(channel);
+        return type instanceof VarcharType &&
+                !((VarcharType) type).isUnbounded() &&
+                ((VarcharType) type).getBoundedLength() > varcharMaxLength;
+    }
+
+    /**
+     * Directory on the Trino nodes where the files of the query are staged.
+     */
+    public Path getStagingDirectory(ConnectorSession session)
+    {
+        return Paths.get(stagingDirectory.orElseThrow(() -> new TrinoException(CONFIGURATION_INVALID, "db2.bulk-load.staging-directory must be set to use bulk load")))
+                .resolve(session.getQueryId());
+    }
+
+    /**
+     * Loads the files listed in the fragments of the page sinks, failing when one of them is missing.
+     */
+    public void load(ConnectorSession session, Connection connection, JdbcOutputTableHandle handle, Collection<Slice> fragments)
+    {
+        Path directory = getStagingDirectory(session);
+        try {
+            List<StagedFile> stagedFiles = fragments.stream()
+                    .map(DB2BulkLoader::parseStagedFile)
+                    .filter(stagedFile -> stagedFile.getRowCount() > 0)
+                    .sorted(Comparator.comparing(StagedFile::getFileName))
+                    .collect(toImmutableList());
+            if (stagedFiles.isEmpty()) {
+                return;
+            }
+            for (StagedFile stagedFile : stagedFiles) {
+                Path file = directory.resolve(stagedFile.getFileName());
+                if (!Files.isRegularFile(file)) {
+                    throw new TrinoException(CONFIGURATION_INVALID, format("Bulk load staging file %s is not visible on the coordinator, db2.bulk-load.staging-directory must be shared by all Trino nodes", file));
+                }
+            }
+            List<String> dataFiles = stagedFiles.stream()
+                    .map(StagedFile::getFileName)
+                    .collect(toImmutableList());
+            long stagedRows = stagedFiles.stream()
+                    .mapToLong(StagedFile::getRowCount)
+                    .sum();
+            String serverDirectory = serverStagingDirectory.orElseThrow() + "/" + session.getQueryId() + "/";
+            String table = quotedTableName(handle);
+            OptionalLong loadedRows;
+            try {
+                loadedRows = executeAdminCommand(connection, loadCommand(serverDirectory, dataFiles, table, handle.getColumnNames(), nonrecoverable));
+            }
+            catch (SQLException e) {
+                // LOAD is not transactional, TERMINATE brings the table back to its state before the LOAD
+                try {
+                    executeAdminCommand(connection, terminateCommand(serverDirectory, dataFiles, table));
+                }
+                catch (SQLException terminateException) {
+                    e.addSuppressed(terminateException);
+                }
+                throw new TrinoException(JDBC_ERROR, format("Failed to load data into %s: %s", table, e.getMessage()), e);
+            }
+            if (loadedRows.isPresent() && loadedRows.getAsLong() != stagedRows) {
+                throw new TrinoException(JDBC_ERROR, format("LOAD read %s rows into %s instead of the %s rows staged, db2.bulk-load.server-staging-directory must be the same directory on the Db2 server", loadedRows.getAsLong(), table, stagedRows));
+            }
+        }
+        finally {
+            deleteStagingDirectory(directory);
+        }
+    }
+
+    /**
+     * Returns the fragment of a page sink that staged {@code rowCount} rows in the data file.
+     */
+    public static Slice stagedFileFragment(String fileName, long rowCount)
+    {
+        Slice name = utf8Slice(fileName);
+        SliceOutput output = new DynamicSliceOutput(SIZE_OF_LONG + name.length());
+        output.writeLong(rowCount);
+        output.writeBytes(name);
+        return output.slice();
+    }
+
+    static StagedFile parseStagedFile(Slice fragment)
+    {
+        return new StagedFile(fragment.slice(SIZE_OF_LONG, fragment.length() - SIZE_OF_LONG).toStringUtf8(), fragment.getLong(0));
+    }
+
+    public void deleteStagingDirectory(Path directory)
+    {
+        try {
+            if (Files.exists(directory)) {
+                MoreFiles.deleteRecursively(directory, ALLOW_INSECURE);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete bulk load staging directory %s", directory);
+        }
+    }
+
+    static String loadCommand(String serverDirectory, List<String> dataFiles, String table, List<String> columnNames, boolean nonrecoverable)
+    {
+        // WARNINGCOUNT 1 stops the LOAD at the first rejected row instead of skipping it
+        // NONRECOVERABLE keeps the table space out of backup pending state, but the table cannot be rolled forward
+        return format(
+                "LOAD FROM %s OF DEL LOBS FROM %s MODIFIED BY CODEPAGE=1208 DELPRIORITYCHAR LOBSINFILE WARNINGCOUNT 1 MESSAGES ON SERVER INSERT INTO %s (%s)%s",
+                dataFiles.stream()
+                        .map(fileName -> serverDirectory + fileName)
+                        .collect(joining(", ")),
+                serverDirectory,
+                table,
+                columnNames.stream()
+                        .map(DB2BulkLoader::quoted)
+                        .collect(joining(", ")),
+                nonrecoverable ? " NONRECOVERABLE" : "");
+    }
+
+    static String terminateCommand(String serverDirectory, List<String> dataFiles, String table)
+    {
+        return format(
+                "LOAD FROM %s OF DEL TERMINATE INTO %s",
+                dataFiles.stream()
+                        .map(fileName -> serverDirectory + fileName)
+                        .collect(joining(", ")),
+                table);
+    }
+
+    /**
+     * Returns the number of rows loaded, when the command reports it.
+     */
+    private static OptionalLong executeAdminCommand(Connection connection, String command)
+            throws SQLException
+    {
+        try (CallableStatement statement = connection.prepareCall("CALL SYSPROC.ADMIN_CMD(?)")) {
+            statement.setString(1, command);
+            statement.execute();
+            try (ResultSet resultSet = statement.getResultSet()) {
+                if (resultSet != null && resultSet.next()) {
+                    long rejectedRows = resultSet.getLong("ROWS_REJECTED");
+                    if (rejectedRows > 0) {
+                        throw new SQLException(format("LOAD rejected %s rows, messages can be retrieved with: %s", rejectedRows, resultSet.getString("MSG_RETRIEVAL")));
+                    }
+                    return OptionalLong.of(resultSet.getLong("ROWS_LOADED"));
+                }
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    private static String quotedTableName(JdbcOutputTableHandle handle)
+    {
+        return Stream.of(Optional.ofNullable(handle.getSchemaName()), Optional.of(handle.getTemporaryTableName()))
+                .flatMap(Optional::stream)
+                .map(DB2BulkLoader::quoted)
+                .collect(joining("."));
+    }
+
+    private static String quoted(String name)
+    {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    static class StagedFile
+    {
+        private final String fileName;
+        private final long rowCount;
+
+        StagedFile(String fileName, long rowCount)
+        {
+            this.fileName = requireNonNull(fileName, "fileName is null");
+            this.rowCount = rowCount;
+        }
+
+        String getFileName()
+        {
+            return fileName;
+        }
+
+        long getRowCount()
+        {
+            return rowCount;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.trino.plugin.jdbc.JdbcSplit;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Split of a table scan cached by {@link DB2ScanCache}, tagged with the version of the table on the coordinator.
+ */
+public class DB2CachedScanSplit
+        extends JdbcSplit
+{
+    private final String cacheVersion;
+
+    @JsonCreator
+    public DB2CachedScanSplit(
+            @JsonProperty("additionalPredicate") Optional<String> additionalPredicate,
+            @JsonProperty("cacheVersion") String cacheVersion)
+    {
+        super(additionalPredicate);
+        this.cacheVersion = requireNonNull(cacheVersion, "cacheVersion is null");
+    }
+
+    @JsonProperty
+    public String getCacheVersion()
+    {
+        return cacheVersion;
+    }
+}
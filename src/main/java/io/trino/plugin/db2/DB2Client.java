@@ -13,25 +13,57 @@
  */
 package io.trino.plugin.db2;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import io.trino.plugin.base.aggregation.AggregateFunctionRewriter;
+import io.trino.plugin.base.aggregation.AggregateFunctionRule;
+import io.trino.plugin.base.expression.ConnectorExpressionRewriter;
 import io.trino.plugin.jdbc.BaseJdbcClient;
 import io.trino.plugin.jdbc.BaseJdbcConfig;
 import io.trino.plugin.jdbc.ColumnMapping;
 import io.trino.plugin.jdbc.ConnectionFactory;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcExpression;
+import io.trino.plugin.jdbc.JdbcJoinCondition;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.plugin.jdbc.JdbcQueryRelationHandle;
+import io.trino.plugin.jdbc.JdbcSortItem;
 import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcTableHandle;
 import io.trino.plugin.jdbc.JdbcTypeHandle;
-import io.trino.plugin.jdbc.LongReadFunction;
-import io.trino.plugin.jdbc.ObjectReadFunction;
-import io.trino.plugin.jdbc.ObjectWriteFunction;
+import io.trino.plugin.jdbc.PreparedQuery;
 import io.trino.plugin.jdbc.QueryBuilder;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.plugin.jdbc.TopNFunction;
 import io.trino.plugin.jdbc.WriteMapping;
+import io.trino.plugin.jdbc.aggregation.ImplementAvgFloatingPoint;
+import io.trino.plugin.jdbc.aggregation.ImplementMinMax;
+import io.trino.plugin.jdbc.aggregation.ImplementStddevSamp;
+import io.trino.plugin.jdbc.aggregation.ImplementSum;
+import io.trino.plugin.jdbc.aggregation.ImplementVarianceSamp;
+import io.trino.plugin.jdbc.expression.JdbcConnectorExpressionRewriterBuilder;
 import io.trino.plugin.jdbc.mapping.IdentifierMapping;
 import io.trino.spi.TrinoException;
+import io.trino.spi.connector.AggregateFunction;
+import io.trino.spi.connector.ColumnHandle;
 import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorSplitSource;
+import io.trino.spi.connector.FixedSplitSource;
+import io.trino.spi.connector.JoinCondition;
+import io.trino.spi.connector.JoinStatistics;
+import io.trino.spi.connector.JoinType;
+import io.trino.spi.connector.SampleType;
 import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.expression.ConnectorExpression;
+import io.trino.spi.expression.Variable;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.statistics.TableStatistics;
 import io.trino.spi.type.CharType;
 import io.trino.spi.type.DecimalType;
 import io.trino.spi.type.Decimals;
-import io.trino.spi.type.LongTimestamp;
 import io.trino.spi.type.TimestampType;
 import io.trino.spi.type.Type;
 import io.trino.spi.type.TypeManager;
@@ -39,29 +71,54 @@ import io.trino.spi.type.VarcharType;
 
 import javax.inject.Inject;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Timestamp;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
+import static io.trino.plugin.db2.DB2ColumnMappings.dateColumnMapping;
+import static io.trino.plugin.db2.DB2ColumnMappings.dateWriteFunction;
+import static io.trino.plugin.db2.DB2ColumnMappings.longTimestampWriteFunction;
+import static io.trino.plugin.db2.DB2ColumnMappings.shortDecimalColumnMapping;
+import static io.trino.plugin.db2.DB2ColumnMappings.timeColumnMapping;
+import static io.trino.plugin.db2.DB2ColumnMappings.timestampWriteFunction;
+import static io.trino.plugin.db2.DB2FetchSize.getFetchSize;
+import static io.trino.plugin.db2.DB2LobColumnMappings.blobColumnMapping;
+import static io.trino.plugin.db2.DB2LobColumnMappings.clobColumnMapping;
+import static io.trino.plugin.db2.DB2LobColumnMappings.isLob;
+import static io.trino.plugin.db2.DB2MaterializedQueryTableCache.loadMaterializedQueryTables;
+import static io.trino.plugin.db2.DB2SessionProperties.getDeleteChunkSize;
+import static io.trino.plugin.db2.DB2SessionProperties.getMqtRoutingMaxStaleness;
+import static io.trino.plugin.db2.DB2SessionProperties.getReadIsolation;
+import static io.trino.plugin.db2.DB2SessionProperties.isTableSamplePushdownEnabled;
+import static io.trino.plugin.db2.ImplementDB2PopulationAggregation.implementStddevPop;
+import static io.trino.plugin.db2.ImplementDB2PopulationAggregation.implementVariancePop;
 import static io.trino.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static io.trino.plugin.jdbc.JdbcJoinPushdownUtil.implementJoinCostAware;
+import static io.trino.plugin.jdbc.PredicatePushdownController.FULL_PUSHDOWN;
 import static io.trino.plugin.jdbc.StandardColumnMappings.bigintColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.bigintWriteFunction;
 import static io.trino.plugin.jdbc.StandardColumnMappings.booleanColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.booleanWriteFunction;
 import static io.trino.plugin.jdbc.StandardColumnMappings.charWriteFunction;
-import static io.trino.plugin.jdbc.StandardColumnMappings.dateColumnMappingUsingSqlDate;
-import static io.trino.plugin.jdbc.StandardColumnMappings.dateWriteFunctionUsingSqlDate;
 import static io.trino.plugin.jdbc.StandardColumnMappings.decimalColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.defaultCharColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.defaultVarcharColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.doubleColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.doubleWriteFunction;
-import static io.trino.plugin.jdbc.StandardColumnMappings.fromLongTrinoTimestamp;
 import static io.trino.plugin.jdbc.StandardColumnMappings.integerColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.integerWriteFunction;
 import static io.trino.plugin.jdbc.StandardColumnMappings.longDecimalWriteFunction;
@@ -70,13 +127,8 @@ import static io.trino.plugin.jdbc.StandardColumnMappings.realWriteFunction;
 import static io.trino.plugin.jdbc.StandardColumnMappings.shortDecimalWriteFunction;
 import static io.trino.plugin.jdbc.StandardColumnMappings.smallintColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.smallintWriteFunction;
-import static io.trino.plugin.jdbc.StandardColumnMappings.timeColumnMappingUsingSqlTime;
-import static io.trino.plugin.jdbc.StandardColumnMappings.timestampWriteFunction;
-import static io.trino.plugin.jdbc.StandardColumnMappings.timestampWriteFunctionUsingSqlTimestamp;
 import static io.trino.plugin.jdbc.StandardColumnMappings.tinyintColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.tinyintWriteFunction;
-import static io.trino.plugin.jdbc.StandardColumnMappings.toLongTrinoTimestamp;
-import static io.trino.plugin.jdbc.StandardColumnMappings.toTrinoTimestamp;
 import static io.trino.plugin.jdbc.StandardColumnMappings.varbinaryColumnMapping;
 import static io.trino.plugin.jdbc.StandardColumnMappings.varbinaryWriteFunction;
 import static io.trino.plugin.jdbc.StandardColumnMappings.varcharColumnMapping;
@@ -99,16 +151,31 @@ import static io.trino.spi.type.VarcharType.createUnboundedVarcharType;
 import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 
 public class DB2Client
         extends BaseJdbcClient
 {
     private final int varcharMaxLength;
+    private final DataSize lobMaxValueSize;
+    private final QueryBuilder queryBuilder;
+    private final IdentifierMapping identifierMapping;
+    private final DB2ReadRoutingConnectionFactory readConnectionFactory;
+    private final DB2SplitPlanner splitPlanner;
+    private final DB2StatisticsProvider statisticsProvider;
+    private final DB2ExplainStatisticsProvider explainStatisticsProvider;
+    private final DB2BulkLoader bulkLoader;
+    private final boolean mqtRoutingEnabled;
+    private final DB2MaterializedQueryTableCache materializedQueryTableCache;
+    private final ConnectorExpressionRewriter<String> connectorExpressionRewriter;
+    private final AggregateFunctionRewriter<JdbcExpression, String> aggregateFunctionRewriter;
     private static final int DB2_MAX_SUPPORTED_TIMESTAMP_PRECISION = 12;
     // java.util.LocalDateTime supports up to nanosecond precision
     private static final int MAX_LOCAL_DATE_TIME_PRECISION = 9;
     private static final String VARCHAR_FORMAT = "VARCHAR(%d)";
+    // types Db2 compares the way Trino does, textual types are left out, see isTextual
+    private static final Set<String> COMPARABLE_TYPES = ImmutableSet.of("tinyint", "smallint", "integer", "bigint", "decimal", "real", "double", "date");
 
     @Inject
     public DB2Client(
@@ -117,11 +184,78 @@ public class DB2Client
             ConnectionFactory connectionFactory,
             QueryBuilder queryBuilder,
             TypeManager typeManager,
-            IdentifierMapping identifierMapping)
+            IdentifierMapping identifierMapping,
+            DB2SplitPlanner splitPlanner,
+            DB2StatisticsProvider statisticsProvider,
+            DB2ExplainStatisticsProvider explainStatisticsProvider,
+            DB2BulkLoader bulkLoader,
+            DB2ReadRoutingConnectionFactory readConnectionFactory,
+            DB2MaterializedQueryTableCache materializedQueryTableCache)
             throws SQLException
     {
         super(config, "\"", connectionFactory, queryBuilder, identifierMapping);
         this.varcharMaxLength = db2config.getVarcharMaxLength();
+        this.lobMaxValueSize = db2config.getLobMaxValueSize();
+        this.queryBuilder = requireNonNull(queryBuilder, "queryBuilder is null");
+        this.identifierMapping = requireNonNull(identifierMapping, "identifierMapping is null");
+        this.splitPlanner = requireNonNull(splitPlanner, "splitPlanner is null");
+        this.statisticsProvider = requireNonNull(statisticsProvider, "statisticsProvider is null");
+        this.explainStatisticsProvider = requireNonNull(explainStatisticsProvider, "explainStatisticsProvider is null");
+        this.bulkLoader = requireNonNull(bulkLoader, "bulkLoader is null");
+        this.readConnectionFactory = requireNonNull(readConnectionFactory, "readConnectionFactory is null");
+        this.mqtRoutingEnabled = db2config.isMqtRoutingEnabled();
+        this.materializedQueryTableCache = requireNonNull(materializedQueryTableCache, "materializedQueryTableCache is null");
+
+        this.connectorExpressionRewriter = JdbcConnectorExpressionRewriterBuilder.newBuilder()
+                .addStandardRules(this::quoted)
+                .add(new RewriteComparableIn(type -> COMPARABLE_TYPES.contains(type.getBaseName())))
+                .add(new RewriteSubstring())
+                .withTypeClass("comparable_type", COMPARABLE_TYPES)
+                // Db2 widens SMALLINT arithmetic to INTEGER, which would not overflow where Trino does
+                .withTypeClass("integer_type", ImmutableSet.of("integer", "bigint"))
+                .map("$equal(left: comparable_type, right: comparable_type)").to("left = right")
+                .map("$not_equal(left: comparable_type, right: comparable_type)").to("left <> right")
+                .map("$less_than(left: comparable_type, right: comparable_type)").to("left < right")
+                .map("$less_than_or_equal(left: comparable_type, right: comparable_type)").to("left <= right")
+                .map("$greater_than(left: comparable_type, right: comparable_type)").to("left > right")
+                .map("$greater_than_or_equal(left: comparable_type, right: comparable_type)").to("left >= right")
+                // IS DISTINCT FROM is not available before Db2 11.1
+                .map("$is_distinct_from(left: comparable_type, right: comparable_type)").to("CASE WHEN left = right OR (left IS NULL AND right IS NULL) THEN 0 ELSE 1 END = 1")
+                .map("$add(left: integer_type, right: integer_type)").to("left + right")
+                .map("$subtract(left: integer_type, right: integer_type)").to("left - right")
+                .map("$multiply(left: integer_type, right: integer_type)").to("left * right")
+                .map("$divide(left: integer_type, right: integer_type)").to("left / right")
+                .map("$modulus(left: integer_type, right: integer_type)").to("MOD(left, right)")
+                .map("$negate(value: integer_type)").to("-value")
+                .map("$like(value: varchar, pattern: varchar): boolean").to("value LIKE pattern")
+                .map("$like(value: varchar, pattern: varchar, escape: varchar(1)): boolean").to("value LIKE pattern ESCAPE escape")
+                .map("lower(value: varchar)").to("LOWER(value)")
+                .map("upper(value: varchar)").to("UPPER(value)")
+                .map("$not($is_null(value))").to("value IS NOT NULL")
+                .map("$not(value: boolean)").to("NOT value")
+                .map("$is_null(value)").to("value IS NULL")
+                .map("$nullif(first: comparable_type, second: comparable_type)").to("NULLIF(first, second)")
+                .build();
+
+        JdbcTypeHandle bigintTypeHandle = new JdbcTypeHandle(Types.BIGINT, Optional.of("BIGINT"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        JdbcTypeHandle doubleTypeHandle = new JdbcTypeHandle(Types.DOUBLE, Optional.of("DOUBLE"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        this.aggregateFunctionRewriter = new AggregateFunctionRewriter<>(
+                this.connectorExpressionRewriter,
+                ImmutableSet.<AggregateFunctionRule<JdbcExpression, String>>builder()
+                        .add(new ImplementDB2CountAll(bigintTypeHandle))
+                        .add(new ImplementDB2Count(bigintTypeHandle))
+                        .add(new ImplementDB2CountDistinct(bigintTypeHandle))
+                        .add(new ImplementMinMax(false))
+                        .add(new ImplementDB2SumInteger(bigintTypeHandle))
+                        .add(new ImplementSum(DB2Client::toTypeHandle))
+                        .add(new ImplementAvgFloatingPoint())
+                        .add(new ImplementDB2AvgDecimal())
+                        .add(new ImplementDB2AvgBigint())
+                        .add(new ImplementStddevSamp())
+                        .add(implementStddevPop(doubleTypeHandle))
+                        .add(new ImplementVarianceSamp())
+                        .add(implementVariancePop(doubleTypeHandle))
+                        .build());
 
         // http://stackoverflow.com/questions/16910791/getting-error-code-4220-with-null-sql-state
         System.setProperty("db2.jcc.charsetDecoderEncoder", "3");
@@ -131,17 +265,369 @@ public class DB2Client
     public Connection getConnection(ConnectorSession session, JdbcSplit split)
             throws SQLException
     {
-        Connection connection = super.getConnection(session, split);
+        // table scans read from the read endpoints when configured
+        return readConnectionFactory.openConnection(session);
+    }
+
+    @Override
+    public PreparedStatement buildSql(ConnectorSession session, Connection connection, JdbcSplit split, JdbcTableHandle table, List<JdbcColumnHandle> columns)
+            throws SQLException
+    {
+        // the isolation clause of the statement takes precedence over the isolation level of the connection,
+        // which saves setting it on every connection
+        PreparedQuery preparedQuery = prepareQuery(session, connection, table, Optional.empty(), columns, ImmutableMap.of(), Optional.of(split))
+                .transformQuery(sql -> sql + " WITH " + getReadIsolation(session));
+        if (mqtRoutingEnabled) {
+            // set before the statement is compiled by Db2, on every scan, as the connection may have been used by
+            // a routed scan of the same query before, and the connection pool restores the register on release only
+            String refreshAge = isRoutableToMaterializedQueryTables(session, connection, table) ? "ANY" : "0";
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET CURRENT REFRESH AGE " + refreshAge);
+            }
+        }
+        PreparedStatement statement = queryBuilder.prepareStatement(this, session, connection, preparedQuery);
+        // fewer round trips for narrow rows, bounded blocks for wide rows
+        statement.setFetchSize(getFetchSize(session, columns));
+        return statement;
+    }
+
+    private boolean isRoutableToMaterializedQueryTables(ConnectorSession session, Connection connection, JdbcTableHandle table)
+            throws SQLException
+    {
+        Set<SchemaTableName> tables = table.getAllReferencedTables().orElse(Set.of());
+        return materializedQueryTableCache.isRoutable(tables, getMqtRoutingMaxStaleness(session), name -> {
+            RemoteTableName remoteTableName;
+            if (table.isNamedRelation() && table.getRequiredNamedRelation().getSchemaTableName().equals(name)) {
+                remoteTableName = table.getRequiredNamedRelation().getRemoteTableName();
+            }
+            else {
+                // the tables read by pushed down aggregations and joins, resolved with the connection of the split, as
+                // another connection could wait on the pool for as long as the split holds its own
+                String remoteSchema = identifierMapping.toRemoteSchemaName(session.getIdentity(), connection, name.getSchemaName());
+                String remoteTable = identifierMapping.toRemoteTableName(session.getIdentity(), connection, remoteSchema, name.getTableName());
+                remoteTableName = new RemoteTableName(Optional.empty(), Optional.of(remoteSchema), remoteTable);
+            }
+            return loadMaterializedQueryTables(connection, remoteTableName);
+        });
+    }
+
+    @Override
+    public OptionalLong delete(ConnectorSession session, JdbcTableHandle handle)
+    {
+        int chunkSize = getDeleteChunkSize(session);
+        if (chunkSize == 0) {
+            return super.delete(session, handle);
+        }
+        checkArgument(handle.isNamedRelation(), "Unable to delete from synthetic table: %s", handle);
+        checkArgument(handle.getLimit().isEmpty(), "Unable to delete when limit is set: %s", handle);
+        checkArgument(handle.getSortOrder().isEmpty(), "Unable to delete when sort order is set: %s", handle);
+        // deleting from a fullselect limited to the chunk size, each statement committed on its own, bounds the
+        // log space held by a single transaction, at the cost of the delete not being atomic
+        try (Connection connection = connectionFactory.openConnection(session)) {
+            verify(connection.getAutoCommit(), "Chunked delete requires auto commit");
+            PreparedQuery preparedQuery = prepareQuery(session, connection, handle, Optional.empty(), List.of(), ImmutableMap.of(), Optional.empty())
+                    .transformQuery(sql -> format("DELETE FROM (%s FETCH FIRST %s ROWS ONLY)", sql, chunkSize));
+            try (PreparedStatement statement = queryBuilder.prepareStatement(this, session, connection, preparedQuery)) {
+                long deletedRows = 0;
+                while (true) {
+                    int chunkRows = statement.executeUpdate();
+                    deletedRows += chunkRows;
+                    if (chunkRows < chunkSize) {
+                        return OptionalLong.of(deletedRows);
+                    }
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new TrinoException(JDBC_ERROR, e);
+        }
+    }
+
+    /**
+     * Samples a table scan in Db2, with {@code TABLESAMPLE SYSTEM} reading a sample of the pages of the table and
+     * {@code TABLESAMPLE BERNOULLI} a sample of its rows, as the sample types of Trino do. The clause follows the table
+     * name, so only scans of base tables and materialized query tables without pushed down operations are sampled.
+     */
+    public Optional<JdbcTableHandle> sampleTable(ConnectorSession session, JdbcTableHandle handle, List<JdbcColumnHandle> columns, SampleType sampleType, double sampleRatio)
+    {
+        if (!isTableSamplePushdownEnabled(session) ||
+                !handle.isNamedRelation() ||
+                !handle.getConstraint().isAll() ||
+                !handle.getConstraintExpressions().isEmpty() ||
+                handle.getLimit().isPresent() ||
+                handle.getSortOrder().isPresent() ||
+                sampleRatio <= 0 ||
+                sampleRatio > 1) {
+            return Optional.empty();
+        }
+        try (Connection connection = connectionFactory.openConnection(session)) {
+            if (!isSampleable(connection, handle.getRequiredNamedRelation().getRemoteTableName())) {
+                return Optional.empty();
+            }
+            PreparedQuery preparedQuery = prepareQuery(session, connection, handle, Optional.empty(), columns, ImmutableMap.of(), Optional.empty())
+                    .transformQuery(sql -> sql + " " + tableSampleClause(sampleType, sampleRatio));
+            return Optional.of(new JdbcTableHandle(
+                    new JdbcQueryRelationHandle(preparedQuery),
+                    TupleDomain.all(),
+                    ImmutableList.of(),
+                    Optional.empty(),
+                    OptionalLong.empty(),
+                    Optional.of(columns),
+                    handle.getAllReferencedTables(),
+                    handle.getNextSyntheticColumnId()));
+        }
+        catch (SQLException e) {
+            throw new TrinoException(JDBC_ERROR, e);
+        }
+    }
+
+    static String tableSampleClause(SampleType sampleType, double sampleRatio)
+    {
+        // Db2 takes the percentage of the pages or rows to sample
+        String percentage = BigDecimal.valueOf(sampleRatio).movePointRight(2).stripTrailingZeros().toPlainString();
+        switch (sampleType) {
+            case SYSTEM:
+                return "TABLESAMPLE SYSTEM(" + percentage + ")";
+            case BERNOULLI:
+                return "TABLESAMPLE BERNOULLI(" + percentage + ")";
+        }
+        throw new IllegalArgumentException("Unsupported sample type: " + sampleType);
+    }
+
+    private static boolean isSampleable(Connection connection, RemoteTableName table)
+            throws SQLException
+    {
+        // views and nicknames cannot be sampled
+        try (PreparedStatement statement = connection.prepareStatement("SELECT TYPE FROM SYSCAT.TABLES WHERE TABSCHEMA = ? AND TABNAME = ?")) {
+            statement.setString(1, table.getSchemaName().orElseThrow());
+            statement.setString(2, table.getTableName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                String type = resultSet.getString(1);
+                return type.equals("T") || type.equals("S");
+            }
+        }
+    }
+
+    @Override
+    public Optional<String> convertPredicate(ConnectorSession session, ConnectorExpression expression, Map<String, ColumnHandle> assignments)
+    {
+        return connectorExpressionRewriter.rewrite(session, expression, assignments);
+    }
+
+    @Override
+    public boolean supportsAggregationPushdown(ConnectorSession session, JdbcTableHandle table, List<AggregateFunction> aggregates, Map<String, ColumnHandle> assignments, List<List<ColumnHandle>> groupingSets)
+    {
+        // Db2 does not group by LOB values
+        if (groupingSets.stream().flatMap(List::stream).anyMatch(DB2Client::isLobColumn)) {
+            return false;
+        }
+        // textual values could be grouped differently, see isTextual
+        return preventTextualTypeAggregationPushdown(groupingSets);
+    }
+
+    @Override
+    public Optional<JdbcExpression> implementAggregation(ConnectorSession session, AggregateFunction aggregate, Map<String, ColumnHandle> assignments)
+    {
+        // Db2 does not aggregate LOB values, except with COUNT
+        boolean lobArguments = aggregate.getArguments().stream()
+                .filter(Variable.class::isInstance)
+                .map(argument -> assignments.get(((Variable) argument).getName()))
+                .anyMatch(DB2Client::isLobColumn);
+        if (lobArguments && !(aggregate.getFunctionName().equals("count") && !aggregate.isDistinct())) {
+            return Optional.empty();
+        }
+        return aggregateFunctionRewriter.rewrite(session, aggregate, assignments);
+    }
+
+    private static boolean isLobColumn(ColumnHandle column)
+    {
+        return isLob(((JdbcColumnHandle) column).getJdbcTypeHandle());
+    }
+
+    /**
+     * Db2 compares character strings padded with blanks, so {@code 'a'} equals {@code 'a '}, where Trino compares
+     * VARCHAR values as they are. Comparisons, grouping, sorting and distinct counts of textual values are
+     * therefore not pushed down.
+     */
+    static boolean isTextual(Type type)
+    {
+        return type instanceof CharType || type instanceof VarcharType;
+    }
+
+    private static Optional<JdbcTypeHandle> toTypeHandle(DecimalType decimalType)
+    {
+        return Optional.of(new JdbcTypeHandle(Types.DECIMAL, Optional.of("DECIMAL"), Optional.of(decimalType.getPrecision()), Optional.of(decimalType.getScale()), Optional.empty(), Optional.empty()));
+    }
+
+    @Override
+    protected Optional<BiFunction<String, Long, String>> limitFunction()
+    {
+        return Optional.of((sql, limit) -> sql + " FETCH FIRST " + limit + " ROWS ONLY");
+    }
+
+    @Override
+    public boolean isLimitGuaranteed(ConnectorSession session)
+    {
+        return true;
+    }
+
+    @Override
+    public boolean supportsTopN(ConnectorSession session, JdbcTableHandle handle, List<JdbcSortItem> sortOrder)
+    {
+        for (JdbcSortItem sortItem : sortOrder) {
+            if (isLob(sortItem.getColumn().getJdbcTypeHandle())) {
+                // Db2 does not sort LOB values
+                return false;
+            }
+            if (isTextual(sortItem.getColumn().getColumnType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected Optional<TopNFunction> topNFunction()
+    {
+        return Optional.of((query, sortItems, limit) -> {
+            String orderBy = sortItems.stream()
+                    .map(this::toOrderByItem)
+                    .collect(joining(", "));
+            return format("%s ORDER BY %s FETCH FIRST %s ROWS ONLY", query, orderBy, limit);
+        });
+    }
+
+    private String toOrderByItem(JdbcSortItem sortItem)
+    {
+        String column = quoted(sortItem.getColumn().getColumnName());
+        boolean ascending = sortItem.getSortOrder().isAscending();
+        boolean nullsFirst = sortItem.getSortOrder().isNullsFirst();
+        String ordering = column + (ascending ? " ASC" : " DESC");
+        // Db2 sorts nulls as the highest value: last in ascending and first in descending order
+        if (ascending == nullsFirst) {
+            return format("CASE WHEN %s IS NULL THEN %s ELSE %s END, %s", column, nullsFirst ? 0 : 1, nullsFirst ? 1 : 0, ordering);
+        }
+        return ordering;
+    }
+
+    @Override
+    public boolean isTopNGuaranteed(ConnectorSession session)
+    {
+        return true;
+    }
+
+    @Override
+    public Optional<PreparedQuery> implementJoin(
+            ConnectorSession session,
+            JoinType joinType,
+            PreparedQuery leftSource,
+            PreparedQuery rightSource,
+            List<JdbcJoinCondition> joinConditions,
+            Map<JdbcColumnHandle, String> rightAssignments,
+            Map<JdbcColumnHandle, String> leftAssignments,
+            JoinStatistics statistics)
+    {
+        if (joinType == JoinType.FULL_OUTER) {
+            return Optional.empty();
+        }
+        return implementJoinCostAware(
+                session,
+                joinType,
+                leftSource,
+                rightSource,
+                statistics,
+                () -> super.implementJoin(session, joinType, leftSource, rightSource, joinConditions, rightAssignments, leftAssignments, statistics));
+    }
+
+    @Override
+    protected boolean isSupportedJoinCondition(ConnectorSession session, JdbcJoinCondition joinCondition)
+    {
+        // IS DISTINCT FROM is not available before Db2 11.1
+        if (joinCondition.getOperator() == JoinCondition.Operator.IS_DISTINCT_FROM) {
+            return false;
+        }
+        // Db2 does not compare LOB values
+        if (isLob(joinCondition.getLeftColumn().getJdbcTypeHandle()) || isLob(joinCondition.getRightColumn().getJdbcTypeHandle())) {
+            return false;
+        }
+        return Stream.of(joinCondition.getLeftColumn(), joinCondition.getRightColumn())
+                .map(JdbcColumnHandle::getColumnType)
+                .noneMatch(DB2Client::isTextual);
+    }
+
+    @Override
+    public ConnectorSplitSource getSplits(ConnectorSession session, JdbcTableHandle tableHandle)
+    {
+        if (!splitPlanner.isEnabled(session) || !isSplittable(tableHandle)) {
+            return super.getSplits(session, tableHandle);
+        }
+        try (Connection connection = connectionFactory.openConnection(session)) {
+            return new FixedSplitSource(splitPlanner.planSplits(session, connection, tableHandle.getRequiredNamedRelation().getRemoteTableName()));
+        }
+        catch (SQLException e) {
+            throw new TrinoException(JDBC_ERROR, e);
+        }
+    }
+
+    /**
+     * Whether the scan of a table handle can be read by several queries, each filtered further. Pushed down
+     * aggregations, joins and table samples are not named relations, and pushed down limits and top N have to be
+     * evaluated by a single query. Pushed down filters, including constraint expressions, are applied by every query.
+     */
+    static boolean isSplittable(JdbcTableHandle tableHandle)
+    {
+        return tableHandle.isNamedRelation() &&
+                tableHandle.getLimit().isEmpty() &&
+                tableHandle.getSortOrder().isEmpty();
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(ConnectorSession session, JdbcTableHandle handle, TupleDomain<ColumnHandle> tupleDomain)
+    {
+        // the catalog statistics describe the whole table, not the rows left by a pushed down filter or limit
+        if (!handle.isNamedRelation() ||
+                !handle.getConstraint().isAll() ||
+                !handle.getConstraintExpressions().isEmpty() ||
+                handle.getLimit().isPresent()) {
+            return getPushedDownQueryStatistics(session, handle);
+        }
+        List<JdbcColumnHandle> columns = handle.getColumns()
+                .orElseGet(() -> getColumns(session, handle));
         try {
-            // TRANSACTION_READ_UNCOMMITTED = Uncommitted read
-            // http://www.ibm.com/developerworks/data/library/techarticle/dm-0509schuetz/
-            connection.setTransactionIsolation(Connection.TRANSACTION_READ_UNCOMMITTED);
+            return statisticsProvider.getTableStatistics(
+                    handle.getRequiredNamedRelation().getRemoteTableName(),
+                    columns,
+                    table -> {
+                        try (Connection connection = connectionFactory.openConnection(session)) {
+                            return DB2StatisticsProvider.readStatistics(connection, table);
+                        }
+                    });
         }
         catch (SQLException e) {
-            connection.close();
-            throw e;
+            throw new TrinoException(JDBC_ERROR, "Failed fetching statistics for table: " + handle, e);
+        }
+    }
+
+    private TableStatistics getPushedDownQueryStatistics(ConnectorSession session, JdbcTableHandle handle)
+    {
+        // Statistics of pushed down operations are estimated by the engine, unless Db2 is asked to explain them
+        if (!explainStatisticsProvider.isEnabled()) {
+            return TableStatistics.empty();
+        }
+        try (Connection connection = connectionFactory.openConnection(session)) {
+            List<JdbcColumnHandle> columns = handle.getColumns()
+                    .orElseGet(() -> getColumns(session, handle));
+            PreparedQuery preparedQuery = prepareQuery(session, connection, handle, Optional.empty(), columns, ImmutableMap.of(), Optional.empty());
+            return explainStatisticsProvider.getTableStatistics(
+                    preparedQuery.getQuery(),
+                    query -> explainStatisticsProvider.explainRowCount(connection, query));
+        }
+        catch (SQLException e) {
+            throw new TrinoException(JDBC_ERROR, "Failed fetching statistics for query: " + handle, e);
         }
-        return connection;
     }
 
     @Override
@@ -183,7 +669,11 @@ public class DB2Client
                 if (precision > Decimals.MAX_PRECISION) {
                     break;
                 }
-                return Optional.of(decimalColumnMapping(createDecimalType(precision, max(decimalDigits, 0))));
+                DecimalType decimalType = createDecimalType(precision, max(decimalDigits, 0));
+                if (decimalType.isShort()) {
+                    return Optional.of(shortDecimalColumnMapping(decimalType));
+                }
+                return Optional.of(decimalColumnMapping(decimalType));
 
             case Types.CHAR:
             case Types.NCHAR:
@@ -206,12 +696,18 @@ public class DB2Client
             case Types.LONGVARBINARY:
                 return Optional.of(varbinaryColumnMapping());
 
+            case Types.CLOB:
+            case Types.NCLOB:
+                return Optional.of(clobColumnMapping(typeHandle.getColumnSize().orElse(-1), lobMaxValueSize));
+
+            case Types.BLOB:
+                return Optional.of(blobColumnMapping(lobMaxValueSize));
+
             case Types.DATE:
-                return Optional.of(dateColumnMappingUsingSqlDate());
+                return Optional.of(dateColumnMapping());
 
             case Types.TIME:
-                // TODO Consider using `StandardColumnMappings.timeColumnMapping`
-                return Optional.of(timeColumnMappingUsingSqlTime());
+                return Optional.of(timeColumnMapping());
 
             case Types.TIMESTAMP:
                 TimestampType timestampType = typeHandle.getDecimalDigits()
@@ -226,55 +722,22 @@ public class DB2Client
         return Optional.empty();
     }
 
-    public static ColumnMapping timestampColumnMapping(TimestampType timestampType)
-    {
-        if (timestampType.getPrecision() <= TimestampType.MAX_SHORT_PRECISION) {
-            return ColumnMapping.longMapping(
-                    timestampType,
-                    timestampReadFunction(timestampType),
-                    timestampWriteFunctionUsingSqlTimestamp(timestampType));
-        }
-        checkArgument(timestampType.getPrecision() <= MAX_LOCAL_DATE_TIME_PRECISION, "Precision is out of range: %s", timestampType.getPrecision());
-        return ColumnMapping.objectMapping(
-                timestampType,
-                longtimestampReadFunction(timestampType),
-                longTimestampWriteFunction(timestampType));
-    }
-
-    public static LongReadFunction timestampReadFunction(TimestampType timestampType)
-    {
-        checkArgument(timestampType.getPrecision() <= TimestampType.MAX_SHORT_PRECISION, "Precision is out of range: %s", timestampType.getPrecision());
-        return (resultSet, columnIndex) -> toTrinoTimestamp(timestampType, resultSet.getTimestamp(columnIndex).toLocalDateTime());
-    }
-
     /**
-     * Customized timestampReadFunction to convert timestamp type to LocalDateTime type.
-     * Notice that it's because Db2 JDBC driver doesn't support {@link ResetSet#getObject(index, Class<T>)}.
-     *
-     * @param timestampType
-     * @return
+     * Whether predicates on the column are pushed down as they are, which excludes LOB columns, character columns
+     * compared without case sensitivity and columns converted to varchar, like {@code DefaultJdbcMetadata.applyFilter}.
      */
-    private static ObjectReadFunction longtimestampReadFunction(TimestampType timestampType)
+    public boolean isFullPushdown(ConnectorSession session, JdbcColumnHandle column)
     {
-        checkArgument(timestampType.getPrecision() <= MAX_LOCAL_DATE_TIME_PRECISION,
-                "Precision is out of range: %s", timestampType.getPrecision());
-        return ObjectReadFunction.of(
-                LongTimestamp.class,
-                (resultSet, columnIndex) -> toLongTrinoTimestamp(timestampType, resultSet.getTimestamp(columnIndex).toLocalDateTime()));
+        // the Db2 type mappings do not read the remote catalog, so no connection is needed
+        return toColumnMapping(session, null, column.getJdbcTypeHandle())
+                .map(mapping -> mapping.getPredicatePushdownController() == FULL_PUSHDOWN)
+                .orElse(false);
     }
 
-    /**
-     * Customized timestampWriteFunction.
-     * Notice that it's because Db2 JDBC driver doesn't support {@link PreparedStatement#setObject(index, LocalDateTime)}.
-     * @param timestampType
-     * @return
-     */
-    private static ObjectWriteFunction longTimestampWriteFunction(TimestampType timestampType)
+    public static ColumnMapping timestampColumnMapping(TimestampType timestampType)
     {
-        checkArgument(timestampType.getPrecision() > TimestampType.MAX_SHORT_PRECISION, "Precision is out of range: %s", timestampType.getPrecision());
-        return ObjectWriteFunction.of(
-                LongTimestamp.class,
-                (statement, index, value) -> statement.setTimestamp(index, Timestamp.valueOf(fromLongTrinoTimestamp(value, timestampType.getPrecision()))));
+        checkArgument(timestampType.getPrecision() <= MAX_LOCAL_DATE_TIME_PRECISION, "Precision is out of range: %s", timestampType.getPrecision());
+        return DB2ColumnMappings.timestampColumnMapping(timestampType);
     }
 
     /**
@@ -306,7 +769,11 @@ public class DB2Client
         if (type instanceof TimestampType) {
             TimestampType timestampType = (TimestampType) type;
             verify(timestampType.getPrecision() <= DB2_MAX_SUPPORTED_TIMESTAMP_PRECISION);
-            return WriteMapping.longMapping(format("TIMESTAMP(%s)", timestampType.getPrecision()), timestampWriteFunction(timestampType));
+            String dataType = format("TIMESTAMP(%s)", timestampType.getPrecision());
+            if (timestampType.isShort()) {
+                return WriteMapping.longMapping(dataType, timestampWriteFunction(timestampType));
+            }
+            return WriteMapping.objectMapping(dataType, longTimestampWriteFunction(timestampType));
         }
 
         return this.legacyToWriteMapping(session, type);
@@ -362,11 +829,39 @@ public class DB2Client
             return WriteMapping.sliceMapping("varbinary", varbinaryWriteFunction());
         }
         if (type == DATE) {
-            WriteMapping.longMapping("date", dateWriteFunctionUsingSqlDate());
+            return WriteMapping.longMapping("date", dateWriteFunction());
         }
         throw new TrinoException(NOT_SUPPORTED, "Unsupported column type: " + type.getDisplayName());
     }
 
+    @Override
+    public void rollbackCreateTable(ConnectorSession session, JdbcOutputTableHandle handle)
+    {
+        if (bulkLoader.isEnabled(session)) {
+            bulkLoader.deleteStagingDirectory(bulkLoader.getStagingDirectory(session));
+        }
+        super.rollbackCreateTable(session, handle);
+    }
+
+    /**
+     * Loads the files staged by the {@link DB2BulkLoadPageSink}s of a write, listed in their fragments, before the
+     * write is committed.
+     */
+    public void loadStagedData(ConnectorSession session, JdbcOutputTableHandle handle, Collection<Slice> fragments)
+    {
+        // the page sinks writing with INSERT statements do not return fragments
+        if (fragments.isEmpty()) {
+            return;
+        }
+        // the data is loaded into the temporary table, or the target table for non-transactional inserts
+        try (Connection connection = connectionFactory.openConnection(session)) {
+            bulkLoader.load(session, connection, handle, fragments);
+        }
+        catch (SQLException e) {
+            throw new TrinoException(JDBC_ERROR, e);
+        }
+    }
+
     @Override
     protected void renameTable(ConnectorSession session, String catalogName, String schemaName, String tableName, SchemaTableName newTable)
     {
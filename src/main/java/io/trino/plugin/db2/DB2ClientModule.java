@@ -19,18 +19,33 @@ import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
 import com.ibm.db2.jcc.DB2Driver;
+import io.trino.plugin.db2.DB2Config.ConcurrentAccessResolution;
 import io.trino.plugin.jdbc.BaseJdbcConfig;
 import io.trino.plugin.jdbc.ConnectionFactory;
 import io.trino.plugin.jdbc.DecimalModule;
 import io.trino.plugin.jdbc.DriverConnectionFactory;
 import io.trino.plugin.jdbc.ForBaseJdbc;
 import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcJoinPushdownSupportModule;
+import io.trino.plugin.jdbc.JdbcMetadataFactory;
+import io.trino.plugin.jdbc.JdbcStatisticsConfig;
 import io.trino.plugin.jdbc.TypeHandlingJdbcConfig;
 import io.trino.plugin.jdbc.credential.CredentialProvider;
+import io.trino.spi.connector.ConnectorPageSinkProvider;
+import io.trino.spi.connector.ConnectorRecordSetProvider;
+import io.trino.spi.connector.ConnectorSplitManager;
+import io.trino.spi.procedure.Procedure;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
 import static io.airlift.configuration.ConfigBinder.configBinder;
+import static io.trino.plugin.jdbc.JdbcModule.bindSessionPropertiesProvider;
+import static java.lang.Math.toIntExact;
+import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
 public class DB2ClientModule
         implements Module
@@ -38,22 +53,87 @@ public class DB2ClientModule
     @Override
     public void configure(Binder binder)
     {
-        binder.bind(JdbcClient.class).annotatedWith(ForBaseJdbc.class).to(DB2Client.class).in(Scopes.SINGLETON);
+        binder.bind(DB2Client.class).in(Scopes.SINGLETON);
+        binder.bind(DB2MetadataCachingClient.class).in(Scopes.SINGLETON);
+        binder.bind(JdbcClient.class).annotatedWith(ForBaseJdbc.class).to(DB2MetadataCachingClient.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(BaseJdbcConfig.class);
         configBinder(binder).bindConfig(DB2Config.class);
         configBinder(binder).bindConfig(TypeHandlingJdbcConfig.class);
+        configBinder(binder).bindConfig(JdbcStatisticsConfig.class);
+        bindSessionPropertiesProvider(binder, DB2SessionProperties.class);
+        binder.bind(DB2SplitPlanner.class).in(Scopes.SINGLETON);
+        binder.bind(DB2PartitionMapCache.class).in(Scopes.SINGLETON);
+        binder.bind(DB2StatisticsProvider.class).in(Scopes.SINGLETON);
+        binder.bind(DB2ExplainStatisticsProvider.class).in(Scopes.SINGLETON);
+        binder.bind(DB2ConnectionPoolStats.class).in(Scopes.SINGLETON);
+        binder.bind(DB2BulkLoader.class).in(Scopes.SINGLETON);
+        binder.bind(DB2FetchStats.class).in(Scopes.SINGLETON);
+        binder.bind(DB2ScanStats.class).in(Scopes.SINGLETON);
+        binder.bind(DB2ScanCache.class).in(Scopes.SINGLETON);
+        binder.bind(DB2MaterializedQueryTableCache.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, JdbcMetadataFactory.class).setBinding().to(DB2MetadataFactory.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, ConnectorPageSinkProvider.class).setBinding().to(DB2PageSinkProvider.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, ConnectorRecordSetProvider.class).setBinding().to(DB2RecordSetProvider.class).in(Scopes.SINGLETON);
+        newOptionalBinder(binder, ConnectorSplitManager.class).setBinding().to(DB2SplitManager.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(DB2ConnectionPoolStats.class).withGeneratedName();
+        newExporter(binder).export(DB2ExplainStatisticsProvider.class).withGeneratedName();
+        newExporter(binder).export(DB2FetchStats.class).withGeneratedName();
+        newExporter(binder).export(DB2MaterializedQueryTableCache.class).withGeneratedName();
+        newExporter(binder).export(DB2MetadataCachingClient.class).withGeneratedName();
+        newExporter(binder).export(DB2ReadRoutingConnectionFactory.class).withGeneratedName();
+        newExporter(binder).export(DB2ScanCache.class).withGeneratedName();
+        newExporter(binder).export(DB2ScanStats.class).withGeneratedName();
+        newSetBinder(binder, Procedure.class).addBinding().toProvider(DB2FlushMetadataCacheProcedure.class).in(Scopes.SINGLETON);
+        newSetBinder(binder, Procedure.class).addBinding().toProvider(DB2FlushScanCacheProcedure.class).in(Scopes.SINGLETON);
         binder.install(new DecimalModule());
+        binder.install(new JdbcJoinPushdownSupportModule());
     }
 
     @Provides
     @Singleton
     @ForBaseJdbc
-    public static ConnectionFactory getConnectionFactory(BaseJdbcConfig config, CredentialProvider credentialProvider, DB2Config db2Config)
+    public static ConnectionFactory getConnectionFactory(BaseJdbcConfig config, CredentialProvider credentialProvider, DB2Config db2Config, DB2ConnectionPoolStats poolStats)
+    {
+        return createConnectionFactory(config.getConnectionUrl(), credentialProvider, db2Config, poolStats);
+    }
+
+    @Provides
+    @Singleton
+    public static DB2ReadRoutingConnectionFactory getReadRoutingConnectionFactory(ConnectionFactory primary, CredentialProvider credentialProvider, DB2Config db2Config, DB2ConnectionPoolStats poolStats)
+    {
+        // the read endpoints are used by table scans only, writes and metadata stay on the primary
+        Map<String, ConnectionFactory> endpoints = new LinkedHashMap<>();
+        for (String url : db2Config.getReadEndpoints()) {
+            endpoints.computeIfAbsent(url, ignored -> createConnectionFactory(url, credentialProvider, db2Config, poolStats));
+        }
+        return new DB2ReadRoutingConnectionFactory(primary, endpoints, db2Config);
+    }
+
+    private static ConnectionFactory createConnectionFactory(String connectionUrl, CredentialProvider credentialProvider, DB2Config db2Config, DB2ConnectionPoolStats poolStats)
     {
         Properties connectionProperties = new Properties();
-        // https://www-01.ibm.com/support/knowledgecenter/ssw_ibm_i_72/rzaha/conprop.htm
-        // block size (a.k.a fetch size), default 32
-        connectionProperties.setProperty("block size", "512");
+        // size of the query blocks returned by Db2, the number of rows per fetch is set for every table scan by DB2Client
+        connectionProperties.setProperty("queryDataSize", String.valueOf(DB2FetchSize.queryDataSize(db2Config.getFetchTargetSize())));
+
+        // batched inserts are sent as multi-row INSERT, non-atomic unless configured otherwise
+        connectionProperties.setProperty("enableMultiRowInsertSupport", String.valueOf(db2Config.isMultiRowInsertEnabled()));
+        connectionProperties.setProperty("atomicMultiRowInsert", db2Config.isAtomicMultiRowInsert() ? "1" : "2");
+
+        // LOB values are streamed with the rows, in chunks of the stream buffer size, or fetched through locators
+        // when they are read, never materialized by the driver with the whole result
+        if (db2Config.isLobProgressiveStreaming()) {
+            connectionProperties.setProperty("progressiveStreaming", "1");
+            connectionProperties.setProperty("streamBufferSize", String.valueOf(toIntExact(db2Config.getLobStreamBufferSize().toBytes())));
+        }
+        else {
+            connectionProperties.setProperty("progressiveStreaming", "2");
+            connectionProperties.setProperty("fullyMaterializeLobData", "false");
+        }
+
+        // whether CS and RS scans read the currently committed version of rows locked by writers
+        if (db2Config.getConcurrentAccessResolution() != ConcurrentAccessResolution.DATABASE_DEFAULT) {
+            connectionProperties.setProperty("concurrentAccessResolution", String.valueOf(db2Config.getConcurrentAccessResolution().getJccValue()));
+        }
 
         // use IAM authentication when using API key
         if (db2Config.getApiKey() != null) {
@@ -62,6 +142,12 @@ public class DB2ClientModule
             connectionProperties.setProperty("pluginName", "IBMIAMauth");
         }
 
-        return new DriverConnectionFactory(new DB2Driver(), config.getConnectionUrl(), connectionProperties, credentialProvider);
+        ConnectionFactory connectionFactory = new DriverConnectionFactory(new DB2Driver(), connectionUrl, connectionProperties, credentialProvider);
+        if (db2Config.isConnectionPoolEnabled()) {
+            // pooled connections keep the default isolation level of the catalog, table scans read with the isolation
+            // clause of their statement
+            return new DB2PoolingConnectionFactory(connectionFactory, db2Config, poolStats);
+        }
+        return connectionFactory;
     }
 }
@@ -0,0 +1,473 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.plugin.jdbc.ColumnMapping;
+import io.trino.plugin.jdbc.LongReadFunction;
+import io.trino.plugin.jdbc.LongWriteFunction;
+import io.trino.plugin.jdbc.ObjectReadFunction;
+import io.trino.plugin.jdbc.ObjectWriteFunction;
+import io.trino.plugin.jdbc.ReadFunction;
+import io.trino.spi.TrinoException;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.LongTimestamp;
+import io.trino.spi.type.TimestampType;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.plugin.jdbc.StandardColumnMappings.shortDecimalWriteFunction;
+import static io.trino.plugin.jdbc.StandardColumnMappings.toLongTrinoTimestamp;
+import static io.trino.plugin.jdbc.StandardColumnMappings.toTrinoTimestamp;
+import static io.trino.spi.StandardErrorCode.INVALID_ARGUMENTS;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.TimeType.TIME_MILLIS;
+import static io.trino.spi.type.Timestamps.MICROSECONDS_PER_SECOND;
+import static io.trino.spi.type.Timestamps.PICOSECONDS_PER_MICROSECOND;
+import static io.trino.spi.type.Timestamps.PICOSECONDS_PER_SECOND;
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.math.RoundingMode.HALF_UP;
+
+/**
+ * Column mappings of the Db2 date, time, timestamp and short decimal types, reading the values from their string form
+ * and writing them as strings, to avoid the temporary {@link java.sql.Timestamp}, {@link java.time.LocalDateTime} and
+ * {@link BigDecimal} objects of the standard mappings. Values in a format other than the default JCC one, e.g. with the
+ * {@code dateFormat} connection property, are read with the standard conversions.
+ */
+public final class DB2ColumnMappings
+{
+    // returned by the parse methods when the value is not in the expected format
+    static final long UNPARSEABLE = Long.MIN_VALUE;
+
+    private static final int MAX_SHORT_DECIMAL_DIGITS = 18;
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final long PICOSECONDS_PER_DAY = SECONDS_PER_DAY * PICOSECONDS_PER_SECOND;
+    private static final long[] POWERS_OF_TEN = new long[MAX_SHORT_DECIMAL_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private DB2ColumnMappings() {}
+
+    /**
+     * A read function returning a default value for NULL, e.g. by reading the value with {@link ResultSet#getString},
+     * so that it can be called before checking {@link ResultSet#wasNull()}.
+     */
+    public interface NullSafeReadFunction
+            extends ReadFunction
+    {
+        @Override
+        default boolean isNull(ResultSet resultSet, int columnIndex)
+                throws SQLException
+        {
+            return resultSet.getString(columnIndex) == null;
+        }
+    }
+
+    public static ColumnMapping dateColumnMapping()
+    {
+        return ColumnMapping.longMapping(DATE, dateReadFunction(), dateWriteFunction());
+    }
+
+    public static LongReadFunction dateReadFunction()
+    {
+        return (LongReadFunction & NullSafeReadFunction) (resultSet, columnIndex) -> {
+            String value = resultSet.getString(columnIndex);
+            if (value == null) {
+                return 0;
+            }
+            long epochDay = parseDate(value);
+            if (epochDay == UNPARSEABLE) {
+                return resultSet.getDate(columnIndex).toLocalDate().toEpochDay();
+            }
+            return epochDay;
+        };
+    }
+
+    public static LongWriteFunction dateWriteFunction()
+    {
+        return (statement, index, epochDay) -> statement.setString(index, formatDate(epochDay));
+    }
+
+    public static ColumnMapping timeColumnMapping()
+    {
+        return ColumnMapping.longMapping(TIME_MILLIS, timeReadFunction(), timeWriteFunction());
+    }
+
+    public static LongReadFunction timeReadFunction()
+    {
+        return (LongReadFunction & NullSafeReadFunction) (resultSet, columnIndex) -> {
+            String value = resultSet.getString(columnIndex);
+            if (value == null) {
+                return 0;
+            }
+            long picosOfDay = parseTime(value);
+            if (picosOfDay == UNPARSEABLE) {
+                return resultSet.getTime(columnIndex).toLocalTime().toNanoOfDay() * 1000;
+            }
+            return picosOfDay;
+        };
+    }
+
+    public static LongWriteFunction timeWriteFunction()
+    {
+        // Db2 TIME has no fractional seconds
+        return (statement, index, picosOfDay) -> statement.setString(index, formatTime(picosOfDay));
+    }
+
+    public static ColumnMapping timestampColumnMapping(TimestampType timestampType)
+    {
+        if (timestampType.isShort()) {
+            return ColumnMapping.longMapping(timestampType, timestampReadFunction(timestampType), timestampWriteFunction(timestampType));
+        }
+        return ColumnMapping.objectMapping(timestampType, longTimestampReadFunction(timestampType), longTimestampWriteFunction(timestampType));
+    }
+
+    public static LongReadFunction timestampReadFunction(TimestampType timestampType)
+    {
+        checkArgument(timestampType.isShort(), "Precision is out of range: %s", timestampType.getPrecision());
+        int precision = timestampType.getPrecision();
+        return (LongReadFunction & NullSafeReadFunction) (resultSet, columnIndex) -> {
+            String value = resultSet.getString(columnIndex);
+            if (value == null) {
+                return 0;
+            }
+            long epochSecond = parseEpochSecond(value);
+            if (epochSecond == UNPARSEABLE) {
+                return toTrinoTimestamp(timestampType, resultSet.getTimestamp(columnIndex).toLocalDateTime());
+            }
+            // rounding to a precision of at most 6 leaves no picoseconds of microsecond
+            return epochSecond * MICROSECONDS_PER_SECOND + roundPicosOfSecond(parsePicosOfSecond(value), precision) / PICOSECONDS_PER_MICROSECOND;
+        };
+    }
+
+    public static ObjectReadFunction longTimestampReadFunction(TimestampType timestampType)
+    {
+        checkArgument(!timestampType.isShort(), "Precision is out of range: %s", timestampType.getPrecision());
+        int precision = timestampType.getPrecision();
+        return new NullSafeObjectReadFunction(LongTimestamp.class)
+        {
+            @Override
+            public Object readObject(ResultSet resultSet, int columnIndex)
+                    throws SQLException
+            {
+                String value = resultSet.getString(columnIndex);
+                if (value == null) {
+                    return null;
+                }
+                long epochSecond = parseEpochSecond(value);
+                if (epochSecond == UNPARSEABLE) {
+                    return toLongTrinoTimestamp(timestampType, resultSet.getTimestamp(columnIndex).toLocalDateTime());
+                }
+                long picosOfSecond = roundPicosOfSecond(parsePicosOfSecond(value), precision);
+                return new LongTimestamp(
+                        epochSecond * MICROSECONDS_PER_SECOND + picosOfSecond / PICOSECONDS_PER_MICROSECOND,
+                        (int) (picosOfSecond % PICOSECONDS_PER_MICROSECOND));
+            }
+        };
+    }
+
+    public static LongWriteFunction timestampWriteFunction(TimestampType timestampType)
+    {
+        checkArgument(timestampType.isShort(), "Precision is out of range: %s", timestampType.getPrecision());
+        int precision = timestampType.getPrecision();
+        return (statement, index, epochMicros) -> statement.setString(index, formatTimestamp(epochMicros, 0, precision));
+    }
+
+    public static ObjectWriteFunction longTimestampWriteFunction(TimestampType timestampType)
+    {
+        checkArgument(!timestampType.isShort(), "Precision is out of range: %s", timestampType.getPrecision());
+        int precision = timestampType.getPrecision();
+        return ObjectWriteFunction.of(
+                LongTimestamp.class,
+                (statement, index, value) -> statement.setString(index, formatTimestamp(value.getEpochMicros(), value.getPicosOfMicro(), precision)));
+    }
+
+    public static ColumnMapping shortDecimalColumnMapping(DecimalType decimalType)
+    {
+        checkArgument(decimalType.isShort(), "Precision is out of range: %s", decimalType.getPrecision());
+        return ColumnMapping.longMapping(decimalType, shortDecimalReadFunction(decimalType), shortDecimalWriteFunction(decimalType));
+    }
+
+    public static LongReadFunction shortDecimalReadFunction(DecimalType decimalType)
+    {
+        int scale = decimalType.getScale();
+        return (LongReadFunction & NullSafeReadFunction) (resultSet, columnIndex) -> {
+            String value = resultSet.getString(columnIndex);
+            if (value == null) {
+                return 0;
+            }
+            long unscaledValue = parseShortDecimal(value, scale);
+            if (unscaledValue == UNPARSEABLE) {
+                return new BigDecimal(value).setScale(scale, HALF_UP).unscaledValue().longValueExact();
+            }
+            return unscaledValue;
+        };
+    }
+
+    /**
+     * Parses a date in the format yyyy-mm-dd into days since the epoch.
+     */
+    static long parseDate(String value)
+    {
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return UNPARSEABLE;
+        }
+        return epochDay(digits(value, 0, 4), digits(value, 5, 2), digits(value, 8, 2));
+    }
+
+    /**
+     * Parses a time in the format hh:mm:ss or hh.mm.ss into picoseconds of the day.
+     */
+    static long parseTime(String value)
+    {
+        if (value.length() != 8 || !isTimeSeparator(value.charAt(2)) || value.charAt(5) != value.charAt(2)) {
+            return UNPARSEABLE;
+        }
+        long secondOfDay = secondOfDay(digits(value, 0, 2), digits(value, 3, 2), digits(value, 6, 2));
+        if (secondOfDay == UNPARSEABLE) {
+            return UNPARSEABLE;
+        }
+        // 24:00:00 is the end of the day in Db2
+        return (secondOfDay * PICOSECONDS_PER_SECOND) % PICOSECONDS_PER_DAY;
+    }
+
+    /**
+     * Parses the seconds since the epoch of a timestamp in the format yyyy-mm-dd hh:mm:ss[.f...]
+     * or yyyy-mm-dd-hh.mm.ss[.f...], see {@link #parsePicosOfSecond} for the fraction.
+     */
+    static long parseEpochSecond(String value)
+    {
+        int length = value.length();
+        if (length < 19 ||
+                value.charAt(4) != '-' ||
+                value.charAt(7) != '-' ||
+                (value.charAt(10) != ' ' && value.charAt(10) != '-' && value.charAt(10) != 'T') ||
+                !isTimeSeparator(value.charAt(13)) ||
+                value.charAt(16) != value.charAt(13) ||
+                (length > 19 && (value.charAt(19) != '.' || length > 32 || digits(value, 20, length - 20) < 0))) {
+            return UNPARSEABLE;
+        }
+        long epochDay = epochDay(digits(value, 0, 4), digits(value, 5, 2), digits(value, 8, 2));
+        long secondOfDay = secondOfDay(digits(value, 11, 2), digits(value, 14, 2), digits(value, 17, 2));
+        if (epochDay == UNPARSEABLE || secondOfDay == UNPARSEABLE) {
+            return UNPARSEABLE;
+        }
+        return epochDay * SECONDS_PER_DAY + secondOfDay;
+    }
+
+    /**
+     * Parses the fractional seconds of a timestamp validated by {@link #parseEpochSecond} into picoseconds.
+     */
+    static long parsePicosOfSecond(String value)
+    {
+        int fractionDigits = value.length() - 20;
+        if (fractionDigits <= 0) {
+            return 0;
+        }
+        return digits(value, 20, fractionDigits) * POWERS_OF_TEN[12 - fractionDigits];
+    }
+
+    /**
+     * Parses a decimal number in plain notation into its unscaled value at the given scale.
+     */
+    static long parseShortDecimal(String value, int scale)
+    {
+        int length = value.length();
+        int position = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            position++;
+        }
+        long unscaledValue = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; position < length; position++) {
+            char character = value.charAt(position);
+            if (character == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (character < '0' || character > '9') {
+                return UNPARSEABLE;
+            }
+            unscaledValue = unscaledValue * 10 + (character - '0');
+            digits++;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        fractionDigits = Math.max(fractionDigits, 0);
+        // more digits than a short decimal, or digits to round
+        if (digits == 0 || digits - fractionDigits + scale > MAX_SHORT_DECIMAL_DIGITS || fractionDigits > scale) {
+            return UNPARSEABLE;
+        }
+        unscaledValue *= POWERS_OF_TEN[scale - fractionDigits];
+        return negative ? -unscaledValue : unscaledValue;
+    }
+
+    /**
+     * Formats a date in the format yyyy-mm-dd.
+     */
+    static String formatDate(long epochDay)
+    {
+        char[] buffer = new char[10];
+        writeDate(buffer, epochDay);
+        return new String(buffer);
+    }
+
+    /**
+     * Formats the second of a time of day in the format hh:mm:ss.
+     */
+    static String formatTime(long picosOfDay)
+    {
+        long secondOfDay = picosOfDay / PICOSECONDS_PER_SECOND;
+        char[] buffer = new char[8];
+        writeTime(buffer, 0, secondOfDay, ':');
+        return new String(buffer);
+    }
+
+    /**
+     * Formats a timestamp in the Db2 format yyyy-mm-dd-hh.mm.ss.nnnnnnnnnnnn with the given precision.
+     */
+    static String formatTimestamp(long epochMicros, int picosOfMicro, int precision)
+    {
+        long epochSecond = floorDiv(epochMicros, MICROSECONDS_PER_SECOND);
+        char[] buffer = new char[precision == 0 ? 19 : 20 + precision];
+        writeDate(buffer, floorDiv(epochSecond, SECONDS_PER_DAY));
+        buffer[10] = '-';
+        writeTime(buffer, 11, floorMod(epochSecond, SECONDS_PER_DAY), '.');
+        if (precision > 0) {
+            buffer[19] = '.';
+            long picosOfSecond = floorMod(epochMicros, MICROSECONDS_PER_SECOND) * PICOSECONDS_PER_MICROSECOND + picosOfMicro;
+            writeDigits(buffer, 20, picosOfSecond / POWERS_OF_TEN[12 - precision], precision);
+        }
+        return new String(buffer);
+    }
+
+    private static long roundPicosOfSecond(long picosOfSecond, int precision)
+    {
+        long factor = POWERS_OF_TEN[12 - precision];
+        // may round up to a whole second, carried over by the callers
+        return (picosOfSecond + factor / 2) / factor * factor;
+    }
+
+    private static boolean isTimeSeparator(char character)
+    {
+        return character == ':' || character == '.';
+    }
+
+    /**
+     * Value of the decimal digits, or a negative value when one of the characters is not a digit.
+     */
+    private static long digits(String value, int offset, int length)
+    {
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char character = value.charAt(i);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            result = result * 10 + (character - '0');
+        }
+        return result;
+    }
+
+    private static long secondOfDay(long hour, long minute, long second)
+    {
+        if (hour < 0 || hour > 24 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return UNPARSEABLE;
+        }
+        return (hour * 60 + minute) * 60 + second;
+    }
+
+    // days from civil, see http://howardhinnant.github.io/date_algorithms.html
+    private static long epochDay(long year, long month, long day)
+    {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return UNPARSEABLE;
+        }
+        long y = month <= 2 ? year - 1 : year;
+        long era = floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // civil from days, see http://howardhinnant.github.io/date_algorithms.html
+    private static void writeDate(char[] buffer, long epochDay)
+    {
+        long z = epochDay + 719468;
+        long era = floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 1 || year > 9999) {
+            throw new TrinoException(INVALID_ARGUMENTS, "Date is out of the range supported by Db2: " + LocalDate.ofEpochDay(epochDay));
+        }
+        writeDigits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, month, 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, day, 2);
+    }
+
+    private static void writeTime(char[] buffer, int offset, long secondOfDay, char separator)
+    {
+        writeDigits(buffer, offset, secondOfDay / 3600, 2);
+        buffer[offset + 2] = separator;
+        writeDigits(buffer, offset + 3, secondOfDay / 60 % 60, 2);
+        buffer[offset + 5] = separator;
+        writeDigits(buffer, offset + 6, secondOfDay % 60, 2);
+    }
+
+    private static void writeDigits(char[] buffer, int offset, long value, int length)
+    {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private abstract static class NullSafeObjectReadFunction
+            implements ObjectReadFunction, NullSafeReadFunction
+    {
+        private final Class<?> javaType;
+
+        protected NullSafeObjectReadFunction(Class<?> javaType)
+        {
+            this.javaType = javaType;
+        }
+
+        @Override
+        public Class<?> getJavaType()
+        {
+            return javaType;
+        }
+    }
+}
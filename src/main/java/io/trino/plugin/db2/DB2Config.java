@@ -13,11 +13,24 @@
  */
 package io.trino.plugin.db2;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.ConfigSecuritySensitive;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.airlift.units.MaxDataSize;
 
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import java.util.List;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class DB2Config
 {
@@ -25,6 +38,61 @@ public class DB2Config
     private int varcharMaxLength = 32672;
     // this value is for IAM authentication
     private String apiKey;
+    // a single split per table scan unless configured otherwise
+    private int splitCount = 1;
+    private DataSize targetSplitSize = DataSize.of(128, MEGABYTE);
+    private boolean databasePartitionSplitsEnabled;
+    private Duration partitionMapCacheTtl = new Duration(10, MINUTES);
+    private Duration statisticsCacheTtl = new Duration(10, MINUTES);
+    // catalog lookups are not cached unless configured otherwise, as tables may be altered outside of Trino
+    private Duration schemasCacheTtl = new Duration(0, SECONDS);
+    private Duration tablesCacheTtl = new Duration(0, SECONDS);
+    private Duration columnsCacheTtl = new Duration(0, SECONDS);
+    private boolean metadataCacheMissing;
+    private long metadataCacheMaximumSize = 10_000;
+    // table scans do not wait for the locks of writers unless configured otherwise
+    private DB2IsolationLevel readIsolation = DB2IsolationLevel.UR;
+    private ConcurrentAccessResolution concurrentAccessResolution = ConcurrentAccessResolution.DATABASE_DEFAULT;
+    private boolean connectionPoolEnabled;
+    private int connectionPoolMaxSize = 30;
+    private Duration connectionPoolMaxConnectionLifetime = new Duration(30, MINUTES);
+    private Duration connectionPoolIdleTimeout = new Duration(10, MINUTES);
+    private Duration connectionPoolAcquireTimeout = new Duration(30, SECONDS);
+    private List<String> readEndpoints = ImmutableList.of();
+    private int readEndpointsFailureThreshold = 3;
+    private Duration readEndpointsRetryDelay = new Duration(30, SECONDS);
+    private int writeCommitInterval;
+    private boolean multiRowInsertEnabled = true;
+    private boolean atomicMultiRowInsert;
+    private boolean bulkLoadEnabled;
+    private String bulkLoadStagingDirectory;
+    private String bulkLoadServerStagingDirectory;
+    private boolean bulkLoadNonrecoverable = true;
+    private DataSize fetchTargetSize = DataSize.of(1, MEGABYTE);
+    private int fetchSize;
+    private boolean prefetchEnabled;
+    private int prefetchMaxBufferedPages = 4;
+    private int prefetchThreads = Runtime.getRuntime().availableProcessors();
+    private boolean dynamicFilteringEnabled = true;
+    private Duration dynamicFilteringWaitTimeout = new Duration(10, SECONDS);
+    private DataSize lobMaxValueSize = DataSize.of(16, MEGABYTE);
+    private boolean lobProgressiveStreaming = true;
+    private DataSize lobStreamBufferSize = DataSize.of(1, MEGABYTE);
+    // table scans are not cached unless tables are listed
+    private List<String> scanCacheTables = ImmutableList.of();
+    private Duration scanCacheTtl = new Duration(10, MINUTES);
+    private DataSize scanCacheMaxSize = DataSize.of(256, MEGABYTE);
+    private DataSize scanCacheMaxEntrySize = DataSize.of(16, MEGABYTE);
+    private Duration scanCacheVersionCheckInterval = new Duration(1, MINUTES);
+    private int deleteChunkSize;
+    private boolean tableSamplePushdownEnabled = true;
+    private boolean mqtRoutingEnabled;
+    private Duration mqtRoutingMaxStaleness = new Duration(1, HOURS);
+    private Duration mqtRoutingCacheTtl = new Duration(1, MINUTES);
+    private boolean explainStatisticsEnabled;
+    private String explainStatisticsSchema = "SYSTOOLS";
+    private Duration explainStatisticsTimeout = new Duration(2, SECONDS);
+    private Duration explainStatisticsCacheTtl = new Duration(10, MINUTES);
 
     @Min(1)
     public int getVarcharMaxLength()
@@ -53,4 +121,726 @@ public class DB2Config
         this.apiKey = apiKey;
         return this;
     }
+
+    @Min(1)
+    public int getSplitCount()
+    {
+        return splitCount;
+    }
+
+    @Config("db2.split-count")
+    @ConfigDescription("Maximum number of splits generated for a single table scan, unless it is read by database partition")
+    public DB2Config setSplitCount(int splitCount)
+    {
+        this.splitCount = splitCount;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getTargetSplitSize()
+    {
+        return targetSplitSize;
+    }
+
+    @Config("db2.target-split-size")
+    @ConfigDescription("Target amount of table data read by a single split")
+    public DB2Config setTargetSplitSize(DataSize targetSplitSize)
+    {
+        this.targetSplitSize = targetSplitSize;
+        return this;
+    }
+
+    public boolean isDatabasePartitionSplitsEnabled()
+    {
+        return databasePartitionSplitsEnabled;
+    }
+
+    @Config("db2.database-partition-splits.enabled")
+    @ConfigDescription("Read tables distributed across database partitions with a split per database partition")
+    public DB2Config setDatabasePartitionSplitsEnabled(boolean databasePartitionSplitsEnabled)
+    {
+        this.databasePartitionSplitsEnabled = databasePartitionSplitsEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Duration getPartitionMapCacheTtl()
+    {
+        return partitionMapCacheTtl;
+    }
+
+    @Config("db2.partition-map-cache-ttl")
+    @ConfigDescription("How long the database partitions of a table are cached")
+    public DB2Config setPartitionMapCacheTtl(Duration partitionMapCacheTtl)
+    {
+        this.partitionMapCacheTtl = partitionMapCacheTtl;
+        return this;
+    }
+
+    @NotNull
+    public Duration getStatisticsCacheTtl()
+    {
+        return statisticsCacheTtl;
+    }
+
+    @Config("db2.statistics-cache-ttl")
+    @ConfigDescription("How long the table statistics read from the SYSSTAT catalog views are cached")
+    public DB2Config setStatisticsCacheTtl(Duration statisticsCacheTtl)
+    {
+        this.statisticsCacheTtl = statisticsCacheTtl;
+        return this;
+    }
+
+    @NotNull
+    public Duration getSchemasCacheTtl()
+    {
+        return schemasCacheTtl;
+    }
+
+    @Config("db2.schemas-cache-ttl")
+    @ConfigDescription("How long the schema names are cached")
+    public DB2Config setSchemasCacheTtl(Duration schemasCacheTtl)
+    {
+        this.schemasCacheTtl = schemasCacheTtl;
+        return this;
+    }
+
+    @NotNull
+    public Duration getTablesCacheTtl()
+    {
+        return tablesCacheTtl;
+    }
+
+    @Config("db2.tables-cache-ttl")
+    @ConfigDescription("How long the table names and table handles are cached")
+    public DB2Config setTablesCacheTtl(Duration tablesCacheTtl)
+    {
+        this.tablesCacheTtl = tablesCacheTtl;
+        return this;
+    }
+
+    @NotNull
+    public Duration getColumnsCacheTtl()
+    {
+        return columnsCacheTtl;
+    }
+
+    @Config("db2.columns-cache-ttl")
+    @ConfigDescription("How long the columns of a table are cached")
+    public DB2Config setColumnsCacheTtl(Duration columnsCacheTtl)
+    {
+        this.columnsCacheTtl = columnsCacheTtl;
+        return this;
+    }
+
+    public boolean isMetadataCacheMissing()
+    {
+        return metadataCacheMissing;
+    }
+
+    @Config("db2.metadata-cache-missing")
+    @ConfigDescription("Cache the lookups of tables that do not exist")
+    public DB2Config setMetadataCacheMissing(boolean metadataCacheMissing)
+    {
+        this.metadataCacheMissing = metadataCacheMissing;
+        return this;
+    }
+
+    @Min(1)
+    public long getMetadataCacheMaximumSize()
+    {
+        return metadataCacheMaximumSize;
+    }
+
+    @Config("db2.metadata-cache-maximum-size")
+    @ConfigDescription("Maximum number of entries of each metadata cache")
+    public DB2Config setMetadataCacheMaximumSize(long metadataCacheMaximumSize)
+    {
+        this.metadataCacheMaximumSize = metadataCacheMaximumSize;
+        return this;
+    }
+
+    @NotNull
+    public DB2IsolationLevel getReadIsolation()
+    {
+        return readIsolation;
+    }
+
+    @Config("db2.read-isolation")
+    @ConfigDescription("Isolation level of table scans: UR, CS, RS or RR")
+    public DB2Config setReadIsolation(DB2IsolationLevel readIsolation)
+    {
+        this.readIsolation = readIsolation;
+        return this;
+    }
+
+    @NotNull
+    public ConcurrentAccessResolution getConcurrentAccessResolution()
+    {
+        return concurrentAccessResolution;
+    }
+
+    @Config("db2.concurrent-access-resolution")
+    @ConfigDescription("Whether CS and RS scans read the currently committed version of locked rows or wait for the writers")
+    public DB2Config setConcurrentAccessResolution(ConcurrentAccessResolution concurrentAccessResolution)
+    {
+        this.concurrentAccessResolution = concurrentAccessResolution;
+        return this;
+    }
+
+    public boolean isConnectionPoolEnabled()
+    {
+        return connectionPoolEnabled;
+    }
+
+    @Config("db2.connection-pool.enabled")
+    @ConfigDescription("Reuse connections to Db2 across splits and queries of the same user")
+    public DB2Config setConnectionPoolEnabled(boolean connectionPoolEnabled)
+    {
+        this.connectionPoolEnabled = connectionPoolEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getConnectionPoolMaxSize()
+    {
+        return connectionPoolMaxSize;
+    }
+
+    @Config("db2.connection-pool.max-size")
+    @ConfigDescription("Maximum number of pooled connections of a single user")
+    public DB2Config setConnectionPoolMaxSize(int connectionPoolMaxSize)
+    {
+        this.connectionPoolMaxSize = connectionPoolMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getConnectionPoolMaxConnectionLifetime()
+    {
+        return connectionPoolMaxConnectionLifetime;
+    }
+
+    @Config("db2.connection-pool.max-connection-lifetime")
+    @ConfigDescription("How long a pooled connection is reused before it is closed")
+    public DB2Config setConnectionPoolMaxConnectionLifetime(Duration connectionPoolMaxConnectionLifetime)
+    {
+        this.connectionPoolMaxConnectionLifetime = connectionPoolMaxConnectionLifetime;
+        return this;
+    }
+
+    @NotNull
+    public Duration getConnectionPoolIdleTimeout()
+    {
+        return connectionPoolIdleTimeout;
+    }
+
+    @Config("db2.connection-pool.idle-timeout")
+    @ConfigDescription("How long an unused pooled connection is kept open")
+    public DB2Config setConnectionPoolIdleTimeout(Duration connectionPoolIdleTimeout)
+    {
+        this.connectionPoolIdleTimeout = connectionPoolIdleTimeout;
+        return this;
+    }
+
+    @NotNull
+    public Duration getConnectionPoolAcquireTimeout()
+    {
+        return connectionPoolAcquireTimeout;
+    }
+
+    @Config("db2.connection-pool.acquire-timeout")
+    @ConfigDescription("How long to wait for a pooled connection before opening an unpooled one, when all pooled connections of the user are in use")
+    public DB2Config setConnectionPoolAcquireTimeout(Duration connectionPoolAcquireTimeout)
+    {
+        this.connectionPoolAcquireTimeout = connectionPoolAcquireTimeout;
+        return this;
+    }
+
+    @NotNull
+    public List<String> getReadEndpoints()
+    {
+        return readEndpoints;
+    }
+
+    @Config("db2.read-endpoints")
+    @ConfigDescription("Comma-separated JDBC URLs of the HADR standbys, pureScale members or replicas that table scans read from")
+    public DB2Config setReadEndpoints(String readEndpoints)
+    {
+        this.readEndpoints = readEndpoints == null ? ImmutableList.of() : Splitter.on(',').trimResults().omitEmptyStrings().splitToList(readEndpoints);
+        return this;
+    }
+
+    @Min(1)
+    public int getReadEndpointsFailureThreshold()
+    {
+        return readEndpointsFailureThreshold;
+    }
+
+    @Config("db2.read-endpoints.failure-threshold")
+    @ConfigDescription("Number of consecutive connection failures after which a read endpoint is no longer used until the retry delay expires")
+    public DB2Config setReadEndpointsFailureThreshold(int readEndpointsFailureThreshold)
+    {
+        this.readEndpointsFailureThreshold = readEndpointsFailureThreshold;
+        return this;
+    }
+
+    @NotNull
+    public Duration getReadEndpointsRetryDelay()
+    {
+        return readEndpointsRetryDelay;
+    }
+
+    @Config("db2.read-endpoints.retry-delay")
+    @ConfigDescription("How long a failed read endpoint is not used")
+    public DB2Config setReadEndpointsRetryDelay(Duration readEndpointsRetryDelay)
+    {
+        this.readEndpointsRetryDelay = readEndpointsRetryDelay;
+        return this;
+    }
+
+    @Min(0)
+    public int getWriteCommitInterval()
+    {
+        return writeCommitInterval;
+    }
+
+    @Config("db2.write.commit-interval")
+    @ConfigDescription("Number of rows written by a single task between commits, 0 to commit once when the task finishes")
+    public DB2Config setWriteCommitInterval(int writeCommitInterval)
+    {
+        this.writeCommitInterval = writeCommitInterval;
+        return this;
+    }
+
+    public boolean isMultiRowInsertEnabled()
+    {
+        return multiRowInsertEnabled;
+    }
+
+    @Config("db2.multi-row-insert.enabled")
+    @ConfigDescription("Send batched inserts as multi-row INSERT statements")
+    public DB2Config setMultiRowInsertEnabled(boolean multiRowInsertEnabled)
+    {
+        this.multiRowInsertEnabled = multiRowInsertEnabled;
+        return this;
+    }
+
+    public boolean isAtomicMultiRowInsert()
+    {
+        return atomicMultiRowInsert;
+    }
+
+    @Config("db2.multi-row-insert.atomic")
+    @ConfigDescription("Fail a whole batch of inserted rows when one of its rows fails")
+    public DB2Config setAtomicMultiRowInsert(boolean atomicMultiRowInsert)
+    {
+        this.atomicMultiRowInsert = atomicMultiRowInsert;
+        return this;
+    }
+
+    public boolean isBulkLoadEnabled()
+    {
+        return bulkLoadEnabled;
+    }
+
+    @Config("db2.bulk-load.enabled")
+    @ConfigDescription("Write with the Db2 LOAD utility instead of INSERT statements")
+    public DB2Config setBulkLoadEnabled(boolean bulkLoadEnabled)
+    {
+        this.bulkLoadEnabled = bulkLoadEnabled;
+        return this;
+    }
+
+    public String getBulkLoadStagingDirectory()
+    {
+        return bulkLoadStagingDirectory;
+    }
+
+    @Config("db2.bulk-load.staging-directory")
+    @ConfigDescription("Directory shared by the Trino nodes and the Db2 server where the data to load is staged")
+    public DB2Config setBulkLoadStagingDirectory(String bulkLoadStagingDirectory)
+    {
+        this.bulkLoadStagingDirectory = bulkLoadStagingDirectory;
+        return this;
+    }
+
+    public String getBulkLoadServerStagingDirectory()
+    {
+        return bulkLoadServerStagingDirectory;
+    }
+
+    @Config("db2.bulk-load.server-staging-directory")
+    @ConfigDescription("Path of the staging directory on the Db2 server, when it differs from db2.bulk-load.staging-directory")
+    public DB2Config setBulkLoadServerStagingDirectory(String bulkLoadServerStagingDirectory)
+    {
+        this.bulkLoadServerStagingDirectory = bulkLoadServerStagingDirectory;
+        return this;
+    }
+
+    public boolean isBulkLoadNonrecoverable()
+    {
+        return bulkLoadNonrecoverable;
+    }
+
+    @Config("db2.bulk-load.nonrecoverable")
+    @ConfigDescription("Run LOAD as NONRECOVERABLE, the loaded table cannot be recovered by rollforward, otherwise the table space is left in backup pending state on databases with archive logging")
+    public DB2Config setBulkLoadNonrecoverable(boolean bulkLoadNonrecoverable)
+    {
+        this.bulkLoadNonrecoverable = bulkLoadNonrecoverable;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFetchTargetSize()
+    {
+        return fetchTargetSize;
+    }
+
+    @Config("db2.fetch.target-size")
+    @ConfigDescription("Amount of data fetched from Db2 in a single round trip, used to pick the fetch size of a table scan")
+    public DB2Config setFetchTargetSize(DataSize fetchTargetSize)
+    {
+        this.fetchTargetSize = fetchTargetSize;
+        return this;
+    }
+
+    @Min(0)
+    public int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    @Config("db2.fetch.size")
+    @ConfigDescription("Number of rows fetched from Db2 in a single round trip, 0 to derive it from the row size and db2.fetch.target-size")
+    public DB2Config setFetchSize(int fetchSize)
+    {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    public boolean isPrefetchEnabled()
+    {
+        return prefetchEnabled;
+    }
+
+    @Config("db2.prefetch.enabled")
+    @ConfigDescription("Read table scans on a separate thread that builds pages ahead of their processing")
+    public DB2Config setPrefetchEnabled(boolean prefetchEnabled)
+    {
+        this.prefetchEnabled = prefetchEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getPrefetchMaxBufferedPages()
+    {
+        return prefetchMaxBufferedPages;
+    }
+
+    @Config("db2.prefetch.max-buffered-pages")
+    @ConfigDescription("Maximum number of pages read ahead by a single table scan")
+    public DB2Config setPrefetchMaxBufferedPages(int prefetchMaxBufferedPages)
+    {
+        this.prefetchMaxBufferedPages = prefetchMaxBufferedPages;
+        return this;
+    }
+
+    @Min(1)
+    public int getPrefetchThreads()
+    {
+        return prefetchThreads;
+    }
+
+    @Config("db2.prefetch.threads")
+    @ConfigDescription("Maximum number of table scans read ahead at the same time on a node, the other scans are read without prefetching")
+    public DB2Config setPrefetchThreads(int prefetchThreads)
+    {
+        this.prefetchThreads = prefetchThreads;
+        return this;
+    }
+
+    public boolean isDynamicFilteringEnabled()
+    {
+        return dynamicFilteringEnabled;
+    }
+
+    @Config("db2.dynamic-filtering.enabled")
+    @ConfigDescription("Push dynamic filters into the queries of table scans")
+    public DB2Config setDynamicFilteringEnabled(boolean dynamicFilteringEnabled)
+    {
+        this.dynamicFilteringEnabled = dynamicFilteringEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Duration getDynamicFilteringWaitTimeout()
+    {
+        return dynamicFilteringWaitTimeout;
+    }
+
+    @Config("db2.dynamic-filtering.wait-timeout")
+    @ConfigDescription("Maximum time the splits of a table scan wait for dynamic filters to be collected")
+    public DB2Config setDynamicFilteringWaitTimeout(Duration dynamicFilteringWaitTimeout)
+    {
+        this.dynamicFilteringWaitTimeout = dynamicFilteringWaitTimeout;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getLobMaxValueSize()
+    {
+        return lobMaxValueSize;
+    }
+
+    @Config("db2.lob.max-value-size")
+    @ConfigDescription("Maximum size of a single CLOB or BLOB value read by a table scan")
+    public DB2Config setLobMaxValueSize(DataSize lobMaxValueSize)
+    {
+        this.lobMaxValueSize = lobMaxValueSize;
+        return this;
+    }
+
+    public boolean isLobProgressiveStreaming()
+    {
+        return lobProgressiveStreaming;
+    }
+
+    @Config("db2.lob.progressive-streaming")
+    @ConfigDescription("Stream LOB values with the rows instead of fetching them through LOB locators")
+    public DB2Config setLobProgressiveStreaming(boolean lobProgressiveStreaming)
+    {
+        this.lobProgressiveStreaming = lobProgressiveStreaming;
+        return this;
+    }
+
+    @NotNull
+    @MaxDataSize("1GB")
+    public DataSize getLobStreamBufferSize()
+    {
+        return lobStreamBufferSize;
+    }
+
+    @Config("db2.lob.stream-buffer-size")
+    @ConfigDescription("Size of the LOB values sent inline with the rows when progressive streaming is used, larger values are streamed in chunks of this size")
+    public DB2Config setLobStreamBufferSize(DataSize lobStreamBufferSize)
+    {
+        this.lobStreamBufferSize = lobStreamBufferSize;
+        return this;
+    }
+
+    @NotNull
+    public List<String> getScanCacheTables()
+    {
+        return scanCacheTables;
+    }
+
+    @Config("db2.scan-cache.tables")
+    @ConfigDescription("Comma-separated schema.table names of the tables whose scans are cached on the workers")
+    public DB2Config setScanCacheTables(String scanCacheTables)
+    {
+        this.scanCacheTables = scanCacheTables == null ? ImmutableList.of() : Splitter.on(',').trimResults().omitEmptyStrings().splitToList(scanCacheTables);
+        return this;
+    }
+
+    @NotNull
+    public Duration getScanCacheTtl()
+    {
+        return scanCacheTtl;
+    }
+
+    @Config("db2.scan-cache.ttl")
+    @ConfigDescription("How long the result of a table scan is cached")
+    public DB2Config setScanCacheTtl(Duration scanCacheTtl)
+    {
+        this.scanCacheTtl = scanCacheTtl;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getScanCacheMaxSize()
+    {
+        return scanCacheMaxSize;
+    }
+
+    @Config("db2.scan-cache.max-size")
+    @ConfigDescription("Maximum size of the cached table scans on a single node")
+    public DB2Config setScanCacheMaxSize(DataSize scanCacheMaxSize)
+    {
+        this.scanCacheMaxSize = scanCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    @MaxDataSize("1GB")
+    public DataSize getScanCacheMaxEntrySize()
+    {
+        return scanCacheMaxEntrySize;
+    }
+
+    @Config("db2.scan-cache.max-entry-size")
+    @ConfigDescription("Maximum size of the result of a single table scan to be cached")
+    public DB2Config setScanCacheMaxEntrySize(DataSize scanCacheMaxEntrySize)
+    {
+        this.scanCacheMaxEntrySize = scanCacheMaxEntrySize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getScanCacheVersionCheckInterval()
+    {
+        return scanCacheVersionCheckInterval;
+    }
+
+    @Config("db2.scan-cache.version-check-interval")
+    @ConfigDescription("How often the coordinator reads the ALTER_TIME and STATS_TIME of a cached table from SYSCAT.TABLES")
+    public DB2Config setScanCacheVersionCheckInterval(Duration scanCacheVersionCheckInterval)
+    {
+        this.scanCacheVersionCheckInterval = scanCacheVersionCheckInterval;
+        return this;
+    }
+
+    @Min(0)
+    public int getDeleteChunkSize()
+    {
+        return deleteChunkSize;
+    }
+
+    @Config("db2.delete.chunk-size")
+    @ConfigDescription("Number of rows deleted by a single statement, each committed separately, 0 to delete in a single statement")
+    public DB2Config setDeleteChunkSize(int deleteChunkSize)
+    {
+        this.deleteChunkSize = deleteChunkSize;
+        return this;
+    }
+
+    public boolean isTableSamplePushdownEnabled()
+    {
+        return tableSamplePushdownEnabled;
+    }
+
+    @Config("db2.table-sample-pushdown.enabled")
+    @ConfigDescription("Sample tables in Db2 with the TABLESAMPLE clause")
+    public DB2Config setTableSamplePushdownEnabled(boolean tableSamplePushdownEnabled)
+    {
+        this.tableSamplePushdownEnabled = tableSamplePushdownEnabled;
+        return this;
+    }
+
+    public boolean isMqtRoutingEnabled()
+    {
+        return mqtRoutingEnabled;
+    }
+
+    @Config("db2.mqt-routing.enabled")
+    @ConfigDescription("Let Db2 route table scans to the REFRESH DEFERRED MQTs of the tables when they are all refreshed recently enough")
+    public DB2Config setMqtRoutingEnabled(boolean mqtRoutingEnabled)
+    {
+        this.mqtRoutingEnabled = mqtRoutingEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMqtRoutingMaxStaleness()
+    {
+        return mqtRoutingMaxStaleness;
+    }
+
+    @Config("db2.mqt-routing.max-staleness")
+    @ConfigDescription("Maximum time since the last refresh of the MQTs a table scan is routed to")
+    public DB2Config setMqtRoutingMaxStaleness(Duration mqtRoutingMaxStaleness)
+    {
+        this.mqtRoutingMaxStaleness = mqtRoutingMaxStaleness;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMqtRoutingCacheTtl()
+    {
+        return mqtRoutingCacheTtl;
+    }
+
+    @Config("db2.mqt-routing.cache-ttl")
+    @ConfigDescription("How long the MQTs of a table and their refresh times are cached")
+    public DB2Config setMqtRoutingCacheTtl(Duration mqtRoutingCacheTtl)
+    {
+        this.mqtRoutingCacheTtl = mqtRoutingCacheTtl;
+        return this;
+    }
+
+    public boolean isExplainStatisticsEnabled()
+    {
+        return explainStatisticsEnabled;
+    }
+
+    @Config("db2.explain-statistics.enabled")
+    @ConfigDescription("Estimate the row count of pushed down queries with the Db2 EXPLAIN statement")
+    public DB2Config setExplainStatisticsEnabled(boolean explainStatisticsEnabled)
+    {
+        this.explainStatisticsEnabled = explainStatisticsEnabled;
+        return this;
+    }
+
+    @NotNull
+    public String getExplainStatisticsSchema()
+    {
+        return explainStatisticsSchema;
+    }
+
+    @Config("db2.explain-statistics.schema")
+    @ConfigDescription("Schema of the explain tables the EXPLAIN statement writes to")
+    public DB2Config setExplainStatisticsSchema(String explainStatisticsSchema)
+    {
+        this.explainStatisticsSchema = explainStatisticsSchema;
+        return this;
+    }
+
+    @NotNull
+    public Duration getExplainStatisticsTimeout()
+    {
+        return explainStatisticsTimeout;
+    }
+
+    @Config("db2.explain-statistics.timeout")
+    @ConfigDescription("Maximum time spent explaining a pushed down query, rounded up to seconds")
+    public DB2Config setExplainStatisticsTimeout(Duration explainStatisticsTimeout)
+    {
+        this.explainStatisticsTimeout = explainStatisticsTimeout;
+        return this;
+    }
+
+    @NotNull
+    public Duration getExplainStatisticsCacheTtl()
+    {
+        return explainStatisticsCacheTtl;
+    }
+
+    @Config("db2.explain-statistics.cache-ttl")
+    @ConfigDescription("How long the row count estimated for a pushed down query is cached")
+    public DB2Config setExplainStatisticsCacheTtl(Duration explainStatisticsCacheTtl)
+    {
+        this.explainStatisticsCacheTtl = explainStatisticsCacheTtl;
+        return this;
+    }
+
+    public enum ConcurrentAccessResolution
+    {
+        /** The cur_commit setting of the database */
+        DATABASE_DEFAULT(0),
+        USE_CURRENTLY_COMMITTED(1),
+        WAIT_FOR_OUTCOME(2);
+
+        // values of the concurrentAccessResolution property of the JCC driver
+        private final int jccValue;
+
+        ConcurrentAccessResolution(int jccValue)
+        {
+            this.jccValue = jccValue;
+        }
+
+        public int getJccValue()
+        {
+            return jccValue;
+        }
+    }
 }
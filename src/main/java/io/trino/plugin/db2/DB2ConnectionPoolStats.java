@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class DB2ConnectionPoolStats
+{
+    private final TimeStat acquireTime = new TimeStat(MILLISECONDS);
+    private final CounterStat connectionsCreated = new CounterStat();
+    private final CounterStat connectionsClosed = new CounterStat();
+    private final CounterStat validationFailures = new CounterStat();
+    private final CounterStat acquireTimeouts = new CounterStat();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger idleConnections = new AtomicInteger();
+    private final AtomicInteger pendingAcquires = new AtomicInteger();
+
+    @Managed
+    @Nested
+    public TimeStat getAcquireTime()
+    {
+        return acquireTime;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getConnectionsCreated()
+    {
+        return connectionsCreated;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getConnectionsClosed()
+    {
+        return connectionsClosed;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getValidationFailures()
+    {
+        return validationFailures;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getAcquireTimeouts()
+    {
+        return acquireTimeouts;
+    }
+
+    @Managed
+    public int getActiveConnections()
+    {
+        return activeConnections.get();
+    }
+
+    @Managed
+    public int getIdleConnections()
+    {
+        return idleConnections.get();
+    }
+
+    /**
+     * Number of callers waiting for a connection because their pool is saturated.
+     */
+    @Managed
+    public int getPendingAcquires()
+    {
+        return pendingAcquires.get();
+    }
+
+    AtomicInteger activeConnections()
+    {
+        return activeConnections;
+    }
+
+    AtomicInteger idleConnections()
+    {
+        return idleConnections;
+    }
+
+    AtomicInteger pendingAcquires()
+    {
+        return pendingAcquires;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.slice.Slice;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.Range;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.Int128;
+import io.trino.spi.type.LongTimestamp;
+import io.trino.spi.type.TimestampType;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.VarcharType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static io.trino.plugin.db2.DB2ColumnMappings.formatDate;
+import static io.trino.plugin.db2.DB2ColumnMappings.formatTimestamp;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.SmallintType.SMALLINT;
+import static io.trino.spi.type.TinyintType.TINYINT;
+import static java.lang.String.format;
+import static java.lang.String.join;
+
+/**
+ * Renders the dynamic filters of a table scan as SQL, to be added to the predicate of its splits.
+ * Domains with more values than the compaction threshold are compacted into a single range, which bounds the
+ * size of the statement. Columns of other types than integers, decimals, dates, timestamps and sets of varchar
+ * values, and columns whose mapping does not push down predicates as they are, like LOB columns and columns converted
+ * to varchar, are left out, which only makes the predicate less selective.
+ */
+final class DB2DynamicFilterPredicate
+{
+    private DB2DynamicFilterPredicate() {}
+
+    public static Optional<String> toPredicate(TupleDomain<ColumnHandle> dynamicFilter, int domainCompactionThreshold, Predicate<JdbcColumnHandle> isFullPushdown)
+    {
+        TupleDomain<ColumnHandle> compacted = dynamicFilter.simplify(domainCompactionThreshold);
+        if (compacted.isNone()) {
+            return Optional.of("1 = 0");
+        }
+        List<String> conjuncts = new ArrayList<>();
+        for (Map.Entry<ColumnHandle, Domain> entry : compacted.getDomains().orElseThrow().entrySet()) {
+            JdbcColumnHandle column = (JdbcColumnHandle) entry.getKey();
+            if (!isFullPushdown.test(column)) {
+                // Db2 does not compare LOB values, and would not compare converted values as the engine does
+                continue;
+            }
+            toPredicate(quoted(column.getColumnName()), entry.getValue()).ifPresent(conjuncts::add);
+        }
+        if (conjuncts.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(join(" AND ", conjuncts));
+    }
+
+    private static Optional<String> toPredicate(String column, Domain domain)
+    {
+        if (domain.isOnlyNull()) {
+            return Optional.of(column + " IS NULL");
+        }
+        if (domain.getValues().isAll()) {
+            return domain.isNullAllowed() ? Optional.empty() : Optional.of(column + " IS NOT NULL");
+        }
+        Type type = domain.getType();
+        if (!isSupported(type)) {
+            return Optional.empty();
+        }
+        // the order of varchar values in Db2 depends on the collation of the database
+        if (type instanceof VarcharType && !domain.getValues().isDiscreteSet()) {
+            return Optional.empty();
+        }
+
+        List<String> disjuncts = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (Range range : domain.getValues().getRanges().getOrderedRanges()) {
+            if (range.isSingleValue()) {
+                values.add(toLiteral(type, range.getSingleValue()));
+                continue;
+            }
+            List<String> bounds = new ArrayList<>();
+            if (!range.isLowUnbounded()) {
+                bounds.add(format("%s %s %s", column, range.isLowInclusive() ? ">=" : ">", toLiteral(type, range.getLowBoundedValue())));
+            }
+            if (!range.isHighUnbounded()) {
+                bounds.add(format("%s %s %s", column, range.isHighInclusive() ? "<=" : "<", toLiteral(type, range.getHighBoundedValue())));
+            }
+            disjuncts.add(bounds.size() == 1 ? bounds.get(0) : "(" + join(" AND ", bounds) + ")");
+        }
+        if (values.size() == 1) {
+            disjuncts.add(column + " = " + values.get(0));
+        }
+        else if (values.size() > 1) {
+            disjuncts.add(column + " IN (" + join(", ", values) + ")");
+        }
+        if (domain.isNullAllowed()) {
+            disjuncts.add(column + " IS NULL");
+        }
+        return Optional.of(disjuncts.size() == 1 ? disjuncts.get(0) : "(" + join(" OR ", disjuncts) + ")");
+    }
+
+    private static boolean isSupported(Type type)
+    {
+        return type == BIGINT ||
+                type == INTEGER ||
+                type == SMALLINT ||
+                type == TINYINT ||
+                type == DATE ||
+                type instanceof DecimalType ||
+                type instanceof TimestampType ||
+                type instanceof VarcharType;
+    }
+
+    private static String toLiteral(Type type, Object value)
+    {
+        if (type instanceof DecimalType) {
+            DecimalType decimalType = (DecimalType) type;
+            if (decimalType.isShort()) {
+                return BigDecimal.valueOf((long) value, decimalType.getScale()).toPlainString();
+            }
+            return new BigDecimal(((Int128) value).toBigInteger(), decimalType.getScale()).toPlainString();
+        }
+        if (type == DATE) {
+            return format("DATE('%s')", formatDate((long) value));
+        }
+        if (type instanceof TimestampType) {
+            TimestampType timestampType = (TimestampType) type;
+            if (timestampType.isShort()) {
+                return format("TIMESTAMP('%s')", formatTimestamp((long) value, 0, timestampType.getPrecision()));
+            }
+            LongTimestamp timestamp = (LongTimestamp) value;
+            return format("TIMESTAMP('%s')", formatTimestamp(timestamp.getEpochMicros(), timestamp.getPicosOfMicro(), timestampType.getPrecision()));
+        }
+        if (type instanceof VarcharType) {
+            return "'" + ((Slice) value).toStringUtf8().replace("'", "''") + "'";
+        }
+        return String.valueOf((long) value);
+    }
+
+    private static String quoted(String name)
+    {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.log.Logger;
+import io.airlift.units.Duration;
+import io.trino.spi.statistics.Estimate;
+import io.trino.spi.statistics.TableStatistics;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.OptionalDouble;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Estimates the row count of pushed down queries, which have no catalog statistics, with the cardinality estimated by
+ * the Db2 optimizer. The query is explained into the explain tables, and its explain instance deleted once read. The
+ * estimates are cached by the text of the query, whose parameters are left as markers, so queries of the same shape
+ * share an estimate. Failed and timed out explains are cached as unknown, which keeps them from slowing down planning.
+ */
+public class DB2ExplainStatisticsProvider
+{
+    private static final Logger log = Logger.get(DB2ExplainStatisticsProvider.class);
+    private static final long MAX_CACHED_QUERIES = 10_000;
+
+    private final boolean enabled;
+    private final String explainSchema;
+    private final int timeoutSeconds;
+    private final Cache<String, OptionalDouble> cache;
+
+    @Inject
+    public DB2ExplainStatisticsProvider(DB2Config config)
+    {
+        this(config.isExplainStatisticsEnabled(), config.getExplainStatisticsSchema(), config.getExplainStatisticsTimeout(), config.getExplainStatisticsCacheTtl());
+    }
+
+    DB2ExplainStatisticsProvider(boolean enabled, String explainSchema, Duration timeout, Duration ttl)
+    {
+        this.enabled = enabled;
+        this.explainSchema = requireNonNull(explainSchema, "explainSchema is null");
+        // the query timeout of JDBC is in seconds
+        this.timeoutSeconds = max(1, toIntExact((long) Math.ceil(timeout.getValue(SECONDS))));
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .maximumSize(MAX_CACHED_QUERIES)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public TableStatistics getTableStatistics(String query, RowCountLoader loader)
+    {
+        if (!enabled) {
+            return TableStatistics.empty();
+        }
+        OptionalDouble rowCount = cache.getIfPresent(query);
+        if (rowCount == null) {
+            try {
+                rowCount = loader.load(query);
+            }
+            catch (SQLException e) {
+                log.debug(e, "Failed to explain query: %s", query);
+                rowCount = OptionalDouble.empty();
+            }
+            cache.put(query, rowCount);
+        }
+        if (rowCount.isEmpty()) {
+            return TableStatistics.empty();
+        }
+        return TableStatistics.builder()
+                .setRowCount(Estimate.of(rowCount.getAsDouble()))
+                .build();
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getCacheStats()
+    {
+        return new DB2CacheStats(cache);
+    }
+
+    /**
+     * Returns the number of rows returned by the query, as estimated by the Db2 optimizer.
+     */
+    public OptionalDouble explainRowCount(Connection connection, String query)
+            throws SQLException
+    {
+        // identifies the explained statement among the statements explained concurrently by the same user
+        int queryNumber = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(timeoutSeconds);
+            statement.execute(format("EXPLAIN PLAN SET QUERYNO = %s FOR %s", queryNumber, query));
+        }
+
+        OptionalDouble rowCount;
+        Timestamp explainTime;
+        String sourceName;
+        String sourceSchema;
+        String sourceVersion;
+        // the stream returned by the RETURN operator, the root of the plan
+        try (PreparedStatement statement = connection.prepareStatement(format("" +
+                "SELECT S.STREAM_COUNT, T.EXPLAIN_TIME, T.SOURCE_NAME, T.SOURCE_SCHEMA, T.SOURCE_VERSION " +
+                "FROM %1$s.EXPLAIN_STATEMENT T JOIN %1$s.EXPLAIN_STREAM S " +
+                "ON S.EXPLAIN_REQUESTER = T.EXPLAIN_REQUESTER AND S.EXPLAIN_TIME = T.EXPLAIN_TIME AND S.SOURCE_NAME = T.SOURCE_NAME " +
+                "AND S.SOURCE_SCHEMA = T.SOURCE_SCHEMA AND S.SOURCE_VERSION = T.SOURCE_VERSION AND S.EXPLAIN_LEVEL = T.EXPLAIN_LEVEL " +
+                "AND S.STMTNO = T.STMTNO AND S.SECTNO = T.SECTNO " +
+                "WHERE T.EXPLAIN_REQUESTER = CURRENT USER AND T.QUERYNO = ? AND T.EXPLAIN_LEVEL = 'P' " +
+                "AND S.TARGET_TYPE = 'O' AND S.TARGET_ID = 1 " +
+                "ORDER BY T.EXPLAIN_TIME DESC FETCH FIRST 1 ROW ONLY", explainSchema))) {
+            statement.setQueryTimeout(timeoutSeconds);
+            statement.setInt(1, queryNumber);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return OptionalDouble.empty();
+                }
+                double streamCount = resultSet.getDouble(1);
+                rowCount = resultSet.wasNull() ? OptionalDouble.empty() : OptionalDouble.of(streamCount);
+                explainTime = resultSet.getTimestamp(2);
+                sourceName = resultSet.getString(3);
+                sourceSchema = resultSet.getString(4);
+                sourceVersion = resultSet.getString(5);
+            }
+        }
+
+        // the rows of the explain instance in the other explain tables are deleted with it
+        try (PreparedStatement statement = connection.prepareStatement(format("" +
+                "DELETE FROM %s.EXPLAIN_INSTANCE " +
+                "WHERE EXPLAIN_REQUESTER = CURRENT USER AND EXPLAIN_TIME = ? AND SOURCE_NAME = ? AND SOURCE_SCHEMA = ? AND SOURCE_VERSION = ?", explainSchema))) {
+            statement.setTimestamp(1, explainTime);
+            statement.setString(2, sourceName);
+            statement.setString(3, sourceSchema);
+            statement.setString(4, sourceVersion);
+            statement.executeUpdate();
+        }
+        return rowCount;
+    }
+
+    public interface RowCountLoader
+    {
+        OptionalDouble load(String query)
+                throws SQLException;
+    }
+}
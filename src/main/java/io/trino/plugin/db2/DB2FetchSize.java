@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.units.DataSize;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcTypeHandle;
+import io.trino.spi.connector.ConnectorSession;
+
+import java.sql.Types;
+import java.util.List;
+
+import static io.trino.plugin.db2.DB2SessionProperties.getFetchTargetSize;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Picks the number of rows fetched in a single round trip from the width of the projected columns,
+ * so that narrow rows are fetched in large blocks and wide rows do not exceed the target block size.
+ */
+public final class DB2FetchSize
+{
+    static final int MIN_FETCH_SIZE = 16;
+    static final int MAX_FETCH_SIZE = 10_000;
+
+    // bounds of the JCC queryDataSize property
+    private static final long MIN_QUERY_DATA_SIZE = 32_767;
+    private static final long MAX_QUERY_DATA_SIZE = 10_485_760;
+
+    // a LOB value up to this size is sent inline with the row when progressive streaming is used
+    private static final int INLINE_LOB_SIZE = 32_767;
+    private static final int UNKNOWN_COLUMN_SIZE = 16;
+
+    private DB2FetchSize() {}
+
+    public static int getFetchSize(ConnectorSession session, List<JdbcColumnHandle> columns)
+    {
+        int fetchSize = DB2SessionProperties.getFetchSize(session);
+        if (fetchSize > 0) {
+            return fetchSize;
+        }
+        return fetchSize(getFetchTargetSize(session), estimateRowSize(columns));
+    }
+
+    static int fetchSize(DataSize targetSize, long rowSize)
+    {
+        long rows = targetSize.toBytes() / max(rowSize, 1);
+        return toIntExact(min(max(rows, MIN_FETCH_SIZE), MAX_FETCH_SIZE));
+    }
+
+    /**
+     * Value of the JCC queryDataSize property, the size of the blocks returned by Db2 for a cursor.
+     */
+    public static long queryDataSize(DataSize targetSize)
+    {
+        return min(max(targetSize.toBytes(), MIN_QUERY_DATA_SIZE), MAX_QUERY_DATA_SIZE);
+    }
+
+    /**
+     * Estimates the size of a row as sent by Db2, from the declared sizes of the columns.
+     */
+    static long estimateRowSize(List<JdbcColumnHandle> columns)
+    {
+        long rowSize = 0;
+        for (JdbcColumnHandle column : columns) {
+            // null indicator
+            rowSize += 1 + estimateColumnSize(column.getJdbcTypeHandle());
+        }
+        return rowSize;
+    }
+
+    private static int estimateColumnSize(JdbcTypeHandle typeHandle)
+    {
+        switch (typeHandle.getJdbcType()) {
+            case Types.BOOLEAN:
+            case Types.BIT:
+            case Types.TINYINT:
+                return 1;
+            case Types.SMALLINT:
+                return 2;
+            case Types.INTEGER:
+            case Types.REAL:
+            case Types.DATE:
+                return 4;
+            case Types.BIGINT:
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.TIME:
+                return 8;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                // packed decimal
+                return typeHandle.getColumnSize().orElse(31) / 2 + 1;
+            case Types.TIMESTAMP:
+                // yyyy-mm-dd-hh.mm.ss.nnnnnn
+                return 20 + typeHandle.getDecimalDigits().orElse(6);
+            case Types.CHAR:
+            case Types.NCHAR:
+            case Types.BINARY:
+                return typeHandle.getColumnSize().orElse(UNKNOWN_COLUMN_SIZE);
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+            case Types.VARBINARY:
+                // length prefix
+                return 2 + min(typeHandle.getColumnSize().orElse(UNKNOWN_COLUMN_SIZE), INLINE_LOB_SIZE);
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.LONGVARBINARY:
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.BLOB:
+                return INLINE_LOB_SIZE;
+            default:
+                return UNKNOWN_COLUMN_SIZE;
+        }
+    }
+}
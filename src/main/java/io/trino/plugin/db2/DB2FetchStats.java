@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.DistributionStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+public class DB2FetchStats
+{
+    private final DistributionStat fetchSize = new DistributionStat();
+    private final DistributionStat estimatedRowSize = new DistributionStat();
+    private final DistributionStat roundTripsPerSplit = new DistributionStat();
+    private final CounterStat roundTrips = new CounterStat();
+
+    @Managed
+    @Nested
+    public DistributionStat getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getEstimatedRowSize()
+    {
+        return estimatedRowSize;
+    }
+
+    /**
+     * Fetch round trips of a split, estimated from the rows read and the fetch size.
+     */
+    @Managed
+    @Nested
+    public DistributionStat getRoundTripsPerSplit()
+    {
+        return roundTripsPerSplit;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getRoundTrips()
+    {
+        return roundTrips;
+    }
+
+    public void recordSplit(int fetchSize, long estimatedRowSize, long rows)
+    {
+        // the last fetch returns the end of the result set
+        long roundTrips = rows / fetchSize + 1;
+        this.fetchSize.add(fetchSize);
+        this.estimatedRowSize.add(estimatedRowSize);
+        this.roundTripsPerSplit.add(roundTrips);
+        this.roundTrips.update(roundTrips);
+    }
+}
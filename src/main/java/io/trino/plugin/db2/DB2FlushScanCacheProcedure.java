@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.spi.TrinoException;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.procedure.Procedure;
+import io.trino.spi.procedure.Procedure.Argument;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import java.lang.invoke.MethodHandle;
+
+import static io.trino.spi.StandardErrorCode.INVALID_PROCEDURE_ARGUMENT;
+import static io.trino.spi.type.VarcharType.VARCHAR;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@code CALL system.flush_db2_scan_cache()} flushes all the cached Db2 table scans, and
+ * {@code CALL system.flush_db2_scan_cache('schema', 'table')} the scans of a schema or a table only.
+ */
+public class DB2FlushScanCacheProcedure
+        implements Provider<Procedure>
+{
+    private static final MethodHandle FLUSH_SCAN_CACHE;
+
+    static {
+        try {
+            FLUSH_SCAN_CACHE = lookup().findVirtual(DB2FlushScanCacheProcedure.class, "flushScanCache", methodType(void.class, String.class, String.class));
+        }
+        catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private final DB2ScanCache scanCache;
+
+    @Inject
+    public DB2FlushScanCacheProcedure(DB2ScanCache scanCache)
+    {
+        this.scanCache = requireNonNull(scanCache, "scanCache is null");
+    }
+
+    @Override
+    public Procedure get()
+    {
+        return new Procedure(
+                "system",
+                "flush_db2_scan_cache",
+                ImmutableList.of(
+                        new Argument("SCHEMA_NAME", VARCHAR, false, null),
+                        new Argument("TABLE_NAME", VARCHAR, false, null)),
+                FLUSH_SCAN_CACHE.bindTo(this));
+    }
+
+    public void flushScanCache(String schemaName, String tableName)
+    {
+        if (schemaName == null) {
+            if (tableName != null) {
+                throw new TrinoException(INVALID_PROCEDURE_ARGUMENT, "schema_name is required when table_name is set");
+            }
+            scanCache.flush();
+        }
+        else if (tableName == null) {
+            scanCache.flush(schemaName.toLowerCase(ENGLISH));
+        }
+        else {
+            scanCache.flush(new SchemaTableName(schemaName, tableName));
+        }
+    }
+}
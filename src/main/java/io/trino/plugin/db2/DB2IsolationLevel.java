@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+/**
+ * Db2 isolation levels, in the form of the isolation clause of a SELECT statement.
+ */
+public enum DB2IsolationLevel
+{
+    /** Uncommitted read, rows are read without locks */
+    UR,
+    /** Cursor stability, only committed rows are read */
+    CS,
+    /** Read stability, the rows read are locked until the end of the transaction */
+    RS,
+    /** Repeatable read, the ranges read are locked until the end of the transaction */
+    RR,
+}
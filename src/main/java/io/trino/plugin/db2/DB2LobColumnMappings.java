@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import io.trino.plugin.db2.DB2ColumnMappings.NullSafeReadFunction;
+import io.trino.plugin.jdbc.ColumnMapping;
+import io.trino.plugin.jdbc.JdbcTypeHandle;
+import io.trino.plugin.jdbc.SliceReadFunction;
+import io.trino.spi.TrinoException;
+import io.trino.spi.type.VarcharType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.trino.plugin.jdbc.PredicatePushdownController.DISABLE_PUSHDOWN;
+import static io.trino.plugin.jdbc.StandardColumnMappings.varbinaryWriteFunction;
+import static io.trino.plugin.jdbc.StandardColumnMappings.varcharWriteFunction;
+import static io.trino.spi.StandardErrorCode.EXCEEDED_LOCAL_MEMORY_LIMIT;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+import static io.trino.spi.type.VarcharType.createUnboundedVarcharType;
+import static io.trino.spi.type.VarcharType.createVarcharType;
+import static java.lang.String.format;
+import static java.nio.charset.CodingErrorAction.REPLACE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Column mappings of the Db2 CLOB, DBCLOB and BLOB types, which read the values in chunks from the stream of
+ * the LOB instead of materializing them as a {@link String} or a byte array first, and fail values larger than
+ * the maximum size instead of buffering them. With progressive streaming, JCC sends small values inline and
+ * fetches larger ones as they are read; without it, the values are fetched through LOB locators.
+ */
+public final class DB2LobColumnMappings
+{
+    private static final int CHUNK_SIZE = 8192;
+
+    private DB2LobColumnMappings() {}
+
+    /**
+     * A read function reading the LOB once, through the read function, which returns an empty value for NULL.
+     * Checking for NULL on its own only gets the LOB object, the value is not fetched.
+     */
+    public interface LobReadFunction
+            extends SliceReadFunction, NullSafeReadFunction
+    {
+        @Override
+        default boolean isNull(ResultSet resultSet, int columnIndex)
+                throws SQLException
+        {
+            return resultSet.getObject(columnIndex) == null;
+        }
+    }
+
+    public static boolean isLob(JdbcTypeHandle typeHandle)
+    {
+        switch (typeHandle.getJdbcType()) {
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.BLOB:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static ColumnMapping clobColumnMapping(int columnSize, DataSize maxValueSize)
+    {
+        VarcharType type = columnSize <= 0 || columnSize > VarcharType.MAX_LENGTH ? createUnboundedVarcharType() : createVarcharType(columnSize);
+        // Db2 does not compare LOB values
+        return ColumnMapping.sliceMapping(type, clobReadFunction(maxValueSize), varcharWriteFunction(), DISABLE_PUSHDOWN);
+    }
+
+    public static LobReadFunction clobReadFunction(DataSize maxValueSize)
+    {
+        long maxBytes = maxValueSize.toBytes();
+        return (resultSet, columnIndex) -> {
+            Clob clob = resultSet.getClob(columnIndex);
+            if (clob == null) {
+                return EMPTY_SLICE;
+            }
+            try (Reader reader = clob.getCharacterStream()) {
+                return readUtf8(reader, maxBytes);
+            }
+            catch (IOException e) {
+                throw new SQLException("Failed reading CLOB value", e);
+            }
+            finally {
+                // releases the locator of the value
+                clob.free();
+            }
+        };
+    }
+
+    public static ColumnMapping blobColumnMapping(DataSize maxValueSize)
+    {
+        return ColumnMapping.sliceMapping(VARBINARY, blobReadFunction(maxValueSize), varbinaryWriteFunction(), DISABLE_PUSHDOWN);
+    }
+
+    public static LobReadFunction blobReadFunction(DataSize maxValueSize)
+    {
+        long maxBytes = maxValueSize.toBytes();
+        return (resultSet, columnIndex) -> {
+            Blob blob = resultSet.getBlob(columnIndex);
+            if (blob == null) {
+                return EMPTY_SLICE;
+            }
+            try (InputStream input = blob.getBinaryStream()) {
+                return readBytes(input, maxBytes);
+            }
+            catch (IOException e) {
+                throw new SQLException("Failed reading BLOB value", e);
+            }
+            finally {
+                blob.free();
+            }
+        };
+    }
+
+    static Slice readUtf8(Reader reader, long maxBytes)
+            throws IOException
+    {
+        CharsetEncoder encoder = UTF_8.newEncoder()
+                .onMalformedInput(REPLACE)
+                .onUnmappableCharacter(REPLACE);
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+        // a char is encoded in at most 3 bytes, a surrogate pair in 4
+        ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE * 3);
+        DynamicSliceOutput output = new DynamicSliceOutput(CHUNK_SIZE);
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            endOfInput = reader.read(chars) == -1;
+            chars.flip();
+            // the high surrogate of a pair split between two chunks is kept for the next one
+            encoder.encode(chars, bytes, endOfInput);
+            chars.compact();
+            if (endOfInput) {
+                encoder.flush(bytes);
+            }
+            bytes.flip();
+            if (output.size() + bytes.remaining() > maxBytes) {
+                throw valueTooLarge(maxBytes);
+            }
+            output.writeBytes(bytes.array(), 0, bytes.remaining());
+            bytes.clear();
+        }
+        return output.slice();
+    }
+
+    static Slice readBytes(InputStream input, long maxBytes)
+            throws IOException
+    {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        DynamicSliceOutput output = new DynamicSliceOutput(CHUNK_SIZE);
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            if (output.size() + read > maxBytes) {
+                throw valueTooLarge(maxBytes);
+            }
+            output.writeBytes(buffer, 0, read);
+        }
+        return output.slice();
+    }
+
+    private static TrinoException valueTooLarge(long maxBytes)
+    {
+        return new TrinoException(EXCEEDED_LOCAL_MEMORY_LIMIT, format("LOB value exceeds the maximum size of %s, set with db2.lob.max-value-size", DataSize.succinctBytes(maxBytes)));
+    }
+}
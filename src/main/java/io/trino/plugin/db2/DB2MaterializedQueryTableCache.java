@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.connector.SchemaTableName;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Caches the REFRESH DEFERRED materialized query tables (MQTs) defined over a table, with the time since their last
+ * refresh. Db2 only routes queries to these MQTs when the CURRENT REFRESH AGE special register is not 0, in which case
+ * it considers all of them however stale they are, so queries are routed only when all the MQTs defined over the
+ * tables they read were refreshed recently enough.
+ */
+public class DB2MaterializedQueryTableCache
+{
+    private static final long MAX_CACHED_TABLES = 10_000;
+
+    private final Cache<SchemaTableName, Entry> cache;
+    private final Ticker ticker;
+
+    @Inject
+    public DB2MaterializedQueryTableCache(DB2Config config)
+    {
+        this(config.getMqtRoutingCacheTtl(), Ticker.systemTicker());
+    }
+
+    DB2MaterializedQueryTableCache(Duration ttl, Ticker ticker)
+    {
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .maximumSize(MAX_CACHED_TABLES)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns whether queries reading the tables can be routed to their MQTs, which is when at least one of the tables
+     * has an MQT and all their MQTs were refreshed at most {@code maxStaleness} ago.
+     */
+    public boolean isRoutable(Collection<SchemaTableName> tables, Duration maxStaleness, MaterializedQueryTableLoader loader)
+            throws SQLException
+    {
+        boolean hasMaterializedQueryTables = false;
+        for (SchemaTableName table : tables) {
+            Entry entry = cache.getIfPresent(table);
+            if (entry == null) {
+                entry = new Entry(loader.load(table), ticker.read());
+                cache.put(table, entry);
+            }
+            // the ages are advanced by the time since they were read
+            long elapsedSeconds = NANOSECONDS.toSeconds(ticker.read() - entry.getLoadedNanos());
+            for (MaterializedQueryTable materializedQueryTable : entry.getMaterializedQueryTables()) {
+                OptionalLong refreshAge = materializedQueryTable.getRefreshAgeSeconds();
+                if (refreshAge.isEmpty() || refreshAge.getAsLong() + elapsedSeconds > maxStaleness.roundTo(SECONDS)) {
+                    return false;
+                }
+                hasMaterializedQueryTables = true;
+            }
+        }
+        return hasMaterializedQueryTables;
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getCacheStats()
+    {
+        return new DB2CacheStats(cache);
+    }
+
+    public static List<MaterializedQueryTable> loadMaterializedQueryTables(Connection connection, RemoteTableName table)
+            throws SQLException
+    {
+        checkArgument(table.getSchemaName().isPresent(), "Table without schema: %s", table);
+        ImmutableList.Builder<MaterializedQueryTable> materializedQueryTables = ImmutableList.builder();
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT T.TABSCHEMA, T.TABNAME, TIMESTAMPDIFF(2, CHAR(CURRENT TIMESTAMP - T.REFRESH_TIME)) FROM SYSCAT.TABLES T " +
+                "JOIN SYSCAT.TABDEP D ON D.TABSCHEMA = T.TABSCHEMA AND D.TABNAME = T.TABNAME " +
+                "WHERE T.TYPE = 'S' AND T.REFRESH = 'D' AND D.DTYPE = 'S' AND D.BSCHEMA = ? AND D.BNAME = ?")) {
+            statement.setString(1, table.getSchemaName().get());
+            statement.setString(2, table.getTableName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    long refreshAge = resultSet.getLong(3);
+                    // REFRESH_TIME is null until the MQT is refreshed for the first time
+                    materializedQueryTables.add(new MaterializedQueryTable(
+                            new RemoteTableName(table.getCatalogName(), Optional.of(resultSet.getString(1).trim()), resultSet.getString(2)),
+                            resultSet.wasNull() ? OptionalLong.empty() : OptionalLong.of(refreshAge)));
+                }
+            }
+        }
+        return materializedQueryTables.build();
+    }
+
+    public interface MaterializedQueryTableLoader
+    {
+        List<MaterializedQueryTable> load(SchemaTableName table)
+                throws SQLException;
+    }
+
+    public static class MaterializedQueryTable
+    {
+        private final RemoteTableName name;
+        private final OptionalLong refreshAgeSeconds;
+
+        public MaterializedQueryTable(RemoteTableName name, OptionalLong refreshAgeSeconds)
+        {
+            this.name = requireNonNull(name, "name is null");
+            this.refreshAgeSeconds = requireNonNull(refreshAgeSeconds, "refreshAgeSeconds is null");
+        }
+
+        public RemoteTableName getName()
+        {
+            return name;
+        }
+
+        /**
+         * Time since the last refresh of the MQT when it was read, empty when it was never refreshed.
+         */
+        public OptionalLong getRefreshAgeSeconds()
+        {
+            return refreshAgeSeconds;
+        }
+    }
+
+    private static class Entry
+    {
+        private final List<MaterializedQueryTable> materializedQueryTables;
+        private final long loadedNanos;
+
+        public Entry(List<MaterializedQueryTable> materializedQueryTables, long loadedNanos)
+        {
+            this.materializedQueryTables = ImmutableList.copyOf(requireNonNull(materializedQueryTables, "materializedQueryTables is null"));
+            this.loadedNanos = loadedNanos;
+        }
+
+        public List<MaterializedQueryTable> getMaterializedQueryTables()
+        {
+            return materializedQueryTables;
+        }
+
+        public long getLoadedNanos()
+        {
+            return loadedNanos;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.slice.Slice;
+import io.trino.plugin.jdbc.DefaultJdbcMetadata;
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.plugin.jdbc.JdbcQueryEventListener;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.spi.connector.ConnectorInsertTableHandle;
+import io.trino.spi.connector.ConnectorOutputMetadata;
+import io.trino.spi.connector.ConnectorOutputTableHandle;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorTableHandle;
+import io.trino.spi.connector.SampleType;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.statistics.ComputedStatistics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Adds the pushdown of table samples to Db2, see {@link DB2Client#sampleTable}, and loads the files staged by bulk
+ * load page sinks, which report them in their fragments, before the writes are committed. The tables written to are
+ * flushed from the {@link DB2ScanCache}. The statistics of pushed down operations are derived by the engine, unless
+ * they are estimated by {@link DB2ExplainStatisticsProvider}.
+ */
+public class DB2Metadata
+        extends DefaultJdbcMetadata
+{
+    private final JdbcClient jdbcClient;
+    private final DB2Client db2Client;
+    private final DB2ScanCache scanCache;
+
+    public DB2Metadata(JdbcClient jdbcClient, DB2Client db2Client, DB2ScanCache scanCache, boolean precalculateStatisticsForPushdown, Set<JdbcQueryEventListener> jdbcQueryEventListeners)
+    {
+        super(jdbcClient, precalculateStatisticsForPushdown, jdbcQueryEventListeners);
+        this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        this.db2Client = requireNonNull(db2Client, "db2Client is null");
+        this.scanCache = requireNonNull(scanCache, "scanCache is null");
+    }
+
+    @Override
+    public Optional<ConnectorTableHandle> applySample(ConnectorSession session, ConnectorTableHandle table, SampleType sampleType, double sampleRatio)
+    {
+        JdbcTableHandle handle = (JdbcTableHandle) table;
+        // the columns are read through the metadata cache
+        List<JdbcColumnHandle> columns = handle.getColumns()
+                .orElseGet(() -> jdbcClient.getColumns(session, handle));
+        return db2Client.sampleTable(session, handle, columns, sampleType, sampleRatio)
+                .map(ConnectorTableHandle.class::cast);
+    }
+
+    @Override
+    public Optional<ConnectorOutputMetadata> finishCreateTable(ConnectorSession session, ConnectorOutputTableHandle tableHandle, Collection<Slice> fragments, Collection<ComputedStatistics> computedStatistics)
+    {
+        JdbcOutputTableHandle handle = (JdbcOutputTableHandle) tableHandle;
+        try {
+            db2Client.loadStagedData(session, handle, fragments);
+            return super.finishCreateTable(session, tableHandle, fragments, computedStatistics);
+        }
+        finally {
+            flushScanCache(handle);
+        }
+    }
+
+    @Override
+    public Optional<ConnectorOutputMetadata> finishInsert(ConnectorSession session, ConnectorInsertTableHandle insertHandle, Collection<Slice> fragments, Collection<ComputedStatistics> computedStatistics)
+    {
+        JdbcOutputTableHandle handle = (JdbcOutputTableHandle) insertHandle;
+        try {
+            db2Client.loadStagedData(session, handle, fragments);
+            return super.finishInsert(session, insertHandle, fragments, computedStatistics);
+        }
+        finally {
+            flushScanCache(handle);
+        }
+    }
+
+    @Override
+    public OptionalLong executeDelete(ConnectorSession session, ConnectorTableHandle handle)
+    {
+        // chunked deletes commit every chunk, so the table is flushed even when a later chunk fails
+        try {
+            return super.executeDelete(session, handle);
+        }
+        finally {
+            flushScanCache((JdbcTableHandle) handle);
+        }
+    }
+
+    @Override
+    public void truncateTable(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        try {
+            super.truncateTable(session, tableHandle);
+        }
+        finally {
+            flushScanCache((JdbcTableHandle) tableHandle);
+        }
+    }
+
+    private void flushScanCache(JdbcOutputTableHandle handle)
+    {
+        scanCache.flush(new SchemaTableName(handle.getSchemaName(), handle.getTableName()));
+    }
+
+    private void flushScanCache(JdbcTableHandle handle)
+    {
+        if (handle.isNamedRelation()) {
+            scanCache.flush(handle.getRequiredNamedRelation().getSchemaTableName());
+        }
+    }
+}
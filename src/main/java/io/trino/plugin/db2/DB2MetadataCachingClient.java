@@ -0,0 +1,391 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import io.trino.plugin.jdbc.ForwardingJdbcClient;
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.connector.ColumnMetadata;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorTableMetadata;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.security.ConnectorIdentity;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches the schemas, tables and columns read from the Db2 catalog, which takes several round trips for every query
+ * when Db2 is far from Trino. Entries are kept per user, as the visible objects depend on the privileges of the user.
+ * DDL issued through the connector invalidates the entries, statistics and partition maps of the affected table only.
+ * Entries loaded while an invalidation runs are dropped, as they may have been read before the DDL. The cache of
+ * base-jdbc on top of this one is flushed along with it by {@link DB2FlushMetadataCacheProcedure}.
+ */
+public class DB2MetadataCachingClient
+        extends ForwardingJdbcClient
+{
+    private final JdbcClient delegate;
+    private final boolean cacheMissing;
+    private final DB2StatisticsProvider statisticsProvider;
+    private final DB2PartitionMapCache partitionMapCache;
+    private final Cache<IdentityKey, Set<String>> schemaNamesCache;
+    private final Cache<CacheKey<Optional<String>>, List<SchemaTableName>> tableNamesCache;
+    private final Cache<CacheKey<SchemaTableName>, Optional<JdbcTableHandle>> tableHandlesCache;
+    private final Cache<CacheKey<SchemaTableName>, List<JdbcColumnHandle>> columnsCache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Inject
+    public DB2MetadataCachingClient(DB2Client delegate, DB2Config config, DB2StatisticsProvider statisticsProvider, DB2PartitionMapCache partitionMapCache)
+    {
+        this((JdbcClient) delegate, config, statisticsProvider, partitionMapCache);
+    }
+
+    DB2MetadataCachingClient(JdbcClient delegate, DB2Config config, DB2StatisticsProvider statisticsProvider, DB2PartitionMapCache partitionMapCache)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.cacheMissing = config.isMetadataCacheMissing();
+        this.statisticsProvider = requireNonNull(statisticsProvider, "statisticsProvider is null");
+        this.partitionMapCache = requireNonNull(partitionMapCache, "partitionMapCache is null");
+        this.schemaNamesCache = buildCache(config.getSchemasCacheTtl(), config.getMetadataCacheMaximumSize());
+        this.tableNamesCache = buildCache(config.getTablesCacheTtl(), config.getMetadataCacheMaximumSize());
+        this.tableHandlesCache = buildCache(config.getTablesCacheTtl(), config.getMetadataCacheMaximumSize());
+        this.columnsCache = buildCache(config.getColumnsCacheTtl(), config.getMetadataCacheMaximumSize());
+    }
+
+    private static <K, V> Cache<K, V> buildCache(Duration ttl, long maximumSize)
+    {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected JdbcClient delegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public Set<String> getSchemaNames(ConnectorSession session)
+    {
+        return get(schemaNamesCache, new IdentityKey(session.getIdentity()), () -> super.getSchemaNames(session));
+    }
+
+    @Override
+    public List<SchemaTableName> getTableNames(ConnectorSession session, Optional<String> schema)
+    {
+        return get(tableNamesCache, new CacheKey<>(session, schema), () -> super.getTableNames(session, schema));
+    }
+
+    @Override
+    public Optional<JdbcTableHandle> getTableHandle(ConnectorSession session, SchemaTableName schemaTableName)
+    {
+        return get(
+                tableHandlesCache,
+                new CacheKey<>(session, schemaTableName),
+                () -> super.getTableHandle(session, schemaTableName),
+                tableHandle -> tableHandle.isPresent() || cacheMissing);
+    }
+
+    @Override
+    public List<JdbcColumnHandle> getColumns(ConnectorSession session, JdbcTableHandle tableHandle)
+    {
+        // the columns of pushed down queries are part of their handle
+        if (tableHandle.getColumns().isPresent() || !tableHandle.isNamedRelation()) {
+            return super.getColumns(session, tableHandle);
+        }
+        SchemaTableName table = tableHandle.getRequiredNamedRelation().getSchemaTableName();
+        return get(columnsCache, new CacheKey<>(session, table), () -> super.getColumns(session, tableHandle));
+    }
+
+    @Override
+    public void createSchema(ConnectorSession session, String schemaName)
+    {
+        super.createSchema(session, schemaName);
+        flushCache(schemaName);
+    }
+
+    @Override
+    public void dropSchema(ConnectorSession session, String schemaName)
+    {
+        super.dropSchema(session, schemaName);
+        flushCache(schemaName);
+    }
+
+    @Override
+    public void renameSchema(ConnectorSession session, String schemaName, String newSchemaName)
+    {
+        super.renameSchema(session, schemaName, newSchemaName);
+        flushCache(schemaName);
+        flushCache(newSchemaName);
+    }
+
+    @Override
+    public void createTable(ConnectorSession session, ConnectorTableMetadata tableMetadata)
+    {
+        super.createTable(session, tableMetadata);
+        flushCache(tableMetadata.getTable());
+    }
+
+    @Override
+    public void commitCreateTable(ConnectorSession session, JdbcOutputTableHandle handle)
+    {
+        super.commitCreateTable(session, handle);
+        flushCache(new SchemaTableName(handle.getSchemaName(), handle.getTableName()));
+    }
+
+    @Override
+    public void dropTable(ConnectorSession session, JdbcTableHandle handle)
+    {
+        super.dropTable(session, handle);
+        flushCache(handle);
+    }
+
+    @Override
+    public void renameTable(ConnectorSession session, JdbcTableHandle handle, SchemaTableName newTableName)
+    {
+        super.renameTable(session, handle, newTableName);
+        flushCache(handle);
+        flushCache(newTableName);
+    }
+
+    @Override
+    public void addColumn(ConnectorSession session, JdbcTableHandle handle, ColumnMetadata column)
+    {
+        super.addColumn(session, handle, column);
+        flushCache(handle);
+    }
+
+    @Override
+    public void dropColumn(ConnectorSession session, JdbcTableHandle handle, JdbcColumnHandle column)
+    {
+        super.dropColumn(session, handle, column);
+        flushCache(handle);
+    }
+
+    @Override
+    public void renameColumn(ConnectorSession session, JdbcTableHandle handle, JdbcColumnHandle column, String newColumnName)
+    {
+        super.renameColumn(session, handle, column, newColumnName);
+        flushCache(handle);
+    }
+
+    @Override
+    public void setColumnComment(ConnectorSession session, JdbcTableHandle handle, JdbcColumnHandle column, Optional<String> comment)
+    {
+        super.setColumnComment(session, handle, column, comment);
+        flushCache(handle);
+    }
+
+    public void flushCache()
+    {
+        invalidations.incrementAndGet();
+        schemaNamesCache.invalidateAll();
+        tableNamesCache.invalidateAll();
+        tableHandlesCache.invalidateAll();
+        columnsCache.invalidateAll();
+        statisticsProvider.invalidateIf(table -> true);
+        partitionMapCache.invalidateIf(table -> true);
+    }
+
+    public void flushCache(String schemaName)
+    {
+        invalidations.incrementAndGet();
+        schemaNamesCache.invalidateAll();
+        tableNamesCache.asMap().keySet().removeIf(key -> key.getName().map(schemaName::equals).orElse(true));
+        tableHandlesCache.asMap().keySet().removeIf(key -> key.getName().getSchemaName().equals(schemaName));
+        columnsCache.asMap().keySet().removeIf(key -> key.getName().getSchemaName().equals(schemaName));
+        Predicate<RemoteTableName> remoteTables = table -> table.getSchemaName().map(schemaName::equalsIgnoreCase).orElse(false);
+        statisticsProvider.invalidateIf(remoteTables);
+        partitionMapCache.invalidateIf(remoteTables);
+    }
+
+    public void flushCache(SchemaTableName table)
+    {
+        invalidations.incrementAndGet();
+        // the list of all tables and the list of the tables of the schema
+        tableNamesCache.asMap().keySet().removeIf(key -> key.getName().map(table.getSchemaName()::equals).orElse(true));
+        tableHandlesCache.asMap().keySet().removeIf(key -> key.getName().equals(table));
+        columnsCache.asMap().keySet().removeIf(key -> key.getName().equals(table));
+        // remote names differ from the names of Trino in case only, unless identifiers are mapped explicitly
+        Predicate<RemoteTableName> remoteTables = remoteTable ->
+                remoteTable.getSchemaName().map(table.getSchemaName()::equalsIgnoreCase).orElse(false) &&
+                remoteTable.getTableName().equalsIgnoreCase(table.getTableName());
+        statisticsProvider.invalidateIf(remoteTables);
+        partitionMapCache.invalidateIf(remoteTables);
+    }
+
+    private void flushCache(JdbcTableHandle handle)
+    {
+        flushCache(handle.getRequiredNamedRelation().getSchemaTableName());
+        RemoteTableName remoteTableName = handle.getRequiredNamedRelation().getRemoteTableName();
+        statisticsProvider.invalidate(remoteTableName);
+        partitionMapCache.invalidate(remoteTableName);
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getSchemaNamesCacheStats()
+    {
+        return new DB2CacheStats(schemaNamesCache);
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getTableNamesCacheStats()
+    {
+        return new DB2CacheStats(tableNamesCache);
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getTableHandlesCacheStats()
+    {
+        return new DB2CacheStats(tableHandlesCache);
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getColumnsCacheStats()
+    {
+        return new DB2CacheStats(columnsCache);
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getStatisticsCacheStats()
+    {
+        return statisticsProvider.getCacheStats();
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getPartitionMapCacheStats()
+    {
+        return partitionMapCache.getCacheStats();
+    }
+
+    private <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader)
+    {
+        return get(cache, key, loader, value -> true);
+    }
+
+    private <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader, Predicate<V> cacheable)
+    {
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        // the invalidations are counted before the entries are removed, so an invalidation that ran during the load
+        // either removes the entry put below, or is seen by the check after the put
+        long invalidationsBeforeLoad = invalidations.get();
+        value = loader.get();
+        if (cacheable.test(value)) {
+            cache.put(key, value);
+            if (invalidations.get() != invalidationsBeforeLoad) {
+                cache.invalidate(key);
+            }
+        }
+        return value;
+    }
+
+    private static final class IdentityKey
+    {
+        private final String user;
+        private final Map<String, String> extraCredentials;
+
+        public IdentityKey(ConnectorIdentity identity)
+        {
+            this.user = identity.getUser();
+            this.extraCredentials = ImmutableMap.copyOf(identity.getExtraCredentials());
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            IdentityKey that = (IdentityKey) o;
+            return user.equals(that.user) && extraCredentials.equals(that.extraCredentials);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(user, extraCredentials);
+        }
+    }
+
+    private static final class CacheKey<T>
+    {
+        private final IdentityKey identity;
+        private final T name;
+
+        public CacheKey(ConnectorSession session, T name)
+        {
+            this.identity = new IdentityKey(session.getIdentity());
+            this.name = requireNonNull(name, "name is null");
+        }
+
+        public T getName()
+        {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey<?> that = (CacheKey<?>) o;
+            return identity.equals(that.identity) && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(identity, name);
+        }
+    }
+}
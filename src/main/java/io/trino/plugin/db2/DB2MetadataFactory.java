@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.plugin.jdbc.DefaultJdbcMetadataFactory;
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcMetadata;
+import io.trino.plugin.jdbc.JdbcQueryEventListener;
+
+import javax.inject.Inject;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+public class DB2MetadataFactory
+        extends DefaultJdbcMetadataFactory
+{
+    private final DB2Client db2Client;
+    private final DB2ScanCache scanCache;
+    private final boolean precalculateStatisticsForPushdown;
+    private final Set<JdbcQueryEventListener> jdbcQueryEventListeners;
+
+    @Inject
+    public DB2MetadataFactory(JdbcClient jdbcClient, DB2Client db2Client, DB2ScanCache scanCache, DB2Config config, Set<JdbcQueryEventListener> jdbcQueryEventListeners)
+    {
+        super(jdbcClient, jdbcQueryEventListeners);
+        this.db2Client = requireNonNull(db2Client, "db2Client is null");
+        this.scanCache = requireNonNull(scanCache, "scanCache is null");
+        // the engine asks for the statistics of pushed down queries instead of deriving them, when Db2 estimates them
+        this.precalculateStatisticsForPushdown = !config.isExplainStatisticsEnabled();
+        this.jdbcQueryEventListeners = requireNonNull(jdbcQueryEventListeners, "jdbcQueryEventListeners is null");
+    }
+
+    @Override
+    protected JdbcMetadata create(JdbcClient transactionCachingJdbcClient)
+    {
+        return new DB2Metadata(transactionCachingJdbcClient, db2Client, scanCache, precalculateStatisticsForPushdown, jdbcQueryEventListeners);
+    }
+}
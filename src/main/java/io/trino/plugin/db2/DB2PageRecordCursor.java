@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.trino.spi.Page;
+import io.trino.spi.connector.RecordCursor;
+import io.trino.spi.type.Type;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the rows of pages cached by {@link DB2ScanCache}. The pages are shared with other scans and owned by the
+ * cache, so they are not accounted in the memory usage of the cursor.
+ */
+public class DB2PageRecordCursor
+        implements RecordCursor
+{
+    private final List<Type> types;
+    private final List<Page> pages;
+
+    private int pageIndex = -1;
+    private Page page;
+    private int position;
+    private long completedBytes;
+    private boolean closed;
+
+    public DB2PageRecordCursor(List<Type> types, List<Page> pages)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return 0;
+    }
+
+    @Override
+    public Type getType(int field)
+    {
+        return types.get(field);
+    }
+
+    @Override
+    public boolean advanceNextPosition()
+    {
+        if (closed) {
+            return false;
+        }
+        if (page != null && position + 1 < page.getPositionCount()) {
+            position++;
+            return true;
+        }
+        while (pageIndex + 1 < pages.size()) {
+            pageIndex++;
+            page = pages.get(pageIndex);
+            completedBytes += page.getSizeInBytes();
+            if (page.getPositionCount() > 0) {
+                position = 0;
+                return true;
+            }
+        }
+        page = null;
+        return false;
+    }
+
+    @Override
+    public boolean getBoolean(int field)
+    {
+        return types.get(field).getBoolean(page.getBlock(field), position);
+    }
+
+    @Override
+    public long getLong(int field)
+    {
+        return types.get(field).getLong(page.getBlock(field), position);
+    }
+
+    @Override
+    public double getDouble(int field)
+    {
+        return types.get(field).getDouble(page.getBlock(field), position);
+    }
+
+    @Override
+    public Slice getSlice(int field)
+    {
+        return types.get(field).getSlice(page.getBlock(field), position);
+    }
+
+    @Override
+    public Object getObject(int field)
+    {
+        return types.get(field).getObject(page.getBlock(field), position);
+    }
+
+    @Override
+    public boolean isNull(int field)
+    {
+        return page.getBlock(field).isNull(position);
+    }
+
+    @Override
+    public long getMemoryUsage()
+    {
+        return 0;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        page = null;
+    }
+}
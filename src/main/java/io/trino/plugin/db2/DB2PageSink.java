@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.slice.Slice;
+import io.trino.plugin.jdbc.ForwardingJdbcClient;
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.plugin.jdbc.JdbcPageSink;
+import io.trino.spi.Page;
+import io.trino.spi.connector.ConnectorPageSink;
+import io.trino.spi.connector.ConnectorSession;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.reflect.Reflection.newProxy;
+import static io.trino.plugin.db2.DB2SessionProperties.getWriteCommitInterval;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes rows with the base JDBC page sink, and additionally commits every {@code write_commit_interval} rows so that
+ * the rows written by a single task do not fill the Db2 transaction log. The commits are made by the connection of
+ * the sink after the batches reaching the interval.
+ */
+public class DB2PageSink
+        implements ConnectorPageSink
+{
+    private final JdbcPageSink delegate;
+
+    public DB2PageSink(ConnectorSession session, JdbcOutputTableHandle handle, JdbcClient jdbcClient)
+    {
+        int commitInterval = getWriteCommitInterval(session);
+        this.delegate = new JdbcPageSink(session, handle, commitInterval == 0 ? jdbcClient : new CommittingJdbcClient(jdbcClient, commitInterval));
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getMemoryUsage()
+    {
+        return delegate.getMemoryUsage();
+    }
+
+    @Override
+    public CompletableFuture<?> appendPage(Page page)
+    {
+        return delegate.appendPage(page);
+    }
+
+    @Override
+    public CompletableFuture<Collection<Slice>> finish()
+    {
+        return delegate.finish();
+    }
+
+    @Override
+    public void abort()
+    {
+        // rows already committed at the commit interval are kept
+        delegate.abort();
+    }
+
+    private static class CommittingJdbcClient
+            extends ForwardingJdbcClient
+    {
+        private final JdbcClient delegate;
+        private final int commitInterval;
+
+        public CommittingJdbcClient(JdbcClient delegate, int commitInterval)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.commitInterval = commitInterval;
+        }
+
+        @Override
+        protected JdbcClient delegate()
+        {
+            return delegate;
+        }
+
+        @Override
+        public Connection getConnection(ConnectorSession session, JdbcOutputTableHandle handle)
+                throws SQLException
+        {
+            Connection connection = super.getConnection(session, handle);
+            return newProxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(method, connection, args);
+                if (method.getName().equals("prepareStatement")) {
+                    return committingStatement(connection, (PreparedStatement) result);
+                }
+                return result;
+            });
+        }
+
+        private PreparedStatement committingStatement(Connection connection, PreparedStatement statement)
+        {
+            long[] uncommittedRows = new long[1];
+            return newProxy(PreparedStatement.class, (proxy, method, args) -> {
+                Object result = invoke(method, statement, args);
+                if (method.getName().equals("executeBatch")) {
+                    uncommittedRows[0] += ((int[]) result).length;
+                    if (uncommittedRows[0] >= commitInterval) {
+                        connection.commit();
+                        uncommittedRows[0] = 0;
+                    }
+                }
+                return result;
+            });
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args)
+                throws Throwable
+        {
+            try {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.spi.connector.ConnectorInsertTableHandle;
+import io.trino.spi.connector.ConnectorOutputTableHandle;
+import io.trino.spi.connector.ConnectorPageSink;
+import io.trino.spi.connector.ConnectorPageSinkProvider;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorTransactionHandle;
+
+import javax.inject.Inject;
+
+import static java.util.Objects.requireNonNull;
+
+public class DB2PageSinkProvider
+        implements ConnectorPageSinkProvider
+{
+    private final JdbcClient jdbcClient;
+    private final DB2BulkLoader bulkLoader;
+
+    @Inject
+    public DB2PageSinkProvider(JdbcClient jdbcClient, DB2BulkLoader bulkLoader)
+    {
+        this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        this.bulkLoader = requireNonNull(bulkLoader, "bulkLoader is null");
+    }
+
+    @Override
+    public ConnectorPageSink createPageSink(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorOutputTableHandle tableHandle)
+    {
+        return createPageSink(session, (JdbcOutputTableHandle) tableHandle);
+    }
+
+    @Override
+    public ConnectorPageSink createPageSink(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorInsertTableHandle tableHandle)
+    {
+        return createPageSink(session, (JdbcOutputTableHandle) tableHandle);
+    }
+
+    private ConnectorPageSink createPageSink(ConnectorSession session, JdbcOutputTableHandle handle)
+    {
+        if (bulkLoader.isEnabled(session) && DB2BulkLoader.isSupported(handle.getColumnTypes())) {
+            return new DB2BulkLoadPageSink(session, handle, bulkLoader);
+        }
+        return new DB2PageSink(session, handle, jdbcClient);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import io.trino.plugin.jdbc.RemoteTableName;
+
+import javax.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches the database partitions (DPF, Db2 Warehouse) a table is distributed across.
+ */
+public class DB2PartitionMapCache
+{
+    private static final long MAX_CACHED_TABLES = 10_000;
+
+    private final Cache<RemoteTableName, Optional<DatabasePartitionMap>> cache;
+    private final PartitionMapLoader loader;
+
+    @Inject
+    public DB2PartitionMapCache(DB2Config config)
+    {
+        this(config.getPartitionMapCacheTtl(), DB2PartitionMapCache::loadPartitionMap);
+    }
+
+    DB2PartitionMapCache(Duration ttl, PartitionMapLoader loader)
+    {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .maximumSize(MAX_CACHED_TABLES)
+                .recordStats()
+                .build();
+        this.loader = requireNonNull(loader, "loader is null");
+    }
+
+    /**
+     * Returns the partition map of the table, or empty when the table is stored on a single database partition.
+     */
+    public Optional<DatabasePartitionMap> getPartitionMap(Connection connection, RemoteTableName table)
+            throws SQLException
+    {
+        Optional<DatabasePartitionMap> partitionMap = cache.getIfPresent(table);
+        if (partitionMap == null) {
+            partitionMap = loader.load(connection, table)
+                    .filter(map -> map.getPartitionNumbers().size() > 1);
+            cache.put(table, partitionMap);
+        }
+        return partitionMap;
+    }
+
+    public void invalidate(RemoteTableName table)
+    {
+        cache.invalidate(table);
+    }
+
+    public void invalidateIf(Predicate<RemoteTableName> tables)
+    {
+        cache.asMap().keySet().removeIf(tables);
+    }
+
+    public DB2CacheStats getCacheStats()
+    {
+        return new DB2CacheStats(cache);
+    }
+
+    private static Optional<DatabasePartitionMap> loadPartitionMap(Connection connection, RemoteTableName table)
+            throws SQLException
+    {
+        if (table.getSchemaName().isEmpty()) {
+            return Optional.empty();
+        }
+
+        String columnName;
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT COLNAME FROM SYSCAT.COLUMNS " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ? AND COLNO = 0")) {
+            statement.setString(1, table.getSchemaName().get());
+            statement.setString(2, table.getTableName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                columnName = resultSet.getString(1);
+            }
+        }
+
+        ImmutableList.Builder<Integer> partitionNumbers = ImmutableList.builder();
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT G.DBPARTITIONNUM FROM SYSCAT.TABLES T " +
+                "JOIN SYSCAT.TABLESPACES S ON T.TBSPACEID = S.TBSPACEID " +
+                "JOIN SYSCAT.DBPARTITIONGROUPDEF G ON S.DBPGNAME = G.DBPGNAME " +
+                "WHERE T.TABSCHEMA = ? AND T.TABNAME = ? AND G.IN_USE = 'Y' " +
+                "ORDER BY G.DBPARTITIONNUM")) {
+            statement.setString(1, table.getSchemaName().get());
+            statement.setString(2, table.getTableName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    partitionNumbers.add(resultSet.getInt(1));
+                }
+            }
+        }
+        return Optional.of(new DatabasePartitionMap(columnName, partitionNumbers.build()));
+    }
+
+    interface PartitionMapLoader
+    {
+        Optional<DatabasePartitionMap> load(Connection connection, RemoteTableName table)
+                throws SQLException;
+    }
+
+    public static class DatabasePartitionMap
+    {
+        private final String columnName;
+        private final List<Integer> partitionNumbers;
+
+        public DatabasePartitionMap(String columnName, List<Integer> partitionNumbers)
+        {
+            this.columnName = requireNonNull(columnName, "columnName is null");
+            this.partitionNumbers = ImmutableList.copyOf(requireNonNull(partitionNumbers, "partitionNumbers is null"));
+        }
+
+        /**
+         * Any column of the table, used as the argument of DBPARTITIONNUM which returns the partition of the row.
+         */
+        public String getColumnName()
+        {
+            return columnName;
+        }
+
+        public List<Integer> getPartitionNumbers()
+        {
+            return partitionNumbers;
+        }
+    }
+}
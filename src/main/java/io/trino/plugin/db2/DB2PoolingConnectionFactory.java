@@ -0,0 +1,438 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.log.Logger;
+import io.trino.plugin.jdbc.ConnectionFactory;
+import io.trino.plugin.jdbc.ForwardingConnection;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.security.ConnectorIdentity;
+
+import javax.annotation.PreDestroy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Keeps a bounded pool of open connections for every user and set of extra credentials,
+ * so that a query does not pay for the connection handshake and authentication of every split.
+ * When all pooled connections of a user stay in use for the acquire timeout, an unpooled connection
+ * is opened instead, so a query is never failed, nor deadlocked when it holds a connection while opening another.
+ */
+public class DB2PoolingConnectionFactory
+        implements ConnectionFactory
+{
+    private static final Logger log = Logger.get(DB2PoolingConnectionFactory.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final ConnectionFactory delegate;
+    private final int maxSize;
+    private final long maxLifetimeNanos;
+    private final long idleTimeoutNanos;
+    private final long acquireTimeoutNanos;
+    private final boolean resetRefreshAge;
+    private final DB2ConnectionPoolStats stats;
+    private final Ticker ticker;
+    private final ConcurrentMap<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictionExecutor;
+    private volatile boolean closed;
+
+    public DB2PoolingConnectionFactory(ConnectionFactory delegate, DB2Config config, DB2ConnectionPoolStats stats)
+    {
+        this(delegate, config, stats, Ticker.systemTicker());
+        evictionExecutor.scheduleWithFixedDelay(this::evictExpiredConnections, 1, 1, MINUTES);
+    }
+
+    DB2PoolingConnectionFactory(ConnectionFactory delegate, DB2Config config, DB2ConnectionPoolStats stats, Ticker ticker)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.maxSize = config.getConnectionPoolMaxSize();
+        this.maxLifetimeNanos = config.getConnectionPoolMaxConnectionLifetime().roundTo(NANOSECONDS);
+        this.idleTimeoutNanos = config.getConnectionPoolIdleTimeout().roundTo(NANOSECONDS);
+        this.acquireTimeoutNanos = config.getConnectionPoolAcquireTimeout().roundTo(NANOSECONDS);
+        // table scans routed to materialized query tables set the CURRENT REFRESH AGE special register
+        this.resetRefreshAge = config.isMqtRoutingEnabled();
+        this.stats = requireNonNull(stats, "stats is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.evictionExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("db2-connection-pool-eviction"));
+    }
+
+    @Override
+    public Connection openConnection(ConnectorSession session)
+            throws SQLException
+    {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        ConnectorIdentity identity = session.getIdentity();
+        Pool pool = pools.computeIfAbsent(new PoolKey(identity.getUser(), identity.getExtraCredentials()), key -> new Pool());
+        return pool.borrow(session);
+    }
+
+    /**
+     * Closes the idle connections that exceeded the idle timeout or the max lifetime.
+     */
+    void evictExpiredConnections()
+    {
+        for (Pool pool : pools.values()) {
+            closeAll(pool.removeExpired());
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close()
+            throws SQLException
+    {
+        closed = true;
+        evictionExecutor.shutdownNow();
+        for (Pool pool : pools.values()) {
+            closeAll(pool.removeAll());
+        }
+        delegate.close();
+    }
+
+    private void closeAll(List<PooledConnection> connections)
+    {
+        for (PooledConnection connection : connections) {
+            closeQuietly(connection.getConnection());
+        }
+    }
+
+    private void closeQuietly(Connection connection)
+    {
+        stats.getConnectionsClosed().update(1);
+        try {
+            connection.close();
+        }
+        catch (SQLException e) {
+            log.debug(e, "Failed to close Db2 connection");
+        }
+    }
+
+    private boolean isExpired(PooledConnection connection, long now)
+    {
+        return now - connection.getCreatedNanos() >= maxLifetimeNanos ||
+                now - connection.getReturnedNanos() >= idleTimeoutNanos;
+    }
+
+    private class Pool
+    {
+        private final Semaphore leases = new Semaphore(maxSize, true);
+        // Most recently returned connections are borrowed first, so the others can expire
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+        public Connection borrow(ConnectorSession session)
+                throws SQLException
+        {
+            long start = ticker.read();
+            if (!acquireLease()) {
+                return delegate.openConnection(session);
+            }
+            try {
+                PooledConnection pooled = borrowIdleConnection();
+                if (pooled == null) {
+                    Connection connection = delegate.openConnection(session);
+                    stats.getConnectionsCreated().update(1);
+                    try {
+                        // the isolation level the connection is opened with is the one it is returned to the pool with
+                        pooled = new PooledConnection(connection, connection.getTransactionIsolation(), ticker.read());
+                    }
+                    catch (SQLException e) {
+                        closeQuietly(connection);
+                        throw e;
+                    }
+                }
+                stats.activeConnections().incrementAndGet();
+                stats.getAcquireTime().add(ticker.read() - start, NANOSECONDS);
+                return new LeasedConnection(this, pooled);
+            }
+            catch (SQLException | RuntimeException e) {
+                leases.release();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns false when no pooled connection became available within the acquire timeout.
+         */
+        private boolean acquireLease()
+                throws SQLException
+        {
+            stats.pendingAcquires().incrementAndGet();
+            try {
+                if (!leases.tryAcquire(acquireTimeoutNanos, NANOSECONDS)) {
+                    stats.getAcquireTimeouts().update(1);
+                    return false;
+                }
+                return true;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a Db2 connection", e);
+            }
+            finally {
+                stats.pendingAcquires().decrementAndGet();
+            }
+        }
+
+        private PooledConnection borrowIdleConnection()
+        {
+            while (true) {
+                PooledConnection pooled;
+                synchronized (this) {
+                    pooled = idle.pollFirst();
+                }
+                if (pooled == null) {
+                    return null;
+                }
+                stats.idleConnections().decrementAndGet();
+                if (isExpired(pooled, ticker.read())) {
+                    closeQuietly(pooled.getConnection());
+                    continue;
+                }
+                if (!isValid(pooled.getConnection())) {
+                    stats.getValidationFailures().update(1);
+                    closeQuietly(pooled.getConnection());
+                    continue;
+                }
+                return pooled;
+            }
+        }
+
+        public void release(PooledConnection pooled)
+        {
+            stats.activeConnections().decrementAndGet();
+            try {
+                if (closed || isExpired(pooled, ticker.read()) || !reset(pooled)) {
+                    closeQuietly(pooled.getConnection());
+                    return;
+                }
+                synchronized (this) {
+                    idle.addFirst(new PooledConnection(pooled.getConnection(), pooled.getTransactionIsolation(), pooled.getCreatedNanos(), ticker.read()));
+                }
+                stats.idleConnections().incrementAndGet();
+            }
+            finally {
+                leases.release();
+            }
+        }
+
+        public synchronized List<PooledConnection> removeExpired()
+        {
+            long now = ticker.read();
+            List<PooledConnection> expired = new ArrayList<>();
+            Iterator<PooledConnection> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledConnection pooled = iterator.next();
+                if (isExpired(pooled, now)) {
+                    iterator.remove();
+                    stats.idleConnections().decrementAndGet();
+                    expired.add(pooled);
+                }
+            }
+            return expired;
+        }
+
+        public synchronized List<PooledConnection> removeAll()
+        {
+            List<PooledConnection> connections = new ArrayList<>(idle);
+            idle.clear();
+            stats.idleConnections().addAndGet(-connections.size());
+            return connections;
+        }
+    }
+
+    private static boolean isValid(Connection connection)
+    {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        }
+        catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Restores the state a connection is handed out with, returns false when the connection is not reusable.
+     */
+    private boolean reset(PooledConnection pooled)
+    {
+        Connection connection = pooled.getConnection();
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (connection.isReadOnly()) {
+                connection.setReadOnly(false);
+            }
+            if (connection.getTransactionIsolation() != pooled.getTransactionIsolation()) {
+                connection.setTransactionIsolation(pooled.getTransactionIsolation());
+            }
+            if (resetRefreshAge) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET CURRENT REFRESH AGE 0");
+                }
+            }
+            connection.clearWarnings();
+            return true;
+        }
+        catch (SQLException e) {
+            log.debug(e, "Failed to reset Db2 connection returned to the pool");
+            return false;
+        }
+    }
+
+    private static class PooledConnection
+    {
+        private final Connection connection;
+        private final int transactionIsolation;
+        private final long createdNanos;
+        private final long returnedNanos;
+
+        public PooledConnection(Connection connection, int transactionIsolation, long createdNanos)
+        {
+            this(connection, transactionIsolation, createdNanos, createdNanos);
+        }
+
+        public PooledConnection(Connection connection, int transactionIsolation, long createdNanos, long returnedNanos)
+        {
+            this.connection = requireNonNull(connection, "connection is null");
+            this.transactionIsolation = transactionIsolation;
+            this.createdNanos = createdNanos;
+            this.returnedNanos = returnedNanos;
+        }
+
+        public Connection getConnection()
+        {
+            return connection;
+        }
+
+        public int getTransactionIsolation()
+        {
+            return transactionIsolation;
+        }
+
+        public long getCreatedNanos()
+        {
+            return createdNanos;
+        }
+
+        public long getReturnedNanos()
+        {
+            return returnedNanos;
+        }
+    }
+
+    /**
+     * Connection handed out by the pool, closing it returns the underlying connection to the pool.
+     */
+    private static class LeasedConnection
+            extends ForwardingConnection
+    {
+        private final Pool pool;
+        private final PooledConnection pooled;
+        private volatile boolean closed;
+
+        public LeasedConnection(Pool pool, PooledConnection pooled)
+        {
+            this.pool = requireNonNull(pool, "pool is null");
+            this.pooled = requireNonNull(pooled, "pooled is null");
+        }
+
+        @Override
+        protected Connection delegate()
+                throws SQLException
+        {
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            return pooled.getConnection();
+        }
+
+        @Override
+        public boolean isClosed()
+        {
+            return closed;
+        }
+
+        @Override
+        public void close()
+        {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            pool.release(pooled);
+        }
+    }
+
+    private static final class PoolKey
+    {
+        private final String user;
+        private final Map<String, String> extraCredentials;
+
+        public PoolKey(String user, Map<String, String> extraCredentials)
+        {
+            this.user = requireNonNull(user, "user is null");
+            this.extraCredentials = ImmutableMap.copyOf(requireNonNull(extraCredentials, "extraCredentials is null"));
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PoolKey that = (PoolKey) o;
+            return user.equals(that.user) && extraCredentials.equals(that.extraCredentials);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(user, extraCredentials);
+        }
+    }
+}
@@ -0,0 +1,540 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import io.trino.plugin.db2.DB2ColumnMappings.NullSafeReadFunction;
+import io.trino.plugin.db2.DB2ScanCache.ScanRecorder;
+import io.trino.plugin.jdbc.BooleanReadFunction;
+import io.trino.plugin.jdbc.ColumnMapping;
+import io.trino.plugin.jdbc.DoubleReadFunction;
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.LongReadFunction;
+import io.trino.plugin.jdbc.ObjectReadFunction;
+import io.trino.plugin.jdbc.ReadFunction;
+import io.trino.plugin.jdbc.SliceReadFunction;
+import io.trino.spi.Page;
+import io.trino.spi.PageBuilder;
+import io.trino.spi.TrinoException;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.RecordCursor;
+import io.trino.spi.type.Type;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.plugin.db2.DB2FetchSize.estimateRowSize;
+import static io.trino.plugin.db2.DB2FetchSize.getFetchSize;
+import static io.trino.plugin.db2.DB2LobColumnMappings.isLob;
+import static io.trino.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static io.trino.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.RealType.REAL;
+import static io.trino.spi.type.SmallintType.SMALLINT;
+import static io.trino.spi.type.TinyintType.TINYINT;
+import static java.lang.Float.floatToRawIntBits;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the rows of a split on a separate thread, which builds pages of up to one fetch of rows while the
+ * previous pages are processed. At most {@code maxBufferedPages} pages are read ahead, and accounted for
+ * in the memory usage of the cursor, along with the page being built when the split reads LOB columns, and the
+ * pages recorded for the scan cache. The reader times the phases of the scan in {@link DB2ScanStats}, and logs
+ * them for each split at debug level.
+ */
+public class DB2PrefetchingRecordCursor
+        implements RecordCursor
+{
+    private static final Logger log = Logger.get(DB2PrefetchingRecordCursor.class);
+
+    // marks the end of the rows
+    private static final Page END = new Page(0);
+
+    private final List<Type> types;
+    private final BlockingQueue<Page> buffer;
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final boolean hasLobColumns;
+    private final int fetchSize;
+    private final long estimatedRowSize;
+    private final DB2FetchStats fetchStats;
+    private final DB2ScanStats scanStats;
+    private final Optional<ScanRecorder> scanRecorder;
+    private final Future<?> reader;
+
+    private volatile boolean closed;
+    private volatile PreparedStatement statement;
+    private volatile Throwable failure;
+    // size of the page being built, only tracked with LOB columns, whose values can make it grow large
+    private volatile long pageBuilderBytes;
+
+    private Page page;
+    private int position;
+    private boolean finished;
+    private long rows;
+    private long completedBytes;
+    private long readTimeNanos;
+
+    public DB2PrefetchingRecordCursor(
+            JdbcClient jdbcClient,
+            ConnectorSession session,
+            JdbcSplit split,
+            JdbcTableHandle table,
+            List<JdbcColumnHandle> columns,
+            ExecutorService executor,
+            int maxBufferedPages,
+            DB2FetchStats fetchStats,
+            DB2ScanStats scanStats,
+            Optional<ScanRecorder> scanRecorder)
+    {
+        this.types = columns.stream()
+                .map(JdbcColumnHandle::getColumnType)
+                .collect(toImmutableList());
+        this.buffer = new ArrayBlockingQueue<>(maxBufferedPages);
+        this.fetchSize = getFetchSize(session, columns);
+        this.estimatedRowSize = estimateRowSize(columns);
+        this.hasLobColumns = columns.stream()
+                .anyMatch(column -> isLob(column.getJdbcTypeHandle()));
+        this.fetchStats = requireNonNull(fetchStats, "fetchStats is null");
+        this.scanStats = requireNonNull(scanStats, "scanStats is null");
+        this.scanRecorder = requireNonNull(scanRecorder, "scanRecorder is null");
+        this.reader = executor.submit(() -> read(jdbcClient, session, split, table, columns));
+    }
+
+    private void read(JdbcClient jdbcClient, ConnectorSession session, JdbcSplit split, JdbcTableHandle table, List<JdbcColumnHandle> columns)
+    {
+        try {
+            readPages(jdbcClient, session, split, table, columns);
+        }
+        catch (InterruptedException e) {
+            // the cursor was closed
+            Thread.currentThread().interrupt();
+            return;
+        }
+        catch (Throwable t) {
+            failure = t;
+        }
+        if (closed) {
+            return;
+        }
+        try {
+            buffer.put(END);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readPages(JdbcClient jdbcClient, ConnectorSession session, JdbcSplit split, JdbcTableHandle table, List<JdbcColumnHandle> columns)
+            throws SQLException, InterruptedException
+    {
+        long start = System.nanoTime();
+        try (Connection connection = jdbcClient.getConnection(session, split)) {
+            long connectionOpenNanos = System.nanoTime() - start;
+            scanStats.recordConnectionOpen(connectionOpenNanos);
+            start = System.nanoTime();
+            try (PreparedStatement statement = jdbcClient.buildSql(session, connection, split, table, columns)) {
+                this.statement = statement;
+                ColumnWriter[] writers = new ColumnWriter[columns.size()];
+                for (int i = 0; i < columns.size(); i++) {
+                    JdbcColumnHandle column = columns.get(i);
+                    ColumnMapping columnMapping = jdbcClient.toColumnMapping(session, connection, column.getJdbcTypeHandle())
+                            .orElseThrow(() -> new TrinoException(GENERIC_INTERNAL_ERROR, "Unsupported column type: " + column.getJdbcTypeHandle()));
+                    verify(
+                            column.getColumnType().equals(columnMapping.getType()),
+                            "Type mismatch: column handle has type %s but %s is mapped to %s",
+                            column.getColumnType(),
+                            column.getJdbcTypeHandle(),
+                            columnMapping.getType());
+                    writers[i] = columnWriter(columnMapping.getType(), columnMapping.getReadFunction());
+                }
+                long prepareNanos = System.nanoTime() - start;
+                scanStats.recordPrepare(prepareNanos);
+
+                start = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    long executeNanos = System.nanoTime() - start;
+                    scanStats.recordExecute(executeNanos);
+
+                    long readStart = System.nanoTime();
+                    long fetchNanos = 0;
+                    long fetchBatches = 0;
+                    long rowsRead = 0;
+                    PageBuilder pageBuilder = new PageBuilder(types);
+                    while (!closed) {
+                        // the driver fetches the next batch of rows every fetch size rows, the other calls only
+                        // move through the rows already fetched, and are not timed to keep the overhead per row low
+                        boolean fetch = rowsRead % fetchSize == 0;
+                        long fetchStart = fetch ? System.nanoTime() : 0;
+                        boolean hasNext = resultSet.next();
+                        if (fetch) {
+                            fetchNanos += System.nanoTime() - fetchStart;
+                            fetchBatches++;
+                        }
+                        if (!hasNext) {
+                            break;
+                        }
+                        rowsRead++;
+                        pageBuilder.declarePosition();
+                        for (int i = 0; i < writers.length; i++) {
+                            writers[i].write(resultSet, i + 1, pageBuilder.getBlockBuilder(i));
+                        }
+                        if (pageBuilder.isFull() || pageBuilder.getPositionCount() >= fetchSize) {
+                            // waiting for the engine to take the pages is not part of the read
+                            long enqueueStart = System.nanoTime();
+                            enqueue(pageBuilder.build());
+                            readStart += System.nanoTime() - enqueueStart;
+                            pageBuilder.reset();
+                        }
+                        else if (hasLobColumns) {
+                            pageBuilderBytes = pageBuilder.getRetainedSizeInBytes();
+                        }
+                    }
+                    long conversionNanos = System.nanoTime() - readStart - fetchNanos;
+                    scanStats.recordRead(fetchNanos, fetchBatches, conversionNanos);
+                    log.debug(
+                            "Read %s rows in %s fetches for query %s: connection open %sns, prepare %sns, execute %sns, fetch %sns, conversion %sns",
+                            rowsRead,
+                            fetchBatches,
+                            session.getQueryId(),
+                            connectionOpenNanos,
+                            prepareNanos,
+                            executeNanos,
+                            fetchNanos,
+                            conversionNanos);
+                    if (closed) {
+                        jdbcClient.abortReadConnection(connection, resultSet);
+                        return;
+                    }
+                    if (!pageBuilder.isEmpty()) {
+                        enqueue(pageBuilder.build());
+                    }
+                }
+            }
+        }
+    }
+
+    private void enqueue(Page page)
+            throws InterruptedException
+    {
+        pageBuilderBytes = 0;
+        bufferedBytes.addAndGet(page.getRetainedSizeInBytes());
+        buffer.put(page);
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        // time spent waiting for the reader
+        return readTimeNanos;
+    }
+
+    @Override
+    public Type getType(int field)
+    {
+        return types.get(field);
+    }
+
+    @Override
+    public boolean advanceNextPosition()
+    {
+        if (finished || closed) {
+            return false;
+        }
+        if (page != null && position + 1 < page.getPositionCount()) {
+            position++;
+            rows++;
+            return true;
+        }
+        page = null;
+
+        Page next;
+        long start = System.nanoTime();
+        try {
+            next = buffer.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TrinoException(JDBC_ERROR, "Interrupted while waiting for Db2 rows", e);
+        }
+        finally {
+            readTimeNanos += System.nanoTime() - start;
+        }
+
+        if (next == END) {
+            finished = true;
+            Throwable failure = this.failure;
+            if (failure != null) {
+                throwIfUnchecked(failure);
+                throw new TrinoException(JDBC_ERROR, failure);
+            }
+            scanRecorder.ifPresent(ScanRecorder::finish);
+            return false;
+        }
+        bufferedBytes.addAndGet(-next.getRetainedSizeInBytes());
+        if (scanRecorder.isPresent()) {
+            scanRecorder.get().recordPage(next);
+        }
+        completedBytes += next.getSizeInBytes();
+        page = next;
+        position = 0;
+        rows++;
+        return true;
+    }
+
+    @Override
+    public boolean getBoolean(int field)
+    {
+        return types.get(field).getBoolean(page.getBlock(field), position);
+    }
+
+    @Override
+    public long getLong(int field)
+    {
+        return types.get(field).getLong(page.getBlock(field), position);
+    }
+
+    @Override
+    public double getDouble(int field)
+    {
+        return types.get(field).getDouble(page.getBlock(field), position);
+    }
+
+    @Override
+    public Slice getSlice(int field)
+    {
+        return types.get(field).getSlice(page.getBlock(field), position);
+    }
+
+    @Override
+    public Object getObject(int field)
+    {
+        return types.get(field).getObject(page.getBlock(field), position);
+    }
+
+    @Override
+    public boolean isNull(int field)
+    {
+        return page.getBlock(field).isNull(position);
+    }
+
+    @Override
+    public long getMemoryUsage()
+    {
+        Page page = this.page;
+        long recordedBytes = scanRecorder.map(ScanRecorder::getRetainedBytes).orElse(0L);
+        return bufferedBytes.get() + pageBuilderBytes + recordedBytes + (page == null ? 0 : page.getRetainedSizeInBytes());
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        PreparedStatement statement = this.statement;
+        if (!finished && statement != null) {
+            try {
+                // abort a query still executing or fetching on the reader thread
+                statement.cancel();
+            }
+            catch (SQLException ignored) {
+                // the statement may already be closed
+            }
+        }
+        reader.cancel(true);
+        buffer.clear();
+        bufferedBytes.set(0);
+        pageBuilderBytes = 0;
+        page = null;
+        fetchStats.recordSplit(fetchSize, estimatedRowSize, rows);
+        scanStats.recordSplit(rows, completedBytes);
+    }
+
+    private static ColumnWriter columnWriter(Type type, ReadFunction readFunction)
+    {
+        // the standard mappings of these types read the value with a single getter, so checking wasNull
+        // afterwards is equivalent and saves fetching every value twice through the read function
+        if (type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT)) {
+            return (resultSet, index, output) -> {
+                long value = resultSet.getLong(index);
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeLong(output, value);
+                }
+            };
+        }
+        if (type.equals(DOUBLE)) {
+            return (resultSet, index, output) -> {
+                double value = resultSet.getDouble(index);
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    DOUBLE.writeDouble(output, value);
+                }
+            };
+        }
+        if (type.equals(REAL)) {
+            return (resultSet, index, output) -> {
+                float value = resultSet.getFloat(index);
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    REAL.writeLong(output, floatToRawIntBits(value));
+                }
+            };
+        }
+        if (type.equals(BOOLEAN)) {
+            return (resultSet, index, output) -> {
+                boolean value = resultSet.getBoolean(index);
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    BOOLEAN.writeBoolean(output, value);
+                }
+            };
+        }
+
+        Class<?> javaType = type.getJavaType();
+        if (readFunction instanceof NullSafeReadFunction) {
+            // reads the value once, through the read function, before checking wasNull
+            if (javaType == long.class) {
+                LongReadFunction longReadFunction = (LongReadFunction) readFunction;
+                return (resultSet, index, output) -> {
+                    long value = longReadFunction.readLong(resultSet, index);
+                    if (resultSet.wasNull()) {
+                        output.appendNull();
+                    }
+                    else {
+                        type.writeLong(output, value);
+                    }
+                };
+            }
+            if (javaType == Slice.class) {
+                SliceReadFunction sliceReadFunction = (SliceReadFunction) readFunction;
+                return (resultSet, index, output) -> {
+                    Slice value = sliceReadFunction.readSlice(resultSet, index);
+                    if (resultSet.wasNull()) {
+                        output.appendNull();
+                    }
+                    else {
+                        type.writeSlice(output, value);
+                    }
+                };
+            }
+            if (javaType != boolean.class && javaType != double.class) {
+                ObjectReadFunction objectReadFunction = (ObjectReadFunction) readFunction;
+                return (resultSet, index, output) -> {
+                    Object value = objectReadFunction.readObject(resultSet, index);
+                    if (resultSet.wasNull()) {
+                        output.appendNull();
+                    }
+                    else {
+                        type.writeObject(output, value);
+                    }
+                };
+            }
+        }
+        if (javaType == boolean.class) {
+            BooleanReadFunction booleanReadFunction = (BooleanReadFunction) readFunction;
+            return (resultSet, index, output) -> {
+                if (booleanReadFunction.isNull(resultSet, index)) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeBoolean(output, booleanReadFunction.readBoolean(resultSet, index));
+                }
+            };
+        }
+        if (javaType == long.class) {
+            LongReadFunction longReadFunction = (LongReadFunction) readFunction;
+            return (resultSet, index, output) -> {
+                if (longReadFunction.isNull(resultSet, index)) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeLong(output, longReadFunction.readLong(resultSet, index));
+                }
+            };
+        }
+        if (javaType == double.class) {
+            DoubleReadFunction doubleReadFunction = (DoubleReadFunction) readFunction;
+            return (resultSet, index, output) -> {
+                if (doubleReadFunction.isNull(resultSet, index)) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeDouble(output, doubleReadFunction.readDouble(resultSet, index));
+                }
+            };
+        }
+        if (javaType == Slice.class) {
+            SliceReadFunction sliceReadFunction = (SliceReadFunction) readFunction;
+            return (resultSet, index, output) -> {
+                if (sliceReadFunction.isNull(resultSet, index)) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeSlice(output, sliceReadFunction.readSlice(resultSet, index));
+                }
+            };
+        }
+        ObjectReadFunction objectReadFunction = (ObjectReadFunction) readFunction;
+        return (resultSet, index, output) -> {
+            if (objectReadFunction.isNull(resultSet, index)) {
+                output.appendNull();
+            }
+            else {
+                type.writeObject(output, objectReadFunction.readObject(resultSet, index));
+            }
+        };
+    }
+
+    private interface ColumnWriter
+    {
+        void write(ResultSet resultSet, int index, BlockBuilder output)
+                throws SQLException;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.trino.plugin.jdbc.ConnectionFactory;
+import io.trino.spi.connector.ConnectorSession;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PreDestroy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Opens the connections of table scans on the read endpoints (HADR standbys with reads on standby, pureScale
+ * members, replicas) instead of the primary. An endpoint is picked at random, weighted by the inverse of the
+ * average time it takes to open a connection. An endpoint that failed several times in a row is left out until
+ * the retry delay expires, and scans fall back to the primary when no endpoint is available. Connections to the
+ * read endpoints are read-only.
+ */
+public class DB2ReadRoutingConnectionFactory
+        implements ConnectionFactory
+{
+    private static final Logger log = Logger.get(DB2ReadRoutingConnectionFactory.class);
+
+    // weight of the latest connection in the average latency of an endpoint
+    private static final double LATENCY_DECAY = 0.2;
+    // endpoints without a measured latency get the weight of a fast one, so that their latency gets measured
+    private static final long MIN_LATENCY_NANOS = MILLISECONDS.toNanos(1);
+
+    private final ConnectionFactory primary;
+    private final List<Endpoint> endpoints;
+    private final int failureThreshold;
+    private final long retryDelayNanos;
+    private final Ticker ticker;
+    private final Random random;
+    private final CounterStat primaryFallbacks = new CounterStat();
+    private final CounterStat endpointFailures = new CounterStat();
+
+    public DB2ReadRoutingConnectionFactory(ConnectionFactory primary, Map<String, ConnectionFactory> endpoints, DB2Config config)
+    {
+        this(primary, endpoints, config, Ticker.systemTicker(), new Random());
+    }
+
+    DB2ReadRoutingConnectionFactory(ConnectionFactory primary, Map<String, ConnectionFactory> endpoints, DB2Config config, Ticker ticker, Random random)
+    {
+        this.primary = requireNonNull(primary, "primary is null");
+        this.endpoints = endpoints.entrySet().stream()
+                .map(entry -> new Endpoint(entry.getKey(), entry.getValue()))
+                .collect(toImmutableList());
+        this.failureThreshold = config.getReadEndpointsFailureThreshold();
+        this.retryDelayNanos = config.getReadEndpointsRetryDelay().roundTo(NANOSECONDS);
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.random = requireNonNull(random, "random is null");
+    }
+
+    @Override
+    public Connection openConnection(ConnectorSession session)
+            throws SQLException
+    {
+        if (endpoints.isEmpty()) {
+            return primary.openConnection(session);
+        }
+        List<Endpoint> candidates = getAvailableEndpoints();
+        while (!candidates.isEmpty()) {
+            Endpoint endpoint = pick(candidates);
+            long start = ticker.read();
+            try {
+                Connection connection = endpoint.getConnectionFactory().openConnection(session);
+                endpoint.recordSuccess(ticker.read() - start);
+                try {
+                    // connections to read endpoints serve table scans only, connections to the primary are not
+                    // marked read-only, as the same connection may be used for writes and metadata later
+                    connection.setReadOnly(true);
+                }
+                catch (SQLException e) {
+                    connection.close();
+                    throw e;
+                }
+                return connection;
+            }
+            catch (SQLException e) {
+                log.warn(e, "Failed to connect to read endpoint %s", endpoint.getUrl());
+                endpointFailures.update(1);
+                endpoint.recordFailure(ticker.read(), failureThreshold, retryDelayNanos);
+                candidates.remove(endpoint);
+            }
+        }
+        primaryFallbacks.update(1);
+        return primary.openConnection(session);
+    }
+
+    private List<Endpoint> getAvailableEndpoints()
+    {
+        long now = ticker.read();
+        List<Endpoint> available = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now)) {
+                available.add(endpoint);
+            }
+        }
+        return available;
+    }
+
+    private Endpoint pick(List<Endpoint> candidates)
+    {
+        double[] weights = new double[candidates.size()];
+        double totalWeight = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            weights[i] = 1.0 / max(candidates.get(i).getAverageLatencyNanos(), MIN_LATENCY_NANOS);
+            totalWeight += weights[i];
+        }
+        double value;
+        synchronized (random) {
+            value = random.nextDouble() * totalWeight;
+        }
+        for (int i = 0; i < weights.length - 1; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return candidates.get(i);
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    @Managed
+    public int getAvailableEndpointCount()
+    {
+        return getAvailableEndpoints().size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPrimaryFallbacks()
+    {
+        return primaryFallbacks;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEndpointFailures()
+    {
+        return endpointFailures;
+    }
+
+    List<String> getAvailableEndpointUrls()
+    {
+        return getAvailableEndpoints().stream()
+                .map(Endpoint::getUrl)
+                .collect(toImmutableList());
+    }
+
+    @PreDestroy
+    @Override
+    public void close()
+            throws SQLException
+    {
+        // the primary is closed by its own binding
+        SQLException failure = null;
+        for (Endpoint endpoint : endpoints) {
+            try {
+                endpoint.getConnectionFactory().close();
+            }
+            catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static class Endpoint
+    {
+        private final String url;
+        private final ConnectionFactory connectionFactory;
+        private long averageLatencyNanos;
+        private int consecutiveFailures;
+        private long unavailableUntilNanos;
+
+        public Endpoint(String url, ConnectionFactory connectionFactory)
+        {
+            this.url = requireNonNull(url, "url is null");
+            this.connectionFactory = requireNonNull(connectionFactory, "connectionFactory is null");
+        }
+
+        public String getUrl()
+        {
+            return url;
+        }
+
+        public ConnectionFactory getConnectionFactory()
+        {
+            return connectionFactory;
+        }
+
+        public synchronized long getAverageLatencyNanos()
+        {
+            return averageLatencyNanos;
+        }
+
+        public synchronized boolean isAvailable(long now)
+        {
+            // once the retry delay expires, the next connection decides whether the endpoint is back
+            return consecutiveFailures == 0 || now - unavailableUntilNanos >= 0;
+        }
+
+        public synchronized void recordSuccess(long latencyNanos)
+        {
+            consecutiveFailures = 0;
+            if (averageLatencyNanos == 0) {
+                averageLatencyNanos = latencyNanos;
+            }
+            else {
+                averageLatencyNanos = (long) (LATENCY_DECAY * latencyNanos + (1 - LATENCY_DECAY) * averageLatencyNanos);
+            }
+        }
+
+        public synchronized void recordFailure(long now, int failureThreshold, long retryDelayNanos)
+        {
+            consecutiveFailures++;
+            if (consecutiveFailures >= failureThreshold) {
+                unavailableUntilNanos = now + retryDelayNanos;
+            }
+            else {
+                unavailableUntilNanos = now;
+            }
+        }
+    }
+}
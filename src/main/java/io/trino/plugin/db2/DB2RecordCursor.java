@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.slice.Slice;
+import io.trino.spi.connector.RecordCursor;
+import io.trino.spi.type.Type;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the rows of a split with the JDBC record cursor, and records the fetch round trips, rows and bytes of the split
+ * when it is closed.
+ */
+public class DB2RecordCursor
+        implements RecordCursor
+{
+    private final RecordCursor delegate;
+    private final int fetchSize;
+    private final long estimatedRowSize;
+    private final DB2FetchStats fetchStats;
+    private final DB2ScanStats scanStats;
+
+    private long rows;
+    private boolean closed;
+
+    public DB2RecordCursor(RecordCursor delegate, int fetchSize, long estimatedRowSize, DB2FetchStats fetchStats, DB2ScanStats scanStats)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.fetchSize = fetchSize;
+        this.estimatedRowSize = estimatedRowSize;
+        this.fetchStats = requireNonNull(fetchStats, "fetchStats is null");
+        this.scanStats = requireNonNull(scanStats, "scanStats is null");
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public Type getType(int field)
+    {
+        return delegate.getType(field);
+    }
+
+    @Override
+    public boolean advanceNextPosition()
+    {
+        if (!delegate.advanceNextPosition()) {
+            return false;
+        }
+        rows++;
+        return true;
+    }
+
+    @Override
+    public boolean getBoolean(int field)
+    {
+        return delegate.getBoolean(field);
+    }
+
+    @Override
+    public long getLong(int field)
+    {
+        return delegate.getLong(field);
+    }
+
+    @Override
+    public double getDouble(int field)
+    {
+        return delegate.getDouble(field);
+    }
+
+    @Override
+    public Slice getSlice(int field)
+    {
+        return delegate.getSlice(field);
+    }
+
+    @Override
+    public Object getObject(int field)
+    {
+        return delegate.getObject(field);
+    }
+
+    @Override
+    public boolean isNull(int field)
+    {
+        return delegate.isNull(field);
+    }
+
+    @Override
+    public long getMemoryUsage()
+    {
+        return delegate.getMemoryUsage();
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        fetchStats.recordSplit(fetchSize, estimatedRowSize, rows);
+        scanStats.recordSplit(rows, delegate.getCompletedBytes());
+        delegate.close();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.plugin.db2.DB2ScanCache.ScanKey;
+import io.trino.plugin.db2.DB2ScanCache.ScanRecorder;
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcRecordSetProvider;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.spi.Page;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.ConnectorRecordSetProvider;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorSplit;
+import io.trino.spi.connector.ConnectorTableHandle;
+import io.trino.spi.connector.ConnectorTransactionHandle;
+import io.trino.spi.connector.RecordCursor;
+import io.trino.spi.connector.RecordSet;
+import io.trino.spi.type.Type;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.trino.plugin.db2.DB2FetchSize.estimateRowSize;
+import static io.trino.plugin.db2.DB2FetchSize.getFetchSize;
+import static io.trino.plugin.db2.DB2SessionProperties.isPrefetchEnabled;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class DB2RecordSetProvider
+        implements ConnectorRecordSetProvider
+{
+    private final JdbcClient jdbcClient;
+    private final JdbcRecordSetProvider delegate;
+    private final DB2FetchStats fetchStats;
+    private final DB2ScanStats scanStats;
+    private final DB2ScanCache scanCache;
+    private final int prefetchMaxBufferedPages;
+    private final ExecutorService prefetchExecutor;
+
+    @Inject
+    public DB2RecordSetProvider(JdbcClient jdbcClient, JdbcRecordSetProvider delegate, DB2Config config, DB2FetchStats fetchStats, DB2ScanStats scanStats, DB2ScanCache scanCache)
+    {
+        this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.fetchStats = requireNonNull(fetchStats, "fetchStats is null");
+        this.scanStats = requireNonNull(scanStats, "scanStats is null");
+        this.scanCache = requireNonNull(scanCache, "scanCache is null");
+        this.prefetchMaxBufferedPages = config.getPrefetchMaxBufferedPages();
+        // scans are not queued for a thread, which would block their driver, they are read without prefetching instead
+        ThreadPoolExecutor prefetchExecutor = new ThreadPoolExecutor(
+                config.getPrefetchThreads(),
+                config.getPrefetchThreads(),
+                1,
+                MINUTES,
+                new SynchronousQueue<>(),
+                daemonThreadsNamed("db2-prefetch-%s"));
+        prefetchExecutor.allowCoreThreadTimeOut(true);
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        prefetchExecutor.shutdownNow();
+    }
+
+    @Override
+    public RecordSet getRecordSet(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, ConnectorTableHandle table, List<? extends ColumnHandle> columns)
+    {
+        List<JdbcColumnHandle> columnHandles = columns.stream()
+                .map(JdbcColumnHandle.class::cast)
+                .collect(toImmutableList());
+        List<Type> types = columnHandles.stream()
+                .map(JdbcColumnHandle::getColumnType)
+                .collect(toImmutableList());
+        RecordSet recordSet = delegate.getRecordSet(transaction, session, split, table, columns);
+        // same fetch size as the one set by DB2Client.buildSql
+        int fetchSize = getFetchSize(session, columnHandles);
+        long estimatedRowSize = estimateRowSize(columnHandles);
+        Supplier<RecordCursor> recordCursor = () -> new DB2RecordCursor(recordSet.cursor(), fetchSize, estimatedRowSize, fetchStats, scanStats);
+
+        if (split instanceof DB2CachedScanSplit) {
+            // cached scans are read with the prefetching cursor, which builds the pages to cache
+            DB2CachedScanSplit cachedScanSplit = (DB2CachedScanSplit) split;
+            ScanKey key = new ScanKey(session, (JdbcTableHandle) table, columnHandles, cachedScanSplit, cachedScanSplit.getCacheVersion());
+            Optional<List<Page>> pages = scanCache.getPages(key);
+            if (pages.isPresent()) {
+                return new DB2RecordSet(types, () -> new DB2PageRecordCursor(types, pages.get()));
+            }
+            return new DB2RecordSet(
+                    types,
+                    () -> prefetchingRecordCursor(session, cachedScanSplit, (JdbcTableHandle) table, columnHandles, Optional.of(scanCache.recordScan(key)))
+                            .orElseGet(recordCursor));
+        }
+        if (isPrefetchEnabled(session)) {
+            return new DB2RecordSet(
+                    types,
+                    () -> prefetchingRecordCursor(session, (JdbcSplit) split, (JdbcTableHandle) table, columnHandles, Optional.empty())
+                            .orElseGet(recordCursor));
+        }
+        return new DB2RecordSet(recordSet.getColumnTypes(), recordCursor);
+    }
+
+    private Optional<RecordCursor> prefetchingRecordCursor(ConnectorSession session, JdbcSplit split, JdbcTableHandle table, List<JdbcColumnHandle> columns, Optional<ScanRecorder> scanRecorder)
+    {
+        try {
+            return Optional.of(new DB2PrefetchingRecordCursor(jdbcClient, session, split, table, columns, prefetchExecutor, prefetchMaxBufferedPages, fetchStats, scanStats, scanRecorder));
+        }
+        catch (RejectedExecutionException e) {
+            // all the prefetch threads are busy
+            return Optional.empty();
+        }
+    }
+}
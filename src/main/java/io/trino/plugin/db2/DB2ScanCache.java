@@ -0,0 +1,339 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.log.Logger;
+import io.trino.plugin.jdbc.ConnectionFactory;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.Page;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.SchemaTableName;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.trino.plugin.db2.DB2SessionProperties.getReadIsolation;
+import static io.trino.plugin.db2.DB2SessionProperties.isScanCacheEnabled;
+import static java.lang.Math.min;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches the pages read by the scans of the small tables listed in {@code db2.scan-cache.tables}, on every node,
+ * keyed by the user, the read isolation, the table handle with its pushed down predicate, the projected columns, the
+ * predicate of the split and the version of the table. The coordinator attaches the version to the splits, built from
+ * the {@code ALTER_TIME} and {@code STATS_TIME} of the table in {@code SYSCAT.TABLES}, read at most once per version
+ * check interval, and from the number of times the table was flushed, which the connector does after every write to
+ * it. Entries of older versions are no longer read and are evicted as the least recently used ones, or when they
+ * expire.
+ */
+public class DB2ScanCache
+{
+    private static final Logger log = Logger.get(DB2ScanCache.class);
+
+    private final Set<SchemaTableName> tables;
+    private final long maxEntryBytes;
+    private final ConnectionFactory connectionFactory;
+    private final VersionLoader loader;
+    private final Cache<ScanKey, CachedScan> scans;
+    private final Cache<SchemaTableName, String> versions;
+    private final AtomicLong flushCount = new AtomicLong();
+    private final Map<SchemaTableName, Long> tableFlushCounts = new ConcurrentHashMap<>();
+
+    @Inject
+    public DB2ScanCache(DB2Config config, ConnectionFactory connectionFactory)
+    {
+        this(config, connectionFactory, DB2ScanCache::loadVersion, Ticker.systemTicker());
+    }
+
+    DB2ScanCache(DB2Config config, ConnectionFactory connectionFactory, VersionLoader loader, Ticker ticker)
+    {
+        this.tables = config.getScanCacheTables().stream()
+                .map(DB2ScanCache::parseTableName)
+                .collect(toImmutableSet());
+        this.maxEntryBytes = config.getScanCacheMaxEntrySize().toBytes();
+        this.connectionFactory = requireNonNull(connectionFactory, "connectionFactory is null");
+        this.loader = requireNonNull(loader, "loader is null");
+        this.scans = CacheBuilder.newBuilder()
+                .maximumWeight(config.getScanCacheMaxSize().toBytes())
+                .<ScanKey, CachedScan>weigher((key, scan) -> (int) min(scan.getRetainedBytes(), Integer.MAX_VALUE))
+                .expireAfterWrite(config.getScanCacheTtl().toMillis(), MILLISECONDS)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.versions = CacheBuilder.newBuilder()
+                .expireAfterWrite(config.getScanCacheVersionCheckInterval().toMillis(), MILLISECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    private static SchemaTableName parseTableName(String name)
+    {
+        List<String> parts = ImmutableList.copyOf(name.toLowerCase(ENGLISH).split("\\."));
+        checkArgument(parts.size() == 2 && !parts.get(0).isEmpty() && !parts.get(1).isEmpty(), "Invalid table name in db2.scan-cache.tables, expected schema.table: %s", name);
+        return new SchemaTableName(parts.get(0), parts.get(1));
+    }
+
+    /**
+     * Returns the version of the table the splits of a scan are tagged with, or empty when the scan is not cached.
+     * Called on the coordinator.
+     */
+    public Optional<String> getVersion(ConnectorSession session, JdbcTableHandle table)
+    {
+        // pushed down aggregations and joins are not cached
+        if (tables.isEmpty() || !isScanCacheEnabled(session) || !table.isNamedRelation()) {
+            return Optional.empty();
+        }
+        SchemaTableName tableName = table.getRequiredNamedRelation().getSchemaTableName();
+        if (!tables.contains(tableName)) {
+            return Optional.empty();
+        }
+        // read before the catalog version, so that a concurrent flush is not hidden by the version loaded before it
+        String flushCounts = flushCount.get() + "." + tableFlushCounts.getOrDefault(tableName, 0L);
+        String catalogVersion = versions.getIfPresent(tableName);
+        if (catalogVersion == null) {
+            try (Connection connection = connectionFactory.openConnection(session)) {
+                catalogVersion = loader.load(connection, table.getRequiredNamedRelation().getRemoteTableName());
+            }
+            catch (SQLException e) {
+                log.warn(e, "Failed to read the version of %s, the table is read from Db2", tableName);
+                return Optional.empty();
+            }
+            versions.put(tableName, catalogVersion);
+        }
+        return Optional.of(catalogVersion + "/" + flushCounts);
+    }
+
+    /**
+     * Returns the pages of a previous scan of the same split, when cached.
+     */
+    public Optional<List<Page>> getPages(ScanKey key)
+    {
+        return Optional.ofNullable(scans.getIfPresent(key))
+                .map(CachedScan::getPages);
+    }
+
+    /**
+     * Returns a recorder of the pages read by the scan, cached when the scan completes.
+     */
+    public ScanRecorder recordScan(ScanKey key)
+    {
+        return new ScanRecorder(key);
+    }
+
+    public void flush()
+    {
+        flushCount.incrementAndGet();
+        versions.invalidateAll();
+        scans.invalidateAll();
+    }
+
+    public void flush(String schemaName)
+    {
+        for (SchemaTableName table : tables) {
+            if (table.getSchemaName().equals(schemaName)) {
+                flush(table);
+            }
+        }
+    }
+
+    public void flush(SchemaTableName table)
+    {
+        if (!tables.contains(table)) {
+            return;
+        }
+        tableFlushCounts.merge(table, 1L, Long::sum);
+        versions.invalidate(table);
+        scans.asMap().keySet().removeIf(key -> key.getTable().equals(table));
+    }
+
+    @Managed
+    @Nested
+    public DB2CacheStats getScanCacheStats()
+    {
+        return new DB2CacheStats(scans);
+    }
+
+    private static String loadVersion(Connection connection, RemoteTableName table)
+            throws SQLException
+    {
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT ALTER_TIME, STATS_TIME FROM SYSCAT.TABLES " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ?")) {
+            statement.setString(1, table.getSchemaName().orElse(null));
+            statement.setString(2, table.getTableName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return "";
+                }
+                return resultSet.getString(1) + "/" + resultSet.getString(2);
+            }
+        }
+    }
+
+    interface VersionLoader
+    {
+        String load(Connection connection, RemoteTableName table)
+                throws SQLException;
+    }
+
+    public class ScanRecorder
+    {
+        private final ScanKey key;
+        private final List<Page> pages = new ArrayList<>();
+        private long retainedBytes;
+        private boolean tooLarge;
+
+        private ScanRecorder(ScanKey key)
+        {
+            this.key = requireNonNull(key, "key is null");
+        }
+
+        public void recordPage(Page page)
+        {
+            if (tooLarge) {
+                return;
+            }
+            page.compact();
+            retainedBytes += page.getRetainedSizeInBytes();
+            if (retainedBytes > maxEntryBytes) {
+                tooLarge = true;
+                pages.clear();
+                retainedBytes = 0;
+                return;
+            }
+            pages.add(page);
+        }
+
+        public long getRetainedBytes()
+        {
+            return retainedBytes;
+        }
+
+        /**
+         * Caches the recorded pages, called once the scan read all the rows of the split.
+         */
+        public void finish()
+        {
+            if (!tooLarge) {
+                scans.put(key, new CachedScan(pages, retainedBytes));
+            }
+            // the pages are owned by the cache from now on
+            pages.clear();
+            retainedBytes = 0;
+        }
+    }
+
+    private static class CachedScan
+    {
+        private final List<Page> pages;
+        private final long retainedBytes;
+
+        public CachedScan(List<Page> pages, long retainedBytes)
+        {
+            this.pages = ImmutableList.copyOf(pages);
+            this.retainedBytes = retainedBytes;
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public long getRetainedBytes()
+        {
+            return retainedBytes;
+        }
+    }
+
+    public static final class ScanKey
+    {
+        private final String user;
+        private final Map<String, String> extraCredentials;
+        private final DB2IsolationLevel readIsolation;
+        private final SchemaTableName table;
+        private final JdbcTableHandle tableHandle;
+        private final List<JdbcColumnHandle> columns;
+        private final Optional<String> additionalPredicate;
+        private final String version;
+
+        public ScanKey(ConnectorSession session, JdbcTableHandle tableHandle, List<JdbcColumnHandle> columns, JdbcSplit split, String version)
+        {
+            this.user = session.getIdentity().getUser();
+            this.extraCredentials = ImmutableMap.copyOf(session.getIdentity().getExtraCredentials());
+            // uncommitted rows read with UR must not be served to the sessions reading committed rows
+            this.readIsolation = getReadIsolation(session);
+            this.table = tableHandle.getRequiredNamedRelation().getSchemaTableName();
+            this.tableHandle = requireNonNull(tableHandle, "tableHandle is null");
+            this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+            this.additionalPredicate = split.getAdditionalPredicate();
+            this.version = requireNonNull(version, "version is null");
+        }
+
+        public SchemaTableName getTable()
+        {
+            return table;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ScanKey that = (ScanKey) o;
+            return user.equals(that.user) &&
+                    extraCredentials.equals(that.extraCredentials) &&
+                    readIsolation == that.readIsolation &&
+                    tableHandle.equals(that.tableHandle) &&
+                    columns.equals(that.columns) &&
+                    additionalPredicate.equals(that.additionalPredicate) &&
+                    version.equals(that.version);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(user, extraCredentials, readIsolation, tableHandle, columns, additionalPredicate, version);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Time spent in each phase of the table scans, and the rows and bytes read per split. The phases are only
+ * timed by the prefetching cursor: opening the connection, preparing the statement, executing the query, the
+ * fetch round trips to Db2, and decoding the fetched rows into pages through the column mappings.
+ */
+public class DB2ScanStats
+{
+    private final TimeStat connectionOpenTime = new TimeStat(MILLISECONDS);
+    private final TimeStat prepareTime = new TimeStat(MILLISECONDS);
+    private final TimeStat executeTime = new TimeStat(MILLISECONDS);
+    private final TimeStat fetchTimePerSplit = new TimeStat(MILLISECONDS);
+    private final TimeStat conversionTimePerSplit = new TimeStat(MILLISECONDS);
+    private final DistributionStat fetchBatchesPerSplit = new DistributionStat();
+    private final DistributionStat rowsPerSplit = new DistributionStat();
+    private final DistributionStat bytesPerSplit = new DistributionStat();
+    private final CounterStat rows = new CounterStat();
+    private final CounterStat bytes = new CounterStat();
+
+    /**
+     * Time to open the connection of a split, including marking it read only.
+     */
+    @Managed
+    @Nested
+    public TimeStat getConnectionOpenTime()
+    {
+        return connectionOpenTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getPrepareTime()
+    {
+        return prepareTime;
+    }
+
+    /**
+     * Time until Db2 opens the cursor of the query, which usually returns the first fetch of rows.
+     */
+    @Managed
+    @Nested
+    public TimeStat getExecuteTime()
+    {
+        return executeTime;
+    }
+
+    /**
+     * Time spent in the calls to {@code ResultSet.next} that fetch the next batch of rows from Db2.
+     */
+    @Managed
+    @Nested
+    public TimeStat getFetchTimePerSplit()
+    {
+        return fetchTimePerSplit;
+    }
+
+    /**
+     * Time spent reading the fetched rows into pages, excluding the fetch round trips.
+     */
+    @Managed
+    @Nested
+    public TimeStat getConversionTimePerSplit()
+    {
+        return conversionTimePerSplit;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getFetchBatchesPerSplit()
+    {
+        return fetchBatchesPerSplit;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getRowsPerSplit()
+    {
+        return rowsPerSplit;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getBytesPerSplit()
+    {
+        return bytesPerSplit;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getRows()
+    {
+        return rows;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getBytes()
+    {
+        return bytes;
+    }
+
+    public void recordConnectionOpen(long nanos)
+    {
+        connectionOpenTime.add(nanos, NANOSECONDS);
+    }
+
+    public void recordPrepare(long nanos)
+    {
+        prepareTime.add(nanos, NANOSECONDS);
+    }
+
+    public void recordExecute(long nanos)
+    {
+        executeTime.add(nanos, NANOSECONDS);
+    }
+
+    public void recordRead(long fetchNanos, long fetchBatches, long conversionNanos)
+    {
+        fetchTimePerSplit.add(fetchNanos, NANOSECONDS);
+        fetchBatchesPerSplit.add(fetchBatches);
+        conversionTimePerSplit.add(conversionNanos, NANOSECONDS);
+    }
+
+    public void recordSplit(long rows, long bytes)
+    {
+        rowsPerSplit.add(rows);
+        bytesPerSplit.add(bytes);
+        this.rows.update(rows);
+        this.bytes.update(bytes);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.trino.plugin.base.session.SessionPropertiesProvider;
+import io.trino.spi.TrinoException;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.session.PropertyMetadata;
+
+import javax.inject.Inject;
+
+import java.util.List;
+
+import static io.trino.plugin.base.session.PropertyMetadataUtil.dataSizeProperty;
+import static io.trino.plugin.base.session.PropertyMetadataUtil.durationProperty;
+import static io.trino.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
+import static io.trino.spi.session.PropertyMetadata.booleanProperty;
+import static io.trino.spi.session.PropertyMetadata.enumProperty;
+import static io.trino.spi.session.PropertyMetadata.integerProperty;
+import static java.lang.String.format;
+
+public class DB2SessionProperties
+        implements SessionPropertiesProvider
+{
+    public static final String SPLIT_COUNT = "split_count";
+    public static final String TARGET_SPLIT_SIZE = "target_split_size";
+    public static final String DATABASE_PARTITION_SPLITS_ENABLED = "database_partition_splits_enabled";
+    public static final String WRITE_COMMIT_INTERVAL = "write_commit_interval";
+    public static final String BULK_LOAD_ENABLED = "bulk_load_enabled";
+    public static final String FETCH_TARGET_SIZE = "fetch_target_size";
+    public static final String FETCH_SIZE = "fetch_size";
+    public static final String PREFETCH_ENABLED = "prefetch_enabled";
+    public static final String DYNAMIC_FILTERING_ENABLED = "dynamic_filtering_enabled";
+    public static final String DYNAMIC_FILTERING_WAIT_TIMEOUT = "dynamic_filtering_wait_timeout";
+    public static final String READ_ISOLATION = "read_isolation";
+    public static final String SCAN_CACHE_ENABLED = "scan_cache_enabled";
+    public static final String DELETE_CHUNK_SIZE = "delete_chunk_size";
+    public static final String TABLE_SAMPLE_PUSHDOWN_ENABLED = "table_sample_pushdown_enabled";
+    public static final String MQT_ROUTING_MAX_STALENESS = "mqt_routing_max_staleness";
+
+    private final List<PropertyMetadata<?>> sessionProperties;
+
+    @Inject
+    public DB2SessionProperties(DB2Config config)
+    {
+        sessionProperties = ImmutableList.<PropertyMetadata<?>>builder()
+                .add(integerProperty(
+                        SPLIT_COUNT,
+                        "Maximum number of splits generated for a single table scan, unless it is read by database partition",
+                        config.getSplitCount(),
+                        false))
+                .add(dataSizeProperty(
+                        TARGET_SPLIT_SIZE,
+                        "Target amount of table data read by a single split",
+                        config.getTargetSplitSize(),
+                        false))
+                .add(booleanProperty(
+                        DATABASE_PARTITION_SPLITS_ENABLED,
+                        "Read tables distributed across database partitions with a split per database partition",
+                        config.isDatabasePartitionSplitsEnabled(),
+                        false))
+                .add(integerProperty(
+                        WRITE_COMMIT_INTERVAL,
+                        "Number of rows written by a single task between commits, 0 to commit once when the task finishes",
+                        config.getWriteCommitInterval(),
+                        false))
+                .add(booleanProperty(
+                        BULK_LOAD_ENABLED,
+                        "Write with the Db2 LOAD utility instead of INSERT statements",
+                        config.isBulkLoadEnabled(),
+                        false))
+                .add(dataSizeProperty(
+                        FETCH_TARGET_SIZE,
+                        "Amount of data fetched from Db2 in a single round trip",
+                        config.getFetchTargetSize(),
+                        false))
+                .add(integerProperty(
+                        FETCH_SIZE,
+                        "Number of rows fetched from Db2 in a single round trip, 0 to derive it from the row size and fetch_target_size",
+                        config.getFetchSize(),
+                        false))
+                .add(booleanProperty(
+                        PREFETCH_ENABLED,
+                        "Read table scans on a separate thread that builds pages ahead of their processing",
+                        config.isPrefetchEnabled(),
+                        false))
+                .add(booleanProperty(
+                        DYNAMIC_FILTERING_ENABLED,
+                        "Push dynamic filters into the queries of table scans",
+                        config.isDynamicFilteringEnabled(),
+                        false))
+                .add(durationProperty(
+                        DYNAMIC_FILTERING_WAIT_TIMEOUT,
+                        "Maximum time the splits of a table scan wait for dynamic filters to be collected",
+                        config.getDynamicFilteringWaitTimeout(),
+                        false))
+                .add(enumProperty(
+                        READ_ISOLATION,
+                        "Isolation level of table scans",
+                        DB2IsolationLevel.class,
+                        config.getReadIsolation(),
+                        false))
+                .add(booleanProperty(
+                        SCAN_CACHE_ENABLED,
+                        "Read the tables listed in db2.scan-cache.tables from the scan cache",
+                        true,
+                        false))
+                .add(integerProperty(
+                        DELETE_CHUNK_SIZE,
+                        "Number of rows deleted by a single statement, each committed separately, 0 to delete in a single statement",
+                        config.getDeleteChunkSize(),
+                        false))
+                .add(booleanProperty(
+                        TABLE_SAMPLE_PUSHDOWN_ENABLED,
+                        "Sample tables in Db2 with the TABLESAMPLE clause",
+                        config.isTableSamplePushdownEnabled(),
+                        false))
+                .add(durationProperty(
+                        MQT_ROUTING_MAX_STALENESS,
+                        "Maximum time since the last refresh of the MQTs a table scan is routed to",
+                        config.getMqtRoutingMaxStaleness(),
+                        false))
+                .build();
+    }
+
+    @Override
+    public List<PropertyMetadata<?>> getSessionProperties()
+    {
+        return sessionProperties;
+    }
+
+    public static int getSplitCount(ConnectorSession session)
+    {
+        int splitCount = session.getProperty(SPLIT_COUNT, Integer.class);
+        if (splitCount < 1) {
+            throw new TrinoException(INVALID_SESSION_PROPERTY, format("%s must be greater than 0: %s", SPLIT_COUNT, splitCount));
+        }
+        return splitCount;
+    }
+
+    public static DataSize getTargetSplitSize(ConnectorSession session)
+    {
+        return session.getProperty(TARGET_SPLIT_SIZE, DataSize.class);
+    }
+
+    public static boolean isDatabasePartitionSplitsEnabled(ConnectorSession session)
+    {
+        return session.getProperty(DATABASE_PARTITION_SPLITS_ENABLED, Boolean.class);
+    }
+
+    public static int getWriteCommitInterval(ConnectorSession session)
+    {
+        int commitInterval = session.getProperty(WRITE_COMMIT_INTERVAL, Integer.class);
+        if (commitInterval < 0) {
+            throw new TrinoException(INVALID_SESSION_PROPERTY, format("%s must not be negative: %s", WRITE_COMMIT_INTERVAL, commitInterval));
+        }
+        return commitInterval;
+    }
+
+    public static boolean isBulkLoadEnabled(ConnectorSession session)
+    {
+        return session.getProperty(BULK_LOAD_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getFetchTargetSize(ConnectorSession session)
+    {
+        return session.getProperty(FETCH_TARGET_SIZE, DataSize.class);
+    }
+
+    public static int getFetchSize(ConnectorSession session)
+    {
+        int fetchSize = session.getProperty(FETCH_SIZE, Integer.class);
+        if (fetchSize < 0) {
+            throw new TrinoException(INVALID_SESSION_PROPERTY, format("%s must not be negative: %s", FETCH_SIZE, fetchSize));
+        }
+        return fetchSize;
+    }
+
+    public static boolean isPrefetchEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PREFETCH_ENABLED, Boolean.class);
+    }
+
+    public static boolean isDynamicFilteringEnabled(ConnectorSession session)
+    {
+        return session.getProperty(DYNAMIC_FILTERING_ENABLED, Boolean.class);
+    }
+
+    public static Duration getDynamicFilteringWaitTimeout(ConnectorSession session)
+    {
+        return session.getProperty(DYNAMIC_FILTERING_WAIT_TIMEOUT, Duration.class);
+    }
+
+    public static DB2IsolationLevel getReadIsolation(ConnectorSession session)
+    {
+        return session.getProperty(READ_ISOLATION, DB2IsolationLevel.class);
+    }
+
+    public static boolean isScanCacheEnabled(ConnectorSession session)
+    {
+        return session.getProperty(SCAN_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static int getDeleteChunkSize(ConnectorSession session)
+    {
+        int chunkSize = session.getProperty(DELETE_CHUNK_SIZE, Integer.class);
+        if (chunkSize < 0) {
+            throw new TrinoException(INVALID_SESSION_PROPERTY, format("%s must not be negative: %s", DELETE_CHUNK_SIZE, chunkSize));
+        }
+        return chunkSize;
+    }
+
+    public static boolean isTableSamplePushdownEnabled(ConnectorSession session)
+    {
+        return session.getProperty(TABLE_SAMPLE_PUSHDOWN_ENABLED, Boolean.class);
+    }
+
+    public static Duration getMqtRoutingMaxStaleness(ConnectorSession session)
+    {
+        return session.getProperty(MQT_ROUTING_MAX_STALENESS, Duration.class);
+    }
+}
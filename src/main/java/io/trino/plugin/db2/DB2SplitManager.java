@@ -0,0 +1,210 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcSplitManager;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.ConnectorPartitionHandle;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorSplit;
+import io.trino.spi.connector.ConnectorSplitManager;
+import io.trino.spi.connector.ConnectorSplitSource;
+import io.trino.spi.connector.ConnectorTableHandle;
+import io.trino.spi.connector.ConnectorTransactionHandle;
+import io.trino.spi.connector.Constraint;
+import io.trino.spi.connector.DynamicFilter;
+import io.trino.spi.predicate.TupleDomain;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.plugin.db2.DB2Client.isSplittable;
+import static io.trino.plugin.db2.DB2SessionProperties.getDynamicFilteringWaitTimeout;
+import static io.trino.plugin.db2.DB2SessionProperties.isDynamicFilteringEnabled;
+import static io.trino.plugin.jdbc.JdbcMetadataSessionProperties.getDomainCompactionThreshold;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Holds back the splits of a table scan until its dynamic filters are collected, or until the wait timeout
+ * expires, and adds the dynamic filters to the predicate of every split. The record set provider does not get
+ * the dynamic filters, so they are applied when the splits are created, on the columns whose predicates are pushed
+ * down as they are, see {@link DB2Client#isFullPushdown}. The splits of the tables cached by
+ * {@link DB2ScanCache} are tagged with the version of the table.
+ */
+public class DB2SplitManager
+        implements ConnectorSplitManager
+{
+    private final JdbcSplitManager delegate;
+    private final DB2Client db2Client;
+    private final DB2ScanCache scanCache;
+
+    @Inject
+    public DB2SplitManager(JdbcSplitManager delegate, DB2Client db2Client, DB2ScanCache scanCache)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.db2Client = requireNonNull(db2Client, "db2Client is null");
+        this.scanCache = requireNonNull(scanCache, "scanCache is null");
+    }
+
+    @Override
+    public ConnectorSplitSource getSplits(
+            ConnectorTransactionHandle transaction,
+            ConnectorSession session,
+            ConnectorTableHandle table,
+            DynamicFilter dynamicFilter,
+            Constraint constraint)
+    {
+        ConnectorSplitSource splitSource = delegate.getSplits(transaction, session, table, dynamicFilter, constraint);
+        JdbcTableHandle tableHandle = (JdbcTableHandle) table;
+        // a filter below a pushed down aggregation, join, limit or top N would change its result
+        if (isDynamicFilteringEnabled(session) &&
+                !dynamicFilter.getColumnsCovered().isEmpty() &&
+                isSplittable(tableHandle)) {
+            splitSource = new DynamicFilteringSplitSource(
+                    splitSource,
+                    dynamicFilter,
+                    System.nanoTime() + getDynamicFilteringWaitTimeout(session).roundTo(NANOSECONDS),
+                    getDomainCompactionThreshold(session),
+                    column -> db2Client.isFullPushdown(session, column));
+        }
+        Optional<String> cacheVersion = scanCache.getVersion(session, tableHandle);
+        if (cacheVersion.isPresent()) {
+            splitSource = new CachedScanSplitSource(splitSource, cacheVersion.get());
+        }
+        return splitSource;
+    }
+
+    private static class DynamicFilteringSplitSource
+            implements ConnectorSplitSource
+    {
+        private static final ConnectorSplitBatch EMPTY_BATCH = new ConnectorSplitBatch(List.of(), false);
+
+        private final ConnectorSplitSource delegate;
+        private final DynamicFilter dynamicFilter;
+        private final long waitDeadlineNanos;
+        private final int domainCompactionThreshold;
+        private final Predicate<JdbcColumnHandle> isFullPushdown;
+        private boolean finished;
+
+        public DynamicFilteringSplitSource(
+                ConnectorSplitSource delegate,
+                DynamicFilter dynamicFilter,
+                long waitDeadlineNanos,
+                int domainCompactionThreshold,
+                Predicate<JdbcColumnHandle> isFullPushdown)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+            this.waitDeadlineNanos = waitDeadlineNanos;
+            this.domainCompactionThreshold = domainCompactionThreshold;
+            this.isFullPushdown = requireNonNull(isFullPushdown, "isFullPushdown is null");
+        }
+
+        @Override
+        public CompletableFuture<ConnectorSplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle, int maxSize)
+        {
+            long remainingNanos = waitDeadlineNanos - System.nanoTime();
+            if (dynamicFilter.isAwaitable() && remainingNanos > 0) {
+                // an empty batch makes the engine ask again, with the dynamic filters collected or the timeout expired
+                return dynamicFilter.isBlocked()
+                        .thenApply(ignored -> EMPTY_BATCH)
+                        .completeOnTimeout(EMPTY_BATCH, remainingNanos, NANOSECONDS);
+            }
+
+            TupleDomain<ColumnHandle> currentPredicate = dynamicFilter.getCurrentPredicate();
+            if (currentPredicate.isNone()) {
+                // no row can match the join
+                finished = true;
+                return completedFuture(new ConnectorSplitBatch(List.of(), true));
+            }
+            Optional<String> predicate = DB2DynamicFilterPredicate.toPredicate(currentPredicate, domainCompactionThreshold, isFullPushdown);
+            return delegate.getNextBatch(partitionHandle, maxSize)
+                    .thenApply(batch -> new ConnectorSplitBatch(
+                            batch.getSplits().stream()
+                                    .map(split -> withPredicate(split, predicate))
+                                    .collect(toImmutableList()),
+                            batch.isNoMoreSplits()));
+        }
+
+        private static ConnectorSplit withPredicate(ConnectorSplit split, Optional<String> predicate)
+        {
+            if (predicate.isEmpty()) {
+                return split;
+            }
+            Optional<String> additionalPredicate = ((JdbcSplit) split).getAdditionalPredicate();
+            if (additionalPredicate.isEmpty()) {
+                return new JdbcSplit(predicate);
+            }
+            return new JdbcSplit(Optional.of("(" + additionalPredicate.get() + ") AND " + predicate.get()));
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return finished || delegate.isFinished();
+        }
+    }
+
+    private static class CachedScanSplitSource
+            implements ConnectorSplitSource
+    {
+        private final ConnectorSplitSource delegate;
+        private final String cacheVersion;
+
+        public CachedScanSplitSource(ConnectorSplitSource delegate, String cacheVersion)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.cacheVersion = requireNonNull(cacheVersion, "cacheVersion is null");
+        }
+
+        @Override
+        public CompletableFuture<ConnectorSplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle, int maxSize)
+        {
+            return delegate.getNextBatch(partitionHandle, maxSize)
+                    .thenApply(batch -> new ConnectorSplitBatch(
+                            batch.getSplits().stream()
+                                    .map(split -> new DB2CachedScanSplit(((JdbcSplit) split).getAdditionalPredicate(), cacheVersion))
+                                    .collect(toImmutableList()),
+                            batch.isNoMoreSplits()));
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return delegate.isFinished();
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.trino.plugin.db2.DB2PartitionMapCache.DatabasePartitionMap;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.connector.ConnectorSession;
+
+import javax.inject.Inject;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.LongFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.nullToEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.plugin.db2.DB2SessionProperties.getSplitCount;
+import static io.trino.plugin.db2.DB2SessionProperties.getTargetSplitSize;
+import static io.trino.plugin.db2.DB2SessionProperties.isDatabasePartitionSplitsEnabled;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cuts a Db2 table scan into several {@link JdbcSplit}s, each carrying its own additional predicate.
+ * Tables distributed across database partitions can get a split per database partition.
+ * Range partitioned tables get a split per data partition, neighbouring data partitions being merged down to the
+ * split count, other tables are cut into ranges of the first primary key column when it is an integer or date column.
+ */
+public class DB2SplitPlanner
+{
+    private static final Logger log = Logger.get(DB2SplitPlanner.class);
+
+    private static final String MIN_VALUE = "MINVALUE";
+    private static final String MAX_VALUE = "MAXVALUE";
+
+    private final DB2PartitionMapCache partitionMapCache;
+
+    @Inject
+    public DB2SplitPlanner(DB2PartitionMapCache partitionMapCache)
+    {
+        this.partitionMapCache = requireNonNull(partitionMapCache, "partitionMapCache is null");
+    }
+
+    public boolean isEnabled(ConnectorSession session)
+    {
+        return getSplitCount(session) > 1 || isDatabasePartitionSplitsEnabled(session);
+    }
+
+    public List<JdbcSplit> planSplits(ConnectorSession session, Connection connection, RemoteTableName table)
+    {
+        if (!isEnabled(session) || table.getSchemaName().isEmpty()) {
+            return ImmutableList.of(new JdbcSplit(Optional.empty()));
+        }
+        String schemaName = table.getSchemaName().get();
+        String tableName = table.getTableName();
+        int splitCount = getSplitCount(session);
+
+        try {
+            List<String> predicates = ImmutableList.of();
+            if (isDatabasePartitionSplitsEnabled(session)) {
+                predicates = partitionMapCache.getPartitionMap(connection, table)
+                        .map(DB2SplitPlanner::databasePartitionPredicates)
+                        .orElse(ImmutableList.of());
+            }
+            if (predicates.isEmpty() && splitCount > 1) {
+                predicates = getDataPartitionPredicates(connection, schemaName, tableName, splitCount);
+            }
+            if (predicates.isEmpty() && splitCount > 1) {
+                OptionalLong tableSize = getTableSize(connection, schemaName, tableName);
+                if (tableSize.isPresent()) {
+                    long targetSplitSize = getTargetSplitSize(session).toBytes();
+                    splitCount = (int) min(splitCount, max(1, (tableSize.getAsLong() + targetSplitSize - 1) / targetSplitSize));
+                }
+                predicates = getKeyRangePredicates(connection, schemaName, tableName, splitCount);
+            }
+            if (predicates.size() > 1) {
+                return predicates.stream()
+                        .map(predicate -> new JdbcSplit(Optional.of(predicate)))
+                        .collect(toImmutableList());
+            }
+        }
+        catch (SQLException e) {
+            // The SYSCAT catalog views are only available on Db2 LUW, scan other servers with a single split
+            log.debug(e, "Failed to plan splits for table %s.%s, falling back to a single split", schemaName, tableName);
+        }
+        return ImmutableList.of(new JdbcSplit(Optional.empty()));
+    }
+
+    static List<String> databasePartitionPredicates(DatabasePartitionMap partitionMap)
+    {
+        String column = quoted(partitionMap.getColumnName());
+        return partitionMap.getPartitionNumbers().stream()
+                .map(partitionNumber -> format("DBPARTITIONNUM(%s) = %s", column, partitionNumber))
+                .collect(toImmutableList());
+    }
+
+    private static List<String> getDataPartitionPredicates(Connection connection, String schemaName, String tableName, int splitCount)
+            throws SQLException
+    {
+        List<String> expressions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT DATAPARTITIONEXPRESSION FROM SYSCAT.DATAPARTITIONEXPRESSION " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ? " +
+                "ORDER BY DATAPARTITIONKEYSEQ")) {
+            statement.setString(1, schemaName);
+            statement.setString(2, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    expressions.add(resultSet.getString(1));
+                }
+            }
+        }
+        // Multi-column partitioning keys would need row value comparisons, scan them by key range instead
+        if (expressions.size() != 1) {
+            return ImmutableList.of();
+        }
+
+        List<DataPartition> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT LOWINCLUSIVE, LOWVALUE, HIGHINCLUSIVE, HIGHVALUE FROM SYSCAT.DATAPARTITIONS " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ? " +
+                "ORDER BY SEQNO")) {
+            statement.setString(1, schemaName);
+            statement.setString(2, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    partitions.add(new DataPartition(
+                            "Y".equals(resultSet.getString(1)),
+                            nullToEmpty(resultSet.getString(2)).trim(),
+                            "Y".equals(resultSet.getString(3)),
+                            nullToEmpty(resultSet.getString(4)).trim()));
+                }
+            }
+        }
+        if (partitions.size() <= 1) {
+            return ImmutableList.of();
+        }
+        return dataPartitionPredicates(expressions.get(0), mergeDataPartitions(partitions, splitCount));
+    }
+
+    /**
+     * Merges neighbouring data partitions into at most splitCount ranges of about the same number of data partitions.
+     * The ranges of data partitions may leave gaps, which hold no rows since Db2 rejects them.
+     */
+    static List<DataPartition> mergeDataPartitions(List<DataPartition> partitions, int splitCount)
+    {
+        checkArgument(splitCount > 0, "splitCount must be greater than 0");
+        if (partitions.size() <= splitCount) {
+            return partitions;
+        }
+        ImmutableList.Builder<DataPartition> merged = ImmutableList.builder();
+        for (int i = 0; i < splitCount; i++) {
+            DataPartition first = partitions.get(partitions.size() * i / splitCount);
+            DataPartition last = partitions.get(partitions.size() * (i + 1) / splitCount - 1);
+            merged.add(new DataPartition(first.isLowInclusive(), first.getLowValue(), last.isHighInclusive(), last.getHighValue()));
+        }
+        return merged.build();
+    }
+
+    static List<String> dataPartitionPredicates(String expression, List<DataPartition> partitions)
+    {
+        ImmutableList.Builder<String> predicates = ImmutableList.builder();
+        for (int i = 0; i < partitions.size(); i++) {
+            DataPartition partition = partitions.get(i);
+            List<String> conjuncts = new ArrayList<>();
+            if (!partition.getLowValue().isEmpty() && !partition.getLowValue().equals(MIN_VALUE)) {
+                conjuncts.add(format("%s %s %s", expression, partition.isLowInclusive() ? ">=" : ">", partition.getLowValue()));
+            }
+            if (!partition.getHighValue().isEmpty() && !partition.getHighValue().equals(MAX_VALUE)) {
+                conjuncts.add(format("%s %s %s", expression, partition.isHighInclusive() ? "<=" : "<", partition.getHighValue()));
+            }
+            String predicate = conjuncts.isEmpty() ? "1 = 1" : String.join(" AND ", conjuncts);
+            // Null partitioning keys do not match any of the ranges, read them with the last split
+            if (i == partitions.size() - 1) {
+                predicate = format("%s OR %s IS NULL", predicate, expression);
+            }
+            predicates.add("(" + predicate + ")");
+        }
+        return predicates.build();
+    }
+
+    private static OptionalLong getTableSize(Connection connection, String schemaName, String tableName)
+            throws SQLException
+    {
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT T.NPAGES, S.PAGESIZE FROM SYSCAT.TABLES T JOIN SYSCAT.TABLESPACES S ON T.TBSPACEID = S.TBSPACEID " +
+                "WHERE T.TABSCHEMA = ? AND T.TABNAME = ?")) {
+            statement.setString(1, schemaName);
+            statement.setString(2, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    long pages = resultSet.getLong(1);
+                    // NPAGES is -1 when statistics have not been collected
+                    if (pages >= 0) {
+                        return OptionalLong.of(pages * resultSet.getLong(2));
+                    }
+                }
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    private static List<String> getKeyRangePredicates(Connection connection, String schemaName, String tableName, int splitCount)
+            throws SQLException
+    {
+        if (splitCount <= 1) {
+            return ImmutableList.of();
+        }
+
+        String columnName;
+        String typeName;
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT COLNAME, TYPENAME FROM SYSCAT.COLUMNS " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ? AND KEYSEQ = 1")) {
+            statement.setString(1, schemaName);
+            statement.setString(2, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return ImmutableList.of();
+                }
+                columnName = resultSet.getString(1);
+                typeName = resultSet.getString(2).trim();
+            }
+        }
+
+        boolean isDate;
+        switch (typeName) {
+            case "SMALLINT":
+            case "INTEGER":
+            case "BIGINT":
+                isDate = false;
+                break;
+            case "DATE":
+                isDate = true;
+                break;
+            default:
+                return ImmutableList.of();
+        }
+
+        String column = quoted(columnName);
+        String sql = format("SELECT MIN(%s), MAX(%s) FROM %s.%s", column, column, quoted(schemaName), quoted(tableName));
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+                ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                return ImmutableList.of();
+            }
+            if (isDate) {
+                Date min = resultSet.getDate(1);
+                Date max = resultSet.getDate(2);
+                if (min == null || max == null) {
+                    return ImmutableList.of();
+                }
+                return rangePredicates(
+                        column,
+                        min.toLocalDate().toEpochDay(),
+                        max.toLocalDate().toEpochDay(),
+                        splitCount,
+                        epochDay -> format("DATE('%s')", LocalDate.ofEpochDay(epochDay)));
+            }
+            long min = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                return ImmutableList.of();
+            }
+            long max = resultSet.getLong(2);
+            return rangePredicates(column, min, max, splitCount, Long::toString);
+        }
+    }
+
+    /**
+     * Cuts [min, max] into at most splitCount ranges. The first and the last range are open-ended,
+     * so that rows outside of the observed bounds and rows with a null key are read exactly once.
+     */
+    static List<String> rangePredicates(String column, long min, long max, int splitCount, LongFunction<String> toLiteral)
+    {
+        checkArgument(min <= max, "min is greater than max: %s > %s", min, max);
+        checkArgument(splitCount > 0, "splitCount must be greater than 0");
+
+        BigInteger lowerBound = BigInteger.valueOf(min);
+        BigInteger range = BigInteger.valueOf(max).subtract(lowerBound).add(BigInteger.ONE);
+        int count = (int) min(splitCount, range.min(BigInteger.valueOf(Integer.MAX_VALUE)).longValueExact());
+        if (count <= 1) {
+            return ImmutableList.of();
+        }
+
+        List<String> boundaries = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            long boundary = lowerBound.add(range.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count))).longValueExact();
+            boundaries.add(toLiteral.apply(boundary));
+        }
+
+        ImmutableList.Builder<String> predicates = ImmutableList.builder();
+        predicates.add(format("(%s < %s OR %s IS NULL)", column, boundaries.get(0), column));
+        for (int i = 1; i < boundaries.size(); i++) {
+            predicates.add(format("(%s >= %s AND %s < %s)", column, boundaries.get(i - 1), column, boundaries.get(i)));
+        }
+        predicates.add(format("(%s >= %s)", column, boundaries.get(boundaries.size() - 1)));
+        return predicates.build();
+    }
+
+    private static String quoted(String name)
+    {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    static class DataPartition
+    {
+        private final boolean lowInclusive;
+        private final String lowValue;
+        private final boolean highInclusive;
+        private final String highValue;
+
+        DataPartition(boolean lowInclusive, String lowValue, boolean highInclusive, String highValue)
+        {
+            this.lowInclusive = lowInclusive;
+            this.lowValue = lowValue;
+            this.highInclusive = highInclusive;
+            this.highValue = highValue;
+        }
+
+        boolean isLowInclusive()
+        {
+            return lowInclusive;
+        }
+
+        String getLowValue()
+        {
+            return lowValue;
+        }
+
+        boolean isHighInclusive()
+        {
+            return highInclusive;
+        }
+
+        String getHighValue()
+        {
+            return highValue;
+        }
+    }
+}
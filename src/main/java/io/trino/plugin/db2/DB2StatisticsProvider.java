@@ -0,0 +1,370 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcStatisticsConfig;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.statistics.ColumnStatistics;
+import io.trino.spi.statistics.DoubleRange;
+import io.trino.spi.statistics.Estimate;
+import io.trino.spi.statistics.TableStatistics;
+import io.trino.spi.type.BigintType;
+import io.trino.spi.type.CharType;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.DoubleType;
+import io.trino.spi.type.IntegerType;
+import io.trino.spi.type.RealType;
+import io.trino.spi.type.SmallintType;
+import io.trino.spi.type.TinyintType;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.VarbinaryType;
+import io.trino.spi.type.VarcharType;
+
+import javax.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.function.Predicate;
+
+import static io.trino.spi.type.DateType.DATE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Reads table and column statistics collected by RUNSTATS from the SYSSTAT catalog views.
+ */
+public class DB2StatisticsProvider
+{
+    private static final long MAX_CACHED_TABLES = 10_000;
+    // Db2 reports -1 for statistics that were never collected, and -2 for some inherited columns
+    private static final long NOT_COLLECTED = -1;
+
+    private final boolean enabled;
+    private final Cache<RemoteTableName, Optional<DB2TableStatistics>> cache;
+
+    @Inject
+    public DB2StatisticsProvider(JdbcStatisticsConfig statisticsConfig, DB2Config config)
+    {
+        this(statisticsConfig.isEnabled(), config.getStatisticsCacheTtl());
+    }
+
+    DB2StatisticsProvider(boolean enabled, Duration ttl)
+    {
+        this.enabled = enabled;
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .maximumSize(MAX_CACHED_TABLES)
+                .recordStats()
+                .build();
+    }
+
+    public TableStatistics getTableStatistics(RemoteTableName table, List<JdbcColumnHandle> columns, StatisticsLoader loader)
+            throws SQLException
+    {
+        if (!enabled) {
+            return TableStatistics.empty();
+        }
+        Optional<DB2TableStatistics> statistics = cache.getIfPresent(table);
+        if (statistics == null) {
+            statistics = loader.load(table);
+            cache.put(table, statistics);
+        }
+        return statistics
+                .map(tableStatistics -> toTableStatistics(tableStatistics, columns))
+                .orElseGet(TableStatistics::empty);
+    }
+
+    public void invalidate(RemoteTableName table)
+    {
+        cache.invalidate(table);
+    }
+
+    public void invalidateIf(Predicate<RemoteTableName> tables)
+    {
+        cache.asMap().keySet().removeIf(tables);
+    }
+
+    public DB2CacheStats getCacheStats()
+    {
+        return new DB2CacheStats(cache);
+    }
+
+    static TableStatistics toTableStatistics(DB2TableStatistics statistics, List<JdbcColumnHandle> columns)
+    {
+        double rowCount = statistics.getRowCount();
+        TableStatistics.Builder tableStatistics = TableStatistics.builder()
+                .setRowCount(Estimate.of(rowCount));
+
+        for (JdbcColumnHandle column : columns) {
+            DB2ColumnStatistics columnStatistics = statistics.getColumns().get(column.getColumnName());
+            if (columnStatistics == null) {
+                continue;
+            }
+            ColumnStatistics.Builder builder = ColumnStatistics.builder();
+            if (columnStatistics.getDistinctValues() >= 0) {
+                builder.setDistinctValuesCount(Estimate.of(columnStatistics.getDistinctValues()));
+            }
+            if (columnStatistics.getNulls() >= 0 && rowCount > 0) {
+                builder.setNullsFraction(Estimate.of(min(1, columnStatistics.getNulls() / rowCount)));
+            }
+            Type type = column.getColumnType();
+            if (columnStatistics.getAverageLength() >= 0 && isVariableWidth(type)) {
+                double nonNullRows = max(0, rowCount - max(0, columnStatistics.getNulls()));
+                builder.setDataSize(Estimate.of(columnStatistics.getAverageLength() * nonNullRows));
+            }
+            toRange(type, columnStatistics).ifPresent(builder::setRange);
+            tableStatistics.setColumnStatistics(column, builder.build());
+        }
+        return tableStatistics.build();
+    }
+
+    private static boolean isVariableWidth(Type type)
+    {
+        return type instanceof VarcharType || type instanceof CharType || type instanceof VarbinaryType;
+    }
+
+    private static Optional<DoubleRange> toRange(Type type, DB2ColumnStatistics statistics)
+    {
+        // LOW2KEY and HIGH2KEY are the second lowest and second highest values, the quantiles include the extremes
+        OptionalDouble low = minimum(toDouble(type, statistics.getLow2Key()), toDouble(type, statistics.getLowestQuantile()));
+        OptionalDouble high = maximum(toDouble(type, statistics.getHigh2Key()), toDouble(type, statistics.getHighestQuantile()));
+        if (low.isEmpty() || high.isEmpty() || low.getAsDouble() > high.getAsDouble()) {
+            return Optional.empty();
+        }
+        return Optional.of(new DoubleRange(low.getAsDouble(), high.getAsDouble()));
+    }
+
+    private static OptionalDouble toDouble(Type type, Optional<String> key)
+    {
+        if (key.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+        // Db2 stores the keys as literals, character and datetime values are enclosed in quotes
+        String value = key.get().trim();
+        if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            if (type instanceof TinyintType || type instanceof SmallintType || type instanceof IntegerType || type instanceof BigintType ||
+                    type instanceof RealType || type instanceof DoubleType || type instanceof DecimalType) {
+                return OptionalDouble.of(Double.parseDouble(value));
+            }
+            if (type.equals(DATE)) {
+                return OptionalDouble.of(LocalDate.parse(value).toEpochDay());
+            }
+        }
+        catch (NumberFormatException | DateTimeParseException e) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.empty();
+    }
+
+    private static OptionalDouble minimum(OptionalDouble first, OptionalDouble second)
+    {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        return OptionalDouble.of(min(first.getAsDouble(), second.getAsDouble()));
+    }
+
+    private static OptionalDouble maximum(OptionalDouble first, OptionalDouble second)
+    {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        return OptionalDouble.of(max(first.getAsDouble(), second.getAsDouble()));
+    }
+
+    /**
+     * Returns the statistics of the table, or empty when RUNSTATS has not been run on it.
+     */
+    public static Optional<DB2TableStatistics> readStatistics(Connection connection, RemoteTableName table)
+            throws SQLException
+    {
+        if (table.getSchemaName().isEmpty()) {
+            return Optional.empty();
+        }
+        String schemaName = table.getSchemaName().get();
+        String tableName = table.getTableName();
+
+        long rowCount;
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT CARD FROM SYSSTAT.TABLES " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ?")) {
+            statement.setString(1, schemaName);
+            statement.setString(2, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                rowCount = resultSet.getLong(1);
+            }
+        }
+        if (rowCount <= NOT_COLLECTED) {
+            return Optional.empty();
+        }
+
+        Map<String, String> lowestQuantiles = new HashMap<>();
+        Map<String, String> highestQuantiles = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT COLNAME, COLVALUE FROM SYSSTAT.COLDIST " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ? AND TYPE = 'Q' AND COLVALUE IS NOT NULL " +
+                "ORDER BY COLNAME, SEQNO")) {
+            statement.setString(1, schemaName);
+            statement.setString(2, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    lowestQuantiles.putIfAbsent(resultSet.getString(1), resultSet.getString(2));
+                    highestQuantiles.put(resultSet.getString(1), resultSet.getString(2));
+                }
+            }
+        }
+
+        ImmutableMap.Builder<String, DB2ColumnStatistics> columns = ImmutableMap.builder();
+        try (PreparedStatement statement = connection.prepareStatement("" +
+                "SELECT COLNAME, COLCARD, NUMNULLS, AVGCOLLEN, LOW2KEY, HIGH2KEY FROM SYSSTAT.COLUMNS " +
+                "WHERE TABSCHEMA = ? AND TABNAME = ?")) {
+            statement.setString(1, schemaName);
+            statement.setString(2, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String columnName = resultSet.getString("COLNAME");
+                    columns.put(columnName, new DB2ColumnStatistics(
+                            resultSet.getLong("COLCARD"),
+                            resultSet.getLong("NUMNULLS"),
+                            resultSet.getLong("AVGCOLLEN"),
+                            Optional.ofNullable(resultSet.getString("LOW2KEY")),
+                            Optional.ofNullable(resultSet.getString("HIGH2KEY")),
+                            Optional.ofNullable(lowestQuantiles.get(columnName)),
+                            Optional.ofNullable(highestQuantiles.get(columnName))));
+                }
+            }
+        }
+        return Optional.of(new DB2TableStatistics(rowCount, columns.buildOrThrow()));
+    }
+
+    public interface StatisticsLoader
+    {
+        Optional<DB2TableStatistics> load(RemoteTableName table)
+                throws SQLException;
+    }
+
+    public static class DB2TableStatistics
+    {
+        private final long rowCount;
+        private final Map<String, DB2ColumnStatistics> columns;
+
+        public DB2TableStatistics(long rowCount, Map<String, DB2ColumnStatistics> columns)
+        {
+            this.rowCount = rowCount;
+            this.columns = ImmutableMap.copyOf(requireNonNull(columns, "columns is null"));
+        }
+
+        public long getRowCount()
+        {
+            return rowCount;
+        }
+
+        public Map<String, DB2ColumnStatistics> getColumns()
+        {
+            return columns;
+        }
+    }
+
+    public static class DB2ColumnStatistics
+    {
+        private final long distinctValues;
+        private final long nulls;
+        private final long averageLength;
+        private final Optional<String> low2Key;
+        private final Optional<String> high2Key;
+        private final Optional<String> lowestQuantile;
+        private final Optional<String> highestQuantile;
+
+        public DB2ColumnStatistics(
+                long distinctValues,
+                long nulls,
+                long averageLength,
+                Optional<String> low2Key,
+                Optional<String> high2Key,
+                Optional<String> lowestQuantile,
+                Optional<String> highestQuantile)
+        {
+            this.distinctValues = distinctValues;
+            this.nulls = nulls;
+            this.averageLength = averageLength;
+            this.low2Key = requireNonNull(low2Key, "low2Key is null");
+            this.high2Key = requireNonNull(high2Key, "high2Key is null");
+            this.lowestQuantile = requireNonNull(lowestQuantile, "lowestQuantile is null");
+            this.highestQuantile = requireNonNull(highestQuantile, "highestQuantile is null");
+        }
+
+        public long getDistinctValues()
+        {
+            return distinctValues;
+        }
+
+        public long getNulls()
+        {
+            return nulls;
+        }
+
+        public long getAverageLength()
+        {
+            return averageLength;
+        }
+
+        public Optional<String> getLow2Key()
+        {
+            return low2Key;
+        }
+
+        public Optional<String> getHigh2Key()
+        {
+            return high2Key;
+        }
+
+        public Optional<String> getLowestQuantile()
+        {
+            return lowestQuantile;
+        }
+
+        public Optional<String> getHighestQuantile()
+        {
+            return highestQuantile;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.matching.Capture;
+import io.trino.matching.Captures;
+import io.trino.matching.Pattern;
+import io.trino.plugin.base.aggregation.AggregateFunctionRule;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcExpression;
+import io.trino.spi.connector.AggregateFunction;
+import io.trino.spi.expression.Variable;
+import io.trino.spi.type.DecimalType;
+
+import java.util.Optional;
+
+import static com.google.common.base.Verify.verify;
+import static io.trino.matching.Capture.newCapture;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.basicAggregation;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.expressionType;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.functionName;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.singleArgument;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.variable;
+import static java.lang.String.format;
+
+/**
+ * Db2 AVG of DECIMAL(p, s) returns DECIMAL(31, 31 - p + s), which is rounded half up to the scale of the argument
+ * like Trino does. Arguments of the maximum precision are not pushed down, as Db2 truncates their average.
+ */
+public class ImplementDB2AvgDecimal
+        implements AggregateFunctionRule<JdbcExpression, String>
+{
+    private static final int DB2_MAX_DECIMAL_PRECISION = 31;
+
+    private static final Capture<Variable> ARGUMENT = newCapture();
+
+    @Override
+    public Pattern<AggregateFunction> getPattern()
+    {
+        return basicAggregation()
+                .with(functionName().equalTo("avg"))
+                .with(singleArgument().matching(
+                        variable()
+                                .with(expressionType().matching(DecimalType.class::isInstance))
+                                .capturedAs(ARGUMENT)));
+    }
+
+    @Override
+    public Optional<JdbcExpression> rewrite(AggregateFunction aggregateFunction, Captures captures, RewriteContext<String> context)
+    {
+        Variable argument = captures.get(ARGUMENT);
+        JdbcColumnHandle columnHandle = (JdbcColumnHandle) context.getAssignment(argument.getName());
+        DecimalType type = (DecimalType) columnHandle.getColumnType();
+        verify(aggregateFunction.getOutputType().equals(type));
+
+        if (type.getPrecision() >= DB2_MAX_DECIMAL_PRECISION) {
+            return Optional.empty();
+        }
+        return context.rewriteExpression(argument)
+                .map(expression -> new JdbcExpression(
+                        format("CAST(ROUND(AVG(%s), %s) AS DECIMAL(%s, %s))", expression, type.getScale(), type.getPrecision(), type.getScale()),
+                        columnHandle.getJdbcTypeHandle()));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.matching.Capture;
+import io.trino.matching.Captures;
+import io.trino.matching.Pattern;
+import io.trino.plugin.base.aggregation.AggregateFunctionRule;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcExpression;
+import io.trino.plugin.jdbc.JdbcTypeHandle;
+import io.trino.spi.connector.AggregateFunction;
+import io.trino.spi.expression.Variable;
+
+import java.util.Optional;
+
+import static com.google.common.base.Verify.verify;
+import static io.trino.matching.Capture.newCapture;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.basicAggregation;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.distinct;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.expressionType;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.functionName;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.outputType;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.singleArgument;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.variable;
+import static io.trino.plugin.db2.DB2Client.isTextual;
+import static io.trino.plugin.db2.DB2LobColumnMappings.isLob;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implements {@code count(DISTINCT x)} with COUNT_BIG, as Db2 COUNT returns INTEGER and fails above 2147483647
+ * distinct values. Textual values are not counted by Db2, see {@link DB2Client#isTextual}, nor LOB values, which
+ * Db2 does not compare.
+ */
+public class ImplementDB2CountDistinct
+        implements AggregateFunctionRule<JdbcExpression, String>
+{
+    private static final Capture<Variable> ARGUMENT = newCapture();
+
+    private final JdbcTypeHandle bigintTypeHandle;
+
+    public ImplementDB2CountDistinct(JdbcTypeHandle bigintTypeHandle)
+    {
+        this.bigintTypeHandle = requireNonNull(bigintTypeHandle, "bigintTypeHandle is null");
+    }
+
+    @Override
+    public Pattern<AggregateFunction> getPattern()
+    {
+        return basicAggregation()
+                .with(functionName().equalTo("count"))
+                .with(distinct().equalTo(true))
+                .with(outputType().equalTo(BIGINT))
+                .with(singleArgument().matching(
+                        variable()
+                                .with(expressionType().matching(type -> !isTextual(type)))
+                                .capturedAs(ARGUMENT)));
+    }
+
+    @Override
+    public Optional<JdbcExpression> rewrite(AggregateFunction aggregateFunction, Captures captures, RewriteContext<String> context)
+    {
+        Variable argument = captures.get(ARGUMENT);
+        verify(aggregateFunction.getOutputType() == BIGINT);
+        JdbcColumnHandle column = (JdbcColumnHandle) context.getAssignment(argument.getName());
+        if (isLob(column.getJdbcTypeHandle())) {
+            return Optional.empty();
+        }
+
+        return context.rewriteExpression(argument)
+                .map(expression -> new JdbcExpression(format("COUNT_BIG(DISTINCT %s)", expression), bigintTypeHandle));
+    }
+}
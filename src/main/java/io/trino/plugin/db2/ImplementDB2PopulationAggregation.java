@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.matching.Capture;
+import io.trino.matching.Captures;
+import io.trino.matching.Pattern;
+import io.trino.plugin.base.aggregation.AggregateFunctionRule;
+import io.trino.plugin.jdbc.JdbcExpression;
+import io.trino.plugin.jdbc.JdbcTypeHandle;
+import io.trino.spi.connector.AggregateFunction;
+import io.trino.spi.expression.Variable;
+
+import java.util.Optional;
+
+import static com.google.common.base.Verify.verify;
+import static io.trino.matching.Capture.newCapture;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.basicAggregation;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.expressionType;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.functionName;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.singleArgument;
+import static io.trino.plugin.base.aggregation.AggregateFunctionPatterns.variable;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implements {@code stddev_pop(x)} and {@code var_pop(x)} of DOUBLE values with the Db2 STDDEV and VARIANCE
+ * functions, which compute the population forms. Db2 returns DOUBLE for REAL values, unlike Trino.
+ */
+public class ImplementDB2PopulationAggregation
+        implements AggregateFunctionRule<JdbcExpression, String>
+{
+    private static final Capture<Variable> ARGUMENT = newCapture();
+
+    private final String function;
+    private final String db2Function;
+    private final JdbcTypeHandle doubleTypeHandle;
+
+    private ImplementDB2PopulationAggregation(String function, String db2Function, JdbcTypeHandle doubleTypeHandle)
+    {
+        this.function = requireNonNull(function, "function is null");
+        this.db2Function = requireNonNull(db2Function, "db2Function is null");
+        this.doubleTypeHandle = requireNonNull(doubleTypeHandle, "doubleTypeHandle is null");
+    }
+
+    public static ImplementDB2PopulationAggregation implementStddevPop(JdbcTypeHandle doubleTypeHandle)
+    {
+        return new ImplementDB2PopulationAggregation("stddev_pop", "STDDEV", doubleTypeHandle);
+    }
+
+    public static ImplementDB2PopulationAggregation implementVariancePop(JdbcTypeHandle doubleTypeHandle)
+    {
+        return new ImplementDB2PopulationAggregation("var_pop", "VARIANCE", doubleTypeHandle);
+    }
+
+    @Override
+    public Pattern<AggregateFunction> getPattern()
+    {
+        return basicAggregation()
+                .with(functionName().equalTo(function))
+                .with(singleArgument().matching(
+                        variable()
+                                .with(expressionType().equalTo(DOUBLE))
+                                .capturedAs(ARGUMENT)));
+    }
+
+    @Override
+    public Optional<JdbcExpression> rewrite(AggregateFunction aggregateFunction, Captures captures, RewriteContext<String> context)
+    {
+        Variable argument = captures.get(ARGUMENT);
+        verify(aggregateFunction.getOutputType() == DOUBLE);
+
+        return context.rewriteExpression(argument)
+                .map(expression -> new JdbcExpression(format("%s(%s)", db2Function, expression), doubleTypeHandle));
+    }
+}
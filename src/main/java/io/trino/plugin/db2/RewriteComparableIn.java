@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.matching.Captures;
+import io.trino.matching.Pattern;
+import io.trino.plugin.base.expression.ConnectorExpressionRule;
+import io.trino.plugin.jdbc.expression.RewriteIn;
+import io.trino.spi.expression.Call;
+import io.trino.spi.type.Type;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.argument;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.expression;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.type;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rewrites {@code value IN (...)} like {@link RewriteIn}, for values of the types Db2 compares the way Trino does.
+ */
+public class RewriteComparableIn
+        implements ConnectorExpressionRule<Call, String>
+{
+    private final RewriteIn delegate = new RewriteIn();
+    private final Pattern<Call> pattern;
+
+    public RewriteComparableIn(Predicate<Type> comparable)
+    {
+        requireNonNull(comparable, "comparable is null");
+        this.pattern = delegate.getPattern()
+                .with(argument(0).matching(expression().with(type().matching(comparable))));
+    }
+
+    @Override
+    public Pattern<Call> getPattern()
+    {
+        return pattern;
+    }
+
+    @Override
+    public Optional<String> rewrite(Call call, Captures captures, RewriteContext<String> context)
+    {
+        return delegate.rewrite(call, captures, context);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.trino.matching.Capture;
+import io.trino.matching.Captures;
+import io.trino.matching.Pattern;
+import io.trino.plugin.base.expression.ConnectorExpressionRule;
+import io.trino.spi.expression.Call;
+import io.trino.spi.expression.ConnectorExpression;
+import io.trino.spi.expression.Constant;
+import io.trino.spi.expression.FunctionName;
+import io.trino.spi.type.VarcharType;
+
+import java.util.Optional;
+
+import static io.trino.matching.Capture.newCapture;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.argument;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.argumentCount;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.call;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.expression;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.functionName;
+import static io.trino.plugin.base.expression.ConnectorExpressionPatterns.type;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static java.lang.String.format;
+
+/**
+ * Rewrites {@code substring(value, start[, length])} to Db2 SUBSTRING counting characters (CODEUNITS32).
+ * Trino counts a start below 1 from the end of the string while Db2 does not, so only constant
+ * positive start positions and constant non-negative lengths are rewritten.
+ */
+public class RewriteSubstring
+        implements ConnectorExpressionRule<Call, String>
+{
+    private static final Capture<ConnectorExpression> VALUE = newCapture();
+
+    private static final Pattern<Call> PATTERN = call()
+            .with(functionName().equalTo(new FunctionName("substring")))
+            .with(argumentCount().matching(count -> count == 2 || count == 3))
+            .with(argument(0).matching(expression().with(type().matching(VarcharType.class::isInstance)).capturedAs(VALUE)));
+
+    @Override
+    public Pattern<Call> getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public Optional<String> rewrite(Call call, Captures captures, RewriteContext<String> context)
+    {
+        Optional<Long> start = toLong(call.getArguments().get(1));
+        if (start.isEmpty() || start.get() < 1) {
+            return Optional.empty();
+        }
+        Optional<Long> length = Optional.empty();
+        if (call.getArguments().size() == 3) {
+            length = toLong(call.getArguments().get(2));
+            if (length.isEmpty() || length.get() < 0) {
+                return Optional.empty();
+            }
+        }
+
+        Optional<String> value = context.defaultRewrite(captures.get(VALUE));
+        if (value.isEmpty()) {
+            return Optional.empty();
+        }
+        if (length.isPresent()) {
+            return Optional.of(format("SUBSTRING(%s, %s, %s, CODEUNITS32)", value.get(), start.get(), length.get()));
+        }
+        return Optional.of(format("SUBSTRING(%s, %s, CODEUNITS32)", value.get(), start.get()));
+    }
+
+    private static Optional<Long> toLong(ConnectorExpression expression)
+    {
+        if (!(expression instanceof Constant) || !expression.getType().equals(BIGINT)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((Long) ((Constant) expression).getValue());
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.trino.plugin.jdbc.BooleanReadFunction;
+import io.trino.plugin.jdbc.BooleanWriteFunction;
+import io.trino.plugin.jdbc.DoubleReadFunction;
+import io.trino.plugin.jdbc.DoubleWriteFunction;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.LongReadFunction;
+import io.trino.plugin.jdbc.LongWriteFunction;
+import io.trino.plugin.jdbc.ObjectReadFunction;
+import io.trino.plugin.jdbc.ObjectWriteFunction;
+import io.trino.plugin.jdbc.ReadFunction;
+import io.trino.plugin.jdbc.SliceReadFunction;
+import io.trino.plugin.jdbc.SliceWriteFunction;
+import io.trino.plugin.jdbc.TypeHandlingJdbcConfig;
+import io.trino.plugin.jdbc.TypeHandlingJdbcSessionProperties;
+import io.trino.plugin.jdbc.WriteFunction;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.session.PropertyMetadata;
+import io.trino.spi.type.CharType;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.TimeType;
+import io.trino.spi.type.TimestampType;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.VarcharType;
+import io.trino.testing.TestingConnectorSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static io.trino.plugin.db2.TestDB2Client.createClient;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.RealType.REAL;
+import static io.trino.spi.type.SmallintType.SMALLINT;
+import static io.trino.spi.type.TinyintType.TINYINT;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Reads and writes the values of every type mapped by {@link DB2Client} through its read and write functions,
+ * against an in memory result set and statement. Run {@link #main} to report the allocation rate as well.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(BenchmarkDB2ColumnMappings.ROWS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class BenchmarkDB2ColumnMappings
+{
+    static final int ROWS = 10_000;
+
+    static final ConnectorSession SESSION = TestingConnectorSession.builder()
+            .setPropertyMetadata(ImmutableList.<PropertyMetadata<?>>builder()
+                    .addAll(new TypeHandlingJdbcSessionProperties(new TypeHandlingJdbcConfig()).getSessionProperties())
+                    .addAll(new DB2SessionProperties(new DB2Config()).getSessionProperties())
+                    .build())
+            .build();
+
+    @State(Scope.Thread)
+    public static class ReadData
+    {
+        @Param({
+                "c_boolean", "c_tinyint", "c_smallint", "c_integer", "c_bigint", "c_real", "c_double", "c_decimal", "c_decimal_max",
+                "c_char", "c_varchar", "c_varbinary", "c_date", "c_time", "c_timestamp"})
+        String column = "c_bigint";
+
+        private ReadFunction readFunction;
+        private InMemoryResultSet resultSet;
+
+        @Setup
+        public void setup()
+        {
+            JdbcColumnHandle columnHandle = column(column);
+            readFunction = createClient(new DB2Config())
+                    .toColumnMapping(SESSION, null, columnHandle.getJdbcTypeHandle())
+                    .orElseThrow()
+                    .getReadFunction();
+            resultSet = new InMemoryResultSet(createRows(columnHandle.getColumnType(), ROWS));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WriteData
+    {
+        // TIME is not writable
+        @Param({
+                "c_boolean", "c_tinyint", "c_smallint", "c_integer", "c_bigint", "c_real", "c_double", "c_decimal", "c_decimal_max",
+                "c_char", "c_varchar", "c_varbinary", "c_date", "c_timestamp"})
+        String column = "c_bigint";
+
+        private WriteFunction writeFunction;
+        private InMemoryPreparedStatement statement;
+        // native values, read from the result set by the column mapping
+        private Object[] values;
+
+        @Setup
+        public void setup()
+                throws SQLException
+        {
+            JdbcColumnHandle columnHandle = column(column);
+            DB2Client client = createClient(new DB2Config());
+            writeFunction = client.toWriteMapping(SESSION, columnHandle.getColumnType()).getWriteFunction();
+            statement = new InMemoryPreparedStatement(new Object[0][], 1);
+
+            ReadFunction readFunction = client.toColumnMapping(SESSION, null, columnHandle.getJdbcTypeHandle()).orElseThrow().getReadFunction();
+            InMemoryResultSet resultSet = new InMemoryResultSet(createRows(columnHandle.getColumnType(), ROWS));
+            values = new Object[ROWS];
+            for (int row = 0; resultSet.next(); row++) {
+                values[row] = readValue(readFunction, resultSet);
+            }
+        }
+    }
+
+    @Benchmark
+    public void read(ReadData data, Blackhole blackhole)
+            throws SQLException
+    {
+        ReadFunction readFunction = data.readFunction;
+        Class<?> javaType = readFunction.getJavaType();
+        InMemoryResultSet resultSet = data.resultSet;
+        resultSet.beforeFirst();
+        // same calls as JdbcRecordCursor
+        while (resultSet.next()) {
+            if (readFunction.isNull(resultSet, 1)) {
+                blackhole.consume(true);
+            }
+            else if (javaType == long.class) {
+                blackhole.consume(((LongReadFunction) readFunction).readLong(resultSet, 1));
+            }
+            else if (javaType == double.class) {
+                blackhole.consume(((DoubleReadFunction) readFunction).readDouble(resultSet, 1));
+            }
+            else if (javaType == boolean.class) {
+                blackhole.consume(((BooleanReadFunction) readFunction).readBoolean(resultSet, 1));
+            }
+            else if (javaType == Slice.class) {
+                blackhole.consume(((SliceReadFunction) readFunction).readSlice(resultSet, 1));
+            }
+            else {
+                blackhole.consume(((ObjectReadFunction) readFunction).readObject(resultSet, 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public InMemoryPreparedStatement write(WriteData data)
+            throws SQLException
+    {
+        WriteFunction writeFunction = data.writeFunction;
+        Class<?> javaType = writeFunction.getJavaType();
+        InMemoryPreparedStatement statement = data.statement;
+        for (Object value : data.values) {
+            if (value == null) {
+                writeFunction.setNull(statement, 1);
+            }
+            else if (javaType == long.class) {
+                ((LongWriteFunction) writeFunction).set(statement, 1, (long) value);
+            }
+            else if (javaType == double.class) {
+                ((DoubleWriteFunction) writeFunction).set(statement, 1, (double) value);
+            }
+            else if (javaType == boolean.class) {
+                ((BooleanWriteFunction) writeFunction).set(statement, 1, (boolean) value);
+            }
+            else if (javaType == Slice.class) {
+                ((SliceWriteFunction) writeFunction).set(statement, 1, (Slice) value);
+            }
+            else {
+                ((ObjectWriteFunction) writeFunction).set(statement, 1, value);
+            }
+        }
+        return statement;
+    }
+
+    static Object readValue(ReadFunction readFunction, InMemoryResultSet resultSet)
+            throws SQLException
+    {
+        if (readFunction.isNull(resultSet, 1)) {
+            return null;
+        }
+        Class<?> javaType = readFunction.getJavaType();
+        if (javaType == long.class) {
+            return ((LongReadFunction) readFunction).readLong(resultSet, 1);
+        }
+        if (javaType == double.class) {
+            return ((DoubleReadFunction) readFunction).readDouble(resultSet, 1);
+        }
+        if (javaType == boolean.class) {
+            return ((BooleanReadFunction) readFunction).readBoolean(resultSet, 1);
+        }
+        if (javaType == Slice.class) {
+            return ((SliceReadFunction) readFunction).readSlice(resultSet, 1);
+        }
+        return ((ObjectReadFunction) readFunction).readObject(resultSet, 1);
+    }
+
+    /**
+     * Rows of a single column of the given type, holding the values JCC returns for the type. Every tenth value is null.
+     */
+    static Object[][] createRows(Type type, int rowCount)
+    {
+        Random random = new Random(42);
+        Object[][] rows = new Object[rowCount][];
+        for (int row = 0; row < rowCount; row++) {
+            rows[row] = new Object[] {row % 10 == 0 ? null : randomValue(type, random)};
+        }
+        return rows;
+    }
+
+    private static Object randomValue(Type type, Random random)
+    {
+        if (type == BOOLEAN) {
+            return random.nextBoolean();
+        }
+        if (type == TINYINT) {
+            return (short) random.nextInt(Byte.MAX_VALUE);
+        }
+        if (type == SMALLINT) {
+            return (short) random.nextInt(Short.MAX_VALUE);
+        }
+        if (type == INTEGER) {
+            return random.nextInt();
+        }
+        if (type == BIGINT) {
+            return random.nextLong();
+        }
+        if (type == REAL) {
+            return random.nextFloat();
+        }
+        if (type == DOUBLE) {
+            return random.nextDouble();
+        }
+        if (type instanceof DecimalType) {
+            DecimalType decimalType = (DecimalType) type;
+            BigInteger unscaledValue = new BigInteger(decimalType.getPrecision() * 4, random).mod(BigInteger.TEN.pow(decimalType.getPrecision()));
+            if (random.nextBoolean()) {
+                unscaledValue = unscaledValue.negate();
+            }
+            // getString returns decimals in plain notation
+            return new BigDecimal(unscaledValue, decimalType.getScale()).toPlainString();
+        }
+        if (type instanceof CharType) {
+            int length = ((CharType) type).getLength();
+            return String.format("%-" + length + "s", randomString(random, random.nextInt(length + 1)));
+        }
+        if (type instanceof VarcharType) {
+            return randomString(random, random.nextInt(((VarcharType) type).getBoundedLength() + 1));
+        }
+        if (type == VARBINARY) {
+            byte[] value = new byte[random.nextInt(100)];
+            random.nextBytes(value);
+            return value;
+        }
+        if (type == DATE) {
+            return LocalDate.ofEpochDay(random.nextInt(50_000)).toString();
+        }
+        if (type instanceof TimeType) {
+            return LocalTime.ofSecondOfDay(random.nextInt(86_400)).format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        }
+        if (type instanceof TimestampType) {
+            int precision = ((TimestampType) type).getPrecision();
+            String pattern = precision == 0 ? "yyyy-MM-dd HH:mm:ss" : "yyyy-MM-dd HH:mm:ss." + "S".repeat(precision);
+            return LocalDateTime.ofEpochSecond(random.nextInt(2_000_000_000), random.nextInt(1_000_000_000), UTC)
+                    .format(DateTimeFormatter.ofPattern(pattern));
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    private static String randomString(Random random, int length)
+    {
+        char[] value = new char[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(value);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkDB2ColumnMappings.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
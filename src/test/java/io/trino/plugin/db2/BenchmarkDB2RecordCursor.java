@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcRecordSetProvider;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.JdbcTransactionHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.plugin.jdbc.TypeHandlingJdbcConfig;
+import io.trino.plugin.jdbc.TypeHandlingJdbcSessionProperties;
+import io.trino.spi.Page;
+import io.trino.spi.connector.ConnectorPageSource;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.RecordPageSource;
+import io.trino.spi.connector.RecordSet;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.session.PropertyMetadata;
+import io.trino.testing.TestingConnectorSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.trino.plugin.db2.BenchmarkDB2ColumnMappings.createRows;
+import static io.trino.plugin.db2.DB2SessionProperties.PREFETCH_ENABLED;
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static io.trino.plugin.db2.TestDB2Client.createClient;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Builds the pages of a table scan from the rows of an in memory result set, the way the engine reads
+ * the record sets of the connector, with and without prefetching.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(BenchmarkDB2RecordCursor.ROWS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class BenchmarkDB2RecordCursor
+{
+    static final int ROWS = 100_000;
+
+    private static final JdbcTableHandle TABLE = new JdbcTableHandle(
+            new SchemaTableName("sales", "orders"),
+            new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+            Optional.empty());
+
+    @Param({"c_bigint", "c_double", "c_decimal", "c_decimal_max", "c_varchar", "c_date", "c_timestamp"})
+    String column = "c_bigint";
+
+    @Param({"true", "false"})
+    boolean prefetch = true;
+
+    private ExecutorService executor;
+    private DB2RecordSetProvider recordSetProvider;
+    private ConnectorSession session;
+    private List<JdbcColumnHandle> columns;
+
+    @Setup
+    public void setup()
+    {
+        JdbcColumnHandle columnHandle = column(column);
+        Object[][] rows = createRows(columnHandle.getColumnType(), ROWS);
+        DB2Config config = new DB2Config();
+        DB2Client client = createClient(config, ignored -> connection(rows));
+        executor = newCachedThreadPool(daemonThreadsNamed("benchmark-record-cursor-%s"));
+        recordSetProvider = new DB2RecordSetProvider(client, new JdbcRecordSetProvider(client, executor), config, new DB2FetchStats(), new DB2ScanStats(), new DB2ScanCache(config, ignored -> connection(rows)));
+        session = TestingConnectorSession.builder()
+                .setPropertyMetadata(ImmutableList.<PropertyMetadata<?>>builder()
+                        .addAll(new TypeHandlingJdbcSessionProperties(new TypeHandlingJdbcConfig()).getSessionProperties())
+                        .addAll(new DB2SessionProperties(config).getSessionProperties())
+                        .build())
+                .setPropertyValues(ImmutableMap.of(PREFETCH_ENABLED, prefetch))
+                .build();
+        columns = ImmutableList.of(columnHandle);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        recordSetProvider.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long buildPages()
+            throws IOException
+    {
+        RecordSet recordSet = recordSetProvider.getRecordSet(new JdbcTransactionHandle(), session, new JdbcSplit(Optional.empty()), TABLE, columns);
+        long positions = 0;
+        try (ConnectorPageSource pageSource = new RecordPageSource(recordSet)) {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page != null) {
+                    positions += page.getPositionCount();
+                }
+            }
+        }
+        return positions;
+    }
+
+    private static Connection connection(Object[][] rows)
+    {
+        return (Connection) Proxy.newProxyInstance(BenchmarkDB2RecordCursor.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return new InMemoryPreparedStatement(rows, 0);
+                case "getTransactionIsolation":
+                    return Connection.TRANSACTION_READ_UNCOMMITTED;
+                case "isClosed":
+                    return false;
+            }
+            if (method.getReturnType() == void.class) {
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkDB2RecordCursor.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
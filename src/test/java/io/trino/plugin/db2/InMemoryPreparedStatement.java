@@ -0,0 +1,769 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link PreparedStatement} for the benchmarks, which returns rows held in memory and keeps the last value
+ * of every parameter without boxing primitive values.
+ */
+public class InMemoryPreparedStatement
+        implements PreparedStatement
+{
+    private final Object[][] rows;
+    private final long[] longParameters;
+    private final double[] doubleParameters;
+    private final Object[] objectParameters;
+    private int fetchSize;
+    private boolean closed;
+
+    public InMemoryPreparedStatement(Object[][] rows, int parameterCount)
+    {
+        this.rows = requireNonNull(rows, "rows is null");
+        this.longParameters = new long[parameterCount];
+        this.doubleParameters = new double[parameterCount];
+        this.objectParameters = new Object[parameterCount];
+    }
+
+    public long getLongParameter(int parameterIndex)
+    {
+        return longParameters[parameterIndex - 1];
+    }
+
+    public double getDoubleParameter(int parameterIndex)
+    {
+        return doubleParameters[parameterIndex - 1];
+    }
+
+    public Object getObjectParameter(int parameterIndex)
+    {
+        return objectParameters[parameterIndex - 1];
+    }
+
+    @Override
+    public void addBatch()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void addBatch(String sql)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void cancel()
+            throws SQLException
+    {
+    }
+
+    @Override
+    public void clearBatch()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clearParameters()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clearWarnings()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close()
+            throws SQLException
+    {
+        closed = true;
+    }
+
+    @Override
+    public void closeOnCompletion()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean execute()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean execute(String sql)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int[] executeBatch()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResultSet executeQuery()
+            throws SQLException
+    {
+        return new InMemoryResultSet(rows);
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int executeUpdate()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int executeUpdate(String sql)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Connection getConnection()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getFetchDirection()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getFetchSize()
+            throws SQLException
+    {
+        return fetchSize;
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getMaxFieldSize()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getMaxRows()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean getMoreResults()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean getMoreResults(int current)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getQueryTimeout()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResultSet getResultSet()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getResultSetConcurrency()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getResultSetHoldability()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getResultSetType()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getUpdateCount()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isClosed()
+            throws SQLException
+    {
+        return closed;
+    }
+
+    @Override
+    public boolean isPoolable()
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream inputStream)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream inputStream, int length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream inputStream, long length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream inputStream)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream inputStream, int length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream inputStream, long length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x)
+            throws SQLException
+    {
+        longParameters[parameterIndex - 1] = x ? 1 : 0;
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x)
+            throws SQLException
+    {
+        longParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setCursorName(String name)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar calendar)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x)
+            throws SQLException
+    {
+        doubleParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean value)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setFetchDirection(int direction)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setFetchSize(int rows)
+            throws SQLException
+    {
+        fetchSize = rows;
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x)
+            throws SQLException
+    {
+        doubleParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x)
+            throws SQLException
+    {
+        longParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x)
+            throws SQLException
+    {
+        longParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setMaxFieldSize(int max)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setMaxRows(int max)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader reader)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader reader, long length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = null;
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setPoolable(boolean value)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x)
+            throws SQLException
+    {
+        longParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar calendar)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x)
+            throws SQLException
+    {
+        objectParameters[parameterIndex - 1] = x;
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar calendar)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setUnicodeStream(int parameterIndex, InputStream inputStream, int length)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type)
+            throws SQLException
+    {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+import static io.trino.plugin.db2.BenchmarkDB2ColumnMappings.ROWS;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Runs every benchmark once for all of its parameters, so that they keep working without a benchmark run.
+ */
+public class TestDB2Benchmarks
+{
+    @Test
+    public void testColumnMappings()
+            throws Exception
+    {
+        BenchmarkDB2ColumnMappings benchmark = new BenchmarkDB2ColumnMappings();
+        Blackhole blackhole = new Blackhole("Today's password is swordfish. I understand instantiating Blackholes directly is dangerous.");
+        for (String column : parameters(BenchmarkDB2ColumnMappings.ReadData.class, "column")) {
+            BenchmarkDB2ColumnMappings.ReadData data = new BenchmarkDB2ColumnMappings.ReadData();
+            data.column = column;
+            data.setup();
+            benchmark.read(data, blackhole);
+        }
+        for (String column : parameters(BenchmarkDB2ColumnMappings.WriteData.class, "column")) {
+            BenchmarkDB2ColumnMappings.WriteData data = new BenchmarkDB2ColumnMappings.WriteData();
+            data.column = column;
+            data.setup();
+            benchmark.write(data);
+        }
+    }
+
+    @Test
+    public void testRecordCursor()
+            throws Exception
+    {
+        for (String column : parameters(BenchmarkDB2RecordCursor.class, "column")) {
+            for (boolean prefetch : new boolean[] {true, false}) {
+                BenchmarkDB2RecordCursor benchmark = new BenchmarkDB2RecordCursor();
+                benchmark.column = column;
+                benchmark.prefetch = prefetch;
+                benchmark.setup();
+                try {
+                    assertEquals(benchmark.buildPages(), BenchmarkDB2RecordCursor.ROWS);
+                }
+                finally {
+                    benchmark.tearDown();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip()
+            throws SQLException
+    {
+        // values written by the write function are the strings JCC returns for temporal types
+        BenchmarkDB2ColumnMappings.WriteData data = new BenchmarkDB2ColumnMappings.WriteData();
+        data.column = "c_date";
+        data.setup();
+        InMemoryPreparedStatement statement = new BenchmarkDB2ColumnMappings().write(data);
+        Object[][] rows = BenchmarkDB2ColumnMappings.createRows(TestDB2Client.column("c_date").getColumnType(), ROWS);
+        assertEquals(statement.getObjectParameter(1), rows[ROWS - 1][0]);
+    }
+
+    private static String[] parameters(Class<?> benchmarkClass, String field)
+            throws NoSuchFieldException
+    {
+        return benchmarkClass.getDeclaredField(field).getAnnotation(Param.class).value();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.MoreFiles;
+import io.airlift.slice.Slice;
+import io.trino.plugin.db2.DB2BulkLoader.StagedFile;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.spi.Page;
+import io.trino.spi.TrinoException;
+import io.trino.spi.block.Block;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.TimestampType;
+import io.trino.spi.type.Type;
+import io.trino.spi.type.VarcharType;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.plugin.db2.DB2BulkLoader.loadCommand;
+import static io.trino.plugin.db2.DB2BulkLoader.parseStagedFile;
+import static io.trino.plugin.db2.DB2BulkLoader.stagedFileFragment;
+import static io.trino.plugin.db2.DB2ColumnMappings.formatTimestamp;
+import static io.trino.spi.StandardErrorCode.CONFIGURATION_INVALID;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.DecimalType.createDecimalType;
+import static io.trino.spi.type.TimestampType.createTimestampType;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+import static io.trino.spi.type.VarcharType.createVarcharType;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class TestDB2BulkLoadPageSink
+{
+    private static final DecimalType DECIMAL_TYPE = createDecimalType(10, 2);
+    private static final VarcharType CLOB_TYPE = createVarcharType(40000);
+    private static final TimestampType TIMESTAMP_TYPE = createTimestampType(3);
+    private static final List<Type> COLUMN_TYPES = ImmutableList.of(BIGINT, createVarcharType(20), DECIMAL_TYPE, DATE, TIMESTAMP_TYPE, CLOB_TYPE);
+
+    private Path stagingDirectory;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        stagingDirectory = Files.createTempDirectory("db2-bulk-load");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        MoreFiles.deleteRecursively(stagingDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testStagedFiles()
+            throws IOException
+    {
+        DB2BulkLoader bulkLoader = new DB2BulkLoader(new DB2Config().setBulkLoadStagingDirectory(stagingDirectory.toString()));
+        ConnectorSession session = TestingConnectorSession.builder().build();
+        JdbcOutputTableHandle handle = new JdbcOutputTableHandle(
+                null,
+                "SALES",
+                "ORDERS",
+                ImmutableList.of("ID", "NAME", "PRICE", "ORDER_DATE", "CREATED", "NOTES"),
+                COLUMN_TYPES,
+                Optional.empty(),
+                "TMP_ORDERS");
+
+        DB2BulkLoadPageSink pageSink = new DB2BulkLoadPageSink(session, handle, bulkLoader);
+        pageSink.appendPage(page(
+                row(1L, "plain", 1234L, LocalDate.of(2021, 3, 4).toEpochDay(), 1_614_816_000_123_000L, "first note"),
+                row(2L, "with \"quotes\", comma", -5L, null, null, null)));
+        Collection<Slice> fragments = getFutureValue(pageSink.finish());
+
+        Path directory = bulkLoader.getStagingDirectory(session);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.sorted().collect(toImmutableList());
+        }
+        assertEquals(files.size(), 2);
+        Path dataFile = files.get(0);
+        Path lobFile = files.get(1);
+        assertTrue(dataFile.toString().endsWith(".del"));
+        assertTrue(lobFile.toString().endsWith(".lob"));
+
+        assertEquals(Files.readAllLines(dataFile, UTF_8), ImmutableList.of(
+                "1,\"plain\",12.34,2021-03-04,2021-03-04-00.00.00.123," + lobFile.getFileName() + ".0.10/",
+                "2,\"with \"\"quotes\"\", comma\",-0.05,,,"));
+        assertEquals(Files.readString(lobFile, UTF_8), "first note");
+
+        StagedFile stagedFile = parseStagedFile(getOnlyElement(fragments));
+        assertEquals(stagedFile.getFileName(), dataFile.getFileName().toString());
+        assertEquals(stagedFile.getRowCount(), 2);
+
+        bulkLoader.deleteStagingDirectory(directory);
+        assertFalse(Files.exists(directory));
+    }
+
+    @Test
+    public void testAbort()
+            throws IOException
+    {
+        DB2BulkLoader bulkLoader = new DB2BulkLoader(new DB2Config().setBulkLoadStagingDirectory(stagingDirectory.toString()));
+        ConnectorSession session = TestingConnectorSession.builder().build();
+        JdbcOutputTableHandle handle = new JdbcOutputTableHandle(null, "SALES", "ORDERS", ImmutableList.of("ID"), ImmutableList.of(BIGINT), Optional.empty(), "ORDERS");
+
+        DB2BulkLoadPageSink pageSink = new DB2BulkLoadPageSink(session, handle, bulkLoader);
+        pageSink.abort();
+        try (Stream<Path> stream = Files.list(bulkLoader.getStagingDirectory(session))) {
+            assertEquals(stream.count(), 0);
+        }
+    }
+
+    @Test
+    public void testMissingStagedFile()
+    {
+        DB2BulkLoader bulkLoader = new DB2BulkLoader(new DB2Config().setBulkLoadStagingDirectory(stagingDirectory.toString()));
+        ConnectorSession session = TestingConnectorSession.builder().build();
+        JdbcOutputTableHandle handle = new JdbcOutputTableHandle(null, "SALES", "ORDERS", ImmutableList.of("ID"), ImmutableList.of(BIGINT), Optional.empty(), "ORDERS");
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        // written by a worker in a staging directory not shared with the coordinator
+        TrinoException exception = expectThrows(TrinoException.class, () -> bulkLoader.load(session, connection, handle, ImmutableList.of(stagedFileFragment("worker.del", 10))));
+        assertEquals(exception.getErrorCode(), CONFIGURATION_INVALID.toErrorCode());
+        // files without rows are not loaded
+        bulkLoader.load(session, connection, handle, ImmutableList.of(stagedFileFragment("worker.del", 0)));
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(DB2BulkLoader.isSupported(COLUMN_TYPES));
+        assertFalse(DB2BulkLoader.isSupported(ImmutableList.of(BIGINT, VARBINARY)));
+    }
+
+    @Test
+    public void testFormatTimestamp()
+    {
+        assertEquals(formatTimestamp(0, 0, 0), "1970-01-01-00.00.00");
+        assertEquals(formatTimestamp(1_500_000, 0, 6), "1970-01-01-00.00.01.500000");
+        assertEquals(formatTimestamp(-1, 0, 6), "1969-12-31-23.59.59.999999");
+        assertEquals(formatTimestamp(1, 123_456, 12), "1970-01-01-00.00.00.000001123456");
+    }
+
+    @Test
+    public void testLoadCommand()
+    {
+        assertEquals(
+                loadCommand("/db2/load/query_1/", ImmutableList.of("a.del", "b.del"), "\"SALES\".\"ORDERS\"", ImmutableList.of("ID", "NAME"), true),
+                "LOAD FROM /db2/load/query_1/a.del, /db2/load/query_1/b.del OF DEL LOBS FROM /db2/load/query_1/ " +
+                        "MODIFIED BY CODEPAGE=1208 DELPRIORITYCHAR LOBSINFILE WARNINGCOUNT 1 MESSAGES ON SERVER " +
+                        "INSERT INTO \"SALES\".\"ORDERS\" (\"ID\", \"NAME\") NONRECOVERABLE");
+        assertEquals(
+                loadCommand("/db2/load/query_1/", ImmutableList.of("a.del"), "\"SALES\".\"ORDERS\"", ImmutableList.of("ID"), false),
+                "LOAD FROM /db2/load/query_1/a.del OF DEL LOBS FROM /db2/load/query_1/ " +
+                        "MODIFIED BY CODEPAGE=1208 DELPRIORITYCHAR LOBSINFILE WARNINGCOUNT 1 MESSAGES ON SERVER " +
+                        "INSERT INTO \"SALES\".\"ORDERS\" (\"ID\")");
+    }
+
+    private static Object[] row(Object... values)
+    {
+        return values;
+    }
+
+    private static Page page(Object[]... rows)
+    {
+        BlockBuilder[] blockBuilders = COLUMN_TYPES.stream()
+                .map(type -> type.createBlockBuilder(null, rows.length))
+                .toArray(BlockBuilder[]::new);
+        for (Object[] row : rows) {
+            for (int channel = 0; channel < row.length; channel++) {
+                Type type = COLUMN_TYPES.get(channel);
+                if (row[channel] == null) {
+                    blockBuilders[channel].appendNull();
+                }
+                else if (row[channel] instanceof String) {
+                    type.writeSlice(blockBuilders[channel], utf8Slice((String) row[channel]));
+                }
+                else {
+                    type.writeLong(blockBuilders[channel], (Long) row[channel]);
+                }
+            }
+        }
+        return new Page(Stream.of(blockBuilders).map(BlockBuilder::build).toArray(Block[]::new));
+    }
+}
@@ -0,0 +1,777 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.plugin.jdbc.BaseJdbcConfig;
+import io.trino.plugin.jdbc.ColumnMapping;
+import io.trino.plugin.jdbc.ConnectionFactory;
+import io.trino.plugin.jdbc.DefaultQueryBuilder;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcExpression;
+import io.trino.plugin.jdbc.JdbcJoinCondition;
+import io.trino.plugin.jdbc.JdbcMetadataConfig;
+import io.trino.plugin.jdbc.JdbcMetadataSessionProperties;
+import io.trino.plugin.jdbc.JdbcNamedRelationHandle;
+import io.trino.plugin.jdbc.JdbcQueryRelationHandle;
+import io.trino.plugin.jdbc.JdbcSortItem;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcStatisticsConfig;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.JdbcTypeHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.plugin.jdbc.TypeHandlingJdbcConfig;
+import io.trino.plugin.jdbc.TypeHandlingJdbcSessionProperties;
+import io.trino.plugin.jdbc.mapping.DefaultIdentifierMapping;
+import io.trino.spi.connector.AggregateFunction;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.JoinCondition;
+import io.trino.spi.connector.SampleType;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.connector.SortOrder;
+import io.trino.spi.expression.Call;
+import io.trino.spi.expression.ConnectorExpression;
+import io.trino.spi.expression.Constant;
+import io.trino.spi.expression.FunctionName;
+import io.trino.spi.expression.Variable;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.session.PropertyMetadata;
+import io.trino.spi.statistics.Estimate;
+import io.trino.spi.statistics.TableStatistics;
+import io.trino.spi.type.ArrayType;
+import io.trino.spi.type.DecimalType;
+import io.trino.spi.type.Type;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.plugin.db2.DB2SessionProperties.DELETE_CHUNK_SIZE;
+import static io.trino.plugin.db2.DB2SessionProperties.MQT_ROUTING_MAX_STALENESS;
+import static io.trino.plugin.db2.DB2SessionProperties.READ_ISOLATION;
+import static io.trino.plugin.db2.DB2SessionProperties.TABLE_SAMPLE_PUSHDOWN_ENABLED;
+import static io.trino.plugin.jdbc.PredicatePushdownController.DISABLE_PUSHDOWN;
+import static io.trino.spi.connector.SampleType.BERNOULLI;
+import static io.trino.spi.connector.SampleType.SYSTEM;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.BooleanType.BOOLEAN;
+import static io.trino.spi.type.CharType.createCharType;
+import static io.trino.spi.type.DateType.DATE;
+import static io.trino.spi.type.DecimalType.createDecimalType;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.IntegerType.INTEGER;
+import static io.trino.spi.type.RealType.REAL;
+import static io.trino.spi.type.SmallintType.SMALLINT;
+import static io.trino.spi.type.TimeType.TIME_MILLIS;
+import static io.trino.spi.type.TimestampType.createTimestampType;
+import static io.trino.spi.type.TinyintType.TINYINT;
+import static io.trino.spi.type.VarbinaryType.VARBINARY;
+import static io.trino.spi.type.VarcharType.createUnboundedVarcharType;
+import static io.trino.spi.type.VarcharType.createVarcharType;
+import static io.trino.type.InternalTypeManager.TESTING_TYPE_MANAGER;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2Client
+{
+    // One column for every type mapped by DB2Client.toColumnMapping
+    private static final List<JdbcColumnHandle> COLUMNS = ImmutableList.of(
+            column("c_boolean", BOOLEAN, Types.BOOLEAN, "BOOLEAN", 1, 0),
+            column("c_tinyint", TINYINT, Types.TINYINT, "TINYINT", 3, 0),
+            column("c_smallint", SMALLINT, Types.SMALLINT, "SMALLINT", 5, 0),
+            column("c_integer", INTEGER, Types.INTEGER, "INTEGER", 10, 0),
+            column("c_bigint", BIGINT, Types.BIGINT, "BIGINT", 19, 0),
+            column("c_real", REAL, Types.REAL, "REAL", 24, 0),
+            column("c_double", DOUBLE, Types.DOUBLE, "DOUBLE", 53, 0),
+            column("c_decimal", createDecimalType(15, 2), Types.DECIMAL, "DECIMAL", 15, 2),
+            column("c_decimal_max", createDecimalType(31, 4), Types.DECIMAL, "DECIMAL", 31, 4),
+            column("c_char", createCharType(10), Types.CHAR, "CHAR", 10, 0),
+            column("c_varchar", createVarcharType(100), Types.VARCHAR, "VARCHAR", 100, 0),
+            column("c_varbinary", VARBINARY, Types.VARBINARY, "VARCHAR () FOR BIT DATA", 100, 0),
+            column("c_clob", createVarcharType(1_048_576), Types.CLOB, "CLOB", 1_048_576, 0),
+            column("c_blob", VARBINARY, Types.BLOB, "BLOB", 1_048_576, 0),
+            column("c_date", DATE, Types.DATE, "DATE", 10, 0),
+            column("c_time", TIME_MILLIS, Types.TIME, "TIME", 8, 0),
+            column("c_timestamp", createTimestampType(6), Types.TIMESTAMP, "TIMESTAMP", 26, 6));
+
+    private static final DB2Client JDBC_CLIENT = createClient(new DB2Config());
+
+    private static final ConnectorSession SESSION = TestingConnectorSession.builder()
+            .setPropertyMetadata(ImmutableList.<PropertyMetadata<?>>builder()
+                    .addAll(new JdbcMetadataSessionProperties(new JdbcMetadataConfig().setAggregationPushdownEnabled(true), Optional.empty()).getSessionProperties())
+                    .addAll(new TypeHandlingJdbcSessionProperties(new TypeHandlingJdbcConfig()).getSessionProperties())
+                    .addAll(new DB2SessionProperties(new DB2Config()).getSessionProperties())
+                    .build())
+            .build();
+
+    static DB2Client createClient(DB2Config config)
+    {
+        return createClient(config, session -> {
+            throw new UnsupportedOperationException();
+        });
+    }
+
+    static DB2Client createClient(DB2Config config, ConnectionFactory connectionFactory)
+    {
+        return createClient(new BaseJdbcConfig(), config, connectionFactory);
+    }
+
+    static DB2Client createClient(BaseJdbcConfig baseJdbcConfig, DB2Config config, ConnectionFactory connectionFactory)
+    {
+        try {
+            return new DB2Client(
+                    baseJdbcConfig,
+                    config,
+                    connectionFactory,
+                    new DefaultQueryBuilder(),
+                    TESTING_TYPE_MANAGER,
+                    new DefaultIdentifierMapping(),
+                    new DB2SplitPlanner(new DB2PartitionMapCache(config)),
+                    new DB2StatisticsProvider(new JdbcStatisticsConfig(), config),
+                    new DB2ExplainStatisticsProvider(config),
+                    new DB2BulkLoader(config),
+                    new DB2ReadRoutingConnectionFactory(connectionFactory, ImmutableMap.of(), config),
+                    new DB2MaterializedQueryTableCache(config));
+        }
+        catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testImplementCount()
+    {
+        testImplementAggregation(
+                new AggregateFunction("count", BIGINT, List.of(), List.of(), false, Optional.empty()),
+                Map.of(),
+                Optional.of("COUNT_BIG(*)"));
+
+        for (JdbcColumnHandle column : COLUMNS) {
+            Variable variable = new Variable("v", column.getColumnType());
+            testImplementAggregation(
+                    new AggregateFunction("count", BIGINT, List.of(variable), List.of(), false, Optional.empty()),
+                    Map.of("v", column),
+                    Optional.of("COUNT_BIG(\"" + column.getColumnName() + "\")"));
+        }
+
+        // COUNT of DISTINCT values returns INTEGER as well
+        for (JdbcColumnHandle column : COLUMNS) {
+            Variable variable = new Variable("v", column.getColumnType());
+            testImplementAggregation(
+                    new AggregateFunction("count", BIGINT, List.of(variable), List.of(), true, Optional.empty()),
+                    Map.of("v", column),
+                    isComparable(column) ? Optional.of("COUNT_BIG(DISTINCT \"" + column.getColumnName() + "\")") : Optional.empty());
+        }
+
+        // aggregations with a filter are evaluated by Trino
+        Variable bigintVariable = new Variable("v", BIGINT);
+        Optional<ConnectorExpression> filter = Optional.of(new Variable("a_filter", BOOLEAN));
+        testImplementAggregation(
+                new AggregateFunction("count", BIGINT, List.of(bigintVariable), List.of(), false, filter),
+                Map.of("v", column("c_bigint")),
+                Optional.empty());
+    }
+
+    @Test(dataProvider = "columns")
+    public void testImplementMinMax(JdbcColumnHandle column)
+    {
+        Type type = column.getColumnType();
+        if (type == BOOLEAN) {
+            return;
+        }
+        for (String function : List.of("min", "max")) {
+            testImplementAggregation(
+                    new AggregateFunction(function, type, List.of(new Variable("v", type)), List.of(), false, Optional.empty()),
+                    Map.of("v", column),
+                    isComparable(column) ? Optional.of(function + "(\"" + column.getColumnName() + "\")") : Optional.empty());
+        }
+    }
+
+    @Test
+    public void testImplementSum()
+    {
+        testImplementAggregation(sum(column("c_smallint")), Optional.of("SUM(CAST(\"c_smallint\" AS BIGINT))"));
+        testImplementAggregation(sum(column("c_integer")), Optional.of("SUM(CAST(\"c_integer\" AS BIGINT))"));
+        testImplementAggregation(sum(column("c_bigint")), Optional.of("sum(\"c_bigint\")"));
+        testImplementAggregation(sum(column("c_real")), Optional.of("sum(\"c_real\")"));
+        testImplementAggregation(sum(column("c_double")), Optional.of("sum(\"c_double\")"));
+        testImplementAggregation(sum(column("c_decimal")), Optional.of("sum(\"c_decimal\")"));
+    }
+
+    @Test
+    public void testImplementAvg()
+    {
+        testImplementAggregation(avg(column("c_bigint"), DOUBLE), Optional.of("AVG(CAST(\"c_bigint\" AS DOUBLE))"));
+        testImplementAggregation(avg(column("c_real"), REAL), Optional.of("avg(\"c_real\")"));
+        testImplementAggregation(avg(column("c_double"), DOUBLE), Optional.of("avg(\"c_double\")"));
+        testImplementAggregation(
+                avg(column("c_decimal"), createDecimalType(15, 2)),
+                Optional.of("CAST(ROUND(AVG(\"c_decimal\"), 2) AS DECIMAL(15, 2))"));
+        // Db2 truncates the average of a DECIMAL(31, s)
+        testImplementAggregation(avg(column("c_decimal_max"), createDecimalType(31, 4)), Optional.empty());
+    }
+
+    @Test
+    public void testImplementStatisticalAggregations()
+    {
+        // the population forms are STDDEV and VARIANCE in Db2
+        Map<String, String> expressions = Map.of(
+                "stddev_samp", "stddev_samp(\"c_double\")",
+                "stddev_pop", "STDDEV(\"c_double\")",
+                "var_samp", "var_samp(\"c_double\")",
+                "var_pop", "VARIANCE(\"c_double\")");
+        expressions.forEach((function, expression) -> testImplementAggregation(
+                new AggregateFunction(function, DOUBLE, List.of(new Variable("v", DOUBLE)), List.of(), false, Optional.empty()),
+                Map.of("v", column("c_double")),
+                Optional.of(expression)));
+    }
+
+    @Test
+    public void testTextualGroupingIsNotPushedDown()
+    {
+        assertTrue(JDBC_CLIENT.supportsAggregationPushdown(SESSION, null, List.of(), Map.of(), List.of(List.of(column("c_integer"), column("c_date")))));
+        assertFalse(JDBC_CLIENT.supportsAggregationPushdown(SESSION, null, List.of(), Map.of(), List.of(List.of(column("c_integer"), column("c_varchar")))));
+        assertFalse(JDBC_CLIENT.supportsAggregationPushdown(SESSION, null, List.of(), Map.of(), List.of(List.of(column("c_char")))));
+        assertFalse(JDBC_CLIENT.supportsAggregationPushdown(SESSION, null, List.of(), Map.of(), List.of(List.of(column("c_integer"), column("c_blob")))));
+    }
+
+    @Test
+    public void testLobColumnMappings()
+    {
+        for (String name : List.of("c_clob", "c_blob")) {
+            JdbcColumnHandle column = column(name);
+            ColumnMapping columnMapping = JDBC_CLIENT.toColumnMapping(SESSION, null, column.getJdbcTypeHandle()).orElseThrow();
+            assertEquals(columnMapping.getType(), column.getColumnType());
+            // Db2 does not compare LOB values
+            assertEquals(columnMapping.getPredicatePushdownController(), DISABLE_PUSHDOWN);
+        }
+        JdbcTypeHandle unboundedClob = new JdbcTypeHandle(Types.CLOB, Optional.of("CLOB"), Optional.of(Integer.MAX_VALUE), Optional.of(0), Optional.empty(), Optional.empty());
+        assertEquals(JDBC_CLIENT.toColumnMapping(SESSION, null, unboundedClob).orElseThrow().getType(), createUnboundedVarcharType());
+    }
+
+    @Test
+    public void testLimit()
+    {
+        assertEquals(
+                JDBC_CLIENT.limitFunction().orElseThrow().apply("SELECT \"c_bigint\" FROM \"S\".\"T\"", 10L),
+                "SELECT \"c_bigint\" FROM \"S\".\"T\" FETCH FIRST 10 ROWS ONLY");
+        assertTrue(JDBC_CLIENT.isLimitGuaranteed(SESSION));
+    }
+
+    @Test
+    public void testTopN()
+    {
+        String query = "SELECT \"c_bigint\" FROM \"S\".\"T\"";
+        assertEquals(
+                JDBC_CLIENT.topNFunction().orElseThrow().apply(
+                        query,
+                        List.of(
+                                new JdbcSortItem(column("c_bigint"), SortOrder.ASC_NULLS_LAST),
+                                new JdbcSortItem(column("c_date"), SortOrder.DESC_NULLS_FIRST)),
+                        100L),
+                query + " ORDER BY \"c_bigint\" ASC, \"c_date\" DESC FETCH FIRST 100 ROWS ONLY");
+        assertEquals(
+                JDBC_CLIENT.topNFunction().orElseThrow().apply(
+                        query,
+                        List.of(
+                                new JdbcSortItem(column("c_bigint"), SortOrder.ASC_NULLS_FIRST),
+                                new JdbcSortItem(column("c_date"), SortOrder.DESC_NULLS_LAST)),
+                        100L),
+                query + " ORDER BY " +
+                        "CASE WHEN \"c_bigint\" IS NULL THEN 0 ELSE 1 END, \"c_bigint\" ASC, " +
+                        "CASE WHEN \"c_date\" IS NULL THEN 1 ELSE 0 END, \"c_date\" DESC " +
+                        "FETCH FIRST 100 ROWS ONLY");
+        assertTrue(JDBC_CLIENT.isTopNGuaranteed(SESSION));
+    }
+
+    @Test(dataProvider = "columns")
+    public void testSupportsTopN(JdbcColumnHandle column)
+    {
+        assertEquals(
+                JDBC_CLIENT.supportsTopN(SESSION, null, List.of(new JdbcSortItem(column, SortOrder.ASC_NULLS_LAST))),
+                isComparable(column));
+    }
+
+    @Test(dataProvider = "columns")
+    public void testSupportedJoinCondition(JdbcColumnHandle column)
+    {
+        for (JoinCondition.Operator operator : JoinCondition.Operator.values()) {
+            boolean expected = isComparable(column) && operator != JoinCondition.Operator.IS_DISTINCT_FROM;
+            assertEquals(
+                    JDBC_CLIENT.isSupportedJoinCondition(SESSION, new JdbcJoinCondition(column, operator, column)),
+                    expected,
+                    column.getColumnName() + " " + operator);
+        }
+    }
+
+    @Test
+    public void testMixedTypeJoinCondition()
+    {
+        assertTrue(JDBC_CLIENT.isSupportedJoinCondition(SESSION, new JdbcJoinCondition(column("c_integer"), JoinCondition.Operator.EQUAL, column("c_bigint"))));
+        assertFalse(JDBC_CLIENT.isSupportedJoinCondition(SESSION, new JdbcJoinCondition(column("c_integer"), JoinCondition.Operator.EQUAL, column("c_varchar"))));
+    }
+
+    @Test
+    public void testConvertComparison()
+    {
+        assertConvertPredicate(
+                call(BOOLEAN, "$greater_than", variable("c_bigint"), new Constant(42L, BIGINT)),
+                Optional.of("(\"c_bigint\") > (42)"));
+        assertConvertPredicate(
+                call(BOOLEAN, "$equal", variable("c_date"), variable("c_date")),
+                Optional.of("(\"c_date\") = (\"c_date\")"));
+        // Db2 compares character strings padded with blanks
+        assertConvertPredicate(
+                call(BOOLEAN, "$equal", variable("c_varchar"), variable("c_varchar")),
+                Optional.empty());
+        assertConvertPredicate(
+                call(BOOLEAN, "$less_than", variable("c_timestamp"), variable("c_timestamp")),
+                Optional.empty());
+    }
+
+    @Test
+    public void testConvertIn()
+    {
+        Map<String, ColumnHandle> assignments = COLUMNS.stream()
+                .collect(toImmutableMap(JdbcColumnHandle::getColumnName, column -> column));
+        assertTrue(JDBC_CLIENT.convertPredicate(
+                SESSION,
+                call(BOOLEAN, "$in", variable("c_bigint"), call(new ArrayType(BIGINT), "$array", new Constant(1L, BIGINT), new Constant(2L, BIGINT))),
+                assignments).isPresent());
+        // textual values are not compared by Db2 the way Trino does
+        assertConvertPredicate(
+                call(BOOLEAN, "$in", variable("c_varchar"), call(new ArrayType(createVarcharType(100)), "$array", new Constant(utf8Slice("a"), createVarcharType(100)))),
+                Optional.empty());
+        assertConvertPredicate(
+                call(BOOLEAN, "$in", variable("c_char"), call(new ArrayType(createCharType(10)), "$array", new Constant(utf8Slice("a"), createCharType(10)))),
+                Optional.empty());
+    }
+
+    @Test
+    public void testConvertIsDistinctFrom()
+    {
+        assertConvertPredicate(
+                call(BOOLEAN, "$is_distinct_from", variable("c_integer"), variable("c_integer")),
+                Optional.of("CASE WHEN (\"c_integer\") = (\"c_integer\") OR ((\"c_integer\") IS NULL AND (\"c_integer\") IS NULL) THEN 0 ELSE 1 END = 1"));
+    }
+
+    @Test
+    public void testConvertArithmetic()
+    {
+        assertConvertPredicate(
+                call(BOOLEAN, "$equal", call(BIGINT, "$modulus", variable("c_bigint"), new Constant(7L, BIGINT)), new Constant(0L, BIGINT)),
+                Optional.of("(MOD((\"c_bigint\"), (7))) = (0)"));
+        // Db2 computes SMALLINT arithmetic as INTEGER
+        assertConvertPredicate(
+                call(BOOLEAN, "$equal", call(SMALLINT, "$add", variable("c_smallint"), variable("c_smallint")), variable("c_smallint")),
+                Optional.empty());
+    }
+
+    @Test
+    public void testConvertLike()
+    {
+        assertConvertPredicate(
+                call(BOOLEAN, "$like", variable("c_varchar"), new Constant(utf8Slice("%pattern%"), createVarcharType(9))),
+                Optional.of("(\"c_varchar\") LIKE ('%pattern%')"));
+        assertConvertPredicate(
+                call(BOOLEAN, "$like", variable("c_char"), new Constant(utf8Slice("%pattern%"), createVarcharType(9))),
+                Optional.empty());
+    }
+
+    @Test
+    public void testConvertSubstring()
+    {
+        Constant pattern = new Constant(utf8Slice("ab"), createVarcharType(2));
+        assertConvertPredicate(
+                call(BOOLEAN, "$like", call(createVarcharType(100), "substring", variable("c_varchar"), new Constant(2L, BIGINT), new Constant(3L, BIGINT)), pattern),
+                Optional.of("(SUBSTRING(\"c_varchar\", 2, 3, CODEUNITS32)) LIKE ('ab')"));
+        assertConvertPredicate(
+                call(BOOLEAN, "$like", call(createVarcharType(100), "substring", variable("c_varchar"), new Constant(2L, BIGINT)), pattern),
+                Optional.of("(SUBSTRING(\"c_varchar\", 2, CODEUNITS32)) LIKE ('ab')"));
+        // Trino counts negative positions from the end of the string
+        assertConvertPredicate(
+                call(BOOLEAN, "$like", call(createVarcharType(100), "substring", variable("c_varchar"), new Constant(-2L, BIGINT)), pattern),
+                Optional.empty());
+    }
+
+    @Test
+    public void testConvertIsNull()
+    {
+        assertConvertPredicate(
+                call(BOOLEAN, "$not", call(BOOLEAN, "$is_null", variable("c_timestamp"))),
+                Optional.of("(\"c_timestamp\") IS NOT NULL"));
+    }
+
+    @Test
+    public void testReadIsolation()
+            throws SQLException
+    {
+        JdbcTableHandle table = new JdbcTableHandle(
+                new SchemaTableName("sales", "orders"),
+                new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+                Optional.empty());
+        assertEquals(buildSql(SESSION, table), "SELECT \"c_bigint\" FROM \"SALES\".\"ORDERS\" WITH UR");
+
+        ConnectorSession session = TestingConnectorSession.builder()
+                .setPropertyMetadata(new DB2SessionProperties(new DB2Config()).getSessionProperties())
+                .setPropertyValues(Map.of(READ_ISOLATION, DB2IsolationLevel.CS))
+                .build();
+        assertEquals(buildSql(session, table), "SELECT \"c_bigint\" FROM \"SALES\".\"ORDERS\" WITH CS");
+    }
+
+    @Test
+    public void testMqtRouting()
+            throws SQLException
+    {
+        assertEquals(setRefreshAge("10m", 60), List.of("SET CURRENT REFRESH AGE ANY"));
+        // reset, the connection may have been used by a routed scan before
+        assertEquals(setRefreshAge("30s", 60), List.of("SET CURRENT REFRESH AGE 0"));
+    }
+
+    private static List<String> setRefreshAge(String maxStaleness, long refreshAgeSeconds)
+            throws SQLException
+    {
+        List<String> statements = new ArrayList<>();
+        Connection connection = (Connection) Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "createStatement":
+                    return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {Statement.class}, (statement, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().equals("execute")) {
+                            statements.add((String) statementArgs[0]);
+                            return false;
+                        }
+                        return null;
+                    });
+                case "prepareStatement":
+                    boolean catalogQuery = ((String) args[0]).contains("SYSCAT.TABDEP");
+                    return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (statement, statementMethod, statementArgs) -> {
+                        if (catalogQuery && statementMethod.getName().equals("executeQuery")) {
+                            return materializedQueryTables(refreshAgeSeconds);
+                        }
+                        return null;
+                    });
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        JdbcTableHandle table = new JdbcTableHandle(
+                new SchemaTableName("sales", "orders"),
+                new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+                Optional.empty());
+        ConnectorSession session = TestingConnectorSession.builder()
+                .setPropertyMetadata(new DB2SessionProperties(new DB2Config()).getSessionProperties())
+                .setPropertyValues(Map.of(MQT_ROUTING_MAX_STALENESS, maxStaleness))
+                .build();
+        createClient(new DB2Config().setMqtRoutingEnabled(true)).buildSql(session, connection, new JdbcSplit(Optional.empty()), table, List.of(column("c_bigint")));
+        return statements;
+    }
+
+    private static ResultSet materializedQueryTables(long refreshAgeSeconds)
+    {
+        boolean[] read = {false};
+        return (ResultSet) Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    boolean hasNext = !read[0];
+                    read[0] = true;
+                    return hasNext;
+                case "getString":
+                    return (int) args[0] == 1 ? "SALES   " : "ORDERS_BY_DAY";
+                case "getLong":
+                    return refreshAgeSeconds;
+                case "wasNull":
+                    return false;
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testChunkedDelete()
+    {
+        List<String> statements = new ArrayList<>();
+        Iterator<Integer> chunkRows = List.of(2, 2, 1).iterator();
+        DB2Client client = createClient(new DB2Config(), session -> (Connection) Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getAutoCommit":
+                    return true;
+                case "prepareStatement":
+                    statements.add((String) args[0]);
+                    return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (statement, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().equals("executeUpdate")) {
+                            return chunkRows.next();
+                        }
+                        return null;
+                    });
+                case "close":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        JdbcTableHandle table = new JdbcTableHandle(
+                new SchemaTableName("sales", "orders"),
+                new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+                Optional.empty());
+        ConnectorSession session = TestingConnectorSession.builder()
+                .setPropertyMetadata(new DB2SessionProperties(new DB2Config()).getSessionProperties())
+                .setPropertyValues(Map.of(DELETE_CHUNK_SIZE, 2))
+                .build();
+
+        // the statement is executed until a chunk deletes fewer rows than the chunk size
+        assertEquals(client.delete(session, table), OptionalLong.of(5));
+        assertFalse(chunkRows.hasNext());
+        String statement = getOnlyElement(statements);
+        assertTrue(statement.startsWith("DELETE FROM (SELECT "), statement);
+        assertTrue(statement.endsWith(" FROM \"SALES\".\"ORDERS\" FETCH FIRST 2 ROWS ONLY)"), statement);
+    }
+
+    @Test
+    public void testSampleTable()
+    {
+        assertEquals(DB2Client.tableSampleClause(SYSTEM, 0.01), "TABLESAMPLE SYSTEM(1)");
+        assertEquals(DB2Client.tableSampleClause(BERNOULLI, 0.125), "TABLESAMPLE BERNOULLI(12.5)");
+
+        JdbcTableHandle sampled = sampleTable(SESSION, "T", SYSTEM, 0.01).orElseThrow();
+        assertTrue(sampled.isSynthetic());
+        assertEquals(
+                ((JdbcQueryRelationHandle) sampled.getRelationHandle()).getPreparedQuery().getQuery(),
+                "SELECT \"c_bigint\" FROM \"SALES\".\"ORDERS\" TABLESAMPLE SYSTEM(1)");
+        assertTrue(sampleTable(SESSION, "S", BERNOULLI, 0.5).isPresent());
+        // views and nicknames cannot be sampled by Db2
+        assertFalse(sampleTable(SESSION, "V", SYSTEM, 0.01).isPresent());
+        assertFalse(sampleTable(SESSION, "N", SYSTEM, 0.01).isPresent());
+
+        ConnectorSession disabled = TestingConnectorSession.builder()
+                .setPropertyMetadata(new DB2SessionProperties(new DB2Config()).getSessionProperties())
+                .setPropertyValues(Map.of(TABLE_SAMPLE_PUSHDOWN_ENABLED, false))
+                .build();
+        assertFalse(sampleTable(disabled, "T", SYSTEM, 0.01).isPresent());
+    }
+
+    private static Optional<JdbcTableHandle> sampleTable(ConnectorSession session, String tableType, SampleType sampleType, double sampleRatio)
+    {
+        DB2Client client = createClient(new DB2Config(), ignored -> (Connection) Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (statement, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().equals("executeQuery")) {
+                            return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (resultSet, resultSetMethod, resultSetArgs) -> {
+                                switch (resultSetMethod.getName()) {
+                                    case "next":
+                                        return true;
+                                    case "getString":
+                                        return tableType;
+                                }
+                                return null;
+                            });
+                        }
+                        return null;
+                    });
+                case "close":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        JdbcTableHandle table = new JdbcTableHandle(
+                new SchemaTableName("sales", "orders"),
+                new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+                Optional.empty());
+        return client.sampleTable(session, table, List.of(column("c_bigint")), sampleType, sampleRatio);
+    }
+
+    @Test
+    public void testStatisticsOfFilteredTable()
+    {
+        JdbcTableHandle filtered = filteredTable(
+                TupleDomain.withColumnDomains(Map.of(column("c_bigint"), Domain.singleValue(BIGINT, 1L))),
+                OptionalLong.empty());
+        JdbcTableHandle limited = filteredTable(TupleDomain.all(), OptionalLong.of(10));
+
+        // the catalog statistics of the whole table are not read, the engine estimates the filter
+        assertEquals(JDBC_CLIENT.getTableStatistics(SESSION, filtered, TupleDomain.all()), TableStatistics.empty());
+        assertEquals(JDBC_CLIENT.getTableStatistics(SESSION, limited, TupleDomain.all()), TableStatistics.empty());
+
+        List<String> statements = new ArrayList<>();
+        DB2Client client = createClient(new DB2Config().setExplainStatisticsEnabled(true), ignored -> (Connection) Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "createStatement":
+                    return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {Statement.class}, (statement, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().equals("execute")) {
+                            statements.add((String) statementArgs[0]);
+                            return false;
+                        }
+                        return null;
+                    });
+                case "prepareStatement":
+                    return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (statement, statementMethod, statementArgs) -> {
+                        switch (statementMethod.getName()) {
+                            case "executeQuery":
+                                return new InMemoryResultSet(new Object[][] {{42.0, "2021-03-04 13:45:30.123456", "SQLC2P31", "DB2INST1", ""}});
+                            case "executeUpdate":
+                                return 1;
+                        }
+                        return null;
+                    });
+                case "close":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        // the filtered query is explained instead
+        assertEquals(client.getTableStatistics(SESSION, filtered, TupleDomain.all()).getRowCount(), Estimate.of(42));
+        String explain = getOnlyElement(statements);
+        assertTrue(explain.startsWith("EXPLAIN PLAN SET QUERYNO = "), explain);
+        assertTrue(explain.contains(" FROM \"SALES\".\"ORDERS\" WHERE \"c_bigint\" = ?"), explain);
+    }
+
+    private static JdbcTableHandle filteredTable(TupleDomain<ColumnHandle> constraint, OptionalLong limit)
+    {
+        return new JdbcTableHandle(
+                new JdbcNamedRelationHandle(
+                        new SchemaTableName("sales", "orders"),
+                        new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+                        Optional.empty()),
+                constraint,
+                ImmutableList.of(),
+                Optional.empty(),
+                limit,
+                Optional.of(List.of(column("c_bigint"))),
+                Optional.of(Set.of()),
+                0);
+    }
+
+    private static String buildSql(ConnectorSession session, JdbcTableHandle table)
+            throws SQLException
+    {
+        List<String> statements = new ArrayList<>();
+        Connection connection = (Connection) Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("prepareStatement")) {
+                statements.add((String) args[0]);
+                return Proxy.newProxyInstance(TestDB2Client.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (statement, statementMethod, statementArgs) -> null);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        JDBC_CLIENT.buildSql(session, connection, new JdbcSplit(Optional.empty()), table, List.of(column("c_bigint")));
+        return getOnlyElement(statements);
+    }
+
+    private static void assertConvertPredicate(ConnectorExpression expression, Optional<String> expected)
+    {
+        Map<String, ColumnHandle> assignments = COLUMNS.stream()
+                .collect(toImmutableMap(JdbcColumnHandle::getColumnName, column -> column));
+        assertEquals(JDBC_CLIENT.convertPredicate(SESSION, expression, assignments), expected);
+    }
+
+    private static Call call(Type type, String functionName, ConnectorExpression... arguments)
+    {
+        return new Call(type, new FunctionName(functionName), List.of(arguments));
+    }
+
+    private static Variable variable(String columnName)
+    {
+        return new Variable(columnName, column(columnName).getColumnType());
+    }
+
+    @DataProvider
+    public Object[][] columns()
+    {
+        return COLUMNS.stream()
+                .map(column -> new Object[] {column})
+                .toArray(Object[][]::new);
+    }
+
+    private static AggregateFunction sum(JdbcColumnHandle column)
+    {
+        Type type = column.getColumnType();
+        Type outputType = BIGINT;
+        if (type instanceof DecimalType) {
+            outputType = createDecimalType(38, ((DecimalType) type).getScale());
+        }
+        else if (type == REAL || type == DOUBLE) {
+            outputType = type;
+        }
+        return new AggregateFunction("sum", outputType, List.of(new Variable(column.getColumnName(), type)), List.of(), false, Optional.empty());
+    }
+
+    private static AggregateFunction avg(JdbcColumnHandle column, Type outputType)
+    {
+        return new AggregateFunction("avg", outputType, List.of(new Variable(column.getColumnName(), column.getColumnType())), List.of(), false, Optional.empty());
+    }
+
+    private static void testImplementAggregation(AggregateFunction aggregateFunction, Optional<String> expectedExpression)
+    {
+        Variable argument = (Variable) aggregateFunction.getArguments().get(0);
+        testImplementAggregation(aggregateFunction, Map.of(argument.getName(), column(argument.getName())), expectedExpression);
+    }
+
+    /**
+     * Verifies the pushed down expression, and that its result is read back as the type Trino itself would produce.
+     */
+    private static void testImplementAggregation(AggregateFunction aggregateFunction, Map<String, ColumnHandle> assignments, Optional<String> expectedExpression)
+    {
+        Optional<JdbcExpression> result = JDBC_CLIENT.implementAggregation(SESSION, aggregateFunction, assignments);
+        if (expectedExpression.isEmpty()) {
+            assertFalse(result.isPresent(), "Unexpected pushdown: " + result);
+            return;
+        }
+        assertTrue(result.isPresent(), "Not pushed down: " + aggregateFunction);
+        assertEquals(result.get().getExpression(), expectedExpression.get());
+        Optional<ColumnMapping> columnMapping = JDBC_CLIENT.toColumnMapping(SESSION, null, result.get().getJdbcTypeHandle());
+        assertTrue(columnMapping.isPresent(), "No mapping for: " + result.get().getJdbcTypeHandle());
+        assertEquals(columnMapping.get().getType(), aggregateFunction.getOutputType());
+    }
+
+    // Db2 compares character strings padded with blanks, and does not compare LOB values
+    private static boolean isComparable(JdbcColumnHandle column)
+    {
+        return !List.of("c_char", "c_varchar", "c_clob", "c_blob").contains(column.getColumnName());
+    }
+
+    static JdbcColumnHandle column(String name)
+    {
+        return COLUMNS.stream()
+                .filter(column -> column.getColumnName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static JdbcColumnHandle column(String name, Type type, int jdbcType, String jdbcTypeName, int columnSize, int decimalDigits)
+    {
+        return JdbcColumnHandle.builder()
+                .setColumnName(name)
+                .setColumnType(type)
+                .setJdbcTypeHandle(new JdbcTypeHandle(jdbcType, Optional.of(jdbcTypeName), Optional.of(columnSize), Optional.of(decimalDigits), Optional.empty(), Optional.empty()))
+                .build();
+    }
+}
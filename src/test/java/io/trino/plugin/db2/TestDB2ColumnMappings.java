@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.sun.management.ThreadMXBean;
+import io.trino.plugin.jdbc.LongReadFunction;
+import io.trino.spi.type.LongTimestamp;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static io.trino.plugin.db2.DB2ColumnMappings.UNPARSEABLE;
+import static io.trino.plugin.db2.DB2ColumnMappings.dateReadFunction;
+import static io.trino.plugin.db2.DB2ColumnMappings.formatDate;
+import static io.trino.plugin.db2.DB2ColumnMappings.formatTime;
+import static io.trino.plugin.db2.DB2ColumnMappings.formatTimestamp;
+import static io.trino.plugin.db2.DB2ColumnMappings.longTimestampReadFunction;
+import static io.trino.plugin.db2.DB2ColumnMappings.parseDate;
+import static io.trino.plugin.db2.DB2ColumnMappings.parseEpochSecond;
+import static io.trino.plugin.db2.DB2ColumnMappings.parsePicosOfSecond;
+import static io.trino.plugin.db2.DB2ColumnMappings.parseShortDecimal;
+import static io.trino.plugin.db2.DB2ColumnMappings.parseTime;
+import static io.trino.plugin.db2.DB2ColumnMappings.shortDecimalReadFunction;
+import static io.trino.plugin.db2.DB2ColumnMappings.timeReadFunction;
+import static io.trino.plugin.db2.DB2ColumnMappings.timestampReadFunction;
+import static io.trino.spi.type.DecimalType.createDecimalType;
+import static io.trino.spi.type.TimestampType.createTimestampType;
+import static java.time.ZoneOffset.UTC;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2ColumnMappings
+{
+    private static final long PICOSECONDS_PER_SECOND = 1_000_000_000_000L;
+
+    @Test
+    public void testParseDate()
+    {
+        assertEquals(parseDate("2021-03-04"), LocalDate.of(2021, 3, 4).toEpochDay());
+        assertEquals(parseDate("1970-01-01"), 0);
+        assertEquals(parseDate("0001-01-01"), LocalDate.of(1, 1, 1).toEpochDay());
+        assertEquals(parseDate("9999-12-31"), LocalDate.of(9999, 12, 31).toEpochDay());
+        assertEquals(parseDate("2020-02-29"), LocalDate.of(2020, 2, 29).toEpochDay());
+        assertEquals(parseDate("03/04/2021"), UNPARSEABLE);
+        assertEquals(parseDate("2021-13-04"), UNPARSEABLE);
+        assertEquals(parseDate("2021-0a-04"), UNPARSEABLE);
+    }
+
+    @Test
+    public void testParseTime()
+    {
+        assertEquals(parseTime("13:45:30"), LocalTime.of(13, 45, 30).toSecondOfDay() * PICOSECONDS_PER_SECOND);
+        assertEquals(parseTime("13.45.30"), LocalTime.of(13, 45, 30).toSecondOfDay() * PICOSECONDS_PER_SECOND);
+        assertEquals(parseTime("24:00:00"), 0);
+        assertEquals(parseTime("01:02:03 PM"), UNPARSEABLE);
+        assertEquals(parseTime("13:45.30"), UNPARSEABLE);
+    }
+
+    @Test
+    public void testParseTimestamp()
+    {
+        long epochSecond = LocalDateTime.of(2021, 3, 4, 13, 45, 30).toEpochSecond(UTC);
+        assertEquals(parseEpochSecond("2021-03-04 13:45:30"), epochSecond);
+        assertEquals(parseEpochSecond("2021-03-04-13.45.30.123456"), epochSecond);
+        assertEquals(parseEpochSecond("2021-03-04T13:45:30.123456789012"), epochSecond);
+        assertEquals(parseEpochSecond("1969-12-31-23.59.59"), -1);
+        assertEquals(parseEpochSecond("2021-03-04 13:45:30.1234567890123"), UNPARSEABLE);
+        assertEquals(parseEpochSecond("2021-03-04 13:45:30,123"), UNPARSEABLE);
+        assertEquals(parseEpochSecond("2021-03-04"), UNPARSEABLE);
+
+        assertEquals(parsePicosOfSecond("2021-03-04 13:45:30"), 0);
+        assertEquals(parsePicosOfSecond("2021-03-04 13:45:30.1"), 100_000_000_000L);
+        assertEquals(parsePicosOfSecond("2021-03-04 13:45:30.123456"), 123_456_000_000L);
+        assertEquals(parsePicosOfSecond("2021-03-04 13:45:30.123456789012"), 123_456_789_012L);
+    }
+
+    @Test
+    public void testParseShortDecimal()
+    {
+        assertEquals(parseShortDecimal("12.34", 2), 1234);
+        assertEquals(parseShortDecimal("-12.3", 2), -1230);
+        assertEquals(parseShortDecimal("+0.05", 2), 5);
+        assertEquals(parseShortDecimal(".5", 2), 50);
+        assertEquals(parseShortDecimal("42", 0), 42);
+        assertEquals(parseShortDecimal("999999999999999999", 0), 999_999_999_999_999_999L);
+        assertEquals(parseShortDecimal("12.345", 2), UNPARSEABLE);
+        assertEquals(parseShortDecimal("1E+3", 0), UNPARSEABLE);
+        assertEquals(parseShortDecimal("1.2.3", 2), UNPARSEABLE);
+        assertEquals(parseShortDecimal("-", 2), UNPARSEABLE);
+        assertEquals(parseShortDecimal("1000000000000000000", 0), UNPARSEABLE);
+    }
+
+    @Test
+    public void testFormat()
+    {
+        for (long epochDay = LocalDate.of(1, 1, 1).toEpochDay(); epochDay <= LocalDate.of(9999, 12, 31).toEpochDay(); epochDay += 97) {
+            String date = formatDate(epochDay);
+            assertEquals(date, LocalDate.ofEpochDay(epochDay).toString());
+            assertEquals(parseDate(date), epochDay);
+        }
+        assertEquals(formatTime(LocalTime.of(7, 5, 3).toNanoOfDay() * 1000 + 999), "07:05:03");
+        assertEquals(formatTimestamp(LocalDateTime.of(2021, 3, 4, 13, 45, 30).toEpochSecond(UTC) * 1_000_000 + 123_456, 789_000, 9), "2021-03-04-13.45.30.123456789");
+    }
+
+    @Test
+    public void testReadFunctions()
+            throws SQLException
+    {
+        // rounded to the precision of the type
+        assertEquals(
+                timestampReadFunction(createTimestampType(3)).readLong(resultSet("2021-03-04 13:45:30.123500"), 1),
+                LocalDateTime.of(2021, 3, 4, 13, 45, 30).toEpochSecond(UTC) * 1_000_000 + 124_000);
+        assertEquals(
+                timestampReadFunction(createTimestampType(0)).readLong(resultSet("2021-03-04-23.59.59.5"), 1),
+                LocalDateTime.of(2021, 3, 5, 0, 0).toEpochSecond(UTC) * 1_000_000);
+        assertEquals(
+                longTimestampReadFunction(createTimestampType(9)).readObject(resultSet("2021-03-04 13:45:30.123456789"), 1),
+                new LongTimestamp(LocalDateTime.of(2021, 3, 4, 13, 45, 30).toEpochSecond(UTC) * 1_000_000 + 123_456, 789_000));
+        // values the parser does not handle are converted by BigDecimal
+        assertEquals(shortDecimalReadFunction(createDecimalType(10, 2)).readLong(resultSet("12.345"), 1), 1235);
+        assertEquals(shortDecimalReadFunction(createDecimalType(10, 2)).readLong(resultSet(null), 1), 0);
+        assertTrue(shortDecimalReadFunction(createDecimalType(10, 2)).isNull(resultSet(null), 1));
+    }
+
+    @Test
+    public void testReadFunctionsDoNotAllocate()
+            throws SQLException
+    {
+        // writes are not covered, they bind every value as a String
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        InMemoryResultSet resultSet = new InMemoryResultSet(new Object[][] {
+                {"2021-03-04 13:45:30.123456", "2021-03-04", "13:45:30", "-12.34"},
+                {"1969-12-31-23.59.59.999999", "1969-12-31", "23.59.59", "987654.3"},
+                {"0001-01-01 00:00:00", "0001-01-01", "00:00:00", null}});
+        ReadFunctions readFunctions = new ReadFunctions();
+
+        // warm up so that the measured iterations run compiled code
+        long checksum = readAll(readFunctions, resultSet, 100_000);
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        checksum += readAll(readFunctions, resultSet, 100_000);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // a single object per value would allocate megabytes
+        assertTrue(allocated < 10_000, "Allocated " + allocated + " bytes, checksum " + checksum);
+    }
+
+    private static long readAll(ReadFunctions readFunctions, ResultSet resultSet, int iterations)
+            throws SQLException
+    {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            resultSet.beforeFirst();
+            while (resultSet.next()) {
+                checksum += readFunctions.timestamp.readLong(resultSet, 1);
+                checksum += readFunctions.date.readLong(resultSet, 2);
+                checksum += readFunctions.time.readLong(resultSet, 3);
+                if (!readFunctions.decimal.isNull(resultSet, 4)) {
+                    checksum += readFunctions.decimal.readLong(resultSet, 4);
+                }
+            }
+        }
+        return checksum;
+    }
+
+    private static class ReadFunctions
+    {
+        private final LongReadFunction timestamp = timestampReadFunction(createTimestampType(6));
+        private final LongReadFunction date = dateReadFunction();
+        private final LongReadFunction time = timeReadFunction();
+        private final LongReadFunction decimal = shortDecimalReadFunction(createDecimalType(10, 4));
+    }
+
+    private static ResultSet resultSet(String value)
+    {
+        return (ResultSet) Proxy.newProxyInstance(TestDB2ColumnMappings.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getString")) {
+                return value;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
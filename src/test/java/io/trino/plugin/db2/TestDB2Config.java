@@ -14,6 +14,9 @@
 package io.trino.plugin.db2;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.trino.plugin.db2.DB2Config.ConcurrentAccessResolution;
 import org.testng.annotations.Test;
 
 import java.util.Map;
@@ -21,6 +24,12 @@ import java.util.Map;
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class TestDB2Config
 {
@@ -29,7 +38,58 @@ public class TestDB2Config
     {
         assertRecordedDefaults(recordDefaults(DB2Config.class)
                 .setVarcharMaxLength(32672)
-                .setApiKey(null));
+                .setApiKey(null)
+                .setSplitCount(1)
+                .setTargetSplitSize(DataSize.of(128, MEGABYTE))
+                .setDatabasePartitionSplitsEnabled(false)
+                .setPartitionMapCacheTtl(new Duration(10, MINUTES))
+                .setStatisticsCacheTtl(new Duration(10, MINUTES))
+                .setSchemasCacheTtl(new Duration(0, SECONDS))
+                .setTablesCacheTtl(new Duration(0, SECONDS))
+                .setColumnsCacheTtl(new Duration(0, SECONDS))
+                .setMetadataCacheMissing(false)
+                .setMetadataCacheMaximumSize(10_000)
+                .setWriteCommitInterval(0)
+                .setMultiRowInsertEnabled(true)
+                .setAtomicMultiRowInsert(false)
+                .setBulkLoadEnabled(false)
+                .setBulkLoadStagingDirectory(null)
+                .setBulkLoadServerStagingDirectory(null)
+                .setBulkLoadNonrecoverable(true)
+                .setFetchTargetSize(DataSize.of(1, MEGABYTE))
+                .setFetchSize(0)
+                .setPrefetchEnabled(false)
+                .setPrefetchMaxBufferedPages(4)
+                .setPrefetchThreads(Runtime.getRuntime().availableProcessors())
+                .setDynamicFilteringEnabled(true)
+                .setDynamicFilteringWaitTimeout(new Duration(10, SECONDS))
+                .setLobMaxValueSize(DataSize.of(16, MEGABYTE))
+                .setLobProgressiveStreaming(true)
+                .setLobStreamBufferSize(DataSize.of(1, MEGABYTE))
+                .setScanCacheTables("")
+                .setScanCacheTtl(new Duration(10, MINUTES))
+                .setScanCacheMaxSize(DataSize.of(256, MEGABYTE))
+                .setScanCacheMaxEntrySize(DataSize.of(16, MEGABYTE))
+                .setScanCacheVersionCheckInterval(new Duration(1, MINUTES))
+                .setDeleteChunkSize(0)
+                .setTableSamplePushdownEnabled(true)
+                .setMqtRoutingEnabled(false)
+                .setMqtRoutingMaxStaleness(new Duration(1, HOURS))
+                .setMqtRoutingCacheTtl(new Duration(1, MINUTES))
+                .setExplainStatisticsEnabled(false)
+                .setExplainStatisticsSchema("SYSTOOLS")
+                .setExplainStatisticsTimeout(new Duration(2, SECONDS))
+                .setExplainStatisticsCacheTtl(new Duration(10, MINUTES))
+                .setReadIsolation(DB2IsolationLevel.UR)
+                .setConcurrentAccessResolution(ConcurrentAccessResolution.DATABASE_DEFAULT)
+                .setConnectionPoolEnabled(false)
+                .setConnectionPoolMaxSize(30)
+                .setConnectionPoolMaxConnectionLifetime(new Duration(30, MINUTES))
+                .setConnectionPoolIdleTimeout(new Duration(10, MINUTES))
+                .setConnectionPoolAcquireTimeout(new Duration(30, SECONDS))
+                .setReadEndpoints("")
+                .setReadEndpointsFailureThreshold(3)
+                .setReadEndpointsRetryDelay(new Duration(30, SECONDS)));
     }
 
     @Test
@@ -41,11 +101,113 @@ public class TestDB2Config
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("db2.varchar-max-length", String.valueOf(testVarcharLength))
                 .put("db2.iam-api-key", testApiKey)
+                .put("db2.split-count", "16")
+                .put("db2.target-split-size", "512MB")
+                .put("db2.database-partition-splits.enabled", "true")
+                .put("db2.partition-map-cache-ttl", "1h")
+                .put("db2.statistics-cache-ttl", "5m")
+                .put("db2.schemas-cache-ttl", "1h")
+                .put("db2.tables-cache-ttl", "10m")
+                .put("db2.columns-cache-ttl", "2m")
+                .put("db2.metadata-cache-missing", "true")
+                .put("db2.metadata-cache-maximum-size", "500")
+                .put("db2.write.commit-interval", "100000")
+                .put("db2.multi-row-insert.enabled", "false")
+                .put("db2.multi-row-insert.atomic", "true")
+                .put("db2.bulk-load.enabled", "true")
+                .put("db2.bulk-load.staging-directory", "/mnt/db2load")
+                .put("db2.bulk-load.server-staging-directory", "/db2/load")
+                .put("db2.bulk-load.nonrecoverable", "false")
+                .put("db2.fetch.target-size", "4MB")
+                .put("db2.fetch.size", "1000")
+                .put("db2.prefetch.enabled", "true")
+                .put("db2.prefetch.max-buffered-pages", "16")
+                .put("db2.prefetch.threads", "3")
+                .put("db2.dynamic-filtering.enabled", "false")
+                .put("db2.dynamic-filtering.wait-timeout", "1m")
+                .put("db2.lob.max-value-size", "64MB")
+                .put("db2.lob.progressive-streaming", "false")
+                .put("db2.lob.stream-buffer-size", "256kB")
+                .put("db2.scan-cache.tables", "ref.currency, ref.org_unit")
+                .put("db2.scan-cache.ttl", "1h")
+                .put("db2.scan-cache.max-size", "1GB")
+                .put("db2.scan-cache.max-entry-size", "64MB")
+                .put("db2.scan-cache.version-check-interval", "30s")
+                .put("db2.delete.chunk-size", "10000")
+                .put("db2.table-sample-pushdown.enabled", "false")
+                .put("db2.mqt-routing.enabled", "true")
+                .put("db2.mqt-routing.max-staleness", "15m")
+                .put("db2.mqt-routing.cache-ttl", "30s")
+                .put("db2.explain-statistics.enabled", "true")
+                .put("db2.explain-statistics.schema", "DB2INST1")
+                .put("db2.explain-statistics.timeout", "5s")
+                .put("db2.explain-statistics.cache-ttl", "1h")
+                .put("db2.read-isolation", "CS")
+                .put("db2.concurrent-access-resolution", "USE_CURRENTLY_COMMITTED")
+                .put("db2.connection-pool.enabled", "true")
+                .put("db2.connection-pool.max-size", "50")
+                .put("db2.connection-pool.max-connection-lifetime", "2h")
+                .put("db2.connection-pool.idle-timeout", "1m")
+                .put("db2.connection-pool.acquire-timeout", "5s")
+                .put("db2.read-endpoints", "jdbc:db2://standby:50000/sample, jdbc:db2://member2:50000/sample")
+                .put("db2.read-endpoints.failure-threshold", "5")
+                .put("db2.read-endpoints.retry-delay", "1m")
                 .build();
 
         DB2Config expected = new DB2Config()
                 .setVarcharMaxLength(testVarcharLength)
-                .setApiKey(testApiKey);
+                .setApiKey(testApiKey)
+                .setSplitCount(16)
+                .setTargetSplitSize(DataSize.of(512, MEGABYTE))
+                .setDatabasePartitionSplitsEnabled(true)
+                .setPartitionMapCacheTtl(new Duration(60, MINUTES))
+                .setStatisticsCacheTtl(new Duration(5, MINUTES))
+                .setSchemasCacheTtl(new Duration(60, MINUTES))
+                .setTablesCacheTtl(new Duration(10, MINUTES))
+                .setColumnsCacheTtl(new Duration(2, MINUTES))
+                .setMetadataCacheMissing(true)
+                .setMetadataCacheMaximumSize(500)
+                .setWriteCommitInterval(100000)
+                .setMultiRowInsertEnabled(false)
+                .setAtomicMultiRowInsert(true)
+                .setBulkLoadEnabled(true)
+                .setBulkLoadStagingDirectory("/mnt/db2load")
+                .setBulkLoadServerStagingDirectory("/db2/load")
+                .setBulkLoadNonrecoverable(false)
+                .setFetchTargetSize(DataSize.of(4, MEGABYTE))
+                .setFetchSize(1000)
+                .setPrefetchEnabled(true)
+                .setPrefetchMaxBufferedPages(16)
+                .setPrefetchThreads(3)
+                .setDynamicFilteringEnabled(false)
+                .setDynamicFilteringWaitTimeout(new Duration(1, MINUTES))
+                .setLobMaxValueSize(DataSize.of(64, MEGABYTE))
+                .setLobProgressiveStreaming(false)
+                .setLobStreamBufferSize(DataSize.of(256, KILOBYTE))
+                .setScanCacheTables("ref.currency,ref.org_unit")
+                .setScanCacheTtl(new Duration(60, MINUTES))
+                .setScanCacheMaxSize(DataSize.of(1, GIGABYTE))
+                .setScanCacheMaxEntrySize(DataSize.of(64, MEGABYTE))
+                .setScanCacheVersionCheckInterval(new Duration(30, SECONDS))
+                .setDeleteChunkSize(10000)
+                .setTableSamplePushdownEnabled(false)
+                .setMqtRoutingEnabled(true)
+                .setMqtRoutingMaxStaleness(new Duration(15, MINUTES))
+                .setMqtRoutingCacheTtl(new Duration(30, SECONDS))
+                .setExplainStatisticsEnabled(true)
+                .setExplainStatisticsSchema("DB2INST1")
+                .setExplainStatisticsTimeout(new Duration(5, SECONDS))
+                .setExplainStatisticsCacheTtl(new Duration(1, HOURS))
+                .setReadIsolation(DB2IsolationLevel.CS)
+                .setConcurrentAccessResolution(ConcurrentAccessResolution.USE_CURRENTLY_COMMITTED)
+                .setConnectionPoolEnabled(true)
+                .setConnectionPoolMaxSize(50)
+                .setConnectionPoolMaxConnectionLifetime(new Duration(120, MINUTES))
+                .setConnectionPoolIdleTimeout(new Duration(1, MINUTES))
+                .setConnectionPoolAcquireTimeout(new Duration(5, SECONDS))
+                .setReadEndpoints("jdbc:db2://standby:50000/sample,jdbc:db2://member2:50000/sample")
+                .setReadEndpointsFailureThreshold(5)
+                .setReadEndpointsRetryDelay(new Duration(1, MINUTES));
 
         assertFullMapping(properties, expected);
     }
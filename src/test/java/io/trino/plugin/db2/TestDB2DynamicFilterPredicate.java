@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.plugin.jdbc.BaseJdbcConfig;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcTypeHandle;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.Range;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.predicate.ValueSet;
+import io.trino.spi.type.Int128;
+import org.testng.annotations.Test;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static io.trino.spi.type.DoubleType.DOUBLE;
+import static io.trino.spi.type.VarcharType.VARCHAR;
+import static io.trino.testing.TestingConnectorSession.SESSION;
+import static java.time.ZoneOffset.UTC;
+import static org.testng.Assert.assertEquals;
+
+public class TestDB2DynamicFilterPredicate
+{
+    private static final JdbcColumnHandle BIGINT_COLUMN = column("c_bigint");
+    private static final DB2Client CLIENT = TestDB2Client.createClient(
+            new BaseJdbcConfig().setJdbcTypesMappedToVarchar("XML"),
+            new DB2Config(),
+            session -> {
+                throw new UnsupportedOperationException();
+            });
+
+    @Test
+    public void testIntegers()
+    {
+        assertPredicate(BIGINT_COLUMN, Domain.singleValue(BIGINT, 7L), "\"c_bigint\" = 7");
+        assertPredicate(BIGINT_COLUMN, Domain.multipleValues(BIGINT, List.of(3L, 1L, 2L)), "\"c_bigint\" IN (1, 2, 3)");
+        assertPredicate(BIGINT_COLUMN, Domain.create(ValueSet.ofRanges(Range.greaterThan(BIGINT, 5L)), false), "\"c_bigint\" > 5");
+        assertPredicate(
+                BIGINT_COLUMN,
+                Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 1L, true, 10L, false), Range.equal(BIGINT, 20L)), true),
+                "((\"c_bigint\" >= 1 AND \"c_bigint\" < 10) OR \"c_bigint\" = 20 OR \"c_bigint\" IS NULL)");
+        assertPredicate(BIGINT_COLUMN, Domain.onlyNull(BIGINT), "\"c_bigint\" IS NULL");
+        assertPredicate(BIGINT_COLUMN, Domain.notNull(BIGINT), "\"c_bigint\" IS NOT NULL");
+    }
+
+    @Test
+    public void testCompaction()
+    {
+        TupleDomain<ColumnHandle> dynamicFilter = TupleDomain.withColumnDomains(ImmutableMap.of(
+                BIGINT_COLUMN,
+                Domain.multipleValues(BIGINT, List.of(1L, 5L, 9L))));
+        assertEquals(toPredicate(dynamicFilter, 32), Optional.of("\"c_bigint\" IN (1, 5, 9)"));
+        assertEquals(toPredicate(dynamicFilter, 2), Optional.of("(\"c_bigint\" >= 1 AND \"c_bigint\" <= 9)"));
+    }
+
+    @Test
+    public void testLiterals()
+    {
+        JdbcColumnHandle decimal = column("c_decimal");
+        assertPredicate(decimal, Domain.singleValue(decimal.getColumnType(), -12345L), "\"c_decimal\" = -123.45");
+        JdbcColumnHandle longDecimal = column("c_decimal_max");
+        assertPredicate(longDecimal, Domain.singleValue(longDecimal.getColumnType(), Int128.valueOf(123456789L)), "\"c_decimal_max\" = 12345.6789");
+        JdbcColumnHandle date = column("c_date");
+        assertPredicate(
+                date,
+                Domain.singleValue(date.getColumnType(), LocalDate.of(2021, 3, 4).toEpochDay()),
+                "\"c_date\" = DATE('2021-03-04')");
+        JdbcColumnHandle timestamp = column("c_timestamp");
+        assertPredicate(
+                timestamp,
+                Domain.singleValue(timestamp.getColumnType(), LocalDateTime.of(2021, 3, 4, 13, 45, 30).toEpochSecond(UTC) * 1_000_000 + 123_456),
+                "\"c_timestamp\" = TIMESTAMP('2021-03-04-13.45.30.123456')");
+        JdbcColumnHandle varchar = column("c_varchar");
+        assertPredicate(
+                varchar,
+                Domain.multipleValues(varchar.getColumnType(), List.of(utf8Slice("it's"), utf8Slice("a"))),
+                "\"c_varchar\" IN ('a', 'it''s')");
+    }
+
+    @Test
+    public void testUnsupported()
+    {
+        JdbcColumnHandle varchar = column("c_varchar");
+        JdbcColumnHandle doubleColumn = column("c_double");
+        assertEquals(
+                toPredicate(TupleDomain.withColumnDomains(ImmutableMap.of(
+                        varchar, Domain.create(ValueSet.ofRanges(Range.greaterThan(varchar.getColumnType(), utf8Slice("m"))), false),
+                        doubleColumn, Domain.singleValue(DOUBLE, 1.5))), 32),
+                Optional.empty());
+        assertEquals(
+                toPredicate(TupleDomain.withColumnDomains(ImmutableMap.of(
+                        doubleColumn, Domain.singleValue(DOUBLE, 1.5),
+                        BIGINT_COLUMN, Domain.singleValue(BIGINT, 1L))), 32),
+                Optional.of("\"c_bigint\" = 1"));
+        JdbcColumnHandle clob = column("c_clob");
+        assertEquals(
+                toPredicate(TupleDomain.withColumnDomains(ImmutableMap.of(clob, Domain.singleValue(clob.getColumnType(), utf8Slice("a")))), 32),
+                Optional.empty());
+        // XML values mapped to varchar are not comparable in Db2
+        JdbcColumnHandle xml = JdbcColumnHandle.builder()
+                .setColumnName("c_xml")
+                .setColumnType(VARCHAR)
+                .setJdbcTypeHandle(new JdbcTypeHandle(Types.SQLXML, Optional.of("XML"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()))
+                .build();
+        assertEquals(
+                toPredicate(TupleDomain.withColumnDomains(ImmutableMap.of(
+                        xml, Domain.singleValue(VARCHAR, utf8Slice("<a/>")),
+                        BIGINT_COLUMN, Domain.singleValue(BIGINT, 1L))), 32),
+                Optional.of("\"c_bigint\" = 1"));
+        assertEquals(toPredicate(TupleDomain.none(), 32), Optional.of("1 = 0"));
+        assertEquals(toPredicate(TupleDomain.all(), 32), Optional.empty());
+    }
+
+    private static Optional<String> toPredicate(TupleDomain<ColumnHandle> dynamicFilter, int domainCompactionThreshold)
+    {
+        return DB2DynamicFilterPredicate.toPredicate(dynamicFilter, domainCompactionThreshold, column -> CLIENT.isFullPushdown(SESSION, column));
+    }
+
+    private static void assertPredicate(JdbcColumnHandle column, Domain domain, String expected)
+    {
+        assertEquals(toPredicate(TupleDomain.withColumnDomains(ImmutableMap.of(column, domain)), 32), Optional.of(expected));
+    }
+}
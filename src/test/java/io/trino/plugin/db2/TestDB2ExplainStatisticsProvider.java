@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.units.Duration;
+import io.trino.spi.statistics.Estimate;
+import io.trino.spi.statistics.TableStatistics;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2ExplainStatisticsProvider
+{
+    private static final String QUERY = "SELECT \"C_BIGINT\" FROM \"SALES\".\"ORDERS\" WHERE \"C_BIGINT\" > ?";
+
+    @Test
+    public void testCachedRowCount()
+    {
+        DB2ExplainStatisticsProvider provider = new DB2ExplainStatisticsProvider(true, "SYSTOOLS", new Duration(2, SECONDS), new Duration(10, MINUTES));
+        AtomicInteger loads = new AtomicInteger();
+        DB2ExplainStatisticsProvider.RowCountLoader loader = query -> {
+            loads.incrementAndGet();
+            return OptionalDouble.of(1234);
+        };
+
+        assertEquals(provider.getTableStatistics(QUERY, loader).getRowCount(), Estimate.of(1234));
+        assertEquals(provider.getTableStatistics(QUERY, loader).getRowCount(), Estimate.of(1234));
+        assertEquals(loads.get(), 1);
+        provider.getTableStatistics(QUERY + " AND \"C_BIGINT\" < ?", loader);
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void testFailedExplain()
+    {
+        DB2ExplainStatisticsProvider provider = new DB2ExplainStatisticsProvider(true, "SYSTOOLS", new Duration(2, SECONDS), new Duration(10, MINUTES));
+        AtomicInteger loads = new AtomicInteger();
+        DB2ExplainStatisticsProvider.RowCountLoader loader = query -> {
+            loads.incrementAndGet();
+            throw new SQLException("The explain tables are not defined", "42704");
+        };
+
+        // a failure is cached as unknown rather than retried by every planned query
+        assertEquals(provider.getTableStatistics(QUERY, loader), TableStatistics.empty());
+        assertEquals(provider.getTableStatistics(QUERY, loader), TableStatistics.empty());
+        assertEquals(loads.get(), 1);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        DB2ExplainStatisticsProvider provider = new DB2ExplainStatisticsProvider(new DB2Config());
+        assertEquals(provider.getTableStatistics(QUERY, query -> {
+            throw new UnsupportedOperationException();
+        }), TableStatistics.empty());
+    }
+
+    @Test
+    public void testExplainRowCount()
+            throws SQLException
+    {
+        List<String> statements = new ArrayList<>();
+        List<Object> deleteParameters = new ArrayList<>();
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "createStatement":
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Statement.class}, (statement, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().equals("execute")) {
+                            statements.add((String) statementArgs[0]);
+                            return false;
+                        }
+                        return null;
+                    });
+                case "prepareStatement":
+                    String sql = (String) args[0];
+                    statements.add(sql);
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class}, (statement, statementMethod, statementArgs) -> {
+                        switch (statementMethod.getName()) {
+                            case "executeQuery":
+                                return new InMemoryResultSet(new Object[][] {{42.5, "2021-03-04 13:45:30.123456", "SQLC2P31", "DB2INST1", ""}});
+                            case "executeUpdate":
+                                return 1;
+                            case "setTimestamp":
+                            case "setString":
+                                if (sql.startsWith("DELETE")) {
+                                    deleteParameters.add(statementArgs[1]);
+                                }
+                                return null;
+                        }
+                        return null;
+                    });
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        DB2ExplainStatisticsProvider provider = new DB2ExplainStatisticsProvider(true, "DB2INST1", new Duration(2, SECONDS), new Duration(10, MINUTES));
+        assertEquals(provider.explainRowCount(connection, QUERY), OptionalDouble.of(42.5));
+
+        assertEquals(statements.size(), 3);
+        assertTrue(statements.get(0).matches("EXPLAIN PLAN SET QUERYNO = \\d+ FOR \\Q" + QUERY + "\\E"), statements.get(0));
+        assertTrue(statements.get(1).contains("FROM DB2INST1.EXPLAIN_STATEMENT T JOIN DB2INST1.EXPLAIN_STREAM S"), statements.get(1));
+        assertTrue(statements.get(2).startsWith("DELETE FROM DB2INST1.EXPLAIN_INSTANCE"), statements.get(2));
+        // the explain instance read is the one deleted
+        assertEquals(deleteParameters.size(), 4);
+        assertEquals(deleteParameters.get(0).toString(), "2021-03-04 13:45:30.123456");
+        assertEquals(deleteParameters.subList(1, 4), List.of("SQLC2P31", "DB2INST1", ""));
+    }
+}
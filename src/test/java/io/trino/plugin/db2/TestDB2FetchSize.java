@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.trino.plugin.db2.DB2FetchSize.MAX_FETCH_SIZE;
+import static io.trino.plugin.db2.DB2FetchSize.MIN_FETCH_SIZE;
+import static io.trino.plugin.db2.DB2FetchSize.estimateRowSize;
+import static io.trino.plugin.db2.DB2FetchSize.fetchSize;
+import static io.trino.plugin.db2.DB2FetchSize.getFetchSize;
+import static io.trino.plugin.db2.DB2FetchSize.queryDataSize;
+import static io.trino.plugin.db2.DB2SessionProperties.FETCH_SIZE;
+import static io.trino.plugin.db2.DB2SessionProperties.FETCH_TARGET_SIZE;
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static org.testng.Assert.assertEquals;
+
+public class TestDB2FetchSize
+{
+    @Test
+    public void testEstimateRowSize()
+    {
+        assertEquals(estimateRowSize(ImmutableList.of()), 0);
+        assertEquals(estimateRowSize(ImmutableList.of(column("c_bigint"))), 9);
+        assertEquals(estimateRowSize(ImmutableList.of(column("c_bigint"), column("c_varchar"), column("c_timestamp"))), 9 + 103 + 27);
+    }
+
+    @Test
+    public void testFetchSize()
+    {
+        assertEquals(fetchSize(DataSize.of(1, MEGABYTE), 1024), 1024);
+        assertEquals(fetchSize(DataSize.of(1, MEGABYTE), 0), MAX_FETCH_SIZE);
+        assertEquals(fetchSize(DataSize.of(1, MEGABYTE), 9), MAX_FETCH_SIZE);
+        assertEquals(fetchSize(DataSize.of(64, KILOBYTE), 32_768), MIN_FETCH_SIZE);
+    }
+
+    @Test
+    public void testSessionProperties()
+    {
+        assertEquals(getFetchSize(session(ImmutableMap.of()), ImmutableList.of(column("c_varchar"))), MAX_FETCH_SIZE);
+        assertEquals(getFetchSize(session(ImmutableMap.of(FETCH_TARGET_SIZE, "103kB")), ImmutableList.of(column("c_varchar"))), 1024);
+        assertEquals(getFetchSize(session(ImmutableMap.of(FETCH_SIZE, 50)), ImmutableList.of(column("c_varchar"))), 50);
+    }
+
+    @Test
+    public void testQueryDataSize()
+    {
+        assertEquals(queryDataSize(DataSize.of(1, KILOBYTE)), 32_767);
+        assertEquals(queryDataSize(DataSize.of(1, MEGABYTE)), 1_048_576);
+        assertEquals(queryDataSize(DataSize.of(64, MEGABYTE)), 10_485_760);
+    }
+
+    private static ConnectorSession session(Map<String, Object> properties)
+    {
+        return TestingConnectorSession.builder()
+                .setPropertyMetadata(new DB2SessionProperties(new DB2Config()).getSessionProperties())
+                .setPropertyValues(properties)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import io.airlift.units.DataSize;
+import io.trino.spi.TrinoException;
+import org.testng.annotations.Test;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.trino.plugin.db2.DB2LobColumnMappings.blobReadFunction;
+import static io.trino.plugin.db2.DB2LobColumnMappings.clobReadFunction;
+import static io.trino.plugin.db2.DB2LobColumnMappings.readBytes;
+import static io.trino.plugin.db2.DB2LobColumnMappings.readUtf8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2LobColumnMappings
+{
+    @Test
+    public void testReadUtf8()
+            throws IOException
+    {
+        assertEquals(readUtf8(new StringReader(""), 10), EMPTY_SLICE);
+        assertEquals(readUtf8(new StringReader("abc"), 10), utf8Slice("abc"));
+        // multi-byte characters and surrogate pairs on both sides of the chunk boundaries
+        for (int offset = 8185; offset < 8195; offset++) {
+            String value = "a".repeat(offset) + "\u00e9\u20ac\ud83d\ude00" + "\ud83d\ude00".repeat(5000);
+            assertEquals(readUtf8(new StringReader(value), Long.MAX_VALUE), utf8Slice(value));
+        }
+        // an unpaired surrogate is replaced
+        assertEquals(readUtf8(new StringReader("a\ud83d"), 10), utf8Slice("a?"));
+    }
+
+    @Test(expectedExceptions = TrinoException.class, expectedExceptionsMessageRegExp = "LOB value exceeds the maximum size of 1kB.*")
+    public void testReadUtf8TooLarge()
+            throws IOException
+    {
+        readUtf8(new StringReader("\u00e9".repeat(513)), 1024);
+    }
+
+    @Test
+    public void testReadBytes()
+            throws IOException
+    {
+        byte[] value = new byte[20_000];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) i;
+        }
+        assertEquals(readBytes(new ByteArrayInputStream(value), value.length), wrappedBuffer(value));
+        assertEquals(readBytes(new ByteArrayInputStream(new byte[0]), 0), EMPTY_SLICE);
+    }
+
+    @Test(expectedExceptions = TrinoException.class)
+    public void testReadBytesTooLarge()
+            throws IOException
+    {
+        readBytes(new ByteArrayInputStream(new byte[1025]), 1024);
+    }
+
+    @Test
+    public void testReadFunctions()
+            throws SQLException
+    {
+        DataSize maxValueSize = DataSize.of(1, KILOBYTE);
+        assertEquals(clobReadFunction(maxValueSize).readSlice(resultSet(new SerialClob("text".toCharArray())), 1), utf8Slice("text"));
+        assertEquals(clobReadFunction(maxValueSize).readSlice(resultSet(null), 1), EMPTY_SLICE);
+        assertTrue(clobReadFunction(maxValueSize).isNull(resultSet(null), 1));
+        assertFalse(clobReadFunction(maxValueSize).isNull(resultSet(new SerialClob("text".toCharArray())), 1));
+        assertEquals(blobReadFunction(maxValueSize).readSlice(resultSet(new SerialBlob(new byte[] {1, 2, 3})), 1), wrappedBuffer(new byte[] {1, 2, 3}));
+        assertEquals(blobReadFunction(maxValueSize).readSlice(resultSet(null), 1), EMPTY_SLICE);
+    }
+
+    private static ResultSet resultSet(Object value)
+    {
+        return (ResultSet) Proxy.newProxyInstance(TestDB2LobColumnMappings.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getClob":
+                case "getBlob":
+                case "getObject":
+                    return value;
+                case "wasNull":
+                    return value == null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import io.airlift.units.Duration;
+import io.trino.plugin.db2.DB2MaterializedQueryTableCache.MaterializedQueryTable;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.connector.SchemaTableName;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2MaterializedQueryTableCache
+{
+    private static final SchemaTableName ORDERS = new SchemaTableName("sales", "orders");
+    private static final SchemaTableName CUSTOMERS = new SchemaTableName("sales", "customers");
+    private static final SchemaTableName REGIONS = new SchemaTableName("sales", "regions");
+    private static final Duration MAX_STALENESS = new Duration(10, MINUTES);
+
+    @Test
+    public void testRefreshAge()
+            throws SQLException
+    {
+        TestingTicker ticker = new TestingTicker();
+        DB2MaterializedQueryTableCache cache = new DB2MaterializedQueryTableCache(new Duration(1, HOURS), ticker);
+        AtomicInteger loads = new AtomicInteger();
+        Map<SchemaTableName, List<MaterializedQueryTable>> materializedQueryTables = Map.of(
+                ORDERS, List.of(materializedQueryTable("ORDERS_BY_DAY", OptionalLong.of(60))),
+                CUSTOMERS, List.of(),
+                REGIONS, List.of(materializedQueryTable("REGIONS_SUMMARY", OptionalLong.empty())));
+        DB2MaterializedQueryTableCache.MaterializedQueryTableLoader loader = table -> {
+            loads.incrementAndGet();
+            return materializedQueryTables.get(table);
+        };
+
+        assertTrue(cache.isRoutable(Set.of(ORDERS), MAX_STALENESS, loader));
+        assertTrue(cache.isRoutable(Set.of(ORDERS, CUSTOMERS), MAX_STALENESS, loader));
+        assertEquals(loads.get(), 2);
+        // tables without MQTs are not routed
+        assertFalse(cache.isRoutable(Set.of(CUSTOMERS), MAX_STALENESS, loader));
+        // Db2 would route to MQTs never refreshed
+        assertFalse(cache.isRoutable(Set.of(ORDERS, REGIONS), MAX_STALENESS, loader));
+        assertEquals(loads.get(), 3);
+
+        // the MQT gets older while it is cached
+        ticker.advance(9, MINUTES);
+        assertTrue(cache.isRoutable(Set.of(ORDERS), MAX_STALENESS, loader));
+        ticker.advance(1, MINUTES);
+        assertFalse(cache.isRoutable(Set.of(ORDERS), MAX_STALENESS, loader));
+        assertTrue(cache.isRoutable(Set.of(ORDERS), new Duration(1, HOURS), loader));
+        assertEquals(loads.get(), 3);
+
+        // read again when the entry expires
+        ticker.advance(1, HOURS);
+        assertTrue(cache.isRoutable(Set.of(ORDERS), MAX_STALENESS, loader));
+        assertEquals(loads.get(), 4);
+    }
+
+    private static MaterializedQueryTable materializedQueryTable(String name, OptionalLong refreshAgeSeconds)
+    {
+        return new MaterializedQueryTable(new RemoteTableName(Optional.empty(), Optional.of("SALES"), name), refreshAgeSeconds);
+    }
+
+    private static class TestingTicker
+            extends Ticker
+    {
+        private final AtomicLong time = new AtomicLong();
+
+        @Override
+        public long read()
+        {
+            return time.get();
+        }
+
+        public void advance(long value, TimeUnit unit)
+        {
+            time.addAndGet(unit.toNanos(value));
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import io.airlift.units.Duration;
+import io.trino.plugin.jdbc.JdbcClient;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.TrinoException;
+import io.trino.spi.connector.ColumnMetadata;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.security.ConnectorIdentity;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.reflect.Reflection.newProxy;
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.testng.Assert.assertEquals;
+
+public class TestDB2MetadataCachingClient
+{
+    private static final SchemaTableName ORDERS = new SchemaTableName("sales", "orders");
+    private static final SchemaTableName CUSTOMERS = new SchemaTableName("sales", "customers");
+    private static final SchemaTableName MISSING = new SchemaTableName("sales", "missing");
+    private static final RemoteTableName REMOTE_ORDERS = new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS");
+    private static final JdbcTableHandle ORDERS_HANDLE = new JdbcTableHandle(ORDERS, REMOTE_ORDERS, Optional.empty());
+    private static final JdbcTableHandle CUSTOMERS_HANDLE = new JdbcTableHandle(
+            CUSTOMERS,
+            new RemoteTableName(Optional.empty(), Optional.of("SALES"), "CUSTOMERS"),
+            Optional.empty());
+
+    private static final ConnectorSession ALICE = TestingConnectorSession.builder()
+            .setIdentity(ConnectorIdentity.ofUser("alice"))
+            .build();
+    private static final ConnectorSession BOB = TestingConnectorSession.builder()
+            .setIdentity(ConnectorIdentity.ofUser("bob"))
+            .build();
+
+    private static final DB2Config CACHING_CONFIG = new DB2Config()
+            .setSchemasCacheTtl(new Duration(1, HOURS))
+            .setTablesCacheTtl(new Duration(1, HOURS))
+            .setColumnsCacheTtl(new Duration(1, HOURS));
+
+    @Test
+    public void testCachedPerUser()
+    {
+        Multiset<String> calls = ConcurrentHashMultiset.create();
+        DB2MetadataCachingClient client = createCachingClient(CACHING_CONFIG, calls);
+
+        assertEquals(client.getSchemaNames(ALICE), ImmutableSet.of("sales"));
+        assertEquals(client.getSchemaNames(ALICE), ImmutableSet.of("sales"));
+        assertEquals(calls.count("getSchemaNames"), 1);
+        client.getSchemaNames(BOB);
+        assertEquals(calls.count("getSchemaNames"), 2);
+
+        assertEquals(client.getTableNames(ALICE, Optional.of("sales")), ImmutableList.of(ORDERS, CUSTOMERS));
+        client.getTableNames(ALICE, Optional.of("sales"));
+        assertEquals(calls.count("getTableNames"), 1);
+
+        assertEquals(client.getTableHandle(ALICE, ORDERS), Optional.of(ORDERS_HANDLE));
+        client.getTableHandle(ALICE, ORDERS);
+        assertEquals(calls.count("getTableHandle"), 1);
+
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        assertEquals(calls.count("getColumns"), 1);
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        Multiset<String> calls = ConcurrentHashMultiset.create();
+        DB2MetadataCachingClient client = createCachingClient(new DB2Config(), calls);
+
+        client.getSchemaNames(ALICE);
+        client.getSchemaNames(ALICE);
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        assertEquals(calls.count("getSchemaNames"), 2);
+        assertEquals(calls.count("getColumns"), 2);
+    }
+
+    @Test
+    public void testCacheMissing()
+    {
+        Multiset<String> calls = ConcurrentHashMultiset.create();
+        DB2MetadataCachingClient client = createCachingClient(CACHING_CONFIG, calls);
+        assertEquals(client.getTableHandle(ALICE, MISSING), Optional.empty());
+        client.getTableHandle(ALICE, MISSING);
+        assertEquals(calls.count("getTableHandle"), 2);
+
+        calls.clear();
+        client = createCachingClient(new DB2Config()
+                .setTablesCacheTtl(new Duration(1, HOURS))
+                .setMetadataCacheMissing(true), calls);
+        assertEquals(client.getTableHandle(ALICE, MISSING), Optional.empty());
+        client.getTableHandle(ALICE, MISSING);
+        assertEquals(calls.count("getTableHandle"), 1);
+    }
+
+    @Test
+    public void testDdlInvalidatesAffectedTable()
+            throws Exception
+    {
+        Multiset<String> calls = ConcurrentHashMultiset.create();
+        AtomicInteger statisticsLoads = new AtomicInteger();
+        DB2StatisticsProvider statisticsProvider = new DB2StatisticsProvider(true, new Duration(1, HOURS));
+        DB2StatisticsProvider.StatisticsLoader statisticsLoader = table -> {
+            statisticsLoads.incrementAndGet();
+            return Optional.empty();
+        };
+        DB2MetadataCachingClient client = new DB2MetadataCachingClient(
+                countingClient(calls),
+                CACHING_CONFIG,
+                statisticsProvider,
+                new DB2PartitionMapCache(new Duration(1, HOURS), (connection, table) -> Optional.empty()));
+
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        client.getColumns(ALICE, CUSTOMERS_HANDLE);
+        client.getTableNames(ALICE, Optional.of("sales"));
+        statisticsProvider.getTableStatistics(REMOTE_ORDERS, ImmutableList.of(), statisticsLoader);
+        assertEquals(calls.count("getColumns"), 2);
+
+        client.addColumn(ALICE, ORDERS_HANDLE, new ColumnMetadata("c_new", BIGINT));
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        client.getColumns(ALICE, CUSTOMERS_HANDLE);
+        client.getTableNames(ALICE, Optional.of("sales"));
+        statisticsProvider.getTableStatistics(REMOTE_ORDERS, ImmutableList.of(), statisticsLoader);
+        assertEquals(calls.count("getColumns"), 3);
+        assertEquals(calls.count("getTableNames"), 2);
+        assertEquals(statisticsLoads.get(), 2);
+
+        client.renameTable(ALICE, CUSTOMERS_HANDLE, new SchemaTableName("sales", "clients"));
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        client.getColumns(ALICE, CUSTOMERS_HANDLE);
+        assertEquals(calls.count("getColumns"), 4);
+    }
+
+    @Test
+    public void testFlushProcedure()
+    {
+        Multiset<String> calls = ConcurrentHashMultiset.create();
+        DB2MetadataCachingClient client = createCachingClient(CACHING_CONFIG, calls);
+        AtomicInteger baseFlushes = new AtomicInteger();
+        DB2FlushMetadataCacheProcedure procedure = new DB2FlushMetadataCacheProcedure(client, baseFlushes::incrementAndGet);
+
+        client.getSchemaNames(ALICE);
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        client.getColumns(ALICE, CUSTOMERS_HANDLE);
+
+        procedure.flushMetadataCache("SALES", "ORDERS");
+        client.getSchemaNames(ALICE);
+        client.getColumns(ALICE, ORDERS_HANDLE);
+        client.getColumns(ALICE, CUSTOMERS_HANDLE);
+        assertEquals(calls.count("getSchemaNames"), 1);
+        assertEquals(calls.count("getColumns"), 3);
+        // the cache of base-jdbc is flushed as a whole
+        assertEquals(baseFlushes.get(), 1);
+
+        procedure.flushMetadataCache("sales", null);
+        client.getSchemaNames(ALICE);
+        client.getColumns(ALICE, CUSTOMERS_HANDLE);
+        assertEquals(calls.count("getSchemaNames"), 2);
+        assertEquals(calls.count("getColumns"), 4);
+
+        procedure.flushMetadataCache(null, null);
+        client.getSchemaNames(ALICE);
+        assertEquals(calls.count("getSchemaNames"), 3);
+        assertEquals(baseFlushes.get(), 3);
+    }
+
+    @Test
+    public void testInvalidationDuringLoad()
+    {
+        Multiset<String> calls = ConcurrentHashMultiset.create();
+        AtomicReference<DB2MetadataCachingClient> client = new AtomicReference<>();
+        JdbcClient countingClient = countingClient(calls);
+        // the DDL of another query completes while the columns are read
+        JdbcClient delegate = newProxy(JdbcClient.class, (proxy, method, args) -> {
+            Object result = method.invoke(countingClient, args);
+            if (method.getName().equals("getColumns") && calls.count("getColumns") == 1) {
+                client.get().addColumn(BOB, ORDERS_HANDLE, new ColumnMetadata("c_new", BIGINT));
+            }
+            return result;
+        });
+        client.set(new DB2MetadataCachingClient(
+                delegate,
+                CACHING_CONFIG,
+                new DB2StatisticsProvider(true, CACHING_CONFIG.getStatisticsCacheTtl()),
+                new DB2PartitionMapCache(CACHING_CONFIG.getPartitionMapCacheTtl(), (connection, table) -> Optional.empty())));
+
+        client.get().getColumns(ALICE, ORDERS_HANDLE);
+        client.get().getColumns(ALICE, ORDERS_HANDLE);
+        client.get().getColumns(ALICE, ORDERS_HANDLE);
+        // the columns read before the DDL are not cached
+        assertEquals(calls.count("getColumns"), 2);
+    }
+
+    @Test(expectedExceptions = TrinoException.class, expectedExceptionsMessageRegExp = "schema_name is required when table_name is set")
+    public void testFlushTableWithoutSchema()
+    {
+        new DB2FlushMetadataCacheProcedure(createCachingClient(CACHING_CONFIG, ConcurrentHashMultiset.create()), () -> {})
+                .flushMetadataCache(null, "orders");
+    }
+
+    private static DB2MetadataCachingClient createCachingClient(DB2Config config, Multiset<String> calls)
+    {
+        return new DB2MetadataCachingClient(
+                countingClient(calls),
+                config,
+                new DB2StatisticsProvider(true, config.getStatisticsCacheTtl()),
+                new DB2PartitionMapCache(config.getPartitionMapCacheTtl(), (connection, table) -> Optional.empty()));
+    }
+
+    // Stand-in for DB2Client, which counts the lookups of the Db2 catalog
+    private static JdbcClient countingClient(Multiset<String> calls)
+    {
+        return newProxy(JdbcClient.class, (proxy, method, args) -> {
+            calls.add(method.getName());
+            switch (method.getName()) {
+                case "getSchemaNames":
+                    return ImmutableSet.of("sales");
+                case "getTableNames":
+                    return ImmutableList.of(ORDERS, CUSTOMERS);
+                case "getTableHandle":
+                    return args[1].equals(ORDERS) ? Optional.of(ORDERS_HANDLE) : Optional.empty();
+                case "getColumns":
+                    return ImmutableList.of(column("c_bigint"));
+                default:
+                    return null;
+            }
+        });
+    }
+}
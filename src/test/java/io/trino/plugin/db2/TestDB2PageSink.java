@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.plugin.jdbc.JdbcOutputTableHandle;
+import io.trino.plugin.jdbc.JdbcWriteConfig;
+import io.trino.plugin.jdbc.JdbcWriteSessionProperties;
+import io.trino.spi.Page;
+import io.trino.spi.block.BlockBuilder;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.session.PropertyMetadata;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static io.trino.plugin.db2.DB2SessionProperties.WRITE_COMMIT_INTERVAL;
+import static io.trino.plugin.jdbc.JdbcWriteSessionProperties.WRITE_BATCH_SIZE;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+
+public class TestDB2PageSink
+{
+    private static final JdbcOutputTableHandle TABLE = new JdbcOutputTableHandle(
+            null,
+            "SALES",
+            "ORDERS",
+            ImmutableList.of("ORDER_ID"),
+            ImmutableList.of(BIGINT),
+            Optional.empty(),
+            "ORDERS");
+
+    @Test
+    public void testCommitInterval()
+            throws Exception
+    {
+        List<String> calls = writeRows(10, 2, 4);
+        assertEquals(calls, ImmutableList.of(
+                "prepareStatement INSERT INTO \"SALES\".\"ORDERS\" (\"ORDER_ID\") VALUES (?)",
+                "executeBatch 2",
+                "executeBatch 2",
+                "commit",
+                "executeBatch 2",
+                "executeBatch 2",
+                "commit",
+                "executeBatch 2",
+                "commit"));
+    }
+
+    @Test
+    public void testSingleCommit()
+            throws Exception
+    {
+        List<String> calls = writeRows(5, 2, 0);
+        assertEquals(calls, ImmutableList.of(
+                "prepareStatement INSERT INTO \"SALES\".\"ORDERS\" (\"ORDER_ID\") VALUES (?)",
+                "executeBatch 2",
+                "executeBatch 2",
+                "executeBatch 1",
+                "commit"));
+    }
+
+    private static List<String> writeRows(int rows, int batchSize, int commitInterval)
+    {
+        List<String> calls = new ArrayList<>();
+        DB2Config config = new DB2Config();
+        DB2Client client = TestDB2Client.createClient(config, session -> recordingConnection(calls));
+
+        ConnectorSession session = TestingConnectorSession.builder()
+                .setPropertyMetadata(ImmutableList.<PropertyMetadata<?>>builder()
+                        .addAll(new JdbcWriteSessionProperties(new JdbcWriteConfig()).getSessionProperties())
+                        .addAll(new DB2SessionProperties(config).getSessionProperties())
+                        .build())
+                .setPropertyValues(ImmutableMap.of(
+                        WRITE_BATCH_SIZE, batchSize,
+                        WRITE_COMMIT_INTERVAL, commitInterval))
+                .build();
+
+        DB2PageSink pageSink = new DB2PageSink(session, TABLE, client);
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, rows);
+        for (int row = 0; row < rows; row++) {
+            BIGINT.writeLong(blockBuilder, row);
+        }
+        pageSink.appendPage(new Page(blockBuilder.build()));
+        pageSink.finish();
+        return calls;
+    }
+
+    private static Connection recordingConnection(List<String> calls)
+    {
+        return (Connection) Proxy.newProxyInstance(TestDB2PageSink.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    calls.add("prepareStatement " + args[0]);
+                    return recordingStatement(calls);
+                case "commit":
+                    calls.add("commit");
+                    return null;
+                case "setAutoCommit":
+                case "close":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static PreparedStatement recordingStatement(List<String> calls)
+    {
+        int[] batchSize = new int[1];
+        return (PreparedStatement) Proxy.newProxyInstance(TestDB2PageSink.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setLong":
+                case "close":
+                    return null;
+                case "addBatch":
+                    batchSize[0]++;
+                    return null;
+                case "executeBatch":
+                    calls.add("executeBatch " + batchSize[0]);
+                    int[] result = new int[batchSize[0]];
+                    batchSize[0] = 0;
+                    return result;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
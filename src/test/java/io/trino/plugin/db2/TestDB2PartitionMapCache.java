@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import io.trino.plugin.db2.DB2PartitionMapCache.DatabasePartitionMap;
+import io.trino.plugin.jdbc.RemoteTableName;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.trino.plugin.db2.DB2SplitPlanner.databasePartitionPredicates;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestDB2PartitionMapCache
+{
+    private static final RemoteTableName FACT = new RemoteTableName(Optional.empty(), Optional.of("DWH"), "SALES_FACT");
+    private static final RemoteTableName DIMENSION = new RemoteTableName(Optional.empty(), Optional.of("DWH"), "CURRENCY");
+
+    // Stand-in for the SYSCAT catalog of a Db2 Warehouse with four database partitions
+    private static final Map<RemoteTableName, DatabasePartitionMap> CATALOG = ImmutableMap.of(
+            FACT, new DatabasePartitionMap("SALE_ID", ImmutableList.of(0, 1, 2, 3)),
+            DIMENSION, new DatabasePartitionMap("CODE", ImmutableList.of(0)));
+
+    @Test
+    public void testPartitionMap()
+            throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        DB2PartitionMapCache cache = new DB2PartitionMapCache(new Duration(1, HOURS), (connection, table) -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(CATALOG.get(table));
+        });
+
+        DatabasePartitionMap partitionMap = cache.getPartitionMap(null, FACT).orElseThrow();
+        assertEquals(
+                databasePartitionPredicates(partitionMap),
+                ImmutableList.of(
+                        "DBPARTITIONNUM(\"SALE_ID\") = 0",
+                        "DBPARTITIONNUM(\"SALE_ID\") = 1",
+                        "DBPARTITIONNUM(\"SALE_ID\") = 2",
+                        "DBPARTITIONNUM(\"SALE_ID\") = 3"));
+        assertEquals(loads.get(), 1);
+
+        cache.getPartitionMap(null, FACT);
+        assertEquals(loads.get(), 1);
+
+        cache.invalidate(FACT);
+        cache.getPartitionMap(null, FACT);
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void testSinglePartitionTable()
+            throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        DB2PartitionMapCache cache = new DB2PartitionMapCache(new Duration(1, HOURS), (connection, table) -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(CATALOG.get(table));
+        });
+
+        assertFalse(cache.getPartitionMap(null, DIMENSION).isPresent());
+        assertFalse(cache.getPartitionMap(null, DIMENSION).isPresent());
+        // tables on a single partition are cached as well
+        assertEquals(loads.get(), 1);
+    }
+}
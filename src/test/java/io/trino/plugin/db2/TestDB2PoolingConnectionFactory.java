@@ -0,0 +1,317 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import io.airlift.units.Duration;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.security.ConnectorIdentity;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.sql.Connection.TRANSACTION_READ_COMMITTED;
+import static java.sql.Connection.TRANSACTION_READ_UNCOMMITTED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2PoolingConnectionFactory
+{
+    private static final ConnectorSession ALICE = session(ConnectorIdentity.ofUser("alice"));
+    private static final ConnectorSession BOB = session(ConnectorIdentity.ofUser("bob"));
+
+    @Test
+    public void testReuse()
+            throws Exception
+    {
+        TestingConnections connections = new TestingConnections();
+        DB2ConnectionPoolStats stats = new DB2ConnectionPoolStats();
+        DB2PoolingConnectionFactory factory = new DB2PoolingConnectionFactory(connections::open, new DB2Config(), stats, new TestingTicker());
+
+        // connections keep the isolation level they are opened with
+        Connection first = factory.openConnection(ALICE);
+        assertEquals(first.getTransactionIsolation(), TRANSACTION_READ_COMMITTED);
+        first.close();
+        assertTrue(first.isClosed());
+        assertEquals(stats.getIdleConnections(), 1);
+
+        Connection second = factory.openConnection(ALICE);
+        assertEquals(connections.getOpened().size(), 1);
+        assertEquals(stats.getActiveConnections(), 1);
+        assertEquals(stats.getIdleConnections(), 0);
+
+        // connections are not shared between users
+        factory.openConnection(BOB).close();
+        assertEquals(connections.getOpened().size(), 2);
+
+        second.close();
+        factory.close();
+        assertTrue(connections.getOpened().stream().allMatch(TestingConnection::isClosed));
+    }
+
+    @Test
+    public void testResetOnRelease()
+            throws Exception
+    {
+        TestingConnections connections = new TestingConnections();
+        DB2PoolingConnectionFactory factory = new DB2PoolingConnectionFactory(connections::open, new DB2Config(), new DB2ConnectionPoolStats(), new TestingTicker());
+
+        Connection connection = factory.openConnection(ALICE);
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(TRANSACTION_READ_UNCOMMITTED);
+        connection.close();
+
+        TestingConnection physical = connections.getOpened().get(0);
+        assertEquals(physical.getRollbacks(), 1);
+        assertTrue(physical.isAutoCommit());
+        assertEquals(physical.getTransactionIsolation(), TRANSACTION_READ_COMMITTED);
+    }
+
+    @Test
+    public void testResetRefreshAgeOnRelease()
+            throws Exception
+    {
+        TestingConnections connections = new TestingConnections();
+        DB2PoolingConnectionFactory factory = new DB2PoolingConnectionFactory(connections::open, new DB2Config(), new DB2ConnectionPoolStats(), new TestingTicker());
+        factory.openConnection(ALICE).close();
+        assertEquals(connections.getOpened().get(0).getStatements(), List.of());
+
+        connections = new TestingConnections();
+        factory = new DB2PoolingConnectionFactory(connections::open, new DB2Config().setMqtRoutingEnabled(true), new DB2ConnectionPoolStats(), new TestingTicker());
+        factory.openConnection(ALICE).close();
+        assertEquals(connections.getOpened().get(0).getStatements(), List.of("SET CURRENT REFRESH AGE 0"));
+    }
+
+    @Test
+    public void testValidationOnBorrow()
+            throws Exception
+    {
+        TestingConnections connections = new TestingConnections();
+        DB2ConnectionPoolStats stats = new DB2ConnectionPoolStats();
+        DB2PoolingConnectionFactory factory = new DB2PoolingConnectionFactory(connections::open, new DB2Config(), stats, new TestingTicker());
+
+        factory.openConnection(ALICE).close();
+        connections.getOpened().get(0).setValid(false);
+
+        factory.openConnection(ALICE).close();
+        assertEquals(connections.getOpened().size(), 2);
+        assertTrue(connections.getOpened().get(0).isClosed());
+        assertEquals(stats.getValidationFailures().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testExpiration()
+            throws Exception
+    {
+        TestingConnections connections = new TestingConnections();
+        TestingTicker ticker = new TestingTicker();
+        DB2Config config = new DB2Config()
+                .setConnectionPoolIdleTimeout(new Duration(10, MINUTES))
+                .setConnectionPoolMaxConnectionLifetime(new Duration(30, MINUTES));
+        DB2PoolingConnectionFactory factory = new DB2PoolingConnectionFactory(connections::open, config, new DB2ConnectionPoolStats(), ticker);
+
+        // idle connections are evicted
+        factory.openConnection(ALICE).close();
+        ticker.advance(11, MINUTES);
+        factory.evictExpiredConnections();
+        assertTrue(connections.getOpened().get(0).isClosed());
+
+        // connections are not reused past their lifetime, even when in use
+        Connection connection = factory.openConnection(ALICE);
+        for (int i = 0; i < 4; i++) {
+            ticker.advance(8, MINUTES);
+            connection.close();
+            connection = factory.openConnection(ALICE);
+        }
+        connection.close();
+        assertEquals(connections.getOpened().size(), 3);
+        assertTrue(connections.getOpened().get(1).isClosed());
+        assertFalse(connections.getOpened().get(2).isClosed());
+    }
+
+    @Test
+    public void testMaxSize()
+            throws Exception
+    {
+        TestingConnections connections = new TestingConnections();
+        DB2ConnectionPoolStats stats = new DB2ConnectionPoolStats();
+        DB2Config config = new DB2Config()
+                .setConnectionPoolMaxSize(2)
+                .setConnectionPoolAcquireTimeout(new Duration(10, MILLISECONDS));
+        DB2PoolingConnectionFactory factory = new DB2PoolingConnectionFactory(connections::open, config, stats, new TestingTicker());
+
+        Connection first = factory.openConnection(ALICE);
+        factory.openConnection(ALICE);
+
+        // an unpooled connection is opened when all pooled connections stay in use
+        Connection unpooled = factory.openConnection(ALICE);
+        assertEquals(stats.getAcquireTimeouts().getTotalCount(), 1);
+        assertEquals(stats.getActiveConnections(), 2);
+        assertEquals(connections.getOpened().size(), 3);
+        unpooled.close();
+        assertTrue(connections.getOpened().get(2).isClosed());
+        assertEquals(stats.getIdleConnections(), 0);
+
+        first.close();
+        factory.openConnection(ALICE);
+        assertEquals(connections.getOpened().size(), 3);
+    }
+
+    private static ConnectorSession session(ConnectorIdentity identity)
+    {
+        return TestingConnectorSession.builder()
+                .setIdentity(identity)
+                .build();
+    }
+
+    private static class TestingConnections
+    {
+        private final List<TestingConnection> opened = new ArrayList<>();
+
+        public synchronized Connection open(ConnectorSession session)
+        {
+            TestingConnection connection = new TestingConnection();
+            opened.add(connection);
+            return connection.asConnection();
+        }
+
+        public synchronized List<TestingConnection> getOpened()
+        {
+            return opened;
+        }
+    }
+
+    private static class TestingConnection
+            implements InvocationHandler
+    {
+        private boolean closed;
+        private boolean valid = true;
+        private boolean autoCommit = true;
+        private int transactionIsolation = TRANSACTION_READ_COMMITTED;
+        private int rollbacks;
+        private final List<String> statements = new ArrayList<>();
+
+        public Connection asConnection()
+        {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, this);
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args)
+                throws SQLException
+        {
+            switch (method.getName()) {
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "isValid":
+                    return valid && !closed;
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    autoCommit = (boolean) args[0];
+                    return null;
+                case "rollback":
+                    rollbacks++;
+                    return null;
+                case "getTransactionIsolation":
+                    return transactionIsolation;
+                case "setTransactionIsolation":
+                    transactionIsolation = (int) args[0];
+                    return null;
+                case "isReadOnly":
+                    return false;
+                case "clearWarnings":
+                    return null;
+                case "createStatement":
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Statement.class}, (statement, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().equals("execute")) {
+                            synchronized (this) {
+                                statements.add((String) statementArgs[0]);
+                            }
+                            return false;
+                        }
+                        return null;
+                    });
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+            }
+            throw new SQLException("Unsupported: " + method.getName());
+        }
+
+        public synchronized boolean isClosed()
+        {
+            return closed;
+        }
+
+        public synchronized void setValid(boolean valid)
+        {
+            this.valid = valid;
+        }
+
+        public synchronized boolean isAutoCommit()
+        {
+            return autoCommit;
+        }
+
+        public synchronized int getTransactionIsolation()
+        {
+            return transactionIsolation;
+        }
+
+        public synchronized int getRollbacks()
+        {
+            return rollbacks;
+        }
+
+        public synchronized List<String> getStatements()
+        {
+            return List.copyOf(statements);
+        }
+    }
+
+    private static class TestingTicker
+            extends Ticker
+    {
+        private final AtomicLong time = new AtomicLong();
+
+        @Override
+        public long read()
+        {
+            return time.get();
+        }
+
+        public void advance(long value, TimeUnit unit)
+        {
+            time.addAndGet(unit.toNanos(value));
+        }
+    }
+}
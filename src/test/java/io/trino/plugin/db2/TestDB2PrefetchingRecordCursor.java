@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.plugin.jdbc.TypeHandlingJdbcConfig;
+import io.trino.plugin.jdbc.TypeHandlingJdbcSessionProperties;
+import io.trino.spi.TrinoException;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.RecordCursor;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.session.PropertyMetadata;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.trino.plugin.db2.DB2SessionProperties.FETCH_SIZE;
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class TestDB2PrefetchingRecordCursor
+{
+    private static final JdbcTableHandle TABLE = new JdbcTableHandle(
+            new SchemaTableName("sales", "orders"),
+            new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+            Optional.empty());
+    private static final List<JdbcColumnHandle> COLUMNS = ImmutableList.of(column("c_bigint"), column("c_varchar"));
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-prefetch-%s"));
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadRows()
+    {
+        Object[][] rows = {{1L, "a"}, {null, "b"}, {3L, null}, {4L, "d"}, {5L, "e"}};
+        List<String> calls = new CopyOnWriteArrayList<>();
+        try (RecordCursor cursor = cursor(rows, -1, calls, 1)) {
+            for (Object[] row : rows) {
+                assertTrue(cursor.advanceNextPosition());
+                assertTrue(cursor.getMemoryUsage() > 0);
+                if (row[0] == null) {
+                    assertTrue(cursor.isNull(0));
+                }
+                else {
+                    assertFalse(cursor.isNull(0));
+                    assertEquals(cursor.getLong(0), (long) row[0]);
+                }
+                if (row[1] == null) {
+                    assertTrue(cursor.isNull(1));
+                }
+                else {
+                    assertFalse(cursor.isNull(1));
+                    assertEquals(cursor.getSlice(1).toStringUtf8(), row[1]);
+                }
+            }
+            assertFalse(cursor.advanceNextPosition());
+            assertFalse(cursor.advanceNextPosition());
+            assertTrue(cursor.getCompletedBytes() > 0);
+        }
+        assertTrue(calls.contains("setFetchSize 2"));
+        assertFalse(calls.contains("cancel"));
+    }
+
+    @Test
+    public void testFailure()
+    {
+        Object[][] rows = {{1L, "a"}, {2L, "b"}, {3L, "c"}};
+        try (RecordCursor cursor = cursor(rows, 2, new CopyOnWriteArrayList<>(), 4)) {
+            assertTrue(cursor.advanceNextPosition());
+            assertTrue(cursor.advanceNextPosition());
+            TrinoException exception = expectThrows(TrinoException.class, cursor::advanceNextPosition);
+            assertEquals(exception.getCause().getMessage(), "Connection reset");
+        }
+    }
+
+    @Test
+    public void testCloseBeforeEnd()
+    {
+        Object[][] rows = new Object[100][];
+        Arrays.fill(rows, new Object[] {1L, "a"});
+        List<String> calls = new CopyOnWriteArrayList<>();
+        RecordCursor cursor = cursor(rows, -1, calls, 1);
+        assertTrue(cursor.advanceNextPosition());
+        cursor.close();
+        assertFalse(cursor.advanceNextPosition());
+        assertEquals(cursor.getMemoryUsage(), 0);
+        assertTrue(calls.contains("cancel"));
+    }
+
+    @Test
+    public void testScanStats()
+    {
+        Object[][] rows = {{1L, "a"}, {2L, "b"}, {3L, "c"}, {4L, "d"}, {5L, "e"}};
+        DB2ScanStats scanStats = new DB2ScanStats();
+        try (RecordCursor cursor = cursor(rows, -1, new CopyOnWriteArrayList<>(), 4, scanStats)) {
+            while (cursor.advanceNextPosition()) {
+                assertFalse(cursor.isNull(0));
+            }
+        }
+        assertEquals(scanStats.getConnectionOpenTime().getAllTime().getCount(), 1.0);
+        assertEquals(scanStats.getPrepareTime().getAllTime().getCount(), 1.0);
+        assertEquals(scanStats.getExecuteTime().getAllTime().getCount(), 1.0);
+        assertEquals(scanStats.getFetchTimePerSplit().getAllTime().getCount(), 1.0);
+        assertEquals(scanStats.getConversionTimePerSplit().getAllTime().getCount(), 1.0);
+        // fetches of 2 rows, the last one returning the end of the rows
+        assertEquals(scanStats.getFetchBatchesPerSplit().getAllTime().getTotal(), 3.0);
+        assertEquals(scanStats.getRows().getTotalCount(), 5);
+        assertTrue(scanStats.getBytes().getTotalCount() > 0);
+    }
+
+    private RecordCursor cursor(Object[][] rows, int failingRow, List<String> calls, int maxBufferedPages)
+    {
+        return cursor(rows, failingRow, calls, maxBufferedPages, new DB2ScanStats());
+    }
+
+    private RecordCursor cursor(Object[][] rows, int failingRow, List<String> calls, int maxBufferedPages, DB2ScanStats scanStats)
+    {
+        DB2Config config = new DB2Config();
+        DB2Client client = TestDB2Client.createClient(config, session -> connection(rows, failingRow, calls));
+        ConnectorSession session = TestingConnectorSession.builder()
+                .setPropertyMetadata(ImmutableList.<PropertyMetadata<?>>builder()
+                        .addAll(new TypeHandlingJdbcSessionProperties(new TypeHandlingJdbcConfig()).getSessionProperties())
+                        .addAll(new DB2SessionProperties(config).getSessionProperties())
+                        .build())
+                .setPropertyValues(ImmutableMap.of(FETCH_SIZE, 2))
+                .build();
+        return new DB2PrefetchingRecordCursor(client, session, new JdbcSplit(Optional.empty()), TABLE, COLUMNS, executor, maxBufferedPages, new DB2FetchStats(), scanStats, Optional.empty());
+    }
+
+    private static Connection connection(Object[][] rows, int failingRow, List<String> calls)
+    {
+        return (Connection) Proxy.newProxyInstance(TestDB2PrefetchingRecordCursor.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return statement(rows, failingRow, calls);
+                case "getTransactionIsolation":
+                    return Connection.TRANSACTION_READ_UNCOMMITTED;
+                case "setReadOnly":
+                case "close":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static PreparedStatement statement(Object[][] rows, int failingRow, List<String> calls)
+    {
+        return (PreparedStatement) Proxy.newProxyInstance(TestDB2PrefetchingRecordCursor.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setFetchSize":
+                    calls.add("setFetchSize " + args[0]);
+                    return null;
+                case "executeQuery":
+                    return resultSet(rows, failingRow);
+                case "cancel":
+                    calls.add("cancel");
+                    return null;
+                case "close":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static ResultSet resultSet(Object[][] rows, int failingRow)
+    {
+        int[] row = {-1};
+        Object[] lastValue = new Object[1];
+        return (ResultSet) Proxy.newProxyInstance(TestDB2PrefetchingRecordCursor.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    row[0]++;
+                    if (row[0] == failingRow) {
+                        throw new SQLException("Connection reset");
+                    }
+                    return row[0] < rows.length;
+                case "getLong":
+                    lastValue[0] = rows[row[0]][(int) args[0] - 1];
+                    return lastValue[0] == null ? 0L : lastValue[0];
+                case "getObject":
+                case "getString":
+                    lastValue[0] = rows[row[0]][(int) args[0] - 1];
+                    return lastValue[0];
+                case "wasNull":
+                    return lastValue[0] == null;
+                case "close":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
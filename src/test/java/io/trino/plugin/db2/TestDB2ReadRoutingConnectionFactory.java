@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import io.trino.plugin.jdbc.ConnectionFactory;
+import io.trino.spi.connector.ConnectorSession;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.trino.testing.TestingConnectorSession.SESSION;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2ReadRoutingConnectionFactory
+{
+    private static final DB2Config CONFIG = new DB2Config()
+            .setReadEndpointsFailureThreshold(2)
+            .setReadEndpointsRetryDelay(new Duration(30, SECONDS));
+
+    @Test
+    public void testNoReadEndpoints()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        StandInEndpoint primary = new StandInEndpoint(ticker, 1);
+        DB2ReadRoutingConnectionFactory factory = new DB2ReadRoutingConnectionFactory(primary, ImmutableMap.of(), CONFIG, ticker, new Random(1));
+
+        assertSame(factory.openConnection(SESSION), primary.connection);
+        assertEquals(factory.getPrimaryFallbacks().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testWeightedByLatency()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        StandInEndpoint primary = new StandInEndpoint(ticker, 1);
+        StandInEndpoint fast = new StandInEndpoint(ticker, 2);
+        StandInEndpoint slow = new StandInEndpoint(ticker, 20);
+        DB2ReadRoutingConnectionFactory factory = new DB2ReadRoutingConnectionFactory(
+                primary,
+                ImmutableMap.of("jdbc:db2://fast:50000/sample", fast, "jdbc:db2://slow:50000/sample", slow),
+                CONFIG,
+                ticker,
+                new Random(1));
+
+        for (int i = 0; i < 1000; i++) {
+            factory.openConnection(SESSION);
+        }
+        assertEquals(primary.opens, 0);
+        assertEquals(fast.opens + slow.opens, 1000);
+        // the fast endpoint is ten times faster, and gets about ten times the connections
+        assertTrue(fast.opens > 5 * slow.opens, "fast: " + fast.opens + ", slow: " + slow.opens);
+        assertTrue(slow.opens > 0);
+    }
+
+    @Test
+    public void testCircuitBreaker()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        StandInEndpoint primary = new StandInEndpoint(ticker, 1);
+        StandInEndpoint standby = new StandInEndpoint(ticker, 1);
+        DB2ReadRoutingConnectionFactory factory = new DB2ReadRoutingConnectionFactory(
+                primary,
+                ImmutableMap.of("jdbc:db2://standby:50000/sample", standby),
+                CONFIG,
+                ticker,
+                new Random(1));
+
+        standby.failing = true;
+        // a failed connection falls back to the primary, and the standby is retried until it failed twice in a row
+        assertSame(factory.openConnection(SESSION), primary.connection);
+        // connections to the primary are not read-only, they are reused for writes and metadata
+        assertFalse(primary.readOnly);
+        assertEquals(factory.getAvailableEndpointUrls(), List.of("jdbc:db2://standby:50000/sample"));
+        assertSame(factory.openConnection(SESSION), primary.connection);
+        assertEquals(factory.getAvailableEndpointUrls(), List.of());
+        assertEquals(standby.opens, 2);
+
+        // the standby is not tried again before the retry delay expires
+        standby.failing = false;
+        assertSame(factory.openConnection(SESSION), primary.connection);
+        assertEquals(standby.opens, 2);
+        assertEquals(factory.getPrimaryFallbacks().getTotalCount(), 3);
+        assertEquals(factory.getEndpointFailures().getTotalCount(), 2);
+
+        ticker.advance(30, SECONDS);
+        assertSame(factory.openConnection(SESSION), standby.connection);
+        assertSame(factory.openConnection(SESSION), standby.connection);
+        assertEquals(factory.getAvailableEndpointUrls(), List.of("jdbc:db2://standby:50000/sample"));
+    }
+
+    @Test
+    public void testFailover()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        StandInEndpoint primary = new StandInEndpoint(ticker, 1);
+        StandInEndpoint member1 = new StandInEndpoint(ticker, 1);
+        StandInEndpoint member2 = new StandInEndpoint(ticker, 1);
+        DB2ReadRoutingConnectionFactory factory = new DB2ReadRoutingConnectionFactory(
+                primary,
+                ImmutableMap.of("jdbc:db2://member1:50000/sample", member1, "jdbc:db2://member2:50000/sample", member2),
+                CONFIG,
+                ticker,
+                new Random(1));
+
+        member1.failing = true;
+        for (int i = 0; i < 20; i++) {
+            assertSame(factory.openConnection(SESSION), member2.connection);
+        }
+        assertEquals(primary.opens, 0);
+        assertTrue(member2.readOnly);
+        assertEquals(factory.getAvailableEndpointUrls(), List.of("jdbc:db2://member2:50000/sample"));
+    }
+
+    // Stand-in for a Db2 server, which takes a fixed time to open a connection
+    private static class StandInEndpoint
+            implements ConnectionFactory
+    {
+        private final TestingTicker ticker;
+        private final long latencyMillis;
+        private boolean readOnly;
+        private final Connection connection = (Connection) Proxy.newProxyInstance(
+                TestDB2ReadRoutingConnectionFactory.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("setReadOnly")) {
+                        readOnly = (boolean) args[0];
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        private int opens;
+        private boolean failing;
+
+        public StandInEndpoint(TestingTicker ticker, long latencyMillis)
+        {
+            this.ticker = ticker;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Connection openConnection(ConnectorSession session)
+                throws SQLException
+        {
+            opens++;
+            ticker.advance(latencyMillis, MILLISECONDS);
+            if (failing) {
+                throw new SQLException("Connection refused");
+            }
+            return connection;
+        }
+    }
+
+    private static class TestingTicker
+            extends Ticker
+    {
+        private final AtomicLong time = new AtomicLong();
+
+        @Override
+        public long read()
+        {
+            return time.get();
+        }
+
+        public void advance(long value, TimeUnit unit)
+        {
+            time.addAndGet(unit.toNanos(value));
+        }
+    }
+}
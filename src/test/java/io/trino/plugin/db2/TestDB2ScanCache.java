@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.trino.plugin.db2.DB2ScanCache.ScanKey;
+import io.trino.plugin.db2.DB2ScanCache.ScanRecorder;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.Page;
+import io.trino.spi.block.LongArrayBlock;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.security.ConnectorIdentity;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.trino.plugin.db2.DB2IsolationLevel.CS;
+import static io.trino.plugin.db2.DB2IsolationLevel.UR;
+import static io.trino.plugin.db2.DB2SessionProperties.READ_ISOLATION;
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2ScanCache
+{
+    private static final JdbcTableHandle ORDERS = new JdbcTableHandle(
+            new SchemaTableName("sales", "orders"),
+            new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+            Optional.empty());
+    private static final JdbcTableHandle CUSTOMERS = new JdbcTableHandle(
+            new SchemaTableName("sales", "customers"),
+            new RemoteTableName(Optional.empty(), Optional.of("SALES"), "CUSTOMERS"),
+            Optional.empty());
+    private static final List<JdbcColumnHandle> COLUMNS = ImmutableList.of(column("c_bigint"));
+    private static final JdbcSplit SPLIT = new JdbcSplit(Optional.empty());
+
+    private static final DB2Config CONFIG = new DB2Config()
+            .setScanCacheTables("SALES.ORDERS")
+            .setScanCacheVersionCheckInterval(new Duration(1, MINUTES))
+            .setScanCacheMaxEntrySize(DataSize.of(4, KILOBYTE));
+
+    @Test
+    public void testVersion()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AtomicInteger loads = new AtomicInteger();
+        DB2ScanCache scanCache = new DB2ScanCache(CONFIG, ignored -> null, (connection, table) -> "v" + loads.incrementAndGet(), ticker);
+        ConnectorSession session = session("alice");
+
+        assertEquals(scanCache.getVersion(session, ORDERS), Optional.of("v1/0.0"));
+        assertEquals(scanCache.getVersion(session, ORDERS), Optional.of("v1/0.0"));
+        // tables not listed are not cached
+        assertEquals(scanCache.getVersion(session, CUSTOMERS), Optional.empty());
+
+        ticker.advance(2, MINUTES);
+        assertEquals(scanCache.getVersion(session, ORDERS), Optional.of("v2/0.0"));
+
+        scanCache.flush("sales");
+        assertEquals(scanCache.getVersion(session, ORDERS), Optional.of("v3/0.1"));
+        scanCache.flush();
+        assertEquals(scanCache.getVersion(session, ORDERS), Optional.of("v4/1.1"));
+        // writes to tables not listed leave the version of the cached tables alone
+        scanCache.flush(new SchemaTableName("sales", "customers"));
+        assertEquals(scanCache.getVersion(session, ORDERS), Optional.of("v4/1.1"));
+        assertEquals(loads.get(), 4);
+    }
+
+    @Test
+    public void testRecordScan()
+    {
+        DB2ScanCache scanCache = new DB2ScanCache(CONFIG, ignored -> null, (connection, table) -> "v1", Ticker.systemTicker());
+        ScanKey key = new ScanKey(session("alice"), ORDERS, COLUMNS, SPLIT, "v1");
+        assertEquals(scanCache.getPages(key), Optional.empty());
+
+        ScanRecorder recorder = scanCache.recordScan(key);
+        recorder.recordPage(page(1, 2, 3));
+        recorder.recordPage(page(4));
+        assertTrue(recorder.getRetainedBytes() > 0);
+        // not cached before the scan completes
+        assertEquals(scanCache.getPages(key), Optional.empty());
+        recorder.finish();
+        assertEquals(recorder.getRetainedBytes(), 0);
+
+        List<Page> pages = scanCache.getPages(key).orElseThrow();
+        assertEquals(pages.size(), 2);
+        assertEquals(pages.get(0).getPositionCount(), 3);
+        assertEquals(pages.get(1).getPositionCount(), 1);
+
+        // other users, isolation levels, predicates and versions are cached separately
+        assertEquals(scanCache.getPages(new ScanKey(session("bob"), ORDERS, COLUMNS, SPLIT, "v1")), Optional.empty());
+        assertEquals(scanCache.getPages(new ScanKey(session("alice", CS), ORDERS, COLUMNS, SPLIT, "v1")), Optional.empty());
+        assertTrue(scanCache.getPages(new ScanKey(session("alice", UR), ORDERS, COLUMNS, SPLIT, "v1")).isPresent());
+        assertEquals(scanCache.getPages(new ScanKey(session("alice"), ORDERS, COLUMNS, new JdbcSplit(Optional.of("\"c_bigint\" = 1")), "v1")), Optional.empty());
+        assertEquals(scanCache.getPages(new ScanKey(session("alice"), ORDERS, COLUMNS, SPLIT, "v2")), Optional.empty());
+
+        scanCache.flush(new SchemaTableName("sales", "orders"));
+        assertEquals(scanCache.getPages(key), Optional.empty());
+    }
+
+    @Test
+    public void testScanTooLarge()
+    {
+        DB2ScanCache scanCache = new DB2ScanCache(CONFIG, ignored -> null, (connection, table) -> "v1", Ticker.systemTicker());
+        ScanKey key = new ScanKey(session("alice"), ORDERS, COLUMNS, SPLIT, "v1");
+        ScanRecorder recorder = scanCache.recordScan(key);
+        recorder.recordPage(page(new long[1024]));
+        assertEquals(recorder.getRetainedBytes(), 0);
+        recorder.recordPage(page(1));
+        recorder.finish();
+        assertFalse(scanCache.getPages(key).isPresent());
+    }
+
+    private static Page page(long... values)
+    {
+        return new Page(new LongArrayBlock(values.length, Optional.empty(), values));
+    }
+
+    private static ConnectorSession session(String user)
+    {
+        return session(user, CONFIG.getReadIsolation());
+    }
+
+    private static ConnectorSession session(String user, DB2IsolationLevel readIsolation)
+    {
+        return TestingConnectorSession.builder()
+                .setIdentity(ConnectorIdentity.ofUser(user))
+                .setPropertyMetadata(new DB2SessionProperties(CONFIG).getSessionProperties())
+                .setPropertyValues(ImmutableMap.of(READ_ISOLATION, readIsolation))
+                .build();
+    }
+
+    private static class TestingTicker
+            extends Ticker
+    {
+        private final AtomicLong time = new AtomicLong();
+
+        @Override
+        public long read()
+        {
+            return time.get();
+        }
+
+        public void advance(long value, TimeUnit unit)
+        {
+            time.addAndGet(unit.toNanos(value));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.JdbcMetadataConfig;
+import io.trino.plugin.jdbc.JdbcMetadataSessionProperties;
+import io.trino.plugin.jdbc.JdbcSplit;
+import io.trino.plugin.jdbc.JdbcSplitManager;
+import io.trino.plugin.jdbc.JdbcTableHandle;
+import io.trino.plugin.jdbc.JdbcTransactionHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.connector.ColumnHandle;
+import io.trino.spi.connector.ConnectorSession;
+import io.trino.spi.connector.ConnectorSplitSource;
+import io.trino.spi.connector.ConnectorSplitSource.ConnectorSplitBatch;
+import io.trino.spi.connector.Constraint;
+import io.trino.spi.connector.DynamicFilter;
+import io.trino.spi.connector.SchemaTableName;
+import io.trino.spi.predicate.Domain;
+import io.trino.spi.predicate.TupleDomain;
+import io.trino.spi.session.PropertyMetadata;
+import io.trino.testing.TestingConnectorSession;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.trino.plugin.db2.DB2SessionProperties.DYNAMIC_FILTERING_ENABLED;
+import static io.trino.plugin.db2.DB2SessionProperties.DYNAMIC_FILTERING_WAIT_TIMEOUT;
+import static io.trino.plugin.db2.DB2SessionProperties.SCAN_CACHE_ENABLED;
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static io.trino.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static io.trino.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDB2SplitManager
+{
+    private static final JdbcTableHandle TABLE = new JdbcTableHandle(
+            new SchemaTableName("sales", "orders"),
+            new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS"),
+            Optional.empty());
+    private static final JdbcColumnHandle COLUMN = column("c_bigint");
+
+    @Test
+    public void testWaitForDynamicFilter()
+    {
+        TestingDynamicFilter dynamicFilter = new TestingDynamicFilter();
+        ConnectorSplitSource splitSource = getSplits(dynamicFilter, ImmutableMap.of());
+
+        CompletableFuture<ConnectorSplitBatch> blocked = splitSource.getNextBatch(NOT_PARTITIONED, 100);
+        assertFalse(blocked.isDone());
+        dynamicFilter.complete(TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN, Domain.multipleValues(BIGINT, List.of(1L, 2L)))));
+        assertTrue(getFutureValue(blocked).getSplits().isEmpty());
+        assertFalse(getFutureValue(blocked).isNoMoreSplits());
+
+        ConnectorSplitBatch batch = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 100));
+        assertEquals(additionalPredicates(batch), List.of(Optional.of("\"c_bigint\" IN (1, 2)")));
+        assertTrue(batch.isNoMoreSplits());
+    }
+
+    @Test
+    public void testFilteredTable()
+    {
+        // a filter pushed down as an expression, e.g. LIKE, does not prevent dynamic filtering
+        JdbcTableHandle filtered = new JdbcTableHandle(
+                TABLE.getRelationHandle(),
+                TupleDomain.all(),
+                ImmutableList.of("\"c_varchar\" LIKE '%a%'"),
+                Optional.empty(),
+                OptionalLong.empty(),
+                Optional.empty(),
+                Optional.of(Set.of()),
+                0);
+        TestingDynamicFilter dynamicFilter = new TestingDynamicFilter();
+        dynamicFilter.complete(TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN, Domain.singleValue(BIGINT, 1L))));
+        ConnectorSplitBatch batch = getFutureValue(getSplits(filtered, dynamicFilter, ImmutableMap.of()).getNextBatch(NOT_PARTITIONED, 100));
+        assertEquals(additionalPredicates(batch), List.of(Optional.of("\"c_bigint\" = 1")));
+
+        // a pushed down limit is evaluated by a single query
+        JdbcTableHandle limited = new JdbcTableHandle(
+                TABLE.getRelationHandle(),
+                TupleDomain.all(),
+                ImmutableList.of(),
+                Optional.empty(),
+                OptionalLong.of(10),
+                Optional.empty(),
+                Optional.of(Set.of()),
+                0);
+        batch = getFutureValue(getSplits(limited, dynamicFilter, ImmutableMap.of()).getNextBatch(NOT_PARTITIONED, 100));
+        assertEquals(additionalPredicates(batch), List.of(Optional.empty()));
+    }
+
+    @Test
+    public void testWaitTimeout()
+    {
+        ConnectorSplitSource splitSource = getSplits(new TestingDynamicFilter(), ImmutableMap.of(DYNAMIC_FILTERING_WAIT_TIMEOUT, "0s"));
+        ConnectorSplitBatch batch = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 100));
+        assertEquals(additionalPredicates(batch), List.of(Optional.empty()));
+    }
+
+    @Test
+    public void testNoMatchingRows()
+    {
+        TestingDynamicFilter dynamicFilter = new TestingDynamicFilter();
+        dynamicFilter.complete(TupleDomain.none());
+        ConnectorSplitSource splitSource = getSplits(dynamicFilter, ImmutableMap.of());
+        ConnectorSplitBatch batch = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 100));
+        assertTrue(batch.getSplits().isEmpty());
+        assertTrue(batch.isNoMoreSplits());
+        assertTrue(splitSource.isFinished());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        TestingDynamicFilter dynamicFilter = new TestingDynamicFilter();
+        ConnectorSplitSource splitSource = getSplits(dynamicFilter, ImmutableMap.of(DYNAMIC_FILTERING_ENABLED, false));
+        CompletableFuture<ConnectorSplitBatch> batch = splitSource.getNextBatch(NOT_PARTITIONED, 100);
+        assertTrue(batch.isDone());
+        assertEquals(additionalPredicates(getFutureValue(batch)), List.of(Optional.empty()));
+    }
+
+    @Test
+    public void testCachedScan()
+    {
+        DB2Config config = new DB2Config().setScanCacheTables("sales.orders");
+        DB2ScanCache scanCache = new DB2ScanCache(config, ignored -> null, (connection, table) -> "2021-03-04", Ticker.systemTicker());
+        DB2Client client = TestDB2Client.createClient(config);
+        DB2SplitManager splitManager = new DB2SplitManager(new JdbcSplitManager(client), client, scanCache);
+
+        ConnectorSplitSource splitSource = splitManager.getSplits(new JdbcTransactionHandle(), session(config, ImmutableMap.of()), TABLE, DynamicFilter.EMPTY, Constraint.alwaysTrue());
+        ConnectorSplitBatch batch = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 100));
+        assertEquals(((DB2CachedScanSplit) getOnlyElement(batch.getSplits())).getCacheVersion(), "2021-03-04/0.0");
+
+        scanCache.flush(new SchemaTableName("sales", "orders"));
+        splitSource = splitManager.getSplits(new JdbcTransactionHandle(), session(config, ImmutableMap.of()), TABLE, DynamicFilter.EMPTY, Constraint.alwaysTrue());
+        batch = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 100));
+        assertEquals(((DB2CachedScanSplit) getOnlyElement(batch.getSplits())).getCacheVersion(), "2021-03-04/0.1");
+
+        splitSource = splitManager.getSplits(new JdbcTransactionHandle(), session(config, ImmutableMap.of(SCAN_CACHE_ENABLED, false)), TABLE, DynamicFilter.EMPTY, Constraint.alwaysTrue());
+        batch = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 100));
+        assertFalse(getOnlyElement(batch.getSplits()) instanceof DB2CachedScanSplit);
+    }
+
+    private static ConnectorSplitSource getSplits(DynamicFilter dynamicFilter, Map<String, Object> properties)
+    {
+        return getSplits(TABLE, dynamicFilter, properties);
+    }
+
+    private static ConnectorSplitSource getSplits(JdbcTableHandle table, DynamicFilter dynamicFilter, Map<String, Object> properties)
+    {
+        DB2Config config = new DB2Config();
+        DB2Client client = TestDB2Client.createClient(config);
+        DB2SplitManager splitManager = new DB2SplitManager(new JdbcSplitManager(client), client, new DB2ScanCache(config, ignored -> {
+            throw new UnsupportedOperationException();
+        }));
+        return splitManager.getSplits(new JdbcTransactionHandle(), session(config, properties), table, dynamicFilter, Constraint.alwaysTrue());
+    }
+
+    private static ConnectorSession session(DB2Config config, Map<String, Object> properties)
+    {
+        return TestingConnectorSession.builder()
+                .setPropertyMetadata(ImmutableList.<PropertyMetadata<?>>builder()
+                        .addAll(new JdbcMetadataSessionProperties(new JdbcMetadataConfig(), Optional.empty()).getSessionProperties())
+                        .addAll(new DB2SessionProperties(config).getSessionProperties())
+                        .build())
+                .setPropertyValues(properties)
+                .build();
+    }
+
+    private static List<Optional<String>> additionalPredicates(ConnectorSplitBatch batch)
+    {
+        return batch.getSplits().stream()
+                .map(split -> ((JdbcSplit) split).getAdditionalPredicate())
+                .collect(toImmutableList());
+    }
+
+    private static class TestingDynamicFilter
+            implements DynamicFilter
+    {
+        private final CompletableFuture<?> blocked = new CompletableFuture<>();
+        private volatile TupleDomain<ColumnHandle> currentPredicate = TupleDomain.all();
+
+        public void complete(TupleDomain<ColumnHandle> predicate)
+        {
+            currentPredicate = predicate;
+            blocked.complete(null);
+        }
+
+        @Override
+        public Set<ColumnHandle> getColumnsCovered()
+        {
+            return Set.of(COLUMN);
+        }
+
+        @Override
+        public CompletableFuture<?> isBlocked()
+        {
+            return blocked;
+        }
+
+        @Override
+        public boolean isComplete()
+        {
+            return blocked.isDone();
+        }
+
+        @Override
+        public boolean isAwaitable()
+        {
+            return !blocked.isDone();
+        }
+
+        @Override
+        public TupleDomain<ColumnHandle> getCurrentPredicate()
+        {
+            return currentPredicate;
+        }
+    }
+}
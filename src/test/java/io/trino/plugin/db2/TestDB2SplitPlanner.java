@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.plugin.db2.DB2SplitPlanner.DataPartition;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static io.trino.plugin.db2.DB2SplitPlanner.dataPartitionPredicates;
+import static io.trino.plugin.db2.DB2SplitPlanner.mergeDataPartitions;
+import static io.trino.plugin.db2.DB2SplitPlanner.rangePredicates;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+
+public class TestDB2SplitPlanner
+{
+    @Test
+    public void testRangePredicates()
+    {
+        assertEquals(
+                rangePredicates("\"ID\"", 0, 99, 4, Long::toString),
+                ImmutableList.of(
+                        "(\"ID\" < 25 OR \"ID\" IS NULL)",
+                        "(\"ID\" >= 25 AND \"ID\" < 50)",
+                        "(\"ID\" >= 50 AND \"ID\" < 75)",
+                        "(\"ID\" >= 75)"));
+    }
+
+    @Test
+    public void testRangePredicatesNarrowRange()
+    {
+        assertEquals(
+                rangePredicates("\"ID\"", 10, 11, 8, Long::toString),
+                ImmutableList.of("(\"ID\" < 11 OR \"ID\" IS NULL)", "(\"ID\" >= 11)"));
+        assertEquals(rangePredicates("\"ID\"", 5, 5, 8, Long::toString), ImmutableList.of());
+    }
+
+    @Test
+    public void testRangePredicatesFullBigintRange()
+    {
+        assertEquals(
+                rangePredicates("\"ID\"", Long.MIN_VALUE, Long.MAX_VALUE, 2, Long::toString),
+                ImmutableList.of("(\"ID\" < 0 OR \"ID\" IS NULL)", "(\"ID\" >= 0)"));
+    }
+
+    @Test
+    public void testDateRangePredicates()
+    {
+        long min = LocalDate.of(2020, 1, 1).toEpochDay();
+        long max = LocalDate.of(2020, 12, 31).toEpochDay();
+        assertEquals(
+                rangePredicates("\"D\"", min, max, 2, epochDay -> format("DATE('%s')", LocalDate.ofEpochDay(epochDay))),
+                ImmutableList.of("(\"D\" < DATE('2020-07-02') OR \"D\" IS NULL)", "(\"D\" >= DATE('2020-07-02'))"));
+    }
+
+    @Test
+    public void testDataPartitionPredicates()
+    {
+        assertEquals(
+                dataPartitionPredicates(
+                        "SALE_DATE",
+                        ImmutableList.of(
+                                new DataPartition(true, "MINVALUE", false, "'2020-01-01'"),
+                                new DataPartition(true, "'2020-01-01'", false, "'2021-01-01'"),
+                                new DataPartition(true, "'2021-01-01'", true, "MAXVALUE"))),
+                ImmutableList.of(
+                        "(SALE_DATE < '2020-01-01')",
+                        "(SALE_DATE >= '2020-01-01' AND SALE_DATE < '2021-01-01')",
+                        "(SALE_DATE >= '2021-01-01' OR SALE_DATE IS NULL)"));
+    }
+
+    @Test
+    public void testDataPartitionPredicatesExclusiveBounds()
+    {
+        assertEquals(
+                dataPartitionPredicates(
+                        "ID",
+                        ImmutableList.of(
+                                new DataPartition(true, "0", true, "100"),
+                                new DataPartition(false, "100", true, "200"))),
+                ImmutableList.of(
+                        "(ID >= 0 AND ID <= 100)",
+                        "(ID > 100 AND ID <= 200 OR ID IS NULL)"));
+    }
+
+    @Test
+    public void testMergeDataPartitions()
+    {
+        List<DataPartition> partitions = ImmutableList.of(
+                new DataPartition(true, "MINVALUE", false, "100"),
+                new DataPartition(true, "100", false, "200"),
+                new DataPartition(true, "200", false, "300"),
+                new DataPartition(true, "300", false, "400"),
+                new DataPartition(true, "400", true, "MAXVALUE"));
+        assertEquals(
+                dataPartitionPredicates("ID", mergeDataPartitions(partitions, 2)),
+                ImmutableList.of(
+                        "(ID < 200)",
+                        "(ID >= 200 OR ID IS NULL)"));
+        assertEquals(
+                dataPartitionPredicates("ID", mergeDataPartitions(partitions, 3)),
+                ImmutableList.of(
+                        "(ID < 100)",
+                        "(ID >= 100 AND ID < 300)",
+                        "(ID >= 300 OR ID IS NULL)"));
+        assertEquals(mergeDataPartitions(partitions, 8), partitions);
+    }
+}
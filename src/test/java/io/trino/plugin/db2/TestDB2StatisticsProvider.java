@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.plugin.db2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import io.trino.plugin.db2.DB2StatisticsProvider.DB2ColumnStatistics;
+import io.trino.plugin.db2.DB2StatisticsProvider.DB2TableStatistics;
+import io.trino.plugin.jdbc.JdbcColumnHandle;
+import io.trino.plugin.jdbc.RemoteTableName;
+import io.trino.spi.statistics.ColumnStatistics;
+import io.trino.spi.statistics.DoubleRange;
+import io.trino.spi.statistics.Estimate;
+import io.trino.spi.statistics.TableStatistics;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.trino.plugin.db2.TestDB2Client.column;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.testng.Assert.assertEquals;
+
+public class TestDB2StatisticsProvider
+{
+    private static final RemoteTableName ORDERS = new RemoteTableName(Optional.empty(), Optional.of("SALES"), "ORDERS");
+    private static final List<JdbcColumnHandle> COLUMNS = ImmutableList.of(column("c_bigint"), column("c_varchar"), column("c_date"), column("c_double"));
+
+    // Stand-in for the SYSSTAT catalog after RUNSTATS WITH DISTRIBUTION
+    private static final DB2TableStatistics STATISTICS = new DB2TableStatistics(1000, ImmutableMap.of(
+            "c_bigint", new DB2ColumnStatistics(1000, 0, 8, Optional.of("2"), Optional.of("999"), Optional.of("1"), Optional.of("1000")),
+            "c_varchar", new DB2ColumnStatistics(20, 250, 12, Optional.of("'b'"), Optional.of("'y'"), Optional.empty(), Optional.empty()),
+            "c_date", new DB2ColumnStatistics(365, 10, 4, Optional.of("'2021-01-02'"), Optional.of("'2021-12-30'"), Optional.empty(), Optional.empty()),
+            // statistics of the column were not collected
+            "c_double", new DB2ColumnStatistics(-1, -1, -1, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())));
+
+    @Test
+    public void testTableStatistics()
+            throws Exception
+    {
+        DB2StatisticsProvider provider = new DB2StatisticsProvider(true, new Duration(1, HOURS));
+        TableStatistics statistics = provider.getTableStatistics(ORDERS, COLUMNS, table -> Optional.of(STATISTICS));
+
+        assertEquals(statistics.getRowCount(), Estimate.of(1000));
+
+        ColumnStatistics bigintStatistics = statistics.getColumnStatistics().get(column("c_bigint"));
+        assertEquals(bigintStatistics.getDistinctValuesCount(), Estimate.of(1000));
+        assertEquals(bigintStatistics.getNullsFraction(), Estimate.of(0));
+        assertEquals(bigintStatistics.getDataSize(), Estimate.unknown());
+        // the quantiles hold the lowest and highest values, LOW2KEY and HIGH2KEY the second ones
+        assertEquals(bigintStatistics.getRange(), Optional.of(new DoubleRange(1, 1000)));
+
+        ColumnStatistics varcharStatistics = statistics.getColumnStatistics().get(column("c_varchar"));
+        assertEquals(varcharStatistics.getDistinctValuesCount(), Estimate.of(20));
+        assertEquals(varcharStatistics.getNullsFraction(), Estimate.of(0.25));
+        assertEquals(varcharStatistics.getDataSize(), Estimate.of(12 * 750));
+        assertEquals(varcharStatistics.getRange(), Optional.empty());
+
+        ColumnStatistics dateStatistics = statistics.getColumnStatistics().get(column("c_date"));
+        assertEquals(dateStatistics.getRange(), Optional.of(new DoubleRange(
+                LocalDate.of(2021, 1, 2).toEpochDay(),
+                LocalDate.of(2021, 12, 30).toEpochDay())));
+
+        assertEquals(statistics.getColumnStatistics().get(column("c_double")), ColumnStatistics.empty());
+    }
+
+    @Test
+    public void testMissingStatistics()
+            throws Exception
+    {
+        DB2StatisticsProvider provider = new DB2StatisticsProvider(true, new Duration(1, HOURS));
+        assertEquals(provider.getTableStatistics(ORDERS, COLUMNS, table -> Optional.empty()), TableStatistics.empty());
+    }
+
+    @Test
+    public void testCaching()
+            throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        DB2StatisticsProvider provider = new DB2StatisticsProvider(true, new Duration(1, HOURS));
+        DB2StatisticsProvider.StatisticsLoader loader = table -> {
+            loads.incrementAndGet();
+            return Optional.of(STATISTICS);
+        };
+
+        provider.getTableStatistics(ORDERS, COLUMNS, loader);
+        provider.getTableStatistics(ORDERS, COLUMNS, loader);
+        assertEquals(loads.get(), 1);
+
+        provider.invalidate(ORDERS);
+        provider.getTableStatistics(ORDERS, COLUMNS, loader);
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        DB2StatisticsProvider provider = new DB2StatisticsProvider(false, new Duration(1, HOURS));
+        TableStatistics statistics = provider.getTableStatistics(ORDERS, COLUMNS, table -> {
+            loads.incrementAndGet();
+            return Optional.of(STATISTICS);
+        });
+        assertEquals(statistics, TableStatistics.empty());
+        assertEquals(loads.get(), 0);
+    }
+}